@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.benchmark
+
+import android.util.Log
+import android.view.LayoutInflater
+import android.widget.FrameLayout
+import androidx.appcompat.app.AppCompatActivity
+import androidx.appcompat.benchmark.test.R
+import androidx.appcompat.view.ContextThemeWrapper
+import androidx.appcompat.widget.ResourceManagerInternal
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Inflates tinted AppCompat widgets in a new themed Context on every iteration, as every new
+ * Activity does, to measure the drawables and tint lists shared between Contexts.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class DrawableCacheBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Suppress("DEPRECATION")
+    @get:Rule
+    val activityRule = androidx.test.rule.ActivityTestRule(AppCompatActivity::class.java)
+
+    @Test
+    fun inflateTintedWidgetsInNewContext() {
+        val activity = activityRule.activity
+        val root = FrameLayout(activity)
+        val resourceManager = ResourceManagerInternal.get()
+        benchmarkRule.measureRepeated {
+            val context = ContextThemeWrapper(activity, R.style.Theme_AppCompat)
+            LayoutInflater.from(context).inflate(R.layout.tinted_widgets, root, false)
+        }
+        Log.i(
+            TAG,
+            "Drawable cache hits: ${resourceManager.drawableCacheHitCount}, " +
+                "misses: ${resourceManager.drawableCacheMissCount}, " +
+                "tint list cache hits: ${resourceManager.tintListCacheHitCount}, " +
+                "misses: ${resourceManager.tintListCacheMissCount}"
+        )
+    }
+
+    companion object {
+        const val TAG = "DrawableCacheBenchmark"
+    }
+}
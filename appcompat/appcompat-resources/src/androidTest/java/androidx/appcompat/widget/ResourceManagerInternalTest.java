@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.view.ContextThemeWrapper;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ResourceManagerInternalTest {
+    private static final int RES_ID = android.R.drawable.ic_delete;
+
+    private ResourceManagerInternal mResourceManager;
+    private CountingHooks mHooks;
+
+    @Before
+    public void setUp() {
+        mResourceManager = new ResourceManagerInternal();
+        mHooks = new CountingHooks();
+        mResourceManager.setHooks(mHooks);
+    }
+
+    @Test
+    public void testTintListCachedForSameContext() {
+        final Context context = createContext(android.R.style.Theme_Light);
+        final ColorStateList first = mResourceManager.getTintList(context, RES_ID);
+        final ColorStateList second = mResourceManager.getTintList(context, RES_ID);
+
+        assertSame(first, second);
+        assertEquals(1, mHooks.mTintListCount);
+    }
+
+    @Test
+    @SdkSuppress(minSdkVersion = 29)
+    public void testTintListSharedBetweenContextsWithSameTheme() {
+        final ColorStateList first = mResourceManager.getTintList(
+                createContext(android.R.style.Theme_Light), RES_ID);
+        final ColorStateList second = mResourceManager.getTintList(
+                createContext(android.R.style.Theme_Light), RES_ID);
+
+        assertSame(first, second);
+        assertEquals(1, mHooks.mTintListCount);
+        assertEquals(1, mResourceManager.getTintListCacheHitCount());
+        assertEquals(1, mResourceManager.getTintListCacheMissCount());
+    }
+
+    @Test
+    public void testTintListNotSharedBetweenThemes() {
+        mResourceManager.getTintList(createContext(android.R.style.Theme_Light), RES_ID);
+        mResourceManager.getTintList(createContext(android.R.style.Theme), RES_ID);
+
+        assertEquals(2, mHooks.mTintListCount);
+        assertEquals(0, mResourceManager.getTintListCacheHitCount());
+    }
+
+    @Test
+    public void testTintListNotSharedWhenStyleAppliedToTheme() {
+        final ColorStateList first = mResourceManager.getTintList(
+                createContext(android.R.style.Theme_Light), RES_ID);
+        final Context context = createContext(android.R.style.Theme_Light);
+        // Any attribute of the theme may be used by a tinted drawable, such as the fill color
+        // of a vector, so a theme with an additional style doesn't share its entries.
+        context.getTheme().applyStyle(android.R.style.Theme_Black, true);
+        final ColorStateList second = mResourceManager.getTintList(context, RES_ID);
+
+        assertNotSame(first, second);
+        assertEquals(2, mHooks.mTintListCount);
+    }
+
+    private static Context createContext(int theme) {
+        return new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), theme);
+    }
+
+    private static class CountingHooks implements ResourceManagerInternal.ResourceManagerHooks {
+        int mTintListCount;
+
+        @Override
+        public Drawable createDrawableFor(@NonNull ResourceManagerInternal manager,
+                @NonNull Context context, int resId) {
+            return null;
+        }
+
+        @Override
+        public boolean tintDrawable(@NonNull Context context, int resId,
+                @NonNull Drawable drawable) {
+            return false;
+        }
+
+        @Override
+        public ColorStateList getTintListForDrawableRes(@NonNull Context context, int resId) {
+            mTintListCount++;
+            return ColorStateList.valueOf(Color.RED);
+        }
+
+        @Override
+        public boolean tintDrawableUsingColorFilter(@NonNull Context context, int resId,
+                @NonNull Drawable drawable) {
+            return false;
+        }
+
+        @Override
+        public PorterDuff.Mode getTintModeForDrawableRes(int resId) {
+            return null;
+        }
+    }
+}
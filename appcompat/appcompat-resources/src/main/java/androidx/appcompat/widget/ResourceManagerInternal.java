@@ -21,6 +21,7 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
@@ -39,7 +40,6 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.appcompat.graphics.drawable.AnimatedStateListDrawableCompat;
 import androidx.appcompat.resources.R;
-import androidx.collection.LongSparseArray;
 import androidx.collection.LruCache;
 import androidx.collection.SimpleArrayMap;
 import androidx.collection.SparseArrayCompat;
@@ -52,7 +52,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
+import java.util.Arrays;
 
 /**
  * @hide
@@ -109,14 +109,21 @@ public final class ResourceManagerInternal {
         }
     }
 
-    private static final ColorFilterLruCache COLOR_FILTER_CACHE = new ColorFilterLruCache(6);
+    private static final ColorFilterLruCache COLOR_FILTER_CACHE = new ColorFilterLruCache(32);
+
+    private static final int DRAWABLE_CACHE_SIZE = 64;
+    private static final int TINT_LIST_CACHE_SIZE = 64;
 
-    private WeakHashMap<Context, SparseArrayCompat<ColorStateList>> mTintLists;
     private SimpleArrayMap<String, InflateDelegate> mDelegates;
     private SparseArrayCompat<String> mKnownDrawableIdTags;
 
-    private final WeakHashMap<Context, LongSparseArray<WeakReference<ConstantState>>>
-            mDrawableCaches = new WeakHashMap<>(0);
+    // The caches are shared by all the Contexts, the theme and the configuration of a Context are
+    // part of the key of its entries. The drawables are weakly referenced, as they were when
+    // cached per Context.
+    private final LruCache<CacheKey, WeakReference<ConstantState>> mDrawableCache =
+            new LruCache<>(DRAWABLE_CACHE_SIZE);
+    private final LruCache<CacheKey, ColorStateList> mTintListCache =
+            new LruCache<>(TINT_LIST_CACHE_SIZE);
 
     private TypedValue mTypedValue;
 
@@ -156,17 +163,57 @@ public final class ResourceManagerInternal {
     }
 
     public synchronized void onConfigurationChanged(@NonNull Context context) {
-        LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-        if (cache != null) {
-            // Crude, but we'll just clear the cache when the configuration changes
-            cache.clear();
-        }
+        // Nothing to clear, the entries of the caches are keyed by configuration so the entries
+        // of the previous configuration are no longer used, and will be evicted.
+    }
+
+    /**
+     * Returns the number of times a drawable was found in the shared drawable cache.
+     */
+    public int getDrawableCacheHitCount() {
+        return mDrawableCache.hitCount();
+    }
+
+    /**
+     * Returns the number of times a drawable wasn't found in the shared drawable cache.
+     */
+    public int getDrawableCacheMissCount() {
+        return mDrawableCache.missCount();
+    }
+
+    /**
+     * Returns the number of times a tint list was found in the shared tint list cache.
+     */
+    public int getTintListCacheHitCount() {
+        return mTintListCache.hitCount();
+    }
+
+    /**
+     * Returns the number of times a tint list wasn't found in the shared tint list cache.
+     */
+    public int getTintListCacheMissCount() {
+        return mTintListCache.missCount();
     }
 
     private static long createCacheKey(TypedValue tv) {
         return (((long) tv.assetCookie) << 32) | tv.data;
     }
 
+    private static CacheKey createCacheKey(@NonNull Context context, long resourceKey) {
+        final Resources.Theme theme = context.getTheme();
+        if (theme != null && Build.VERSION.SDK_INT >= 29) {
+            // The styles applied to the theme, in the assets they were resolved from, identify it
+            // exactly, so the themes of two instances of an Activity share entries.
+            return new CacheKey(resourceKey, context.getAssets(),
+                    theme.getAttributeResolutionStack(0, 0, 0),
+                    context.getResources().getConfiguration());
+        }
+        // Otherwise there is no public identity of a theme besides the instance itself, which
+        // may be modified by any attribute, so entries are only shared by the same theme.
+        return new CacheKey(resourceKey, theme != null ? theme : context, null,
+                context.getResources().getConfiguration());
+    }
+
     private Drawable createDrawableIfNeeded(@NonNull Context context,
             @DrawableRes final int resId) {
         if (mTypedValue == null) {
@@ -174,7 +221,7 @@ public final class ResourceManagerInternal {
         }
         final TypedValue tv = mTypedValue;
         context.getResources().getValue(resId, tv, true);
-        final long key = createCacheKey(tv);
+        final CacheKey key = createCacheKey(context, createCacheKey(tv));
 
         Drawable dr = getCachedDrawable(context, key);
         if (dr != null) {
@@ -189,7 +236,7 @@ public final class ResourceManagerInternal {
         if (dr != null) {
             dr.setChangingConfigurations(tv.changingConfigurations);
             // If we reached here then we created a new drawable, add it to the cache
-            addDrawableToCache(context, key, dr);
+            addDrawableToCache(key, dr);
         }
 
         return dr;
@@ -251,7 +298,7 @@ public final class ResourceManagerInternal {
             final Resources res = context.getResources();
             res.getValue(resId, tv, true);
 
-            final long key = createCacheKey(tv);
+            final CacheKey key = createCacheKey(context, createCacheKey(tv));
 
             Drawable dr = getCachedDrawable(context, key);
             if (dr != null) {
@@ -290,7 +337,7 @@ public final class ResourceManagerInternal {
                     if (dr != null) {
                         // Add it to the drawable cache
                         dr.setChangingConfigurations(tv.changingConfigurations);
-                        if (addDrawableToCache(context, key, dr) && DEBUG) {
+                        if (addDrawableToCache(key, dr) && DEBUG) {
                             Log.i(TAG, "[loadDrawableFromDelegates] Saved drawable to cache: " +
                                     context.getResources().getResourceName(resId));
                         }
@@ -311,13 +358,8 @@ public final class ResourceManagerInternal {
     }
 
     private synchronized Drawable getCachedDrawable(@NonNull final Context context,
-            final long key) {
-        final LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-        if (cache == null) {
-            return null;
-        }
-
-        final WeakReference<ConstantState> wr = cache.get(key);
+            @NonNull final CacheKey key) {
+        final WeakReference<ConstantState> wr = mDrawableCache.get(key);
         if (wr != null) {
             // We have the key, and the secret
             ConstantState entry = wr.get();
@@ -325,22 +367,17 @@ public final class ResourceManagerInternal {
                 return entry.newDrawable(context.getResources());
             } else {
                 // Our entry has been purged
-                cache.remove(key);
+                mDrawableCache.remove(key);
             }
         }
         return null;
     }
 
-    private synchronized boolean addDrawableToCache(@NonNull final Context context, final long key,
+    private synchronized boolean addDrawableToCache(@NonNull final CacheKey key,
             @NonNull final Drawable drawable) {
         final ConstantState cs = drawable.getConstantState();
         if (cs != null) {
-            LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-            if (cache == null) {
-                cache = new LongSparseArray<>();
-                mDrawableCaches.put(context, cache);
-            }
-            cache.put(key, new WeakReference<>(cs));
+            mDrawableCache.put(key.copy(), new WeakReference<>(cs));
             return true;
         }
         return false;
@@ -390,24 +427,76 @@ public final class ResourceManagerInternal {
     }
 
     private ColorStateList getTintListFromCache(@NonNull Context context, @DrawableRes int resId) {
-        if (mTintLists != null) {
-            final SparseArrayCompat<ColorStateList> tints = mTintLists.get(context);
-            return tints != null ? tints.get(resId) : null;
-        }
-        return null;
+        return mTintListCache.get(createCacheKey(context, resId));
     }
 
     private void addTintListToCache(@NonNull Context context, @DrawableRes int resId,
             @NonNull ColorStateList tintList) {
-        if (mTintLists == null) {
-            mTintLists = new WeakHashMap<>();
+        mTintListCache.put(createCacheKey(context, resId).copy(), tintList);
+    }
+
+    /**
+     * Key of the shared caches: a resource, the theme it's loaded with and the configuration.
+     */
+    private static final class CacheKey {
+        final long mResourceKey;
+        // The instance identifying the theme: its assets when its styles are known, otherwise
+        // the theme itself. It is weakly referenced so that the caches don't leak a Context, and
+        // an entry whose instance was collected doesn't match any key and is evicted.
+        final WeakReference<Object> mThemeIdentity;
+        final int mThemeIdentityHash;
+        @Nullable
+        final int[] mThemeStyles;
+        final Configuration mConfiguration;
+
+        CacheKey(long resourceKey, @Nullable Object themeIdentity, @Nullable int[] themeStyles,
+                @NonNull Configuration configuration) {
+            this(resourceKey, new WeakReference<>(themeIdentity),
+                    System.identityHashCode(themeIdentity), themeStyles, configuration);
+        }
+
+        private CacheKey(long resourceKey, WeakReference<Object> themeIdentity,
+                int themeIdentityHash, @Nullable int[] themeStyles,
+                @NonNull Configuration configuration) {
+            mResourceKey = resourceKey;
+            mThemeIdentity = themeIdentity;
+            mThemeIdentityHash = themeIdentityHash;
+            mThemeStyles = themeStyles;
+            mConfiguration = configuration;
+        }
+
+        /**
+         * Returns a key which doesn't change when the configuration of the Context is updated.
+         */
+        CacheKey copy() {
+            return new CacheKey(mResourceKey, mThemeIdentity, mThemeIdentityHash, mThemeStyles,
+                    new Configuration(mConfiguration));
         }
-        SparseArrayCompat<ColorStateList> themeTints = mTintLists.get(context);
-        if (themeTints == null) {
-            themeTints = new SparseArrayCompat<>();
-            mTintLists.put(context, themeTints);
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) o;
+            final Object themeIdentity = mThemeIdentity.get();
+            return mResourceKey == other.mResourceKey
+                    && themeIdentity != null && themeIdentity == other.mThemeIdentity.get()
+                    && Arrays.equals(mThemeStyles, other.mThemeStyles)
+                    && mConfiguration.equals(other.mConfiguration);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (mResourceKey ^ (mResourceKey >>> 32));
+            result = 31 * result + mThemeIdentityHash;
+            result = 31 * result + Arrays.hashCode(mThemeStyles);
+            result = 31 * result + mConfiguration.hashCode();
+            return result;
         }
-        themeTints.append(resId, tintList);
     }
 
     private static class ColorFilterLruCache extends LruCache<Integer, PorterDuffColorFilter> {
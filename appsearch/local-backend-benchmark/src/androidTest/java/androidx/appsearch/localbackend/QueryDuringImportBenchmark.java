@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localbackend;
+
+import static org.junit.Assert.assertTrue;
+
+import androidx.appsearch.app.AppSearchBackend;
+import androidx.appsearch.app.AppSearchManager.PutDocumentsRequest;
+import androidx.appsearch.app.AppSearchManager.SetSchemaRequest;
+import androidx.appsearch.app.AppSearchResult;
+import androidx.appsearch.app.AppSearchSchema;
+import androidx.appsearch.app.AppSearchSchema.PropertyConfig;
+import androidx.appsearch.app.GenericDocument;
+import androidx.appsearch.app.SearchResults;
+import androidx.appsearch.app.SearchSpec;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Measures the latency of paging through query results of {@link LocalBackend}, alone and while
+ * another thread imports 100k documents.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class QueryDuringImportBenchmark {
+    private static final String DATABASE_NAME = "benchmark";
+    private static final String SCHEMA_TYPE = "Note";
+    private static final int QUERIED_DOCUMENT_COUNT = 100;
+    private static final int IMPORTED_DOCUMENT_COUNT = 100_000;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int PAGE_SIZE = 10;
+    private static final int PAGES_TO_READ = 5;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private LocalBackend mBackend;
+    private Thread mImportThread;
+    private volatile boolean mImporting;
+
+    @Before
+    public void setUp() {
+        mBackend = new LocalBackend.Builder(ApplicationProvider.getApplicationContext())
+                .build().getResultValue();
+        checkSuccess(mBackend.initialize());
+        checkSuccess(mBackend.resetAllDatabases());
+        AppSearchSchema schema = new AppSearchSchema.Builder(SCHEMA_TYPE)
+                .addProperty(new PropertyConfig.Builder("body")
+                        .setDataType(PropertyConfig.DATA_TYPE_STRING)
+                        .setCardinality(PropertyConfig.CARDINALITY_OPTIONAL)
+                        .setIndexingType(PropertyConfig.INDEXING_TYPE_PREFIXES)
+                        .setTokenizerType(PropertyConfig.TOKENIZER_TYPE_PLAIN)
+                        .build())
+                .build();
+        checkSuccess(mBackend.setSchema(DATABASE_NAME,
+                new SetSchemaRequest.Builder().addSchema(schema).build()));
+
+        PutDocumentsRequest.Builder request = new PutDocumentsRequest.Builder();
+        for (int i = 0; i < QUERIED_DOCUMENT_COUNT; i++) {
+            request.addGenericDocument(createDocument("queried" + i, "queried note " + i));
+        }
+        assertTrue(mBackend.putDocuments(DATABASE_NAME, request.build()).isSuccess());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (mImportThread != null) {
+            mImporting = false;
+            mImportThread.join();
+        }
+        checkSuccess(mBackend.resetAllDatabases());
+    }
+
+    @Test
+    public void query() throws Exception {
+        readPages();
+    }
+
+    @Test
+    public void query_duringImport() throws Exception {
+        mImporting = true;
+        mImportThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Keeps importing until the benchmark is done, later rounds replace the
+                // documents of the first one.
+                while (mImporting) {
+                    for (int start = 0; start < IMPORTED_DOCUMENT_COUNT && mImporting;
+                            start += IMPORT_BATCH_SIZE) {
+                        PutDocumentsRequest.Builder request = new PutDocumentsRequest.Builder();
+                        for (int i = start; i < start + IMPORT_BATCH_SIZE; i++) {
+                            request.addGenericDocument(
+                                    createDocument("imported" + i, "imported note " + i));
+                        }
+                        mBackend.putDocuments(DATABASE_NAME, request.build());
+                    }
+                }
+            }
+        }, "QueryDuringImportBenchmark");
+        mImportThread.start();
+        readPages();
+    }
+
+    private void readPages() throws Exception {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatchType(SearchSpec.TERM_MATCH_TYPE_PREFIX)
+                .setNumPerPage(PAGE_SIZE)
+                .build();
+        while (state.keepRunning()) {
+            AppSearchBackend.BackendSearchResults results =
+                    mBackend.query(DATABASE_NAME, "queried", searchSpec);
+            try {
+                for (int i = 0; i < PAGES_TO_READ; i++) {
+                    AppSearchResult<List<SearchResults.Result>> page = results.getNextPage();
+                    checkSuccess(page);
+                }
+            } finally {
+                results.close();
+            }
+        }
+    }
+
+    private static GenericDocument createDocument(String uri, String body) {
+        return new GenericDocument.Builder<>(uri, SCHEMA_TYPE)
+                .setProperty("body", body)
+                .build();
+    }
+
+    private static void checkSuccess(AppSearchResult<?> result) {
+        assertTrue(result.toString(), result.isSuccess());
+    }
+}
@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.junit.Assert.assertThrows;
 
+import androidx.appsearch.app.AppSearchBatchResult;
+import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.exceptions.AppSearchException;
 import androidx.test.core.app.ApplicationProvider;
 
@@ -40,6 +42,9 @@ import com.google.android.icing.proto.TermMatchType;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class AppSearchImplTest {
@@ -341,4 +346,223 @@ public class AppSearchImplTest {
         assertThat(mAppSearchImpl.getSchemaProto().getTypesList())
                 .containsExactlyElementsIn(exceptedProto.getTypesList());
     }
+
+    @Test
+    public void testPutDocuments_multipleChunks() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+
+        int count = AppSearchImpl.MAX_WRITE_CHUNK_SIZE * 2 + 1;
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+        }
+        // A document of an unknown type fails alone.
+        documents.add(DocumentProto.newBuilder()
+                .setUri("invalid")
+                .setSchema("unknownType")
+                .setNamespace("namespace")
+                .build());
+
+        AppSearchBatchResult<String, Void> result =
+                mAppSearchImpl.putDocuments("database", documents);
+        assertThat(result.getSuccesses()).hasSize(count);
+        assertThat(result.getFailures().keySet()).containsExactly("invalid");
+
+        assertThat(mAppSearchImpl.getDocument("database", "namespace", "uri" + (count - 1)))
+                .isEqualTo(documents.get(count - 1));
+    }
+
+    @Test
+    public void testRemoveDocuments() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+        List<DocumentProto> documents = new ArrayList<>();
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < AppSearchImpl.MAX_WRITE_CHUNK_SIZE + 1; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+            uris.add("uri" + i);
+        }
+        mAppSearchImpl.putDocuments("database", documents).checkSuccess();
+        uris.add("missing");
+
+        AppSearchBatchResult<String, Void> result =
+                mAppSearchImpl.removeDocuments("database", "namespace", uris);
+        assertThat(result.getSuccesses()).hasSize(documents.size());
+        assertThat(result.getFailures().keySet()).containsExactly("missing");
+
+        AppSearchException e = assertThrows(AppSearchException.class, () ->
+                mAppSearchImpl.getDocument("database", "namespace", "uri0"));
+        assertThat(e.toAppSearchResult().getResultCode())
+                .isEqualTo(AppSearchResult.RESULT_NOT_FOUND);
+    }
+
+    @Test
+    public void testGetNextPage_prefetched() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+        int pageSize = 2;
+        int pageCount = 3;
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < pageSize * pageCount; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+        }
+        mAppSearchImpl.putDocuments("database", documents).checkSuccess();
+
+        SearchResultProto page = mAppSearchImpl.query("database",
+                SearchSpecProto.newBuilder().setQuery("")
+                        .setTermMatchType(TermMatchType.Code.PREFIX).build(),
+                ResultSpecProto.newBuilder().setNumPerPage(pageSize).build(),
+                ScoringSpecProto.getDefaultInstance());
+        Set<String> uris = new HashSet<>();
+        addUris(page, uris);
+        // The second page is being read in the background.
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(1);
+
+        while (page.getNextPageToken() != 0) {
+            page = mAppSearchImpl.getNextPage("database", page.getNextPageToken());
+            addUris(page, uris);
+        }
+        assertThat(uris).hasSize(pageSize * pageCount);
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidateNextPageToken_removesPrefetchedPage() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+        }
+        mAppSearchImpl.putDocuments("database", documents).checkSuccess();
+
+        SearchResultProto page = mAppSearchImpl.query("database",
+                SearchSpecProto.newBuilder().setQuery("")
+                        .setTermMatchType(TermMatchType.Code.PREFIX).build(),
+                ResultSpecProto.newBuilder().setNumPerPage(1).build(),
+                ScoringSpecProto.getDefaultInstance());
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(1);
+
+        mAppSearchImpl.invalidateNextPageToken(page.getNextPageToken());
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGetNextPage_manyQueriesPagedConcurrently() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+        int documentCount = 3;
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < documentCount; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+        }
+        mAppSearchImpl.putDocuments("database", documents).checkSuccess();
+
+        // Every query keeps its prefetched page, however many queries are being paged.
+        int queryCount = 20;
+        List<SearchResultProto> pages = new ArrayList<>();
+        List<Set<String>> uris = new ArrayList<>();
+        for (int i = 0; i < queryCount; i++) {
+            SearchResultProto page = mAppSearchImpl.query("database",
+                    SearchSpecProto.newBuilder().setQuery("")
+                            .setTermMatchType(TermMatchType.Code.PREFIX).build(),
+                    ResultSpecProto.newBuilder().setNumPerPage(1).build(),
+                    ScoringSpecProto.getDefaultInstance());
+            pages.add(page);
+            Set<String> queryUris = new HashSet<>();
+            addUris(page, queryUris);
+            uris.add(queryUris);
+        }
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(queryCount);
+
+        // Page the queries in turns, so that each one is the least recently paged in turn.
+        for (int pageIndex = 1; pageIndex < documentCount; pageIndex++) {
+            for (int i = 0; i < queryCount; i++) {
+                SearchResultProto page = mAppSearchImpl.getNextPage("database",
+                        pages.get(i).getNextPageToken());
+                pages.set(i, page);
+                addUris(page, uris.get(i));
+            }
+        }
+        for (int i = 0; i < queryCount; i++) {
+            assertThat(uris.get(i)).hasSize(documentCount);
+        }
+    }
+
+    @Test
+    public void testGetNextPage_prefetchedPageRefreshedAfterMutation() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("uri" + i)
+                    .setSchema("type")
+                    .setNamespace("namespace")
+                    .build());
+        }
+        mAppSearchImpl.putDocuments("database", documents).checkSuccess();
+
+        SearchResultProto page = mAppSearchImpl.query("database",
+                SearchSpecProto.newBuilder().setQuery("")
+                        .setTermMatchType(TermMatchType.Code.PREFIX).build(),
+                ResultSpecProto.newBuilder().setNumPerPage(2).build(),
+                ScoringSpecProto.getDefaultInstance());
+        Set<String> uris = new HashSet<>();
+        addUris(page, uris);
+        assertThat(mAppSearchImpl.getPrefetchedPageCount()).isEqualTo(1);
+
+        // Remove all the documents, including the ones of the prefetched page.
+        for (int i = 0; i < documents.size(); i++) {
+            mAppSearchImpl.remove("database", "namespace", documents.get(i).getUri());
+        }
+
+        page = mAppSearchImpl.getNextPage("database", page.getNextPageToken());
+        assertThat(page.getResultsCount()).isEqualTo(0);
+    }
+
+    private static void addUris(SearchResultProto page, Set<String> uris) {
+        for (int i = 0; i < page.getResultsCount(); i++) {
+            uris.add(page.getResults(i).getDocument().getUri());
+        }
+    }
 }
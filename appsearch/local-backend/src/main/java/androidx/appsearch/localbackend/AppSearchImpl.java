@@ -24,6 +24,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.exceptions.AppSearchException;
 
@@ -53,10 +54,17 @@ import com.google.android.icing.proto.SetSchemaResultProto;
 import com.google.android.icing.proto.StatusProto;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
@@ -91,6 +99,10 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *     <li>All methods are going to access global parameters or query data from Icing
  *     should be executed under READ lock to improve query performance.
  * </ul>
+ *
+ * <p>Batched mutations like {@link #putDocuments} take the WRITE lock once per chunk of at most
+ * {@link #MAX_WRITE_CHUNK_SIZE} documents, and the lock is fair, so queries issued during a large
+ * import wait for one chunk at most instead of the whole import.
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
@@ -104,7 +116,12 @@ public final class AppSearchImpl {
     static final int OPTIMIZE_THRESHOLD_BYTES = 1_000_000; // 1MB
     @VisibleForTesting
     static final int CHECK_OPTIMIZE_INTERVAL = 100;
-    private final ReentrantReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
+    @VisibleForTesting
+    static final int MAX_WRITE_CHUNK_SIZE = 100;
+    // Fair, so that a batched write releasing the lock between chunks lets waiting queries in
+    // before it takes the lock again.
+    private final ReentrantReadWriteLock mReadWriteLock = new ReentrantReadWriteLock(
+            /* fair= */ true);
     private final CountDownLatch mInitCompleteLatch = new CountDownLatch(1);
     // The map contains schemaTypes and namespaces for all database. All values in the map have
     // been already added database name prefix.
@@ -113,6 +130,24 @@ public final class AppSearchImpl {
     private IcingSearchEngine mIcingSearchEngine;
     private volatile boolean mInitialized = false;
 
+    /**
+     * Pages fetched ahead of {@link #getNextPage}, keyed by the next-page token of the query. The
+     * raw pages are kept, their types are rewritten when they are returned. A page is kept until
+     * it's returned, or its token is invalidated, as Icing has already moved its token past it.
+     */
+    @GuardedBy("mPrefetchedPages")
+    private final HashMap<Long, PrefetchedPage> mPrefetchedPages = new HashMap<>();
+
+    /** Reads the prefetched pages, one at a time so that they don't hold up mutations more. */
+    private final Executor mPrefetchExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Incremented by every method of the mutate group, so that a page prefetched before a
+     * mutation is refreshed when it is returned.
+     */
+    @GuardedBy("mReadWriteLock")
+    private long mDataVersion;
+
     /**
      * The counter to check when to call {@link #checkForOptimize(boolean)}. The interval is
      * {@link #CHECK_OPTIMIZE_INTERVAL}.
@@ -150,6 +185,7 @@ public final class AppSearchImpl {
         boolean isReset = false;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
         // We synchronize here because we don't want to call IcingSearchEngine.initialize() more
         // than once. It's unnecessary and can be a costly operation.
             if (isInitialized()) {
@@ -222,6 +258,7 @@ public final class AppSearchImpl {
         SetSchemaResultProto setSchemaResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             setSchemaResultProto = mIcingSearchEngine.setSchema(existingSchemaBuilder.build(),
                     forceOverride);
             checkSuccess(setSchemaResultProto.getStatus());
@@ -259,6 +296,7 @@ public final class AppSearchImpl {
         PutResultProto putResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             putResultProto = mIcingSearchEngine.put(documentBuilder.build());
             addToMap(mNamespaceMap, databaseName, documentBuilder.getNamespace());
             // The existing documents with same URI will be deleted, so there maybe some resources
@@ -270,6 +308,70 @@ public final class AppSearchImpl {
         checkSuccess(putResultProto.getStatus());
     }
 
+    /**
+     * Adds documents to the AppSearch index.
+     *
+     * <p>This method belongs to mutate group. The WRITE lock is taken once per chunk of
+     * {@link #MAX_WRITE_CHUNK_SIZE} documents, so queries can run between chunks.
+     *
+     * @param databaseName The databaseName these documents reside in.
+     * @param documents    The documents to index.
+     * @return The result of each document, keyed by URI. If a chunk fails, the documents of the
+     * previous chunks keep their results, and the other documents fail with its error.
+     * @throws AppSearchException on IcingSearchEngine error other than failing to put a document.
+     * @throws InterruptedException if the current thread was interrupted during execution.
+     */
+    @NonNull
+    public AppSearchBatchResult<String, Void> putDocuments(@NonNull String databaseName,
+            @NonNull List<DocumentProto> documents)
+            throws AppSearchException, InterruptedException {
+        checkInitialized();
+
+        String prefix = getDatabasePrefix(databaseName);
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        for (int start = 0; start < documents.size(); start += MAX_WRITE_CHUNK_SIZE) {
+            int end = Math.min(start + MAX_WRITE_CHUNK_SIZE, documents.size());
+            // Rewrite the chunk before taking the lock, it doesn't touch any shared state.
+            List<DocumentProto> chunk = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                DocumentProto.Builder documentBuilder = documents.get(i).toBuilder();
+                rewriteDocumentTypes(prefix, documentBuilder, /*add=*/ true);
+                chunk.add(documentBuilder.build());
+            }
+
+            StatusProto[] statuses = new StatusProto[chunk.size()];
+            AppSearchResult<Void> failure = null;
+            mReadWriteLock.writeLock().lock();
+            try {
+                mDataVersion++;
+                for (int i = 0; i < chunk.size(); i++) {
+                    DocumentProto document = chunk.get(i);
+                    statuses[i] = mIcingSearchEngine.put(document).getStatus();
+                    addToMap(mNamespaceMap, databaseName, document.getNamespace());
+                }
+                checkForOptimize(chunk.size(), /* force= */false);
+            } catch (AppSearchException | RuntimeException e) {
+                failure = exceptionToFailedResult(e);
+            } finally {
+                mReadWriteLock.writeLock().unlock();
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                resultBuilder.setResult(chunk.get(i).getUri(), statuses[i] != null
+                        ? statusProtoToResult(statuses[i]) : failure);
+            }
+            if (failure != null) {
+                // The documents of the previous chunks are committed, only the ones after the
+                // failure are not.
+                for (int i = end; i < documents.size(); i++) {
+                    resultBuilder.setResult(documents.get(i).getUri(), failure);
+                }
+                break;
+            }
+        }
+        return resultBuilder.build();
+    }
+
     /**
      * Retrieves a document from the AppSearch index by URI.
      *
@@ -342,6 +444,7 @@ public final class AppSearchImpl {
         } finally {
             mReadWriteLock.readLock().unlock();
         }
+        prefetchNextPage(searchResultProto);
         checkSuccess(searchResultProto.getStatus());
         if (searchResultProto.getResultsCount() == 0) {
             return searchResultProto;
@@ -353,6 +456,11 @@ public final class AppSearchImpl {
      * Fetches the next page of results of a previously executed query. Results can be empty if
      * next-page token is invalid or all pages have been returned.
      *
+     * <p>This method belongs to query group. Every time a page is returned, the page after it is
+     * read in the background and kept until it's asked for, so most pages are returned without
+     * waiting for Icing nor for mutations. A page read before a mutation is refreshed with the
+     * current documents before it is returned.
+     *
      * @param databaseName The databaseName of the previously executed query.
      * @param nextPageToken The token of pre-loaded results of previously executed query.
      * @return The next page of results of previously executed query.
@@ -364,7 +472,22 @@ public final class AppSearchImpl {
             throws AppSearchException, InterruptedException {
         checkInitialized();
 
-        SearchResultProto searchResultProto = mIcingSearchEngine.getNextPage(nextPageToken);
+        PrefetchedPage prefetchedPage;
+        synchronized (mPrefetchedPages) {
+            prefetchedPage = mPrefetchedPages.remove(nextPageToken);
+        }
+        SearchResultProto searchResultProto;
+        if (prefetchedPage != null) {
+            searchResultProto = getPrefetchedPage(prefetchedPage);
+        } else {
+            mReadWriteLock.readLock().lock();
+            try {
+                searchResultProto = mIcingSearchEngine.getNextPage(nextPageToken);
+            } finally {
+                mReadWriteLock.readLock().unlock();
+            }
+        }
+        prefetchNextPage(searchResultProto);
         checkSuccess(searchResultProto.getStatus());
         if (searchResultProto.getResultsCount() == 0) {
             return searchResultProto;
@@ -381,6 +504,13 @@ public final class AppSearchImpl {
             throws AppSearchException, InterruptedException {
         checkInitialized();
 
+        PrefetchedPage prefetchedPage;
+        synchronized (mPrefetchedPages) {
+            prefetchedPage = mPrefetchedPages.remove(nextPageToken);
+        }
+        if (prefetchedPage != null) {
+            prefetchedPage.mTask.cancel(/* mayInterruptIfRunning= */ false);
+        }
         mIcingSearchEngine.invalidateNextPageToken(nextPageToken);
     }
 
@@ -403,6 +533,7 @@ public final class AppSearchImpl {
         DeleteResultProto deleteResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             deleteResultProto = mIcingSearchEngine.delete(qualifiedNamespace, uri);
             checkForOptimize(/* force= */false);
         } finally {
@@ -411,6 +542,63 @@ public final class AppSearchImpl {
         checkSuccess(deleteResultProto.getStatus());
     }
 
+    /**
+     * Removes the given documents by URI.
+     *
+     * <p>This method belongs to mutate group. The WRITE lock is taken once per chunk of
+     * {@link #MAX_WRITE_CHUNK_SIZE} documents, so queries can run between chunks.
+     *
+     * @param databaseName The databaseName the documents are in.
+     * @param namespace    Namespace of the documents to remove.
+     * @param uris         URIs of the documents to remove.
+     * @return The result of each document, keyed by URI. If a chunk fails, the documents of the
+     * previous chunks keep their results, and the other documents fail with its error.
+     * @throws AppSearchException on IcingSearchEngine error other than failing to remove a
+     *                            document.
+     * @throws InterruptedException if the current thread was interrupted during execution.
+     */
+    @NonNull
+    public AppSearchBatchResult<String, Void> removeDocuments(@NonNull String databaseName,
+            @NonNull String namespace, @NonNull List<String> uris)
+            throws AppSearchException, InterruptedException {
+        checkInitialized();
+
+        String qualifiedNamespace = getDatabasePrefix(databaseName) + namespace;
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        for (int start = 0; start < uris.size(); start += MAX_WRITE_CHUNK_SIZE) {
+            int end = Math.min(start + MAX_WRITE_CHUNK_SIZE, uris.size());
+            StatusProto[] statuses = new StatusProto[end - start];
+            AppSearchResult<Void> failure = null;
+            mReadWriteLock.writeLock().lock();
+            try {
+                mDataVersion++;
+                for (int i = start; i < end; i++) {
+                    statuses[i - start] =
+                            mIcingSearchEngine.delete(qualifiedNamespace, uris.get(i)).getStatus();
+                }
+                checkForOptimize(end - start, /* force= */false);
+            } catch (AppSearchException | RuntimeException e) {
+                failure = exceptionToFailedResult(e);
+            } finally {
+                mReadWriteLock.writeLock().unlock();
+            }
+            for (int i = start; i < end; i++) {
+                resultBuilder.setResult(uris.get(i), statuses[i - start] != null
+                        ? statusProtoToResult(statuses[i - start]) : failure);
+            }
+            if (failure != null) {
+                // The documents of the previous chunks are removed, only the ones after the
+                // failure are not.
+                for (int i = end; i < uris.size(); i++) {
+                    resultBuilder.setResult(uris.get(i), failure);
+                }
+                break;
+            }
+        }
+        return resultBuilder.build();
+    }
+
     /**
      * Removes all documents having the given {@code schemaType} in given database.
      *
@@ -429,6 +617,7 @@ public final class AppSearchImpl {
         DeleteBySchemaTypeResultProto deleteBySchemaTypeResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             Set<String> existingSchemaTypes = mSchemaMap.get(databaseName);
             if (existingSchemaTypes == null || !existingSchemaTypes.contains(qualifiedType)) {
                 return;
@@ -459,6 +648,7 @@ public final class AppSearchImpl {
         DeleteByNamespaceResultProto deleteByNamespaceResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             Set<String> existingNamespaces = mNamespaceMap.get(databaseName);
             if (existingNamespaces == null || !existingNamespaces.contains(qualifiedNamespace)) {
                 return;
@@ -488,6 +678,7 @@ public final class AppSearchImpl {
         checkInitialized();
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             Set<String> existingNamespaces = mNamespaceMap.get(databaseName);
             if (existingNamespaces == null) {
                 return;
@@ -523,10 +714,17 @@ public final class AppSearchImpl {
         ResetResultProto resetResultProto;
         mReadWriteLock.writeLock().lock();
         try {
+            mDataVersion++;
             resetResultProto = mIcingSearchEngine.reset();
             mOptimizeIntervalCount = 0;
             mSchemaMap.clear();
             mNamespaceMap.clear();
+            synchronized (mPrefetchedPages) {
+                for (PrefetchedPage prefetchedPage : mPrefetchedPages.values()) {
+                    prefetchedPage.mTask.cancel(/* mayInterruptIfRunning= */ false);
+                }
+                mPrefetchedPages.clear();
+            }
         } finally {
             mReadWriteLock.writeLock().unlock();
         }
@@ -809,7 +1007,15 @@ public final class AppSearchImpl {
      */
     @GuardedBy("mReadWriteLock")
     private void checkForOptimize(boolean force) throws AppSearchException {
-        ++mOptimizeIntervalCount;
+        checkForOptimize(/* mutationCount= */ 1, force);
+    }
+
+    /**
+     * Same as {@link #checkForOptimize(boolean)}, for {@code mutationCount} executions at once.
+     */
+    @GuardedBy("mReadWriteLock")
+    private void checkForOptimize(int mutationCount, boolean force) throws AppSearchException {
+        mOptimizeIntervalCount += mutationCount;
         if (force || mOptimizeIntervalCount >= CHECK_OPTIMIZE_INTERVAL) {
             mOptimizeIntervalCount = 0;
             GetOptimizeInfoResultProto optimizeInfo = getOptimizeInfoResult();
@@ -829,6 +1035,121 @@ public final class AppSearchImpl {
         }
     }
 
+    /**
+     * Starts reading the page after the given one in the background, and keeps it for
+     * {@link #getNextPage}, unless the given one is the last page. The page is released by
+     * {@link #invalidateNextPageToken} when the caller stops paging.
+     *
+     * <p>This method should be called without holding the READ lock, the page is read under its
+     * own READ lock.
+     */
+    private void prefetchNextPage(@NonNull SearchResultProto searchResultProto) {
+        final long nextPageToken = searchResultProto.getNextPageToken();
+        if (searchResultProto.getStatus().getCode() != StatusProto.Code.OK
+                || nextPageToken == 0) {
+            return;
+        }
+        PrefetchedPage prefetchedPage = new PrefetchedPage(nextPageToken);
+        synchronized (mPrefetchedPages) {
+            if (mPrefetchedPages.containsKey(nextPageToken)) {
+                return;
+            }
+            mPrefetchedPages.put(nextPageToken, prefetchedPage);
+        }
+        mPrefetchExecutor.execute(prefetchedPage.mTask);
+    }
+
+    /**
+     * Waits for the prefetched page to be read, and refreshes its documents if a mutation
+     * happened since.
+     */
+    @NonNull
+    private SearchResultProto getPrefetchedPage(@NonNull PrefetchedPage prefetchedPage)
+            throws AppSearchException, InterruptedException {
+        SearchResultProto searchResultProto;
+        try {
+            searchResultProto = prefetchedPage.mTask.get();
+        } catch (ExecutionException e) {
+            throw new AppSearchException(AppSearchResult.RESULT_INTERNAL_ERROR,
+                    "Failed to read the next page", e.getCause());
+        }
+        if (searchResultProto.getStatus().getCode() != StatusProto.Code.OK) {
+            return searchResultProto;
+        }
+        mReadWriteLock.readLock().lock();
+        try {
+            if (prefetchedPage.mDataVersion == mDataVersion) {
+                return searchResultProto;
+            }
+            // The documents of the page may have been updated or removed since it was read.
+            SearchResultProto.Builder searchResultsBuilder = searchResultProto.toBuilder();
+            searchResultsBuilder.clearResults();
+            for (int i = 0; i < searchResultProto.getResultsCount(); i++) {
+                SearchResultProto.ResultProto result = searchResultProto.getResults(i);
+                if (!result.hasDocument()) {
+                    searchResultsBuilder.addResults(result);
+                    continue;
+                }
+                DocumentProto document = result.getDocument();
+                GetResultProto getResultProto =
+                        mIcingSearchEngine.get(document.getNamespace(), document.getUri());
+                StatusProto.Code code = getResultProto.getStatus().getCode();
+                if (code == StatusProto.Code.NOT_FOUND) {
+                    continue;
+                }
+                if (code == StatusProto.Code.OK
+                        && !getResultProto.getDocument().equals(document)) {
+                    // The snippets were computed from the previous content.
+                    result = result.toBuilder()
+                            .setDocument(getResultProto.getDocument())
+                            .clearSnippet()
+                            .build();
+                }
+                searchResultsBuilder.addResults(result);
+            }
+            return searchResultsBuilder.build();
+        } finally {
+            mReadWriteLock.readLock().unlock();
+        }
+    }
+
+    @VisibleForTesting
+    int getPrefetchedPageCount() {
+        synchronized (mPrefetchedPages) {
+            return mPrefetchedPages.size();
+        }
+    }
+
+    /** Converts the status of a single document in a batch to its result. */
+    @NonNull
+    private <ValueType> AppSearchResult<ValueType> statusProtoToResult(
+            @NonNull StatusProto statusProto) {
+        try {
+            checkSuccess(statusProto);
+            return AppSearchResult.newSuccessfulResult(null);
+        } catch (AppSearchException e) {
+            return e.toAppSearchResult();
+        }
+    }
+
+    /** Converts the failure of a chunk in a batch to the result of its documents. */
+    @NonNull
+    private static <ValueType> AppSearchResult<ValueType> exceptionToFailedResult(
+            @NonNull Exception e) {
+        if (e instanceof AppSearchException) {
+            return ((AppSearchException) e).toAppSearchResult();
+        }
+        @AppSearchResult.ResultCode int resultCode;
+        if (e instanceof IllegalArgumentException) {
+            resultCode = AppSearchResult.RESULT_INVALID_ARGUMENT;
+        } else if (e instanceof IllegalStateException) {
+            resultCode = AppSearchResult.RESULT_INTERNAL_ERROR;
+        } else {
+            resultCode = AppSearchResult.RESULT_UNKNOWN_ERROR;
+        }
+        return AppSearchResult.newFailedResult(resultCode, e.toString());
+    }
+
     /** Remove the rewritten schema types from any result documents.*/
     private SearchResultProto rewriteSearchResultProto(@NonNull String databaseName,
             @NonNull SearchResultProto searchResultProto) {
@@ -884,4 +1205,27 @@ public final class AppSearchImpl {
                         "Unknown IcingSearchEngine status code: " + statusProto.getCode());
         }
     }
+
+    /** A page read in the background, with the data version it was read at. */
+    private final class PrefetchedPage implements Callable<SearchResultProto> {
+        final long mNextPageToken;
+        final FutureTask<SearchResultProto> mTask = new FutureTask<>(this);
+        /** The value of {@link AppSearchImpl#mDataVersion} when the page was read. */
+        volatile long mDataVersion;
+
+        PrefetchedPage(long nextPageToken) {
+            mNextPageToken = nextPageToken;
+        }
+
+        @Override
+        public SearchResultProto call() {
+            mReadWriteLock.readLock().lock();
+            try {
+                mDataVersion = AppSearchImpl.this.mDataVersion;
+                return mIcingSearchEngine.getNextPage(mNextPageToken);
+            } finally {
+                mReadWriteLock.readLock().unlock();
+            }
+        }
+    }
 }
@@ -45,7 +45,9 @@ import com.google.android.icing.proto.SearchResultProto;
 import com.google.android.icing.proto.SearchSpecProto;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An implementation of {@link androidx.appsearch.app.AppSearchBackend} which stores data locally
@@ -131,16 +133,26 @@ public class LocalBackend implements AppSearchBackend {
         Preconditions.checkNotNull(request);
         AppSearchBatchResult.Builder<String, Void> resultBuilder =
                 new AppSearchBatchResult.Builder<>();
+        List<DocumentProto> documentProtos = new ArrayList<>(request.getDocuments().size());
         for (int i = 0; i < request.getDocuments().size(); i++) {
             GenericDocument document = request.getDocuments().get(i);
             try {
-                DocumentProto documentProto = GenericDocumentToProtoConverter.convert(document);
-                mAppSearchImpl.putDocument(databaseName, documentProto);
-                resultBuilder.setSuccess(document.getUri(), /*result=*/ null);
+                documentProtos.add(GenericDocumentToProtoConverter.convert(document));
             } catch (Throwable t) {
                 resultBuilder.setResult(document.getUri(), throwableToFailedResult(t));
             }
         }
+        try {
+            AppSearchBatchResult<String, Void> putResult =
+                    mAppSearchImpl.putDocuments(databaseName, documentProtos);
+            setBatchResults(resultBuilder, putResult);
+        } catch (Throwable t) {
+            // Thrown before any document is written, the failures of a chunk are in the result.
+            for (int i = 0; i < documentProtos.size(); i++) {
+                resultBuilder.setResult(documentProtos.get(i).getUri(),
+                        throwableToFailedResult(t));
+            }
+        }
         return resultBuilder.build();
     }
 
@@ -195,12 +207,15 @@ public class LocalBackend implements AppSearchBackend {
         Preconditions.checkNotNull(request);
         AppSearchBatchResult.Builder<String, Void> resultBuilder =
                 new AppSearchBatchResult.Builder<>();
-        for (String uri : request.getUris()) {
-            try {
-                mAppSearchImpl.remove(databaseName, request.getNamespace(), uri);
-                resultBuilder.setSuccess(uri, /*result= */null);
-            } catch (Throwable t) {
-                resultBuilder.setResult(uri, throwableToFailedResult(t));
+        List<String> uris = new ArrayList<>(request.getUris());
+        try {
+            AppSearchBatchResult<String, Void> removeResult =
+                    mAppSearchImpl.removeDocuments(databaseName, request.getNamespace(), uris);
+            setBatchResults(resultBuilder, removeResult);
+        } catch (Throwable t) {
+            // Thrown before any document is written, the failures of a chunk are in the result.
+            for (int i = 0; i < uris.size(); i++) {
+                resultBuilder.setResult(uris.get(i), throwableToFailedResult(t));
             }
         }
         return resultBuilder.build();
@@ -270,6 +285,18 @@ public class LocalBackend implements AppSearchBackend {
         }
     }
 
+    private static void setBatchResults(
+            @NonNull AppSearchBatchResult.Builder<String, Void> resultBuilder,
+            @NonNull AppSearchBatchResult<String, Void> batchResult) {
+        for (String key : batchResult.getSuccesses().keySet()) {
+            resultBuilder.setSuccess(key, /*result=*/ null);
+        }
+        for (Map.Entry<String, AppSearchResult<Void>> entry
+                : batchResult.getFailures().entrySet()) {
+            resultBuilder.setResult(entry.getKey(), entry.getValue());
+        }
+    }
+
     @NonNull
     <ValueType> AppSearchResult<ValueType> throwableToFailedResult(
             @NonNull Throwable t) {
@@ -54,6 +54,7 @@ val RELEASE_RULE = docsRules("public", false) {
             .addStubs("camera/camera-extensions-stub/camera-extensions-stub.jar")
     prebuilts(LibraryGroups.CAMERA, "1.0.0-beta09")
     prebuilts(LibraryGroups.CARDVIEW, "1.0.0")
+    ignore(LibraryGroups.COLLECTION.group, "collection-disk")
     prebuilts(LibraryGroups.COLLECTION, "1.1.0")
     prebuilts(LibraryGroups.CONCURRENT, "1.1.0")
     prebuilts(LibraryGroups.CONTENTPAGER, "1.0.0")
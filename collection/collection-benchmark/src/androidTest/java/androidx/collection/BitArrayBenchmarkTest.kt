@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import android.util.SparseBooleanArray
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.runners.Parameterized.Parameters
+import kotlin.random.Random
+
+/**
+ * Compares [BitArray] and [IntRangeSet] with a [SparseBooleanArray] holding the same selected
+ * indices, either scattered or in a few long runs.
+ */
+@RunWith(Parameterized::class)
+class BitArrayBenchmarkTest(private val size: Int, contiguous: Boolean) {
+    private val indices: List<Int> = if (contiguous) {
+        // Ten runs, each covering half of a tenth of the indices.
+        (0 until size).filter { it % (size / 10) < size / 20 }
+    } else {
+        // Despite the fixed seed, the algorithm which produces random values may vary across
+        // OS versions. Since we're not doing cross-device comparison this is acceptable.
+        val random = Random(0)
+        (0 until size).filter { random.nextBoolean() }
+    }
+    private val bitArray = BitArray().apply { indices.forEach { set(it) } }
+    private val rangeSet = IntRangeSet().apply { indices.forEach { add(it) } }
+    private val sparseArray = SparseBooleanArray().apply { indices.forEach { put(it, true) } }
+
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @Test fun bitArrayGet() {
+        val index = size / 2
+        benchmark.measureRepeated {
+            bitArray.get(index)
+        }
+    }
+
+    @Test fun rangeSetContains() {
+        val index = size / 2
+        benchmark.measureRepeated {
+            rangeSet.contains(index)
+        }
+    }
+
+    @Test fun sparseArrayGet() {
+        val index = size / 2
+        benchmark.measureRepeated {
+            sparseArray.get(index)
+        }
+    }
+
+    @Test fun bitArrayRank() {
+        val index = size - 1
+        benchmark.measureRepeated {
+            bitArray.rank(index)
+        }
+    }
+
+    @Test fun rangeSetRank() {
+        val index = size - 1
+        benchmark.measureRepeated {
+            rangeSet.rank(index)
+        }
+    }
+
+    @Test fun sparseArrayRank() {
+        val index = size - 1
+        benchmark.measureRepeated {
+            // SparseBooleanArray keeps keys mapped to false, so the values need to be checked.
+            var rank = 0
+            for (i in 0 until sparseArray.size()) {
+                if (sparseArray.keyAt(i) >= index) break
+                if (sparseArray.valueAt(i)) rank++
+            }
+            rank
+        }
+    }
+
+    @Test fun bitArrayIterate() {
+        benchmark.measureRepeated {
+            var index = bitArray.nextSetBit(0)
+            while (index >= 0) {
+                index = bitArray.nextSetBit(index + 1)
+            }
+        }
+    }
+
+    @Test fun rangeSetIterate() {
+        benchmark.measureRepeated {
+            var index = rangeSet.nextValue(0)
+            while (index >= 0) {
+                index = rangeSet.nextValue(index + 1)
+            }
+        }
+    }
+
+    @Test fun sparseArrayIterate() {
+        benchmark.measureRepeated {
+            for (i in 0 until sparseArray.size()) {
+                if (sparseArray.valueAt(i)) sparseArray.keyAt(i)
+            }
+        }
+    }
+
+    @Test fun bitArrayInsertAndRemoveRange() {
+        benchmark.measureRepeated {
+            bitArray.insertRange(1, 10)
+            bitArray.removeRange(1, 10)
+        }
+    }
+
+    @Test fun rangeSetInsertAndRemoveRange() {
+        benchmark.measureRepeated {
+            rangeSet.insertRange(1, 10)
+            rangeSet.removeRange(1, 10)
+        }
+    }
+
+    @Test fun sparseArrayInsertAndRemoveRange() {
+        benchmark.measureRepeated {
+            // SparseBooleanArray has no way to shift its keys, so it is rebuilt as an adapter
+            // would on item insertion and removal.
+            val shifted = SparseBooleanArray(sparseArray.size())
+            for (i in 0 until sparseArray.size()) {
+                val key = sparseArray.keyAt(i)
+                shifted.put(if (key >= 1) key + 10 else key, sparseArray.valueAt(i))
+            }
+            val restored = SparseBooleanArray(shifted.size())
+            for (i in 0 until shifted.size()) {
+                val key = shifted.keyAt(i)
+                restored.put(if (key >= 11) key - 10 else key, shifted.valueAt(i))
+            }
+            restored
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameters(name = "size={0},contiguous={1}")
+        fun parameters() = buildParameters(
+            listOf(100, 1_000, 10_000),
+            listOf(true, false)
+        )
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.AfterClass
+import org.junit.BeforeClass
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.io.File
+import java.io.RandomAccessFile
+
+/**
+ * Measures opening a [DiskLruCache] of [ENTRY_COUNT] entries, which doesn't depend on the
+ * number of entries when it was closed, and scans its index once otherwise.
+ */
+@RunWith(AndroidJUnit4::class)
+class DiskLruCacheBenchmarkTest {
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @Test fun openAfterClose() {
+        benchmark.measureRepeated {
+            val cache = DiskLruCache.open(directory, Long.MAX_VALUE)
+            runWithTimingDisabled {
+                cache.close()
+            }
+        }
+    }
+
+    @Test fun openAfterProcessDeath() {
+        benchmark.measureRepeated {
+            runWithTimingDisabled {
+                // Sets the flag of the index header which an open cache clears when closed.
+                RandomAccessFile(File(directory, "index"), "rw").use {
+                    it.seek(12)
+                    it.writeInt(1)
+                }
+            }
+            val cache = DiskLruCache.open(directory, Long.MAX_VALUE)
+            runWithTimingDisabled {
+                cache.close()
+            }
+        }
+    }
+
+    @Test fun get() {
+        val cache = DiskLruCache.open(directory, Long.MAX_VALUE)
+        try {
+            benchmark.measureRepeated {
+                cache.get("key${ENTRY_COUNT / 2}")!!.close()
+            }
+        } finally {
+            cache.close()
+        }
+    }
+
+    companion object {
+        private const val ENTRY_COUNT = 100_000
+
+        private lateinit var directory: File
+
+        @JvmStatic
+        @BeforeClass
+        fun setUpCache() {
+            val context = ApplicationProvider.getApplicationContext<Context>()
+            directory = File(context.cacheDir, "DiskLruCacheBenchmarkTest")
+            directory.deleteRecursively()
+            val cache = DiskLruCache.open(directory, Long.MAX_VALUE)
+            val value = ByteArray(16)
+            repeat(ENTRY_COUNT) {
+                cache.put("key$it", value)
+            }
+            cache.close()
+        }
+
+        @JvmStatic
+        @AfterClass
+        fun deleteCache() {
+            directory.deleteRecursively()
+        }
+    }
+}
@@ -0,0 +1,684 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A cache of byte values stored in files of a directory, which evicts the least recently used
+ * entries when their total size exceeds a maximum size.
+ *
+ * <p>The entries are indexed by a hash table in a memory-mapped file of the directory, so
+ * opening the cache doesn't replay a journal: when the cache was closed, opening it reads a
+ * fixed-size header without listing the directory, and otherwise it scans the hash table once to
+ * recompute its totals and lists the directory once to delete the files of interrupted writes.
+ * Accessing an entry records its access order with a write to the
+ * mapped index, without any I/O system call.</p>
+ *
+ * <p>Values are written to a temporary file which is synced and then renamed over the file of
+ * the entry, as {@code AtomicFile} does, so readers never see a partially written value and a
+ * value replaced or evicted while it is being read remains readable from its stream.</p>
+ *
+ * <p>This class is thread safe: any number of threads may read entries concurrently, and values
+ * are written to their temporary files concurrently. A directory must not be used by more than
+ * one cache at a time, including from several processes.</p>
+ */
+public final class DiskLruCache implements Closeable {
+    private static final String INDEX_FILE_NAME = "index";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x444c5255;
+    private static final int VERSION = 1;
+
+    // The header of the index.
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOT_COUNT = 8;
+    private static final int HEADER_OPEN = 12;
+    private static final int HEADER_SIZE = 16;
+    private static final int HEADER_ENTRY_COUNT = 24;
+    private static final int HEADER_USED_SLOT_COUNT = 28;
+    private static final int HEADER_ACCESS_COUNTER = 32;
+    private static final int HEADER_LENGTH = 64;
+
+    // The fields of each slot of the hash table, following the header.
+    private static final int SLOT_KEY_HASH = 0;
+    private static final int SLOT_SIZE = 8;
+    private static final int SLOT_ACCESS = 16;
+    private static final int SLOT_STATE = 24;
+    private static final int SLOT_LENGTH = 32;
+
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_LIVE = 1;
+    private static final int STATE_REMOVED = 2;
+
+    private static final int MIN_SLOT_COUNT = 64;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final ReadWriteLock mLock = new ReentrantReadWriteLock();
+    private final AtomicLong mAccessCounter = new AtomicLong();
+
+    // Guarded by mLock.
+    private RandomAccessFile mIndexFile;
+    private MappedByteBuffer mIndex;
+    private int mSlotCount;
+    private long mSize;
+    private int mEntryCount;
+    // The live and removed slots, which both end a probe sequence.
+    private int mUsedSlotCount;
+    private boolean mClosed;
+
+    // The slots of the least recently used entries, ordered by their access, as of the last
+    // time the index was scanned for eviction. An entry accessed since then is skipped as its
+    // access doesn't match anymore, and entries added since then were accessed after all of
+    // them, so evicting them in order is exact until none remains.
+    private int[] mEvictionSlots = new int[0];
+    private long[] mEvictionAccesses = new long[0];
+    private int mEvictionCount;
+    private int mEvictionPosition;
+
+    private DiskLruCache(File directory, long maxSize) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Opens the cache in the specified directory, creating it if it doesn't exist.
+     *
+     * @param directory the directory holding the entries, which should not contain other files.
+     * @param maxSize the maximum total size in bytes of the entries.
+     * @throws IOException if the directory can't be created or its index can't be read.
+     */
+    @NonNull
+    public static DiskLruCache open(@NonNull File directory, long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        DiskLruCache cache = new DiskLruCache(directory, maxSize);
+        cache.openIndex();
+        return cache;
+    }
+
+    /**
+     * Returns a stream reading the value of the entry for {@code key}, or null if there is no
+     * such entry. The entry becomes the most recently used.
+     *
+     * <p>The stream must be closed by the caller. It keeps reading the value it was opened
+     * for, even if the entry is replaced or evicted meanwhile.</p>
+     */
+    @Nullable
+    public InputStream get(@NonNull String key) throws IOException {
+        long keyHash = hash(key);
+        mLock.readLock().lock();
+        try {
+            checkNotClosed();
+            int slot = findSlot(keyHash);
+            if (slot < 0) {
+                return null;
+            }
+            FileInputStream in;
+            try {
+                in = new FileInputStream(entryFile(keyHash));
+            } catch (FileNotFoundException e) {
+                return null;
+            }
+            boolean found = false;
+            try {
+                found = readKey(in).equals(key);
+            } finally {
+                if (!found) {
+                    in.close();
+                }
+            }
+            if (found) {
+                // Concurrent readers may each write the access of the slot, in which case it
+                // is recorded as one of them.
+                mIndex.putLong(slotOffset(slot) + SLOT_ACCESS, mAccessCounter.incrementAndGet());
+                return in;
+            }
+            return null;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the value of the entry for {@code key}, or null if there is no such entry. The
+     * entry becomes the most recently used.
+     */
+    @Nullable
+    public byte[] getBytes(@NonNull String key) throws IOException {
+        InputStream in = get(key);
+        if (in == null) {
+            return null;
+        }
+        try {
+            byte[] value = new byte[1024];
+            int length = 0;
+            int count;
+            while ((count = in.read(value, length, value.length - length)) != -1) {
+                length += count;
+                if (length == value.length) {
+                    value = Arrays.copyOf(value, length * 2);
+                }
+            }
+            return Arrays.copyOf(value, length);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Sets the value of the entry for {@code key}, replacing any previous value. The entry
+     * becomes the most recently used, and the least recently used entries are evicted if the
+     * total size of the entries exceeds the maximum size.
+     */
+    public void put(@NonNull String key, @NonNull byte[] value) throws IOException {
+        long keyHash = hash(key);
+        // The value is written outside of the lock, so that readers and other writers aren't
+        // blocked by the I/O.
+        File tempFile = File.createTempFile("entry", TEMP_FILE_SUFFIX, mDirectory);
+        boolean success = false;
+        try {
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                DataOutputStream data = new DataOutputStream(out);
+                byte[] keyBytes = key.getBytes(UTF_8);
+                data.writeInt(keyBytes.length);
+                data.write(keyBytes);
+                data.write(value);
+                data.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            long size = tempFile.length();
+            mLock.writeLock().lock();
+            try {
+                checkNotClosed();
+                // The index is grown before the rename, so that a renamed entry file always
+                // gets its slot.
+                reserveSlot(keyHash);
+                if (!tempFile.renameTo(entryFile(keyHash))) {
+                    throw new IOException("Unable to rename " + tempFile);
+                }
+                success = true;
+                putSlot(keyHash, size);
+                trimToSize();
+            } finally {
+                mLock.writeLock().unlock();
+            }
+        } finally {
+            if (!success) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key}.
+     *
+     * @return whether there was such an entry.
+     */
+    public boolean remove(@NonNull String key) throws IOException {
+        long keyHash = hash(key);
+        mLock.writeLock().lock();
+        try {
+            checkNotClosed();
+            int slot = findSlot(keyHash);
+            if (slot < 0) {
+                return false;
+            }
+            removeSlot(slot);
+            return true;
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void evictAll() throws IOException {
+        mLock.writeLock().lock();
+        try {
+            checkNotClosed();
+            for (int slot = 0; slot < mSlotCount; slot++) {
+                if (slotState(slot) == STATE_LIVE) {
+                    removeSlot(slot);
+                }
+            }
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the total size in bytes of the entries, including the keys stored with their
+     * values.
+     */
+    public long size() {
+        mLock.readLock().lock();
+        try {
+            return mSize;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum total size in bytes of the entries.
+     */
+    public long maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public int entryCount() {
+        mLock.readLock().lock();
+        try {
+            return mEntryCount;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the index and closes the cache. The cache can't be used anymore, but the streams
+     * returned by {@link #get(String)} can still be read.
+     */
+    @Override
+    public void close() throws IOException {
+        mLock.writeLock().lock();
+        try {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            writeHeaderTotals();
+            mIndex.force();
+            mIndex.putInt(HEADER_OPEN, 0);
+            mIndex.force();
+            mIndexFile.close();
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    private void openIndex() throws IOException {
+        File file = new File(mDirectory, INDEX_FILE_NAME);
+        boolean exists = file.length() >= HEADER_LENGTH;
+        mapIndex(file, exists ? 0 : MIN_SLOT_COUNT);
+        int slotCount = mIndex.getInt(HEADER_SLOT_COUNT);
+        if (mIndex.getInt(HEADER_MAGIC) != MAGIC || mIndex.getInt(HEADER_VERSION) != VERSION
+                || slotCount <= 0 || Integer.bitCount(slotCount) != 1
+                || file.length() != indexLength(slotCount)) {
+            if (exists) {
+                // The index can't be read, so the entries are lost, and their files are
+                // deleted with any other file of the directory.
+                mIndexFile.close();
+                deleteContents(mDirectory);
+            }
+            mapIndex(file, MIN_SLOT_COUNT);
+            return;
+        }
+        mSlotCount = slotCount;
+        if (mIndex.getInt(HEADER_OPEN) != 0) {
+            // The cache wasn't closed, so the totals of the header may be stale, and writes may
+            // have been interrupted.
+            recomputeTotals();
+            deleteOrphanFiles();
+        } else {
+            mSize = mIndex.getLong(HEADER_SIZE);
+            mEntryCount = mIndex.getInt(HEADER_ENTRY_COUNT);
+            mUsedSlotCount = mIndex.getInt(HEADER_USED_SLOT_COUNT);
+            mAccessCounter.set(mIndex.getLong(HEADER_ACCESS_COUNTER));
+        }
+        mIndex.putInt(HEADER_OPEN, 1);
+    }
+
+    /**
+     * Maps the index file, creating a new empty index with the specified number of slots if
+     * it isn't zero.
+     */
+    private void mapIndex(File file, int newSlotCount) throws IOException {
+        mIndexFile = new RandomAccessFile(file, "rw");
+        if (newSlotCount != 0) {
+            mIndexFile.setLength(0);
+            mIndexFile.setLength(indexLength(newSlotCount));
+        }
+        mIndex = mIndexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                mIndexFile.length());
+        if (newSlotCount != 0) {
+            mIndex.putInt(HEADER_MAGIC, MAGIC);
+            mIndex.putInt(HEADER_VERSION, VERSION);
+            mIndex.putInt(HEADER_SLOT_COUNT, newSlotCount);
+            mIndex.putInt(HEADER_OPEN, 1);
+            mSlotCount = newSlotCount;
+            mSize = 0;
+            mEntryCount = 0;
+            mUsedSlotCount = 0;
+        }
+    }
+
+    private void recomputeTotals() {
+        long size = 0;
+        int entryCount = 0;
+        int usedSlotCount = 0;
+        long accessCounter = 0;
+        for (int slot = 0; slot < mSlotCount; slot++) {
+            int state = slotState(slot);
+            if (state != STATE_EMPTY) {
+                usedSlotCount++;
+            }
+            if (state == STATE_LIVE) {
+                int offset = slotOffset(slot);
+                size += mIndex.getLong(offset + SLOT_SIZE);
+                entryCount++;
+                accessCounter = Math.max(accessCounter, mIndex.getLong(offset + SLOT_ACCESS));
+            }
+        }
+        mSize = size;
+        mEntryCount = entryCount;
+        mUsedSlotCount = usedSlotCount;
+        mAccessCounter.set(accessCounter);
+        writeHeaderTotals();
+    }
+
+    private void writeHeaderTotals() {
+        mIndex.putLong(HEADER_SIZE, mSize);
+        mIndex.putInt(HEADER_ENTRY_COUNT, mEntryCount);
+        mIndex.putInt(HEADER_USED_SLOT_COUNT, mUsedSlotCount);
+        mIndex.putLong(HEADER_ACCESS_COUNTER, mAccessCounter.get());
+    }
+
+    /**
+     * Returns the live slot of the specified key hash, or -1 if there is none.
+     */
+    private int findSlot(long keyHash) {
+        int mask = mSlotCount - 1;
+        for (int slot = (int) keyHash & mask; ; slot = (slot + 1) & mask) {
+            int state = slotState(slot);
+            if (state == STATE_EMPTY) {
+                return -1;
+            }
+            if (state == STATE_LIVE && mIndex.getLong(slotOffset(slot) + SLOT_KEY_HASH)
+                    == keyHash) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Grows the index if needed, so that {@link #putSlot} doesn't need to for the key.
+     */
+    private void reserveSlot(long keyHash) throws IOException {
+        if (findSlot(keyHash) < 0 && (mUsedSlotCount + 1) * 4L > mSlotCount * 3L) {
+            rehash();
+        }
+    }
+
+    /**
+     * Sets the slot of the key, which must have been reserved by {@link #reserveSlot}.
+     */
+    private void putSlot(long keyHash, long size) {
+        int slot = findSlot(keyHash);
+        if (slot >= 0) {
+            mSize -= mIndex.getLong(slotOffset(slot) + SLOT_SIZE);
+        } else {
+            int mask = mSlotCount - 1;
+            slot = (int) keyHash & mask;
+            while (slotState(slot) == STATE_LIVE) {
+                slot = (slot + 1) & mask;
+            }
+            if (slotState(slot) == STATE_EMPTY) {
+                mUsedSlotCount++;
+            }
+            mEntryCount++;
+        }
+        int offset = slotOffset(slot);
+        mIndex.putLong(offset + SLOT_KEY_HASH, keyHash);
+        mIndex.putLong(offset + SLOT_SIZE, size);
+        mIndex.putLong(offset + SLOT_ACCESS, mAccessCounter.incrementAndGet());
+        // The state is written last, so that a torn write leaves no partial live slot.
+        mIndex.putInt(offset + SLOT_STATE, STATE_LIVE);
+        mSize += size;
+        writeHeaderTotals();
+    }
+
+    private void removeSlot(int slot) {
+        int offset = slotOffset(slot);
+        long keyHash = mIndex.getLong(offset + SLOT_KEY_HASH);
+        mIndex.putInt(offset + SLOT_STATE, STATE_REMOVED);
+        entryFile(keyHash).delete();
+        mSize -= mIndex.getLong(offset + SLOT_SIZE);
+        mEntryCount--;
+        writeHeaderTotals();
+    }
+
+    /**
+     * Moves the live slots to a new index, sized so that it is at most half full, which also
+     * drops the removed slots.
+     */
+    private void rehash() throws IOException {
+        int slotCount = MIN_SLOT_COUNT;
+        while (slotCount < mEntryCount * 2L) {
+            slotCount *= 2;
+        }
+        File tempFile = new File(mDirectory, INDEX_FILE_NAME + TEMP_FILE_SUFFIX);
+        RandomAccessFile newIndexFile = new RandomAccessFile(tempFile, "rw");
+        MappedByteBuffer newIndex;
+        try {
+            newIndexFile.setLength(0);
+            newIndexFile.setLength(indexLength(slotCount));
+            newIndex = newIndexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    newIndexFile.length());
+            int mask = slotCount - 1;
+            for (int slot = 0; slot < mSlotCount; slot++) {
+                if (slotState(slot) != STATE_LIVE) {
+                    continue;
+                }
+                int offset = slotOffset(slot);
+                long keyHash = mIndex.getLong(offset + SLOT_KEY_HASH);
+                int newSlot = (int) keyHash & mask;
+                while (newIndex.getInt(slotOffset(newSlot) + SLOT_STATE) != STATE_EMPTY) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                int newOffset = slotOffset(newSlot);
+                newIndex.putLong(newOffset + SLOT_KEY_HASH, keyHash);
+                newIndex.putLong(newOffset + SLOT_SIZE, mIndex.getLong(offset + SLOT_SIZE));
+                newIndex.putLong(newOffset + SLOT_ACCESS, mIndex.getLong(offset + SLOT_ACCESS));
+                newIndex.putInt(newOffset + SLOT_STATE, STATE_LIVE);
+            }
+            newIndex.putInt(HEADER_MAGIC, MAGIC);
+            newIndex.putInt(HEADER_VERSION, VERSION);
+            newIndex.putInt(HEADER_SLOT_COUNT, slotCount);
+            newIndex.putInt(HEADER_OPEN, 1);
+            newIndex.force();
+        } catch (IOException e) {
+            newIndexFile.close();
+            tempFile.delete();
+            throw e;
+        }
+        if (!tempFile.renameTo(new File(mDirectory, INDEX_FILE_NAME))) {
+            newIndexFile.close();
+            tempFile.delete();
+            throw new IOException("Unable to rename " + tempFile);
+        }
+        mIndexFile.close();
+        mIndexFile = newIndexFile;
+        mIndex = newIndex;
+        mSlotCount = slotCount;
+        mUsedSlotCount = mEntryCount;
+        writeHeaderTotals();
+        // The slots of the eviction queue have moved.
+        mEvictionCount = 0;
+        mEvictionPosition = 0;
+    }
+
+    private void trimToSize() {
+        while (mSize > mMaxSize && mEntryCount > 0) {
+            if (mEvictionPosition == mEvictionCount) {
+                fillEvictionQueue();
+            }
+            int slot = mEvictionSlots[mEvictionPosition];
+            long access = mEvictionAccesses[mEvictionPosition];
+            mEvictionPosition++;
+            if (slotState(slot) == STATE_LIVE
+                    && mIndex.getLong(slotOffset(slot) + SLOT_ACCESS) == access) {
+                removeSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Scans the index for the least recently used entries, enough to evict an eighth of the
+     * entries before scanning again.
+     */
+    private void fillEvictionQueue() {
+        long[] accesses = new long[mEntryCount];
+        int live = 0;
+        for (int slot = 0; slot < mSlotCount; slot++) {
+            if (slotState(slot) == STATE_LIVE) {
+                accesses[live++] = mIndex.getLong(slotOffset(slot) + SLOT_ACCESS);
+            }
+        }
+        Arrays.sort(accesses, 0, live);
+        int count = Math.min(live, Math.max(16, live / 8));
+        if (mEvictionSlots.length < count) {
+            mEvictionSlots = new int[count];
+            mEvictionAccesses = new long[count];
+        }
+        // The accesses are unique, so each queued slot is placed at the position of its access.
+        System.arraycopy(accesses, 0, mEvictionAccesses, 0, count);
+        long maxAccess = count > 0 ? accesses[count - 1] : Long.MIN_VALUE;
+        for (int slot = 0; slot < mSlotCount; slot++) {
+            if (slotState(slot) == STATE_LIVE) {
+                long access = mIndex.getLong(slotOffset(slot) + SLOT_ACCESS);
+                if (access <= maxAccess) {
+                    int position = Arrays.binarySearch(mEvictionAccesses, 0, count, access);
+                    mEvictionSlots[position] = slot;
+                }
+            }
+        }
+        mEvictionCount = count;
+        mEvictionPosition = 0;
+    }
+
+    /**
+     * Deletes the temporary files, and the entry files which have no live slot, as left by
+     * writes interrupted before or after renaming their file.
+     */
+    private void deleteOrphanFiles() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> entryFileNames = new HashSet<>(mEntryCount * 2);
+        for (int slot = 0; slot < mSlotCount; slot++) {
+            if (slotState(slot) == STATE_LIVE) {
+                long keyHash = mIndex.getLong(slotOffset(slot) + SLOT_KEY_HASH);
+                entryFileNames.add(Long.toHexString(keyHash));
+            }
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.equals(INDEX_FILE_NAME) && !entryFileNames.contains(name)) {
+                file.delete();
+            }
+        }
+    }
+
+    private int slotState(int slot) {
+        return mIndex.getInt(slotOffset(slot) + SLOT_STATE);
+    }
+
+    private File entryFile(long keyHash) {
+        return new File(mDirectory, Long.toHexString(keyHash));
+    }
+
+    private void checkNotClosed() {
+        if (mClosed) {
+            throw new IllegalStateException("cache is closed");
+        }
+    }
+
+    private static String readKey(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] keyBytes = new byte[data.readInt()];
+        data.readFully(keyBytes);
+        return new String(keyBytes, UTF_8);
+    }
+
+    private static void deleteContents(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_LENGTH + slot * SLOT_LENGTH;
+    }
+
+    private static long indexLength(int slotCount) {
+        return HEADER_LENGTH + (long) slotCount * SLOT_LENGTH;
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the key, which names the file of its entry.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+@RunWith(JUnit4.class)
+public class DiskLruCacheTest {
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private File mDirectory;
+    private DiskLruCache mCache;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = mTemporaryFolder.newFolder();
+        mCache = DiskLruCache.open(mDirectory, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mCache.close();
+    }
+
+    @Test
+    public void getReturnsPutValue() throws IOException {
+        mCache.put("a", bytes(10, 1));
+        assertArrayEquals(bytes(10, 1), mCache.getBytes("a"));
+        assertNull(mCache.getBytes("b"));
+        assertEquals(1, mCache.entryCount());
+    }
+
+    @Test
+    public void putReplacesValue() throws IOException {
+        mCache.put("a", bytes(10, 1));
+        long size = mCache.size();
+        mCache.put("a", bytes(20, 2));
+        assertArrayEquals(bytes(20, 2), mCache.getBytes("a"));
+        assertEquals(size + 10, mCache.size());
+        assertEquals(1, mCache.entryCount());
+    }
+
+    @Test
+    public void removeDeletesEntry() throws IOException {
+        mCache.put("a", bytes(10, 1));
+        assertTrue(mCache.remove("a"));
+        assertFalse(mCache.remove("a"));
+        assertNull(mCache.getBytes("a"));
+        assertEquals(0, mCache.size());
+        assertEquals(0, mCache.entryCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        mCache.put("a", bytes(300, 1));
+        mCache.put("b", bytes(300, 2));
+        mCache.put("c", bytes(300, 3));
+        mCache.getBytes("a");
+        mCache.put("d", bytes(300, 4));
+        assertNull(mCache.getBytes("b"));
+        assertArrayEquals(bytes(300, 1), mCache.getBytes("a"));
+        assertArrayEquals(bytes(300, 3), mCache.getBytes("c"));
+        assertArrayEquals(bytes(300, 4), mCache.getBytes("d"));
+        assertTrue(mCache.size() <= mCache.maxSize());
+    }
+
+    @Test
+    public void reopenKeepsEntriesAndAccessOrder() throws IOException {
+        mCache.put("a", bytes(300, 1));
+        mCache.put("b", bytes(300, 2));
+        mCache.put("c", bytes(300, 3));
+        mCache.getBytes("a");
+        long size = mCache.size();
+        mCache.close();
+
+        mCache = DiskLruCache.open(mDirectory, 1000);
+        assertEquals(size, mCache.size());
+        assertEquals(3, mCache.entryCount());
+        mCache.put("d", bytes(300, 4));
+        assertNull(mCache.getBytes("b"));
+        assertArrayEquals(bytes(300, 1), mCache.getBytes("a"));
+    }
+
+    @Test
+    public void reopenWithoutCloseRecomputesTotals() throws IOException {
+        mCache.put("a", bytes(100, 1));
+        mCache.put("b", bytes(100, 2));
+        long size = mCache.size();
+
+        // The previous cache is dropped without being closed, as if its process was killed.
+        DiskLruCache cache = DiskLruCache.open(mDirectory, 1000);
+        assertEquals(size, cache.size());
+        assertEquals(2, cache.entryCount());
+        assertArrayEquals(bytes(100, 2), cache.getBytes("b"));
+        cache.close();
+    }
+
+    @Test
+    public void reopenWithoutCloseDeletesInterruptedWrites() throws IOException {
+        mCache.put("a", bytes(100, 1));
+        // A write interrupted before renaming its temporary file, and one interrupted after
+        // renaming it but before indexing it.
+        File tempFile = new File(mDirectory, "entry123.tmp");
+        assertTrue(tempFile.createNewFile());
+        File entryFile = new File(mDirectory, "123abc");
+        assertTrue(entryFile.createNewFile());
+        int fileCount = mDirectory.listFiles().length;
+
+        // The previous cache is dropped without being closed, as if its process was killed.
+        DiskLruCache cache = DiskLruCache.open(mDirectory, 1000);
+        assertFalse(tempFile.exists());
+        assertFalse(entryFile.exists());
+        assertEquals(fileCount - 2, mDirectory.listFiles().length);
+        assertEquals(1, cache.entryCount());
+        assertArrayEquals(bytes(100, 1), cache.getBytes("a"));
+        cache.close();
+    }
+
+    @Test
+    public void failedIndexGrowthLeavesNoEntryFile() throws IOException {
+        // The index can't be grown while its temporary file can't be created.
+        assertTrue(new File(mDirectory, "index.tmp").mkdir());
+        int count = 0;
+        try {
+            while (true) {
+                mCache.put("key" + count, bytes(1, count));
+                count++;
+            }
+        } catch (IOException expected) {
+            // The put which needed to grow the index.
+        }
+        assertTrue(count > 0);
+        assertEquals(count, mCache.entryCount());
+        // The index, its temporary directory and the files of the entries that were put.
+        assertEquals(count + 2, mDirectory.listFiles().length);
+        assertNull(mCache.getBytes("key" + count));
+    }
+
+    @Test
+    public void corruptIndexClearsCache() throws IOException {
+        mCache.put("a", bytes(10, 1));
+        mCache.close();
+        RandomAccessFile index = new RandomAccessFile(new File(mDirectory, "index"), "rw");
+        index.writeInt(0);
+        index.close();
+
+        mCache = DiskLruCache.open(mDirectory, 1000);
+        assertNull(mCache.getBytes("a"));
+        assertEquals(0, mCache.entryCount());
+    }
+
+    @Test
+    public void streamReadsValueAfterEviction() throws IOException {
+        mCache.put("a", bytes(10, 1));
+        InputStream in = mCache.get("a");
+        mCache.evictAll();
+        byte[] value = new byte[10];
+        assertEquals(10, in.read(value));
+        in.close();
+        assertArrayEquals(bytes(10, 1), value);
+        assertNull(mCache.get("a"));
+    }
+
+    @Test
+    public void growsIndex() throws IOException {
+        mCache.close();
+        mCache = DiskLruCache.open(mDirectory, Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            mCache.put("key" + i, bytes(1, i));
+        }
+        assertEquals(1000, mCache.entryCount());
+        for (int i = 0; i < 1000; i++) {
+            assertArrayEquals(bytes(1, i), mCache.getBytes("key" + i));
+        }
+    }
+
+    @Test
+    public void keepsSizeUnderMaxSize() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            mCache.put("key" + i, bytes(i % 50, i));
+            assertTrue(mCache.size() <= mCache.maxSize());
+            if (i % 3 == 0) {
+                mCache.getBytes("key" + (i / 2));
+            }
+        }
+        // The most recently put entry is never evicted.
+        assertArrayEquals(bytes(999 % 50, 999), mCache.getBytes("key999"));
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (value + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * BitArray is a growable array of bits indexed by non-negative integers, all initially clear.
+ * Unlike a SparseBooleanArray or a set of Integers, it doesn't need a binary search or
+ * boxing to get a bit, and it uses one bit of memory per index up to the highest set bit.
+ *
+ * <p>Besides the operations of {@link java.util.BitSet}, it can count the set bits before an
+ * index with {@link #rank(int)}, find the index of the n-th set bit with {@link #select(int)},
+ * and shift the bits after an index when indices are inserted or removed, such as the
+ * positions of an adapter, with {@link #insertRange(int, int)} and
+ * {@link #removeRange(int, int)}.</p>
+ */
+public final class BitArray {
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    private long[] mWords;
+    // The words at and after this index are all zero.
+    private int mWordsInUse;
+
+    /**
+     * Creates a new BitArray with all its bits clear.
+     */
+    public BitArray() {
+        this(BITS_PER_WORD);
+    }
+
+    /**
+     * Creates a new BitArray with all its bits clear, that will not require any additional
+     * memory allocation to set the bits below the specified index.
+     */
+    public BitArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0: " + initialCapacity);
+        }
+        mWords = initialCapacity == 0 ? ContainerHelpers.EMPTY_LONGS
+                : new long[wordIndex(initialCapacity - 1) + 1];
+    }
+
+    /**
+     * Returns whether the bit at the specified index is set.
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        int wordIndex = wordIndex(index);
+        return wordIndex < mWordsInUse && (mWords[wordIndex] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit at the specified index.
+     */
+    public void set(int index) {
+        checkIndex(index);
+        int wordIndex = wordIndex(index);
+        ensureWordsInUse(wordIndex + 1);
+        mWords[wordIndex] |= 1L << index;
+    }
+
+    /**
+     * Sets the bit at the specified index to the specified value.
+     */
+    public void set(int index, boolean value) {
+        if (value) {
+            set(index);
+        } else {
+            clear(index);
+        }
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the specified
+     * {@code toIndex} (exclusive).
+     */
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int startWordIndex = wordIndex(fromIndex);
+        int endWordIndex = wordIndex(toIndex - 1);
+        ensureWordsInUse(endWordIndex + 1);
+        long firstWordMask = -1L << fromIndex;
+        long lastWordMask = -1L >>> -toIndex;
+        if (startWordIndex == endWordIndex) {
+            mWords[startWordIndex] |= firstWordMask & lastWordMask;
+        } else {
+            mWords[startWordIndex] |= firstWordMask;
+            for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+                mWords[i] = -1L;
+            }
+            mWords[endWordIndex] |= lastWordMask;
+        }
+    }
+
+    /**
+     * Clears the bit at the specified index.
+     */
+    public void clear(int index) {
+        checkIndex(index);
+        int wordIndex = wordIndex(index);
+        if (wordIndex >= mWordsInUse) {
+            return;
+        }
+        mWords[wordIndex] &= ~(1L << index);
+        recalculateWordsInUse();
+    }
+
+    /**
+     * Clears the bits from the specified {@code fromIndex} (inclusive) to the specified
+     * {@code toIndex} (exclusive).
+     */
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        int startWordIndex = wordIndex(fromIndex);
+        if (fromIndex == toIndex || startWordIndex >= mWordsInUse) {
+            return;
+        }
+        int endWordIndex = wordIndex(toIndex - 1);
+        long lastWordMask = -1L >>> -toIndex;
+        if (endWordIndex >= mWordsInUse) {
+            endWordIndex = mWordsInUse - 1;
+            lastWordMask = -1L;
+        }
+        long firstWordMask = -1L << fromIndex;
+        if (startWordIndex == endWordIndex) {
+            mWords[startWordIndex] &= ~(firstWordMask & lastWordMask);
+        } else {
+            mWords[startWordIndex] &= ~firstWordMask;
+            for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+                mWords[i] = 0;
+            }
+            mWords[endWordIndex] &= ~lastWordMask;
+        }
+        recalculateWordsInUse();
+    }
+
+    /**
+     * Clears all the bits.
+     */
+    public void clear() {
+        for (int i = 0; i < mWordsInUse; i++) {
+            mWords[i] = 0;
+        }
+        mWordsInUse = 0;
+    }
+
+    /**
+     * Returns whether no bit is set.
+     */
+    public boolean isEmpty() {
+        return mWordsInUse == 0;
+    }
+
+    /**
+     * Returns the index of the highest set bit plus one, or zero if no bit is set.
+     */
+    public int length() {
+        if (mWordsInUse == 0) {
+            return 0;
+        }
+        return BITS_PER_WORD * (mWordsInUse - 1)
+                + (BITS_PER_WORD - Long.numberOfLeadingZeros(mWords[mWordsInUse - 1]));
+    }
+
+    /**
+     * Returns the number of set bits.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < mWordsInUse; i++) {
+            count += Long.bitCount(mWords[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of set bits before the specified index.
+     */
+    public int rank(int index) {
+        checkIndex(index);
+        int wordIndex = wordIndex(index);
+        if (wordIndex >= mWordsInUse) {
+            return cardinality();
+        }
+        int count = 0;
+        for (int i = 0; i < wordIndex; i++) {
+            count += Long.bitCount(mWords[i]);
+        }
+        return count + Long.bitCount(mWords[wordIndex] & ~(-1L << index));
+    }
+
+    /**
+     * Returns the index of the set bit with the specified rank, that is the index of the
+     * {@code (rank + 1)}-th set bit, or -1 if less bits are set.
+     *
+     * <p>Iterating over the set bits using <code>select(int)</code> with ascending values of
+     * the rank will return the indices of the set bits in ascending order.</p>
+     */
+    public int select(int rank) {
+        if (rank < 0) {
+            throw new IndexOutOfBoundsException("rank < 0: " + rank);
+        }
+        int remaining = rank;
+        for (int i = 0; i < mWordsInUse; i++) {
+            long word = mWords[i];
+            int count = Long.bitCount(word);
+            if (remaining < count) {
+                for (int j = 0; j < remaining; j++) {
+                    // Clear the lowest set bit.
+                    word &= word - 1;
+                }
+                return i * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= count;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first set bit at or after the specified index, or -1 if there
+     * is none.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int wordIndex = wordIndex(fromIndex);
+        if (wordIndex >= mWordsInUse) {
+            return -1;
+        }
+        long word = mWords[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == mWordsInUse) {
+                return -1;
+            }
+            word = mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the index of the first clear bit at or after the specified index.
+     */
+    public int nextClearBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int wordIndex = wordIndex(fromIndex);
+        if (wordIndex >= mWordsInUse) {
+            return fromIndex;
+        }
+        long word = ~mWords[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == mWordsInUse) {
+                return wordIndex * BITS_PER_WORD;
+            }
+            word = ~mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the index of the last set bit at or before the specified index, or -1 if there
+     * is none.
+     */
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            return -1;
+        }
+        int wordIndex = wordIndex(fromIndex);
+        if (wordIndex >= mWordsInUse) {
+            return length() - 1;
+        }
+        long word = mWords[wordIndex] & (-1L >>> -(fromIndex + 1));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIndex-- == 0) {
+                return -1;
+            }
+            word = mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Inserts {@code count} clear bits at the specified index: the bits at and after the index
+     * are moved {@code count} indices up.
+     */
+    public void insertRange(int index, int count) {
+        checkIndex(index);
+        checkCount(count);
+        int length = length();
+        if (count == 0 || index >= length) {
+            return;
+        }
+        long newLength = (long) length + count;
+        if (newLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Max index exceeded");
+        }
+        int startWordIndex = wordIndex(index);
+        long lowMask = ~(-1L << index);
+        long low = mWords[startWordIndex] & lowMask;
+        mWords[startWordIndex] &= ~lowMask;
+        int newWordsInUse = wordIndex((int) newLength - 1) + 1;
+        ensureCapacity(newWordsInUse);
+        // From the highest word down, so that the words are read before being written.
+        for (int i = newWordsInUse - 1; i >= startWordIndex; i--) {
+            mWords[i] = wordAt((long) i * BITS_PER_WORD - count, startWordIndex);
+        }
+        mWords[startWordIndex] |= low;
+        mWordsInUse = newWordsInUse;
+    }
+
+    /**
+     * Removes the {@code count} bits at the specified index: the bits after them are moved
+     * {@code count} indices down.
+     */
+    public void removeRange(int index, int count) {
+        checkIndex(index);
+        checkCount(count);
+        int startWordIndex = wordIndex(index);
+        if (count == 0 || startWordIndex >= mWordsInUse) {
+            return;
+        }
+        long lowMask = ~(-1L << index);
+        long low = mWords[startWordIndex] & lowMask;
+        // From the lowest word up, so that the words are read before being written.
+        for (int i = startWordIndex; i < mWordsInUse; i++) {
+            mWords[i] = wordAt((long) i * BITS_PER_WORD + count, 0);
+        }
+        mWords[startWordIndex] = low | (mWords[startWordIndex] & ~lowMask);
+        recalculateWordsInUse();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitArray)) {
+            return false;
+        }
+        BitArray other = (BitArray) o;
+        if (mWordsInUse != other.mWordsInUse) {
+            return false;
+        }
+        for (int i = 0; i < mWordsInUse; i++) {
+            if (mWords[i] != other.mWords[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = 1234;
+        for (int i = mWordsInUse - 1; i >= 0; i--) {
+            hash ^= mWords[i] * (i + 1);
+        }
+        return (int) ((hash >> 32) ^ hash);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over the indices of its set bits.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "{}";
+        }
+        StringBuilder buffer = new StringBuilder(mWordsInUse * 16);
+        buffer.append('{');
+        for (int i = nextSetBit(0); i >= 0; i = i < Integer.MAX_VALUE ? nextSetBit(i + 1) : -1) {
+            if (buffer.length() > 1) {
+                buffer.append(", ");
+            }
+            buffer.append(i);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    /**
+     * Returns the 64 bits starting at the specified bit position, which may be negative. The
+     * words before {@code fromWordIndex} are read as clear.
+     */
+    private long wordAt(long position, int fromWordIndex) {
+        int wordIndex = (int) (position >> ADDRESS_BITS_PER_WORD);
+        int shift = (int) (position & (BITS_PER_WORD - 1));
+        long word = wordOrZero(wordIndex, fromWordIndex) >>> shift;
+        if (shift != 0) {
+            word |= wordOrZero(wordIndex + 1, fromWordIndex) << (BITS_PER_WORD - shift);
+        }
+        return word;
+    }
+
+    private long wordOrZero(int wordIndex, int fromWordIndex) {
+        return wordIndex >= fromWordIndex && wordIndex < mWordsInUse ? mWords[wordIndex] : 0;
+    }
+
+    private void ensureWordsInUse(int wordsRequired) {
+        if (mWordsInUse < wordsRequired) {
+            ensureCapacity(wordsRequired);
+            mWordsInUse = wordsRequired;
+        }
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (mWords.length < wordsRequired) {
+            long[] words = new long[Math.max(2 * mWords.length, wordsRequired)];
+            System.arraycopy(mWords, 0, words, 0, mWordsInUse);
+            mWords = words;
+        }
+    }
+
+    private void recalculateWordsInUse() {
+        int i = mWordsInUse - 1;
+        while (i >= 0 && mWords[i] == 0) {
+            i--;
+        }
+        mWordsInUse = i + 1;
+    }
+
+    private static int wordIndex(int index) {
+        return index >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index < 0: " + index);
+        }
+    }
+
+    private static void checkRange(int fromIndex, int toIndex) {
+        checkIndex(fromIndex);
+        if (toIndex < fromIndex) {
+            throw new IndexOutOfBoundsException(
+                    "fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+        }
+    }
+
+    private static void checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count < 0: " + count);
+        }
+    }
+}
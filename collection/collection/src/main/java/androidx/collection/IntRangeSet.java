@@ -0,0 +1,452 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+/**
+ * IntRangeSet is a set of ints from 0 to {@code Integer.MAX_VALUE - 1} stored as sorted ranges
+ * of consecutive values. It uses memory proportional to the number of ranges rather than to
+ * the number of values, so it is more efficient than a {@link BitArray} or a SparseBooleanArray
+ * when the values are mostly contiguous, such as the selected positions of a list after a range
+ * selection.
+ *
+ * <p>Lookups use a binary search over the ranges. Adding or removing a range of values and
+ * shifting the values after an index, when indices are inserted or removed with
+ * {@link #insertRange(int, int)} and {@link #removeRange(int, int)}, touch each range at most
+ * once instead of each value.</p>
+ *
+ * <p>The ranges can be iterated with {@link #rangeCount()}, {@link #rangeStartAt(int)} and
+ * {@link #rangeEndAt(int)}, and the values with {@link #nextValue(int)}.</p>
+ */
+public final class IntRangeSet {
+    // The start (inclusive) and end (exclusive) of each range. The ranges are sorted, and
+    // neither overlap nor touch each other.
+    private int[] mStarts;
+    private int[] mEnds;
+    private int mRangeCount;
+    private int mSize;
+    // The number of values in the ranges before each range, computed on demand by rank(int)
+    // and select(int).
+    private int[] mCountsBefore;
+    private boolean mCountsBeforeValid;
+
+    /**
+     * Creates a new empty IntRangeSet.
+     */
+    public IntRangeSet() {
+        this(4);
+    }
+
+    /**
+     * Creates a new empty IntRangeSet, that will not require any additional memory allocation
+     * to hold the specified number of ranges.
+     */
+    public IntRangeSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0: " + initialCapacity);
+        }
+        if (initialCapacity == 0) {
+            mStarts = ContainerHelpers.EMPTY_INTS;
+            mEnds = ContainerHelpers.EMPTY_INTS;
+        } else {
+            mStarts = new int[initialCapacity];
+            mEnds = new int[initialCapacity];
+        }
+        mCountsBefore = ContainerHelpers.EMPTY_INTS;
+    }
+
+    /**
+     * Returns whether the set contains the specified value.
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = firstRangeEndingAfter(value);
+        return i < mRangeCount && mStarts[i] <= value;
+    }
+
+    /**
+     * Adds the specified value to the set.
+     *
+     * @return whether the set didn't already contain the value.
+     */
+    public boolean add(int value) {
+        int size = mSize;
+        add(value, value + 1);
+        return size != mSize;
+    }
+
+    /**
+     * Adds the values from the specified {@code from} (inclusive) to the specified
+     * {@code to} (exclusive) to the set.
+     */
+    public void add(int from, int to) {
+        checkRange(from, to);
+        if (from == to) {
+            return;
+        }
+        // The ranges which overlap or touch the new one are merged with it.
+        int first = firstRangeEndingAfter(from - 1);
+        int last = firstRangeStartingAfter(to) - 1;
+        int start = from;
+        int end = to;
+        if (first <= last) {
+            start = Math.min(start, mStarts[first]);
+            end = Math.max(end, mEnds[last]);
+            for (int i = first; i <= last; i++) {
+                mSize -= mEnds[i] - mStarts[i];
+            }
+        }
+        replaceRanges(first, last + 1, 1);
+        mStarts[first] = start;
+        mEnds[first] = end;
+        mSize += end - start;
+    }
+
+    /**
+     * Removes the specified value from the set.
+     *
+     * @return whether the set contained the value.
+     */
+    public boolean remove(int value) {
+        int size = mSize;
+        remove(value, value + 1);
+        return size != mSize;
+    }
+
+    /**
+     * Removes the values from the specified {@code from} (inclusive) to the specified
+     * {@code to} (exclusive) from the set.
+     */
+    public void remove(int from, int to) {
+        checkRange(from, to);
+        int first = firstRangeEndingAfter(from);
+        int last = firstRangeStartingAfter(to - 1) - 1;
+        if (from == to || first > last) {
+            return;
+        }
+        // The parts of the first and last overlapping ranges outside of the removed values
+        // are kept.
+        int firstStart = mStarts[first];
+        int lastEnd = mEnds[last];
+        for (int i = first; i <= last; i++) {
+            mSize -= mEnds[i] - mStarts[i];
+        }
+        boolean keepBefore = firstStart < from;
+        boolean keepAfter = lastEnd > to;
+        replaceRanges(first, last + 1, (keepBefore ? 1 : 0) + (keepAfter ? 1 : 0));
+        int i = first;
+        if (keepBefore) {
+            mStarts[i] = firstStart;
+            mEnds[i] = from;
+            mSize += from - firstStart;
+            i++;
+        }
+        if (keepAfter) {
+            mStarts[i] = to;
+            mEnds[i] = lastEnd;
+            mSize += lastEnd - to;
+        }
+    }
+
+    /**
+     * Removes all the values from the set.
+     */
+    public void clear() {
+        mRangeCount = 0;
+        mSize = 0;
+        mCountsBeforeValid = false;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns whether the set contains no value.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Returns the number of values in the set which are less than the specified value.
+     */
+    public int rank(int value) {
+        if (value <= 0) {
+            return 0;
+        }
+        ensureCountsBefore();
+        int i = firstRangeEndingAfter(value);
+        if (i == mRangeCount) {
+            return mSize;
+        }
+        return mCountsBefore[i] + Math.max(0, value - mStarts[i]);
+    }
+
+    /**
+     * Returns the value with the specified rank, that is the {@code (rank + 1)}-th smallest
+     * value of the set, or -1 if the set has less values.
+     */
+    public int select(int rank) {
+        if (rank < 0) {
+            throw new IndexOutOfBoundsException("rank < 0: " + rank);
+        }
+        if (rank >= mSize) {
+            return -1;
+        }
+        ensureCountsBefore();
+        // Finds the last range with at most rank values before it.
+        int lo = 0;
+        int hi = mRangeCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (mCountsBefore[mid] <= rank) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return mStarts[lo] + rank - mCountsBefore[lo];
+    }
+
+    /**
+     * Returns the smallest value of the set greater than or equal to the specified value, or -1
+     * if there is none.
+     */
+    public int nextValue(int from) {
+        int i = firstRangeEndingAfter(Math.max(from, 0));
+        if (i == mRangeCount) {
+            return -1;
+        }
+        return Math.max(mStarts[i], from);
+    }
+
+    /**
+     * Inserts {@code count} indices at the specified index: the values greater than or equal to
+     * the index are increased by {@code count}. The inserted indices are not in the set.
+     */
+    public void insertRange(int index, int count) {
+        checkIndex(index);
+        checkCount(count);
+        int first = firstRangeEndingAfter(index);
+        if (count == 0 || first == mRangeCount) {
+            return;
+        }
+        if (mEnds[mRangeCount - 1] > Integer.MAX_VALUE - count) {
+            throw new IllegalStateException("Max value exceeded");
+        }
+        if (mStarts[first] < index) {
+            // The range containing the index is split around the inserted indices.
+            int start = mStarts[first];
+            int end = mEnds[first];
+            replaceRanges(first, first + 1, 2);
+            mStarts[first] = start;
+            mEnds[first] = index;
+            mStarts[first + 1] = index;
+            mEnds[first + 1] = end;
+            first++;
+        }
+        for (int i = first; i < mRangeCount; i++) {
+            mStarts[i] += count;
+            mEnds[i] += count;
+        }
+        mCountsBeforeValid = false;
+    }
+
+    /**
+     * Removes the {@code count} indices at the specified index: the values of the set in the
+     * removed indices are removed, and the values after them are decreased by {@code count}.
+     */
+    public void removeRange(int index, int count) {
+        checkIndex(index);
+        checkCount(count);
+        if (count == 0) {
+            return;
+        }
+        int end = (int) Math.min((long) index + count, Integer.MAX_VALUE);
+        remove(index, end);
+        int first = firstRangeEndingAfter(index);
+        for (int i = first; i < mRangeCount; i++) {
+            mStarts[i] -= count;
+            mEnds[i] -= count;
+        }
+        // The ranges on both sides of the removed indices now touch each other.
+        if (first > 0 && first < mRangeCount && mEnds[first - 1] == mStarts[first]) {
+            mEnds[first - 1] = mEnds[first];
+            replaceRanges(first, first + 1, 0);
+        }
+        mCountsBeforeValid = false;
+    }
+
+    /**
+     * Returns the number of ranges of consecutive values in the set.
+     */
+    public int rangeCount() {
+        return mRangeCount;
+    }
+
+    /**
+     * Given an index in the range <code>0...rangeCount()-1</code>, returns the smallest value of
+     * the <code>index</code>th range of consecutive values.
+     */
+    public int rangeStartAt(int index) {
+        checkRangeIndex(index);
+        return mStarts[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...rangeCount()-1</code>, returns the largest value of
+     * the <code>index</code>th range of consecutive values plus one.
+     */
+    public int rangeEndAt(int index) {
+        checkRangeIndex(index);
+        return mEnds[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its ranges.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        if (mRangeCount == 0) {
+            return "[]";
+        }
+        StringBuilder buffer = new StringBuilder(mRangeCount * 12);
+        buffer.append('[');
+        for (int i = 0; i < mRangeCount; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mStarts[i]);
+            if (mEnds[i] - mStarts[i] > 1) {
+                buffer.append("..");
+                buffer.append(mEnds[i] - 1);
+            }
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+
+    /**
+     * Replaces the ranges from {@code from} (inclusive) to {@code to} (exclusive) with
+     * {@code count} ranges to be filled by the caller.
+     */
+    private void replaceRanges(int from, int to, int count) {
+        int newRangeCount = mRangeCount - (to - from) + count;
+        if (newRangeCount > mStarts.length) {
+            int capacity = Math.max(newRangeCount, mStarts.length * 2);
+            int[] starts = new int[capacity];
+            int[] ends = new int[capacity];
+            System.arraycopy(mStarts, 0, starts, 0, from);
+            System.arraycopy(mEnds, 0, ends, 0, from);
+            System.arraycopy(mStarts, to, starts, from + count, mRangeCount - to);
+            System.arraycopy(mEnds, to, ends, from + count, mRangeCount - to);
+            mStarts = starts;
+            mEnds = ends;
+        } else if (to - from != count) {
+            System.arraycopy(mStarts, to, mStarts, from + count, mRangeCount - to);
+            System.arraycopy(mEnds, to, mEnds, from + count, mRangeCount - to);
+        }
+        mRangeCount = newRangeCount;
+        mCountsBeforeValid = false;
+    }
+
+    private void ensureCountsBefore() {
+        if (mCountsBeforeValid) {
+            return;
+        }
+        if (mCountsBefore.length < mRangeCount) {
+            mCountsBefore = new int[mStarts.length];
+        }
+        int count = 0;
+        for (int i = 0; i < mRangeCount; i++) {
+            mCountsBefore[i] = count;
+            count += mEnds[i] - mStarts[i];
+        }
+        mCountsBeforeValid = true;
+    }
+
+    /**
+     * Returns the index of the first range whose end is greater than the specified value, that
+     * is the first range which contains the value or starts after it.
+     */
+    private int firstRangeEndingAfter(int value) {
+        int lo = 0;
+        int hi = mRangeCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mEnds[mid] > value) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the first range whose start is greater than the specified value.
+     */
+    private int firstRangeStartingAfter(int value) {
+        int lo = 0;
+        int hi = mRangeCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mStarts[mid] > value) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private void checkRangeIndex(int index) {
+        if (index < 0 || index >= mRangeCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", rangeCount: "
+                    + mRangeCount);
+        }
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index < 0: " + index);
+        }
+    }
+
+    private static void checkRange(int from, int to) {
+        checkIndex(from);
+        if (to < from) {
+            throw new IndexOutOfBoundsException("from: " + from + " > to: " + to);
+        }
+    }
+
+    private static void checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count < 0: " + count);
+        }
+    }
+}
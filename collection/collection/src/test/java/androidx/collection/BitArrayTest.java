@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.BitSet;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class BitArrayTest {
+    @Test
+    public void getReturnsSetBits() {
+        BitArray bits = new BitArray();
+        bits.set(3);
+        bits.set(200);
+        assertTrue(bits.get(3));
+        assertTrue(bits.get(200));
+        assertFalse(bits.get(4));
+        assertFalse(bits.get(1000));
+        assertEquals("{3, 200}", bits.toString());
+    }
+
+    @Test
+    public void clearKeepsOtherBits() {
+        BitArray bits = new BitArray();
+        bits.set(0, 130);
+        bits.clear(64);
+        bits.clear(100, 130);
+        assertFalse(bits.get(64));
+        assertTrue(bits.get(63));
+        assertTrue(bits.get(99));
+        assertEquals(99, bits.cardinality());
+        assertEquals(100, bits.length());
+    }
+
+    @Test
+    public void rankCountsSetBitsBeforeIndex() {
+        BitArray bits = new BitArray();
+        bits.set(1);
+        bits.set(64);
+        bits.set(65);
+        assertEquals(0, bits.rank(1));
+        assertEquals(1, bits.rank(64));
+        assertEquals(2, bits.rank(65));
+        assertEquals(3, bits.rank(1000));
+    }
+
+    @Test
+    public void selectReturnsIndexOfRank() {
+        BitArray bits = new BitArray();
+        bits.set(1);
+        bits.set(64);
+        bits.set(130);
+        assertEquals(1, bits.select(0));
+        assertEquals(64, bits.select(1));
+        assertEquals(130, bits.select(2));
+        assertEquals(-1, bits.select(3));
+    }
+
+    @Test
+    public void nextAndPreviousSetBit() {
+        BitArray bits = new BitArray();
+        bits.set(10);
+        bits.set(300);
+        assertEquals(10, bits.nextSetBit(0));
+        assertEquals(300, bits.nextSetBit(11));
+        assertEquals(-1, bits.nextSetBit(301));
+        assertEquals(10, bits.previousSetBit(299));
+        assertEquals(300, bits.previousSetBit(1000));
+        assertEquals(-1, bits.previousSetBit(9));
+        assertEquals(11, bits.nextClearBit(10));
+    }
+
+    @Test
+    public void insertRangeShiftsBitsUp() {
+        BitArray bits = new BitArray();
+        bits.set(2);
+        bits.set(5);
+        bits.set(63);
+        bits.insertRange(5, 70);
+        assertEquals("{2, 75, 133}", bits.toString());
+    }
+
+    @Test
+    public void removeRangeShiftsBitsDown() {
+        BitArray bits = new BitArray();
+        bits.set(2);
+        bits.set(5);
+        bits.set(75);
+        bits.set(133);
+        bits.removeRange(5, 70);
+        assertEquals("{2, 5, 63}", bits.toString());
+    }
+
+    @Test
+    public void equalsIgnoresCapacity() {
+        BitArray small = new BitArray(0);
+        BitArray large = new BitArray(1000);
+        small.set(5);
+        large.set(5);
+        large.set(900);
+        large.clear(900);
+        assertEquals(small, large);
+        assertEquals(small.hashCode(), large.hashCode());
+    }
+
+    @Test
+    public void matchesBitSet() {
+        Random random = new Random(0);
+        BitArray bits = new BitArray();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 2000; i++) {
+            int index = random.nextInt(500);
+            int count = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    bits.set(index, index + count);
+                    expected.set(index, index + count);
+                    break;
+                case 1:
+                    bits.clear(index, index + count);
+                    expected.clear(index, index + count);
+                    break;
+                case 2:
+                    bits.insertRange(index, count);
+                    expected = shift(expected, index, count);
+                    break;
+                default:
+                    bits.removeRange(index, count);
+                    expected.clear(index, index + count);
+                    expected = shift(expected, index + count, -count);
+                    break;
+            }
+            assertEquals(expected.toString(), bits.toString());
+            assertEquals(expected.cardinality(), bits.cardinality());
+            assertEquals(expected.get(0, index).cardinality(), bits.rank(index));
+        }
+    }
+
+    private static BitSet shift(BitSet bits, int fromIndex, int count) {
+        BitSet shifted = new BitSet();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            shifted.set(i < fromIndex ? i : i + count);
+        }
+        return shifted;
+    }
+}
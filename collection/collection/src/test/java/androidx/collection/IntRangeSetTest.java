@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+@RunWith(JUnit4.class)
+public class IntRangeSetTest {
+    @Test
+    public void addMergesTouchingRanges() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(0, 5);
+        set.add(10, 15);
+        assertEquals(2, set.rangeCount());
+        set.add(5, 10);
+        assertEquals(1, set.rangeCount());
+        assertEquals(0, set.rangeStartAt(0));
+        assertEquals(15, set.rangeEndAt(0));
+        assertEquals(15, set.size());
+    }
+
+    @Test
+    public void addReturnsWhetherAbsent() {
+        IntRangeSet set = new IntRangeSet();
+        assertTrue(set.add(3));
+        assertFalse(set.add(3));
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+    }
+
+    @Test
+    public void removeSplitsRange() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(0, 10);
+        set.remove(3, 5);
+        assertTrue(set.remove(8));
+        assertFalse(set.remove(8));
+        assertEquals("[0..2, 5..7, 9]", set.toString());
+        assertEquals(7, set.size());
+    }
+
+    @Test
+    public void rankAndSelect() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        assertEquals(0, set.rank(10));
+        assertEquals(5, set.rank(15));
+        assertEquals(10, set.rank(25));
+        assertEquals(15, set.rank(35));
+        assertEquals(20, set.rank(100));
+        assertEquals(10, set.select(0));
+        assertEquals(30, set.select(10));
+        assertEquals(39, set.select(19));
+        assertEquals(-1, set.select(20));
+    }
+
+    @Test
+    public void nextValue() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(10, 20);
+        assertEquals(10, set.nextValue(0));
+        assertEquals(15, set.nextValue(15));
+        assertEquals(-1, set.nextValue(20));
+    }
+
+    @Test
+    public void insertRangeSplitsRange() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(0, 10);
+        set.add(20);
+        set.insertRange(5, 100);
+        assertEquals("[0..4, 105..109, 120]", set.toString());
+        assertEquals(11, set.size());
+    }
+
+    @Test
+    public void removeRangeMergesRanges() {
+        IntRangeSet set = new IntRangeSet();
+        set.add(0, 5);
+        set.add(10, 15);
+        set.add(20);
+        set.removeRange(5, 5);
+        assertEquals("[0..9, 15]", set.toString());
+        set.removeRange(3, 10);
+        assertEquals("[0..2, 5]", set.toString());
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    public void matchesTreeSet() {
+        Random random = new Random(0);
+        IntRangeSet set = new IntRangeSet(0);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            int index = random.nextInt(500);
+            int count = random.nextInt(50);
+            switch (random.nextInt(4)) {
+                case 0:
+                    set.add(index, index + count);
+                    for (int value = index; value < index + count; value++) {
+                        expected.add(value);
+                    }
+                    break;
+                case 1:
+                    set.remove(index, index + count);
+                    for (int value = index; value < index + count; value++) {
+                        expected.remove(value);
+                    }
+                    break;
+                case 2:
+                    set.insertRange(index, count);
+                    expected = shift(expected, index, count);
+                    break;
+                default:
+                    set.removeRange(index, count);
+                    expected.subSet(index, index + count).clear();
+                    expected = shift(expected, index + count, -count);
+                    break;
+            }
+            assertEquals(expected.size(), set.size());
+            assertEquals(expected.headSet(index).size(), set.rank(index));
+            Integer next = expected.ceiling(index);
+            assertEquals(next != null ? next : -1, set.nextValue(index));
+            for (int range = 1; range < set.rangeCount(); range++) {
+                assertTrue(set.rangeEndAt(range - 1) < set.rangeStartAt(range));
+            }
+        }
+    }
+
+    private static TreeSet<Integer> shift(TreeSet<Integer> values, int from, int count) {
+        TreeSet<Integer> shifted = new TreeSet<>();
+        for (int value : values) {
+            shifted.add(value < from ? value : value + count);
+        }
+        return shifted;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.graphics;
+
+import android.graphics.Path;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+/**
+ * Compares parsing and morphing paths as arrays of {@link PathParser.PathDataNode} and as
+ * {@link PathParser.PathData}, on a path of {@link #SEGMENT_COUNT} curves.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class PathParserBenchmark {
+
+    private static final int SEGMENT_COUNT = 64;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final String mFrom = createPathData(0f);
+    private final String mTo = createPathData(0.5f);
+
+    @Test
+    public void parseNodes() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            PathParser.createNodesFromPathData(mFrom);
+        }
+    }
+
+    @Test
+    public void parsePathData() {
+        PathParser.PathData pathData = new PathParser.PathData();
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            pathData.parse(mFrom);
+        }
+    }
+
+    @Test
+    public void morphNodes() {
+        PathParser.PathDataNode[] from = PathParser.createNodesFromPathData(mFrom);
+        PathParser.PathDataNode[] to = PathParser.createNodesFromPathData(mTo);
+        PathParser.PathDataNode[] target = PathParser.deepCopyNodes(from);
+        Path path = new Path();
+        float fraction = 0f;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            PathParser.interpolatePathDataNodes(target, from, to, fraction);
+            path.reset();
+            PathParser.PathDataNode.nodesToPath(target, path);
+            fraction = fraction >= 1f ? 0f : fraction + 0.01f;
+        }
+    }
+
+    @Test
+    public void morphPathData() {
+        PathParser.PathData from = new PathParser.PathData(mFrom);
+        PathParser.PathData to = new PathParser.PathData(mTo);
+        PathParser.PathData target = new PathParser.PathData(from);
+        Path path = new Path();
+        float fraction = 0f;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            target.interpolate(from, to, fraction);
+            path.reset();
+            target.toPath(path);
+            fraction = fraction >= 1f ? 0f : fraction + 0.01f;
+        }
+    }
+
+    // A star-like shape of curves, whose points move out with the offset.
+    private static String createPathData(float offset) {
+        StringBuilder builder = new StringBuilder("M12,2");
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            double angle = 2 * Math.PI * (i + 1) / SEGMENT_COUNT;
+            float radius = (i % 2 == 0 ? 6f : 10f) + offset;
+            float x = (float) (12 + radius * Math.sin(angle));
+            float y = (float) (12 - radius * Math.cos(angle));
+            builder.append(String.format(Locale.US, " C%.3f,%.3f %.3f,%.3f %.3f,%.3f",
+                    x - offset, y, x, y + offset, x, y));
+        }
+        return builder.append('z').toString();
+    }
+}
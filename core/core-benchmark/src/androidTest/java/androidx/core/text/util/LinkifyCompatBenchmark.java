@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.text.util;
+
+import android.text.SpannableString;
+import android.text.util.Linkify;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.util.PatternsCompat;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+
+/**
+ * Measures finding the links of a chat log of about {@link #TEXT_LENGTH} characters with the
+ * compat implementation of {@link LinkifyCompat}, at once and one link type at a time, and
+ * compares it with scanning the whole text with the patterns of {@link PatternsCompat}.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LinkifyCompatBenchmark {
+
+    private static final int TEXT_LENGTH = 16 * 1024;
+
+    private static final String[] WORDS = {"hey", "are", "you", "coming", "tonight?", "see",
+            "www.android.com", "mail", "me", "at", "android@example.com", "or", "call",
+            "+1", "650-555-0100.", "Sure,", "thanks!", "I'll", "be", "there", "at", "8.",
+            "http://developer.android.com/guide", "lol", "e.g.", "the", "new", "place"};
+
+    private static final int[] MASKS = {Linkify.WEB_URLS, Linkify.EMAIL_ADDRESSES,
+            Linkify.PHONE_NUMBERS};
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final String mText = createText();
+
+    @Test
+    public void addLinks() {
+        int mask = Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES | Linkify.PHONE_NUMBERS;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            LinkifyCompat.addLinksCompat(new SpannableString(mText), mask);
+        }
+    }
+
+    // As LegacyTextClassifier did for each requested entity type.
+    @Test
+    public void addLinksPerType() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int mask : MASKS) {
+                LinkifyCompat.addLinksCompat(new SpannableString(mText), mask);
+            }
+        }
+    }
+
+    @Test
+    public void addWebUrlsAndEmailAddresses() {
+        int mask = Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            LinkifyCompat.addLinksCompat(new SpannableString(mText), mask);
+        }
+    }
+
+    // Each pattern searched over the whole text, as addLinks did before splitting it into words.
+    @Test
+    public void findWebUrlsAndEmailAddresses() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Matcher urlMatcher = PatternsCompat.AUTOLINK_WEB_URL.matcher(mText);
+            while (urlMatcher.find()) {
+                urlMatcher.group(0);
+            }
+            Matcher emailMatcher = PatternsCompat.AUTOLINK_EMAIL_ADDRESS.matcher(mText);
+            while (emailMatcher.find()) {
+                emailMatcher.group(0);
+            }
+        }
+    }
+
+    private static String createText() {
+        Random random = new Random(0);
+        StringBuilder builder = new StringBuilder(TEXT_LENGTH + 64);
+        while (builder.length() < TEXT_LENGTH) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+            builder.append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.core.graphics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+
+@SmallTest
+public final class PathParserTest {
+    private static final String HEART = "M20.5,9.5\n"
+            + "    c-1.965,0,-3.83,1.268,-4.5,3\n"
+            + "    c-0.17,-1.732,-2.547,-3,-4.5,-3\n"
+            + "    C8.957,9.5,7,11.432,7,14\n"
+            + "    c0,3.53,3.793,6.257,9,11.5\n"
+            + "    c5.207,-5.242,9,-7.97,9,-11.5\n"
+            + "    C25,11.432,23.043,9.5,20.5,9.5z";
+
+    @Test
+    public void createNodesFromPathData() {
+        PathParser.PathDataNode[] nodes =
+                PathParser.createNodesFromPathData("M1-2.5.5e1,3E-1 l.5.5 10,10z 3 H4");
+        assertEquals(4, nodes.length);
+        assertEquals('M', nodes[0].mType);
+        assertArrayEquals(new float[] {1f, -2.5f, 5f, 0.3f}, nodes[0].mParams, 0f);
+        assertEquals('l', nodes[1].mType);
+        assertArrayEquals(new float[] {0.5f, 0.5f, 10f, 10f}, nodes[1].mParams, 0f);
+        assertEquals('z', nodes[2].mType);
+        assertEquals(0, nodes[2].mParams.length);
+        assertEquals('H', nodes[3].mType);
+        assertArrayEquals(new float[] {4f}, nodes[3].mParams, 0f);
+    }
+
+    @Test
+    public void createNodesFromPathData_matchesParseFloat() {
+        String[] numbers = {"0", "-0.0", "1", "123.456", "-0.0001", ".5", "1e10", "1.5E-7",
+                "3.4028235e38", "1.17549435E-38", "12345678901234567890", "0.1234567890123456789"};
+        for (String number : numbers) {
+            PathParser.PathDataNode[] nodes = PathParser.createNodesFromPathData("h" + number);
+            float expected = Float.parseFloat(number);
+            assertEquals(number, expected, nodes[0].mParams[0], Math.ulp(expected));
+        }
+    }
+
+    @Test
+    public void createNodesFromPathData_invalidNumber() {
+        String[] invalid = {"M1,-", "M1e", "M1,2 #"};
+        for (String pathData : invalid) {
+            try {
+                PathParser.createNodesFromPathData(pathData);
+                fail("Parsing " + pathData + " should fail");
+            } catch (RuntimeException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void pathData_splitsImplicitCommands() {
+        PathParser.PathData pathData =
+                new PathParser.PathData("M1,2 3,4 5,6 c1,2,3,4,5,6,7,8,9,10,11,12Z");
+        assertEquals(6, pathData.getCommandCount());
+        assertEquals('M', pathData.getCommand(0));
+        assertEquals('L', pathData.getCommand(1));
+        assertEquals('L', pathData.getCommand(2));
+        assertEquals('c', pathData.getCommand(3));
+        assertEquals('c', pathData.getCommand(4));
+        assertEquals('Z', pathData.getCommand(5));
+        assertEquals(18, pathData.getParamCount());
+        assertEquals(12f, pathData.getParam(17), 0f);
+    }
+
+    @Test
+    public void pathData_wrongParamCount() {
+        try {
+            new PathParser.PathData("M1,2 L3");
+            fail("Parsing a line with a single coordinate should fail");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void pathData_toPathMatchesNodes() {
+        Path expected = new Path();
+        PathParser.PathDataNode.nodesToPath(PathParser.createNodesFromPathData(HEART), expected);
+        Path actual = new Path();
+        new PathParser.PathData(HEART).toPath(actual);
+        assertPathEquals(expected, actual);
+    }
+
+    @Test
+    public void pathData_parseReusesArrays() {
+        PathParser.PathData pathData = new PathParser.PathData(HEART);
+        pathData.parse("M0,0 L1,1");
+        assertEquals(2, pathData.getCommandCount());
+        assertEquals(4, pathData.getParamCount());
+    }
+
+    @Test
+    public void pathData_interpolate() {
+        PathParser.PathData from = new PathParser.PathData("M0,0 L10,20 Z");
+        PathParser.PathData to = new PathParser.PathData("M10,10 L30,40 Z");
+        PathParser.PathData incompatible = new PathParser.PathData("M0,0 H10 Z");
+        assertTrue(from.canMorph(to));
+        assertFalse(from.canMorph(incompatible));
+
+        PathParser.PathData target = new PathParser.PathData();
+        target.interpolate(from, to, 0.5f);
+        assertTrue(target.canMorph(from));
+        assertEquals(5f, target.getParam(0), 0f);
+        assertEquals(5f, target.getParam(1), 0f);
+        assertEquals(20f, target.getParam(2), 0f);
+        assertEquals(30f, target.getParam(3), 0f);
+
+        try {
+            target.interpolate(from, incompatible, 0.5f);
+            fail("Interpolating incompatible paths should fail");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void assertPathEquals(Path expected, Path actual) {
+        RectF expectedBounds = new RectF();
+        RectF actualBounds = new RectF();
+        expected.computeBounds(expectedBounds, true);
+        actual.computeBounds(actualBounds, true);
+        assertEquals(expectedBounds, actualBounds);
+        assertEquals(new PathMeasure(expected, false).getLength(),
+                new PathMeasure(actual, false).getLength(), 0f);
+    }
+}
@@ -29,6 +29,7 @@ import android.text.util.Linkify;
 import android.text.util.Linkify.MatchFilter;
 import android.text.util.Linkify.TransformFilter;
 
+import androidx.annotation.Nullable;
 import androidx.core.util.PatternsCompat;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
@@ -36,6 +37,8 @@ import androidx.test.filters.SmallTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -252,6 +255,110 @@ public class LinkifyCompatTest {
         }
     }
 
+    @Test
+    public void testAddLinks_findsLinksBetweenSeparators() {
+        String text = "Visit\nwww.android.com,\u3000mail\tandroid@android.com or see"
+                + " http://android.com/path now";
+        SpannableString spannable = new SpannableString(text);
+
+        assertTrue(LinkifyCompat.addLinksCompat(spannable,
+                Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES));
+        URLSpan[] spans = spannable.getSpans(0, spannable.length(), URLSpan.class);
+        assertEquals(3, spans.length);
+        assertTrue(containsUrl(spans, "http://www.android.com"));
+        assertTrue(containsUrl(spans, "mailto:android@android.com"));
+        assertTrue(containsUrl(spans, "http://android.com/path"));
+        for (URLSpan span : spans) {
+            assertEquals(-1, text.substring(spannable.getSpanStart(span),
+                    spannable.getSpanEnd(span)).indexOf(' '));
+        }
+    }
+
+    @Test
+    public void testAddLinks_doesNotAddLinksAcrossSpaces() {
+        Spannable spannable = new SpannableString("android. com and name@android. com");
+        assertFalse(LinkifyCompat.addLinksCompat(spannable,
+                Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES));
+    }
+
+    @Test
+    public void testAddLinksCompat_sameLinksAsPatternScan() {
+        String[] texts = {
+                "no links and no digits here",
+                "Visit\nwww.android.com,\u3000mail\tandroid@android.com or see"
+                        + " http://android.com/path now",
+                "(www.android.com) [name@android.com] <https://android.com/a?b=c#d>.",
+                "android.com,android.com;name@android.com:http://android.com",
+                "\u00A0android.com\u2028name@android.com\u3000\u202Fhttp://android.com\u2029",
+                "name@android.com@android.com.android.com",
+                "call 800-555-1212 or mail 800-555-1211@gmail.com, 800-555-1222.com",
+                "url ending with a dot android.com. and an ip 192.168.0.1 and http://x",
+        };
+        for (String text : texts) {
+            assertEquals(text, patternScan(text, PatternsCompat.AUTOLINK_WEB_URL,
+                    Linkify.sUrlMatchFilter), compatScan(text, Linkify.WEB_URLS));
+            assertEquals(text, patternScan(text, PatternsCompat.AUTOLINK_EMAIL_ADDRESS, null),
+                    compatScan(text, Linkify.EMAIL_ADDRESSES));
+        }
+    }
+
+    @Test
+    public void testAddLinksCompat_textWithoutDigits_findsNoPhoneNumbers() {
+        String text = "no phone number in www.android.com or name@android.com";
+        Spannable spannable = new SpannableString(text);
+        Linkify.addLinks(spannable, Linkify.PHONE_NUMBERS);
+        assertEquals(0, spannable.getSpans(0, spannable.length(), URLSpan.class).length);
+
+        assertFalse(LinkifyCompat.addLinksCompat(new SpannableString(text),
+                Linkify.PHONE_NUMBERS));
+    }
+
+    /**
+     * Returns the ranges of the links found by {@link LinkifyCompat#addLinksCompat} with a single
+     * link type.
+     */
+    private static String compatScan(String text, int mask) {
+        Spannable spannable = new SpannableString(text);
+        LinkifyCompat.addLinksCompat(spannable, mask);
+        URLSpan[] spans = spannable.getSpans(0, spannable.length(), URLSpan.class);
+        Arrays.sort(spans, new SpanStartComparator(spannable));
+        StringBuilder ranges = new StringBuilder();
+        for (URLSpan span : spans) {
+            ranges.append(spannable.getSpanStart(span)).append('-')
+                    .append(spannable.getSpanEnd(span)).append(' ');
+        }
+        return ranges.toString();
+    }
+
+    /**
+     * Returns the ranges of the matches of the pattern scanned over the whole text, as
+     * {@link LinkifyCompat} did before splitting the text into words.
+     */
+    private static String patternScan(String text, Pattern pattern,
+            @Nullable MatchFilter matchFilter) {
+        Matcher m = pattern.matcher(text);
+        StringBuilder ranges = new StringBuilder();
+        while (m.find()) {
+            if (matchFilter == null || matchFilter.acceptMatch(text, m.start(), m.end())) {
+                ranges.append(m.start()).append('-').append(m.end()).append(' ');
+            }
+        }
+        return ranges.toString();
+    }
+
+    private static final class SpanStartComparator implements Comparator<Object> {
+        private final Spannable mSpannable;
+
+        SpanStartComparator(Spannable spannable) {
+            mSpannable = spannable;
+        }
+
+        @Override
+        public int compare(Object a, Object b) {
+            return mSpannable.getSpanStart(a) - mSpannable.getSpanStart(b);
+        }
+    }
+
     private boolean containsUrl(URLSpan[] spans, String expectedValue) {
         for (URLSpan span : spans) {
             if (span.getURL().equals(expectedValue)) {
@@ -20,6 +20,7 @@ package androidx.core.graphics;
 import android.graphics.Path;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
@@ -91,23 +92,22 @@ public class PathParser {
         if (pathData == null) {
             return null;
         }
-        int start = 0;
-        int end = 1;
-
+        PathDataScanner scanner = new PathDataScanner(pathData);
         ArrayList<PathDataNode> list = new ArrayList<PathDataNode>();
-        while (end < pathData.length()) {
-            end = nextStart(pathData, end);
-            String s = pathData.substring(start, end).trim();
-            if (s.length() > 0) {
-                float[] val = getFloats(s);
-                addNode(list, s.charAt(0), val);
+        float[] params = new float[8];
+        char command;
+        while ((command = scanner.nextCommand()) != 0) {
+            int count = 0;
+            while (scanner.nextFloat()) {
+                if (count == params.length) {
+                    params = copyOfRange(params, 0, count * 2);
+                }
+                params[count++] = scanner.mValue;
             }
-
-            start = end;
-            end++;
-        }
-        if ((end - start) == 1 && start < pathData.length()) {
-            addNode(list, pathData.charAt(start), new float[0]);
+            if (command == 'z' || command == 'Z') {
+                count = 0;
+            }
+            list.add(new PathDataNode(command, copyOfRange(params, 0, count)));
         }
         return list.toArray(new PathDataNode[list.size()]);
     }
@@ -168,168 +168,439 @@ public class PathParser {
         }
     }
 
-    private static int nextStart(String s, int end) {
-        char c;
+    /**
+     * Interpolate between two arrays of PathDataNodes with the given fraction, and store the
+     * results in the first parameter.
+     *
+     * @param target The resulting array of {@link PathDataNode} for the interpolation
+     * @param from The array of {@link PathDataNode} when fraction is 0
+     * @param to The array of {@link PathDataNode} when the fraction is 1
+     * @param fraction A float fraction value in the range of 0 to 1
+     * @return whether it's possible to interpolate between the two arrays of PathDataNodes
+     * @see {@link #canMorph(PathDataNode[], PathDataNode[])}
+     */
+    public static boolean interpolatePathDataNodes(PathDataNode[] target, PathDataNode[] from,
+            PathDataNode[] to, float fraction) {
+        if (target == null || from == null || to == null) {
+            throw new IllegalArgumentException("The nodes to be interpolated and resulting nodes"
+                    + " cannot be null");
+        }
 
-        while (end < s.length()) {
-            c = s.charAt(end);
-            // Note that 'e' or 'E' are not valid path commands, but could be
-            // used for floating point numbers' scientific notation.
-            // Therefore, when searching for next command, we should ignore 'e'
-            // and 'E'.
-            if ((((c - 'A') * (c - 'Z') <= 0) || ((c - 'a') * (c - 'z') <= 0))
-                    && c != 'e' && c != 'E') {
-                return end;
-            }
-            end++;
+        if (target.length != from.length || from.length != to.length) {
+            throw new IllegalArgumentException("The nodes to be interpolated and resulting nodes"
+                    + " must have the same length");
         }
-        return end;
-    }
 
-    private static void addNode(ArrayList<PathDataNode> list, char cmd, float[] val) {
-        list.add(new PathDataNode(cmd, val));
+        if (!canMorph(from, to)) {
+            return false;
+        }
+        // Now do the interpolation
+        for (int i = 0; i < target.length; i++) {
+            target[i].interpolatePathDataNode(from[i], to[i], fraction);
+        }
+        return true;
     }
 
-    private static class ExtractFloatResult {
-        // We need to return the position of the next separator and whether the
-        // next float starts with a '-' or a '.'.
-        int mEndPosition;
-        boolean mEndWithNegOrDot;
-
-        ExtractFloatResult() {
+    /**
+     * @return the number of parameters of one segment of the command, or -1 if the command is
+     * unknown.
+     */
+    static int getCommandParamCount(char command) {
+        switch (command) {
+            case 'z':
+            case 'Z':
+                return 0;
+            case 'h':
+            case 'H':
+            case 'v':
+            case 'V':
+                return 1;
+            case 'm':
+            case 'M':
+            case 'l':
+            case 'L':
+            case 't':
+            case 'T':
+                return 2;
+            case 's':
+            case 'S':
+            case 'q':
+            case 'Q':
+                return 4;
+            case 'c':
+            case 'C':
+                return 6;
+            case 'a':
+            case 'A':
+                return 7;
+            default:
+                return -1;
         }
     }
 
     /**
-     * Parse the floats in the string.
-     * This is an optimized version of parseFloat(s.split(",|\\s"));
-     *
-     * @param s the string containing a command and list of floats
-     * @return array of floats
+     * Reads the commands and numbers of a path string in place, without allocating for each of
+     * them.
      */
-    private static float[] getFloats(String s) {
-        if (s.charAt(0) == 'z' || s.charAt(0) == 'Z') {
-            return new float[0];
+    private static final class PathDataScanner {
+        // Powers of ten exactly representable as doubles.
+        private static final double[] POWERS_OF_TEN = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+        private static final int MAX_MANTISSA_DIGITS = 15;
+
+        private final String mData;
+        private final int mLength;
+        private int mPosition;
+
+        /**
+         * The last number read by {@link #nextFloat()}.
+         */
+        float mValue;
+
+        PathDataScanner(String data) {
+            mData = data;
+            mLength = data.length();
+        }
+
+        /**
+         * @return the next command, or 0 at the end of the string.
+         */
+        char nextCommand() {
+            skipSeparators();
+            if (mPosition >= mLength) {
+                return 0;
+            }
+            char c = mData.charAt(mPosition);
+            if (!isCommand(c)) {
+                throw error();
+            }
+            mPosition++;
+            return c;
         }
-        try {
-            float[] results = new float[s.length()];
-            int count = 0;
-            int startPosition = 1;
-            int endPosition = 0;
-
-            ExtractFloatResult result = new ExtractFloatResult();
-            int totalLength = s.length();
-
-            // The startPosition should always be the first character of the
-            // current number, and endPosition is the character after the current
-            // number.
-            while (startPosition < totalLength) {
-                extract(s, startPosition, result);
-                endPosition = result.mEndPosition;
-
-                if (startPosition < endPosition) {
-                    results[count++] = Float.parseFloat(
-                            s.substring(startPosition, endPosition));
-                }
 
-                if (result.mEndWithNegOrDot) {
-                    // Keep the '-' or '.' sign with next number.
-                    startPosition = endPosition;
+        /**
+         * Reads the next number of the current command into {@link #mValue}.
+         *
+         * @return false if there are no more numbers before the next command.
+         */
+        boolean nextFloat() {
+            skipSeparators();
+            if (mPosition >= mLength || isCommand(mData.charAt(mPosition))) {
+                return false;
+            }
+            final int start = mPosition;
+            boolean negative = false;
+            char c = mData.charAt(mPosition);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                mPosition++;
+            }
+
+            long mantissa = 0;
+            int mantissaDigits = 0;
+            int exponent = 0;
+            boolean hasDigits = false;
+            boolean seenDot = false;
+            for (; mPosition < mLength; mPosition++) {
+                c = mData.charAt(mPosition);
+                if (c >= '0' && c <= '9') {
+                    hasDigits = true;
+                    if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (mantissa != 0) {
+                            mantissaDigits++;
+                        }
+                        if (seenDot) {
+                            exponent--;
+                        }
+                    } else if (!seenDot) {
+                        // Digits beyond the precision of the mantissa.
+                        exponent++;
+                    }
+                } else if (c == '.' && !seenDot) {
+                    seenDot = true;
                 } else {
-                    startPosition = endPosition + 1;
+                    // A second '.' or a '-' starts the next number.
+                    break;
+                }
+            }
+            if (!hasDigits) {
+                throw error();
+            }
+
+            if (mPosition < mLength && (c == 'e' || c == 'E')) {
+                mPosition++;
+                boolean negativeExponent = false;
+                if (mPosition < mLength) {
+                    c = mData.charAt(mPosition);
+                    if (c == '-' || c == '+') {
+                        negativeExponent = c == '-';
+                        mPosition++;
+                    }
                 }
+                int value = 0;
+                boolean hasExponentDigits = false;
+                for (; mPosition < mLength; mPosition++) {
+                    c = mData.charAt(mPosition);
+                    if (c < '0' || c > '9') {
+                        break;
+                    }
+                    hasExponentDigits = true;
+                    if (value < 1000) {
+                        value = value * 10 + (c - '0');
+                    }
+                }
+                if (!hasExponentDigits) {
+                    throw error();
+                }
+                exponent += negativeExponent ? -value : value;
+            }
+
+            if (mantissa == 0) {
+                mValue = negative ? -0f : 0f;
+            } else if (exponent >= -22 && exponent <= 22) {
+                // The mantissa has at most 15 digits, so it is exact as a double, and so is the
+                // power of ten.
+                double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent]
+                        : mantissa / POWERS_OF_TEN[-exponent];
+                mValue = (float) (negative ? -value : value);
+            } else {
+                mValue = Float.parseFloat(mData.substring(start, mPosition));
+            }
+            return true;
+        }
+
+        private void skipSeparators() {
+            while (mPosition < mLength) {
+                char c = mData.charAt(mPosition);
+                if (c != ',' && !Character.isWhitespace(c)) {
+                    return;
+                }
+                mPosition++;
             }
-            return copyOfRange(results, 0, count);
-        } catch (NumberFormatException e) {
-            throw new RuntimeException("error in parsing \"" + s + "\"", e);
+        }
+
+        // Note that 'e' or 'E' are not valid path commands, but could be used for floating
+        // point numbers' scientific notation.
+        private static boolean isCommand(char c) {
+            return (((c - 'A') * (c - 'Z') <= 0) || ((c - 'a') * (c - 'z') <= 0))
+                    && c != 'e' && c != 'E';
+        }
+
+        private RuntimeException error() {
+            return new RuntimeException("error in parsing \"" + mData + "\" at " + mPosition);
         }
     }
 
     /**
-     * Calculate the position of the next comma or space or negative sign
-     *
-     * @param s      the string to search
-     * @param start  the position to start searching
-     * @param result the result of the extraction, including the position of the
-     *               the starting position of next number, whether it is ending with a '-'.
+     * A path stored in two flat arrays: the commands, one for each segment, and all their
+     * parameters. Implicit repetitions of a command are stored as separate segments, so every
+     * command has the same number of parameters.
+     * <p>
+     * The arrays are reused by {@link #parse(String)}, {@link #set(PathData)} and
+     * {@link #interpolate(PathData, PathData, float)}, which don't allocate once they are large
+     * enough.
      */
-    private static void extract(String s, int start, ExtractFloatResult result) {
-        // Now looking for ' ', ',', '.' or '-' from the start.
-        int currentIndex = start;
-        boolean foundSeparator = false;
-        result.mEndWithNegOrDot = false;
-        boolean secondDot = false;
-        boolean isExponential = false;
-        for (; currentIndex < s.length(); currentIndex++) {
-            boolean isPrevExponential = isExponential;
-            isExponential = false;
-            char currentChar = s.charAt(currentIndex);
-            switch (currentChar) {
-                case ' ':
-                case ',':
-                    foundSeparator = true;
-                    break;
-                case '-':
-                    // The negative sign following a 'e' or 'E' is not a separator.
-                    if (currentIndex != start && !isPrevExponential) {
-                        foundSeparator = true;
-                        result.mEndWithNegOrDot = true;
+    public static final class PathData {
+        private byte[] mCommands;
+        private int mCommandCount;
+        private float[] mParams;
+        private int mParamCount;
+
+        // The pen position, reused by toPath().
+        private final float[] mCurrent = new float[6];
+
+        public PathData() {
+            mCommands = new byte[16];
+            mParams = new float[64];
+        }
+
+        /**
+         * @param pathData The string representing a path, the same as "d" string in svg file.
+         */
+        public PathData(@NonNull String pathData) {
+            this();
+            parse(pathData);
+        }
+
+        /**
+         * @param source The path data to copy.
+         */
+        public PathData(@NonNull PathData source) {
+            mCommands = new byte[Math.max(1, source.mCommandCount)];
+            mParams = new float[Math.max(1, source.mParamCount)];
+            set(source);
+        }
+
+        /**
+         * Replaces the path with the one of the string.
+         *
+         * @param pathData The string representing a path, the same as "d" string in svg file.
+         */
+        public void parse(@NonNull String pathData) {
+            mCommandCount = 0;
+            mParamCount = 0;
+            PathDataScanner scanner = new PathDataScanner(pathData);
+            char command;
+            while ((command = scanner.nextCommand()) != 0) {
+                int paramCount = getCommandParamCount(command);
+                if (paramCount <= 0) {
+                    // Unknown commands are ignored, and so are the parameters of 'z'.
+                    while (scanner.nextFloat()) {
+                        // Empty loop
                     }
-                    break;
-                case '.':
-                    if (!secondDot) {
-                        secondDot = true;
-                    } else {
-                        // This is the second dot, and it is considered as a separator.
-                        foundSeparator = true;
-                        result.mEndWithNegOrDot = true;
+                    if (paramCount == 0) {
+                        addCommand(command);
                     }
-                    break;
-                case 'e':
-                case 'E':
-                    isExponential = true;
-                    break;
+                    continue;
+                }
+                char segment = command;
+                int count = 0;
+                while (scanner.nextFloat()) {
+                    if (mParamCount == mParams.length) {
+                        mParams = copyOfRange(mParams, 0, mParamCount * 2);
+                    }
+                    mParams[mParamCount++] = scanner.mValue;
+                    if (++count == paramCount) {
+                        addCommand(segment);
+                        count = 0;
+                        // According to the spec, if a moveto is followed by multiple pairs of
+                        // coordinates, the subsequent pairs are treated as implicit lineto
+                        // commands.
+                        if (segment == 'm') {
+                            segment = 'l';
+                        } else if (segment == 'M') {
+                            segment = 'L';
+                        }
+                    }
+                }
+                if (count != 0) {
+                    throw new RuntimeException("error in parsing \"" + pathData
+                            + "\": wrong number of parameters for '" + command + "'");
+                }
             }
-            if (foundSeparator) {
-                break;
+        }
+
+        private void addCommand(char command) {
+            if (mCommandCount == mCommands.length) {
+                byte[] commands = new byte[mCommandCount * 2];
+                System.arraycopy(mCommands, 0, commands, 0, mCommandCount);
+                mCommands = commands;
             }
+            mCommands[mCommandCount++] = (byte) command;
         }
-        // When there is nothing found, then we put the end position to the end
-        // of the string.
-        result.mEndPosition = currentIndex;
-    }
 
-    /**
-     * Interpolate between two arrays of PathDataNodes with the given fraction, and store the
-     * results in the first parameter.
-     *
-     * @param target The resulting array of {@link PathDataNode} for the interpolation
-     * @param from The array of {@link PathDataNode} when fraction is 0
-     * @param to The array of {@link PathDataNode} when the fraction is 1
-     * @param fraction A float fraction value in the range of 0 to 1
-     * @return whether it's possible to interpolate between the two arrays of PathDataNodes
-     * @see {@link #canMorph(PathDataNode[], PathDataNode[])}
-     */
-    public static boolean interpolatePathDataNodes(PathDataNode[] target, PathDataNode[] from,
-            PathDataNode[] to, float fraction) {
-        if (target == null || from == null || to == null) {
-            throw new IllegalArgumentException("The nodes to be interpolated and resulting nodes"
-                    + " cannot be null");
+        /**
+         * @return the number of segments of the path.
+         */
+        public int getCommandCount() {
+            return mCommandCount;
         }
 
-        if (target.length != from.length || from.length != to.length) {
-            throw new IllegalArgumentException("The nodes to be interpolated and resulting nodes"
-                    + " must have the same length");
+        /**
+         * @return the command of the segment at <code>index</code>.
+         */
+        public char getCommand(int index) {
+            return (char) mCommands[index];
         }
 
-        if (!canMorph(from, to)) {
-            return false;
+        /**
+         * @return the number of parameters of all the segments of the path.
+         */
+        public int getParamCount() {
+            return mParamCount;
         }
-        // Now do the interpolation
-        for (int i = 0; i < target.length; i++) {
-            target[i].interpolatePathDataNode(from[i], to[i], fraction);
+
+        /**
+         * @return the parameter at <code>index</code>, in the order of the segments.
+         */
+        public float getParam(int index) {
+            return mParams[index];
+        }
+
+        /**
+         * @param to The path data to morph into.
+         * @return whether this path can morph into <code>to</code>.
+         */
+        public boolean canMorph(@NonNull PathData to) {
+            if (mCommandCount != to.mCommandCount || mParamCount != to.mParamCount) {
+                return false;
+            }
+            for (int i = 0; i < mCommandCount; i++) {
+                if (mCommands[i] != to.mCommands[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Replaces the path with a copy of <code>source</code>.
+         */
+        public void set(@NonNull PathData source) {
+            if (source == this) {
+                return;
+            }
+            if (mCommands.length < source.mCommandCount) {
+                mCommands = new byte[source.mCommandCount];
+            }
+            if (mParams.length < source.mParamCount) {
+                mParams = new float[source.mParamCount];
+            }
+            System.arraycopy(source.mCommands, 0, mCommands, 0, source.mCommandCount);
+            System.arraycopy(source.mParams, 0, mParams, 0, source.mParamCount);
+            mCommandCount = source.mCommandCount;
+            mParamCount = source.mParamCount;
+        }
+
+        /**
+         * Replaces the path with the interpolation between <code>from</code> and
+         * <code>to</code>.
+         *
+         * @param from     The path when fraction is 0
+         * @param to       The path when the fraction is 1
+         * @param fraction A float fraction value in the range of 0 to 1
+         * @throws IllegalArgumentException if <code>from</code> can't morph into
+         *                                  <code>to</code>
+         */
+        public void interpolate(@NonNull PathData from, @NonNull PathData to, float fraction) {
+            if (!from.canMorph(to)) {
+                throw new IllegalArgumentException("Can't interpolate between two incompatible"
+                        + " pathData");
+            }
+            if (!canMorph(from)) {
+                set(from);
+            }
+            final float[] fromParams = from.mParams;
+            final float[] toParams = to.mParams;
+            for (int i = 0; i < mParamCount; i++) {
+                mParams[i] = fromParams[i] * (1 - fraction) + toParams[i] * fraction;
+            }
+        }
+
+        /**
+         * Adds the segments of the path to <code>path</code>.
+         *
+         * @param path The target Path object.
+         */
+        public void toPath(@NonNull Path path) {
+            final float[] current = mCurrent;
+            for (int i = 0; i < current.length; i++) {
+                current[i] = 0;
+            }
+            char previousCommand = 'm';
+            int offset = 0;
+            for (int i = 0; i < mCommandCount; i++) {
+                char command = (char) mCommands[i];
+                int paramCount = getCommandParamCount(command);
+                PathDataNode.addCommand(path, current, previousCommand, command, mParams, offset,
+                        paramCount);
+                offset += paramCount;
+                previousCommand = command;
+            }
         }
-        return true;
     }
 
     /**
@@ -369,7 +640,8 @@ public class PathParser {
             float[] current = new float[6];
             char previousCommand = 'm';
             for (int i = 0; i < node.length; i++) {
-                addCommand(path, current, previousCommand, node[i].mType, node[i].mParams);
+                addCommand(path, current, previousCommand, node[i].mType, node[i].mParams, 0,
+                        node[i].mParams.length);
                 previousCommand = node[i].mType;
             }
         }
@@ -392,8 +664,15 @@ public class PathParser {
             }
         }
 
-        private static void addCommand(Path path, float[] current,
-                char previousCmd, char cmd, float[] val) {
+        /**
+         * Adds the segments of a command to the path.
+         *
+         * @param val    The array holding the parameters of the command.
+         * @param offset The index of the first parameter of the command in <code>val</code>.
+         * @param length The number of parameters of the command.
+         */
+        static void addCommand(Path path, float[] current,
+                char previousCmd, char cmd, float[] val, int offset, int length) {
 
             int incr = 2;
             float currentX = current[0];
@@ -448,12 +727,12 @@ public class PathParser {
                     break;
             }
 
-            for (int k = 0; k < val.length; k += incr) {
+            for (int k = offset; k < offset + length; k += incr) {
                 switch (cmd) {
                     case 'm': // moveto - Start a new sub-path (relative)
                         currentX += val[k + 0];
                         currentY += val[k + 1];
-                        if (k > 0) {
+                        if (k > offset) {
                             // According to the spec, if a moveto is followed by multiple
                             // pairs of coordinates, the subsequent pairs are treated as
                             // implicit lineto commands.
@@ -467,7 +746,7 @@ public class PathParser {
                     case 'M': // moveto - Start a new sub-path
                         currentX = val[k + 0];
                         currentY = val[k + 1];
-                        if (k > 0) {
+                        if (k > offset) {
                             // According to the spec, if a moveto is followed by multiple
                             // pairs of coordinates, the subsequent pairs are treated as
                             // implicit lineto commands.
@@ -36,6 +36,7 @@ import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.util.PatternsCompat;
 
 import java.io.UnsupportedEncodingException;
@@ -55,6 +56,8 @@ import java.util.regex.Pattern;
  */
 public final class LinkifyCompat {
     private static final String[] EMPTY_STRING = new String[0];
+    private static final String[] URL_SCHEMES = { "http://", "https://", "rtsp://" };
+    private static final String[] EMAIL_SCHEMES = { "mailto:" };
 
     private static final Comparator<LinkSpec>  COMPARATOR = new Comparator<LinkSpec>() {
         @Override
@@ -102,6 +105,14 @@ public final class LinkifyCompat {
         if (shouldAddLinksFallbackToFramework()) {
             return Linkify.addLinks(text, mask);
         }
+        return addLinksCompat(text, mask);
+    }
+
+    /**
+     * Implements {@link #addLinks(Spannable, int)} on all API levels, for testing.
+     */
+    @VisibleForTesting
+    static boolean addLinksCompat(@NonNull Spannable text, @LinkifyMask int mask) {
         if (mask == 0) {
             return false;
         }
@@ -112,22 +123,12 @@ public final class LinkifyCompat {
             text.removeSpan(old[i]);
         }
 
-        if ((mask & Linkify.PHONE_NUMBERS) != 0) {
-            Linkify.addLinks(text, Linkify.PHONE_NUMBERS);
-        }
-
         final ArrayList<LinkSpec> links = new ArrayList<>();
+        final boolean hasDigits = gatherLinks(links, text, mask);
 
-        if ((mask & Linkify.WEB_URLS) != 0) {
-            gatherLinks(links, text, PatternsCompat.AUTOLINK_WEB_URL,
-                    new String[] { "http://", "https://", "rtsp://" },
-                    Linkify.sUrlMatchFilter, null);
-        }
-
-        if ((mask & Linkify.EMAIL_ADDRESSES) != 0) {
-            gatherLinks(links, text, PatternsCompat.AUTOLINK_EMAIL_ADDRESS,
-                    new String[] { "mailto:" },
-                    null, null);
+        // Phone numbers can't be found without digits, skip the framework scan of the text.
+        if ((mask & Linkify.PHONE_NUMBERS) != 0 && hasDigits) {
+            Linkify.addLinks(text, Linkify.PHONE_NUMBERS);
         }
 
         if ((mask & Linkify.MAP_ADDRESSES) != 0) {
@@ -414,22 +415,104 @@ public final class LinkifyCompat {
         return url;
     }
 
-    private static void gatherLinks(ArrayList<LinkSpec> links,
-            Spannable s, Pattern pattern, String[] schemes,
-            Linkify.MatchFilter matchFilter, Linkify.TransformFilter transformFilter) {
-        Matcher m = pattern.matcher(s);
+    /**
+     * Gathers the web URLs and email addresses of the mask in a single pass over the text.
+     * <p>
+     * Matches of {@link PatternsCompat#AUTOLINK_WEB_URL} and
+     * {@link PatternsCompat#AUTOLINK_EMAIL_ADDRESS} never contain a space, so the text is split
+     * into words and a pattern only runs on the words containing a character all its matches
+     * contain. The patterns run with transparent bounds, so word boundaries and lookarounds see
+     * the whole text and the links are the same as when the patterns run on the whole text.
+     *
+     * @return True if the text contains a digit.
+     */
+    private static boolean gatherLinks(ArrayList<LinkSpec> links, Spannable s, int mask) {
+        final String string = s.toString();
+        final int length = string.length();
+        final Matcher urlMatcher = (mask & Linkify.WEB_URLS) != 0
+                ? createWordMatcher(PatternsCompat.AUTOLINK_WEB_URL, string) : null;
+        final Matcher emailMatcher = (mask & Linkify.EMAIL_ADDRESSES) != 0
+                ? createWordMatcher(PatternsCompat.AUTOLINK_EMAIL_ADDRESS, string) : null;
+        // Web URLs come before email addresses, as pruneOverlaps keeps the first of equal links.
+        final ArrayList<LinkSpec> emailLinks = new ArrayList<>();
+        boolean hasDigits = false;
+        int start = 0;
+
+        while (start < length) {
+            if (isWordSeparator(string.charAt(start))) {
+                start++;
+                continue;
+            }
+
+            boolean mayBeUrl = false;
+            boolean mayBeEmail = false;
+            int end = start;
+
+            for (; end < length; end++) {
+                char c = string.charAt(end);
+
+                if (isWordSeparator(c)) {
+                    break;
+                }
+
+                if (c == ':') {
+                    // The "://" of a protocol.
+                    mayBeUrl = true;
+                } else if (c == '@') {
+                    mayBeEmail = true;
+                } else if (end > start && string.charAt(end - 1) == '.') {
+                    // The dot of a host name or an IP address is followed by a label.
+                    mayBeUrl = true;
+                }
+
+                if (!hasDigits && Character.isDigit(c)) {
+                    hasDigits = true;
+                }
+            }
+
+            if (mayBeUrl && urlMatcher != null) {
+                gatherLinks(links, s, urlMatcher, start, end, URL_SCHEMES, Linkify.sUrlMatchFilter);
+            }
+
+            if (mayBeEmail && emailMatcher != null) {
+                gatherLinks(emailLinks, s, emailMatcher, start, end, EMAIL_SCHEMES, null);
+            }
+
+            start = end;
+        }
+
+        links.addAll(emailLinks);
+        return hasDigits;
+    }
+
+    private static Matcher createWordMatcher(Pattern pattern, String string) {
+        return pattern.matcher(string).useTransparentBounds(true).useAnchoringBounds(false);
+    }
+
+    /**
+     * Returns true if the character can't be part of a web URL or an email address. These are the
+     * control characters and the spaces excluded from the labels of {@link PatternsCompat}.
+     */
+    private static boolean isWordSeparator(char c) {
+        return c <= ' ' || c == '\u00A0' || (c >= '\u2000' && c <= '\u200A') || c == '\u2028'
+                || c == '\u2029' || c == '\u202F' || c == '\u3000';
+    }
+
+    private static void gatherLinks(ArrayList<LinkSpec> links, Spannable s, Matcher m,
+            int start, int end, String[] schemes, @Nullable Linkify.MatchFilter matchFilter) {
+        m.region(start, end);
 
         while (m.find()) {
-            int start = m.start();
-            int end = m.end();
+            int matchStart = m.start();
+            int matchEnd = m.end();
 
-            if (matchFilter == null || matchFilter.acceptMatch(s, start, end)) {
+            if (matchFilter == null || matchFilter.acceptMatch(s, matchStart, matchEnd)) {
                 LinkSpec spec = new LinkSpec();
-                String url = makeUrl(m.group(0), schemes, m, transformFilter);
+                String url = makeUrl(m.group(0), schemes, m, null);
 
                 spec.url = url;
-                spec.start = start;
-                spec.end = end;
+                spec.start = matchStart;
+                spec.end = matchEnd;
 
                 links.add(spec);
             }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.fragment.benchmark
+
+import android.os.Bundle
+import android.view.LayoutInflater
+import android.view.View
+import android.view.ViewGroup
+import android.widget.FrameLayout
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.fragment.app.Fragment
+import androidx.fragment.app.FragmentActivity
+import androidx.fragment.benchmark.test.R
+import androidx.test.annotation.UiThreadTest
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures executing bursts of replace transactions committed before the next frame, as rapid
+ * navigation does, with and without reordering.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class FragmentTransactionBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Suppress("DEPRECATION")
+    @get:Rule
+    val activityRule = androidx.test.rule.ActivityTestRule(FragmentActivity::class.java)
+
+    @Before
+    fun setup() {
+        activityRule.runOnUiThread {
+            val container = FrameLayout(activityRule.activity)
+            container.id = R.id.fragment_container
+            activityRule.activity.setContentView(container)
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    fun navigationBurst() {
+        navigationBurst(reorderingAllowed = false)
+    }
+
+    @Test
+    @UiThreadTest
+    fun navigationBurstReorderingAllowed() {
+        navigationBurst(reorderingAllowed = true)
+    }
+
+    private fun navigationBurst(reorderingAllowed: Boolean) {
+        val fragmentManager = activityRule.activity.supportFragmentManager
+        benchmarkRule.measureRepeated {
+            repeat(BURST_SIZE) {
+                fragmentManager.beginTransaction()
+                    .replace(R.id.fragment_container, ViewFragment())
+                    .setReorderingAllowed(reorderingAllowed)
+                    .commit()
+            }
+            fragmentManager.executePendingTransactions()
+        }
+    }
+
+    class ViewFragment : Fragment() {
+        override fun onCreateView(
+            inflater: LayoutInflater,
+            container: ViewGroup?,
+            savedInstanceState: Bundle?
+        ): View = FrameLayout(inflater.context)
+    }
+
+    companion object {
+        private const val BURST_SIZE = 5
+    }
+}
@@ -654,6 +654,45 @@ class FragmentReorderingTest(private val stateManager: StateManager) {
         assertThat(fragment1.onCreateViewCount).isEqualTo(1)
     }
 
+    // A fragment added and replaced by the same ordered transactions is created for nothing,
+    // reordering skips creating it.
+    @Test
+    fun wastedCreationCount() {
+        val fragment1 = CountCallsFragment()
+        val fragment2 = CountCallsFragment()
+        instrumentation.runOnMainSync {
+            fm.beginTransaction()
+                .add(R.id.fragmentContainer, fragment1)
+                .setReorderingAllowed(false)
+                .commit()
+            fm.beginTransaction()
+                .replace(R.id.fragmentContainer, fragment2)
+                .setReorderingAllowed(false)
+                .commit()
+            fm.executePendingTransactions()
+        }
+        assertChildren(container, fragment2)
+        assertThat(fragment1.onCreateViewCount).isEqualTo(1)
+        assertThat(fm.wastedCreationCount).isEqualTo(1)
+
+        val fragment3 = CountCallsFragment()
+        val fragment4 = CountCallsFragment()
+        instrumentation.runOnMainSync {
+            fm.beginTransaction()
+                .replace(R.id.fragmentContainer, fragment3)
+                .setReorderingAllowed(true)
+                .commit()
+            fm.beginTransaction()
+                .replace(R.id.fragmentContainer, fragment4)
+                .setReorderingAllowed(true)
+                .commit()
+            fm.executePendingTransactions()
+        }
+        assertChildren(container, fragment4)
+        assertThat(fragment3.onCreateViewCount).isEqualTo(0)
+        assertThat(fm.wastedCreationCount).isEqualTo(1)
+    }
+
     // Test that a fragment view that is created with focus has focus after the transaction
     // completes.
     @Test
@@ -76,6 +76,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -422,6 +423,10 @@ public abstract class FragmentManager implements FragmentResultOwner {
 
     private final ArrayList<OpGenerator> mPendingActions = new ArrayList<>();
     private boolean mExecutingActions;
+    // The fragments created while executing transactions, to find the ones that the same
+    // transactions remove and destroy again.
+    private ArraySet<Fragment> mCreatedWhileExecuting;
+    private int mWastedCreationCount;
 
     private final FragmentStore mFragmentStore = new FragmentStore();
     ArrayList<BackStackRecord> mBackStack;
@@ -1273,6 +1278,11 @@ public abstract class FragmentManager implements FragmentResultOwner {
             writer.print("  mNeedMenuInvalidate=");
             writer.println(mNeedMenuInvalidate);
         }
+        if (mWastedCreationCount > 0) {
+            writer.print(prefix);
+            writer.print("  mWastedCreationCount=");
+            writer.println(mWastedCreationCount);
+        }
     }
 
     void performPendingDeferredStart(@NonNull FragmentStateManager fragmentStateManager) {
@@ -1689,6 +1699,35 @@ public abstract class FragmentManager implements FragmentResultOwner {
         return fragmentStateManager;
     }
 
+    void onFragmentCreated(@NonNull Fragment fragment) {
+        if (mExecutingActions) {
+            if (mCreatedWhileExecuting == null) {
+                mCreatedWhileExecuting = new ArraySet<>();
+            }
+            mCreatedWhileExecuting.add(fragment);
+        }
+    }
+
+    void onFragmentRemovedAndDestroyed(@NonNull Fragment fragment) {
+        if (mExecutingActions && mCreatedWhileExecuting != null
+                && mCreatedWhileExecuting.remove(fragment)) {
+            mWastedCreationCount++;
+            if (isLoggingEnabled(Log.DEBUG)) {
+                Log.d(TAG, "Fragment " + fragment + " was created and destroyed by the same "
+                        + "transactions. Allowing reordering of the transactions avoids "
+                        + "creating it.");
+            }
+        }
+    }
+
+    /**
+     * Returns the number of fragments that were created and then removed and destroyed while
+     * executing the same set of transactions.
+     */
+    int getWastedCreationCount() {
+        return mWastedCreationCount;
+    }
+
     void addFragment(@NonNull Fragment fragment) {
         if (isLoggingEnabled(Log.VERBOSE)) Log.v(TAG, "add: " + fragment);
         FragmentStateManager fragmentStateManager = createOrGetFragmentStateManager(fragment);
@@ -1969,6 +2008,9 @@ public abstract class FragmentManager implements FragmentResultOwner {
      */
     private void cleanupExec() {
         mExecutingActions = false;
+        if (mCreatedWhileExecuting != null) {
+            mCreatedWhileExecuting.clear();
+        }
         mTmpIsPop.clear();
         mTmpRecords.clear();
     }
@@ -2059,6 +2101,11 @@ public abstract class FragmentManager implements FragmentResultOwner {
             throw new IllegalStateException("Internal error with the back stack records");
         }
 
+        // Only count the fragments created by these records as wasted
+        if (mCreatedWhileExecuting != null) {
+            mCreatedWhileExecuting.clear();
+        }
+
         // Force start of any postponed transactions that interact with scheduled transactions:
         executePostponedTransaction(records, isRecordPop);
 
@@ -2152,30 +2199,16 @@ public abstract class FragmentManager implements FragmentResultOwner {
             if (allowReordering) {
                 // Ensure that Fragments directly affected by operations
                 // are moved to their expected state in operation order
-                for (int index = startIndex; index < endIndex; index++) {
-                    BackStackRecord record = records.get(index);
-                    if (isPop) {
-                        // Pop operations get applied in reverse order
-                        for (int opIndex = record.mOps.size() - 1; opIndex >= 0; opIndex--) {
-                            FragmentTransaction.Op op = record.mOps.get(opIndex);
-                            Fragment fragment = op.mFragment;
-                            if (fragment != null) {
-                                FragmentStateManager fragmentStateManager =
-                                        createOrGetFragmentStateManager(fragment);
-                                fragmentStateManager.moveToExpectedState();
-                            }
-                        }
-                    } else {
-                        for (FragmentTransaction.Op op : record.mOps) {
-                            Fragment fragment = op.mFragment;
-                            if (fragment != null) {
-                                FragmentStateManager fragmentStateManager =
-                                        createOrGetFragmentStateManager(fragment);
-                                fragmentStateManager.moveToExpectedState();
-                            }
-                        }
+                for (Fragment fragment : collectAffectedFragments(records, startIndex, endIndex,
+                        isPop)) {
+                    if (fragment.mState == Fragment.INITIALIZING && fragment.mRemoving
+                            && !fragment.isInBackStack()) {
+                        // Added and removed again by these records, it stays uncreated
+                        continue;
                     }
-
+                    FragmentStateManager fragmentStateManager =
+                            createOrGetFragmentStateManager(fragment);
+                    fragmentStateManager.moveToExpectedState();
                 }
                 // And only then do we move all other fragments to the current state
                 moveToState(mCurState, true);
@@ -2221,6 +2254,34 @@ public abstract class FragmentManager implements FragmentResultOwner {
         }
     }
 
+    /**
+     * Returns the fragments of the operations of the records once each, in the order of their
+     * first operation. Pop operations are applied in reverse order within each record.
+     */
+    private static Set<Fragment> collectAffectedFragments(
+            @NonNull ArrayList<BackStackRecord> records, int startIndex, int endIndex,
+            boolean isPop) {
+        Set<Fragment> fragments = new LinkedHashSet<>();
+        for (int index = startIndex; index < endIndex; index++) {
+            BackStackRecord record = records.get(index);
+            if (isPop) {
+                for (int opIndex = record.mOps.size() - 1; opIndex >= 0; opIndex--) {
+                    Fragment fragment = record.mOps.get(opIndex).mFragment;
+                    if (fragment != null) {
+                        fragments.add(fragment);
+                    }
+                }
+            } else {
+                for (FragmentTransaction.Op op : record.mOps) {
+                    if (op.mFragment != null) {
+                        fragments.add(op.mFragment);
+                    }
+                }
+            }
+        }
+        return fragments;
+    }
+
     private Set<SpecialEffectsController> collectChangedControllers(
             @NonNull ArrayList<BackStackRecord> records, int startIndex, int endIndex) {
         Set<SpecialEffectsController> controllers = new HashSet<>();
@@ -471,6 +471,7 @@ class FragmentStateManager {
             mFragment.performCreate(mFragment.mSavedFragmentState);
             mDispatcher.dispatchOnFragmentCreated(
                     mFragment, mFragment.mSavedFragmentState, false);
+            mFragment.mFragmentManager.onFragmentCreated(mFragment);
         } else {
             mFragment.restoreChildFragmentState(mFragment.mSavedFragmentState);
             mFragment.mState = Fragment.CREATED;
@@ -743,6 +744,9 @@ class FragmentStateManager {
             }
             mFragment.performDestroy();
             mDispatcher.dispatchOnFragmentDestroyed(mFragment, false);
+            if (beingRemoved) {
+                mFragment.mFragmentManager.onFragmentRemovedAndDestroyed(mFragment);
+            }
             // Ensure that any Fragment that had this Fragment as its
             // target Fragment retains a reference to the Fragment
             for (FragmentStateManager fragmentStateManager :
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.leanback.widget;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+/**
+ * Measures layout and scroll of {@link StaggeredGridDefault} with a large number of items.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StaggeredGridBenchmark {
+    private static final int ITEM_COUNT = 10000;
+    private static final int NUM_ROWS = 5;
+    private static final int SPACING = 10;
+    private static final int WINDOW_SIZE = 1920;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Provider mProvider;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(0);
+        int[] sizes = new int[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            sizes[i] = 100 + random.nextInt(200);
+        }
+        mProvider = new Provider(sizes);
+    }
+
+    @Test
+    public void layoutAllItems() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            StaggeredGridDefault grid = createGrid();
+            grid.appendVisibleItems(Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void scrollToEnd() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            StaggeredGridDefault grid = createGrid();
+            scrollToEnd(grid);
+        }
+    }
+
+    @Test
+    public void scrollToEndWithCache() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        StaggeredGridDefault grid = createGrid();
+        scrollToEnd(grid);
+        while (state.keepRunning()) {
+            grid.resetVisibleIndex();
+            grid.setStart(0);
+            mProvider.reset();
+            scrollToEnd(grid);
+        }
+    }
+
+    @Test
+    public void relayoutAfterItemRangeChanges() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        StaggeredGridDefault grid = createGrid();
+        grid.appendVisibleItems(Integer.MAX_VALUE);
+        while (state.keepRunning()) {
+            // Insert and remove an item before the cached items, so the cached locations are
+            // moved and moved back, then layout the window from the cache.
+            grid.resetVisibleIndex();
+            grid.onItemsInserted(0, 1);
+            grid.onItemsRemoved(0, 1);
+            grid.setStart(0);
+            mProvider.reset();
+            grid.appendVisibleItems(WINDOW_SIZE);
+        }
+    }
+
+    private StaggeredGridDefault createGrid() {
+        StaggeredGridDefault grid = new StaggeredGridDefault();
+        grid.setNumRows(NUM_ROWS);
+        grid.setSpacing(SPACING);
+        grid.setProvider(mProvider);
+        mProvider.reset();
+        return grid;
+    }
+
+    // Scrolls the window by one column at a time, as GridLayoutManager does.
+    private void scrollToEnd(StaggeredGridDefault grid) {
+        grid.appendVisibleItems(WINDOW_SIZE);
+        while (grid.getLastVisibleIndex() < ITEM_COUNT - 1) {
+            int distance = mProvider.getSize(grid.getFirstVisibleIndex()) + SPACING;
+            mProvider.scroll(distance);
+            grid.appendVisibleItems(WINDOW_SIZE);
+            grid.removeInvisibleItemsAtFront(grid.getLastVisibleIndex(), 0);
+        }
+    }
+
+    private static class Provider implements Grid.Provider {
+        private final int[] mSizes;
+        private final int[] mEdges;
+        // Scrolled distance, edges are stored without it so scrolling doesn't touch every item.
+        private int mScrollOffset;
+
+        Provider(int[] sizes) {
+            mSizes = sizes;
+            mEdges = new int[sizes.length];
+        }
+
+        void reset() {
+            mScrollOffset = 0;
+        }
+
+        void scroll(int distance) {
+            mScrollOffset += distance;
+        }
+
+        @Override
+        public int getCount() {
+            return mSizes.length;
+        }
+
+        @Override
+        public int getMinIndex() {
+            return 0;
+        }
+
+        @Override
+        public int createItem(int index, boolean append, Object[] item,
+                boolean disappearingItem) {
+            return mSizes[index];
+        }
+
+        @Override
+        public void addItem(Object item, int index, int length, int rowIndex, int edge) {
+            if (edge == Integer.MAX_VALUE || edge == Integer.MIN_VALUE) {
+                // initialize edge for first item added
+                edge = 0;
+            }
+            mEdges[index] = edge + mScrollOffset;
+        }
+
+        @Override
+        public void removeItem(int index) {
+        }
+
+        @Override
+        public int getEdge(int index) {
+            return mEdges[index] - mScrollOffset;
+        }
+
+        @Override
+        public int getSize(int index) {
+            return mSizes[index];
+        }
+    }
+}
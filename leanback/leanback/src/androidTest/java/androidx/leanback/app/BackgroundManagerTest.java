@@ -27,6 +27,7 @@ import android.graphics.Paint;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.Bundle;
 
 import androidx.leanback.testutils.PollingCheck;
@@ -38,6 +39,11 @@ import org.junit.Test;
 import org.junit.rules.TestName;
 import org.junit.runner.RunWith;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
 @LargeTest
 @RunWith(AndroidJUnit4.class)
 public class BackgroundManagerTest {
@@ -661,4 +667,96 @@ public class BackgroundManagerTest {
         waitForBackgroundAnimationFinish(manager1);
         assertIsBitmapDrawable(manager1, bitmap);
     }
+
+    Uri createImageFile(String name, int width, int height, int color) throws IOException {
+        File file = new File(mRule.getActivity().getCacheDir(), name + ".png");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            createBitmap(width, height, color).compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+        return Uri.fromFile(file);
+    }
+
+    void waitForBitmapLoaded(final BackgroundManager manager) {
+        PollingCheck.waitFor(5000/* timeout */, new PollingCheck.PollingCheckCondition() {
+            @Override
+            public boolean canPreProceed() {
+                return false;
+            }
+
+            @Override
+            public boolean canProceed() {
+                return manager.mBitmapUri == null;
+            }
+        });
+    }
+
+    @Test
+    public void setBitmapUri() throws Throwable {
+        TestActivity.setProvider(mRule.getProviderName(), new TestActivity.Provider() {
+            @Override
+            public void onAttachedToWindow(TestActivity activity) {
+                BackgroundManager.getInstance(activity).attach(activity.getWindow());
+            }
+
+            @Override
+            public void onStart(TestActivity activity) {
+                BackgroundManager.getInstance(activity).setColor(Color.BLUE);
+            }
+        });
+        final TestActivity activity1 = mRule.launchActivity();
+
+        final BackgroundManager manager = BackgroundManager.getInstance(activity1);
+        waitForBackgroundAnimationFinish(manager);
+        assertIsColorDrawable(manager, Color.BLUE);
+
+        BackgroundBitmapLoader.clearCache();
+        final Uri uri1 = createImageFile(mUnitTestName.getMethodName() + "1", 200, 100,
+                Color.RED);
+        final Uri uri2 = createImageFile(mUnitTestName.getMethodName() + "2", 200, 100,
+                Color.GREEN);
+        mRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                manager.setBitmapUri(uri1);
+                // supersedes uri1 before it's loaded
+                manager.setBitmapUri(uri2);
+            }
+        });
+        waitForBitmapLoaded(manager);
+        waitForBackgroundAnimationFinish(manager);
+        Bitmap bitmap = ((BackgroundManager.BitmapDrawable) manager.mBackgroundDrawable)
+                .getBitmap();
+        assertEquals(200, bitmap.getWidth());
+        assertEquals(Color.GREEN, bitmap.getPixel(0, 0));
+        final int width = activity1.getResources().getDisplayMetrics().widthPixels;
+        final int height = activity1.getResources().getDisplayMetrics().heightPixels;
+        assertNull(BackgroundBitmapLoader.getCachedBitmap(uri1, width, height));
+        assertSame(bitmap, BackgroundBitmapLoader.getCachedBitmap(uri2, width, height));
+
+        // setColor() cancels the pending load
+        mRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                BackgroundBitmapLoader.clearCache();
+                manager.setBitmapUri(uri1);
+                manager.setColor(Color.MAGENTA);
+            }
+        });
+        waitForBackgroundAnimationFinish(manager);
+        assertNull(manager.mBitmapUri);
+        assertIsColorDrawable(manager, Color.MAGENTA);
+    }
+
+    @Test
+    public void calculateInSampleSize() {
+        assertEquals(1, BackgroundBitmapLoader.calculateInSampleSize(1920, 1080, 1920, 1080));
+        assertEquals(1, BackgroundBitmapLoader.calculateInSampleSize(800, 600, 1920, 1080));
+        assertEquals(2, BackgroundBitmapLoader.calculateInSampleSize(3840, 2160, 1920, 1080));
+        // keeps covering the narrower dimension
+        assertEquals(2, BackgroundBitmapLoader.calculateInSampleSize(8000, 2160, 1920, 1080));
+        assertEquals(4, BackgroundBitmapLoader.calculateInSampleSize(8000, 4500, 1920, 1080));
+    }
 }
@@ -65,4 +65,83 @@ public class StaggeredGridDefaultTest extends GridTest {
         assertEquals(dump(mStaggeredGrid) + " last item should be placed on row 1",
                 1, row_result2);
     }
+
+    @Test
+    public void testItemsInsertedBeforeCachedItems() {
+        mProvider = new Provider(new int[]{100, 100, 100, 100, 40, 100, 100, 30, 100});
+        mStaggeredGrid = createGrid();
+        mStaggeredGrid.appendVisibleItems(100000);
+        int row8 = mStaggeredGrid.getLocation(8).row;
+        mStaggeredGrid.resetVisibleIndex();
+
+        mStaggeredGrid.onItemsInserted(0, 2);
+        assertEquals(2, mStaggeredGrid.getFirstIndex());
+        assertEquals(10, mStaggeredGrid.getLastIndex());
+        assertEquals(dump(mStaggeredGrid) + " cached row should move with the item",
+                row8, mStaggeredGrid.getLocation(10).row);
+    }
+
+    @Test
+    public void testItemsInsertedAndRemovedInCachedItems() {
+        mProvider = new Provider(new int[]{100, 100, 100, 100, 40, 100, 100, 30, 100});
+        mStaggeredGrid = createGrid();
+        mStaggeredGrid.appendVisibleItems(100000);
+        mStaggeredGrid.resetVisibleIndex();
+
+        mStaggeredGrid.onItemsInserted(6, 1);
+        assertEquals(0, mStaggeredGrid.getFirstIndex());
+        assertEquals(5, mStaggeredGrid.getLastIndex());
+
+        mStaggeredGrid.onItemsRemoved(3, 2);
+        assertEquals(0, mStaggeredGrid.getFirstIndex());
+        assertEquals(2, mStaggeredGrid.getLastIndex());
+
+        mStaggeredGrid.onItemsRemoved(0, 5);
+        assertEquals(-1, mStaggeredGrid.getFirstIndex());
+        assertEquals(0, mStaggeredGrid.getSize());
+    }
+
+    @Test
+    public void testItemsRemovedAtStartOfCachedItems() {
+        mProvider = new Provider(new int[]{100, 100, 100, 100, 40, 100, 100, 30, 100});
+        mStaggeredGrid = createGrid();
+        mStaggeredGrid.appendVisibleItems(100000);
+        int row8 = mStaggeredGrid.getLocation(8).row;
+        mStaggeredGrid.resetVisibleIndex();
+
+        mStaggeredGrid.onItemsRemoved(0, 3);
+        assertEquals(0, mStaggeredGrid.getFirstIndex());
+        assertEquals(5, mStaggeredGrid.getLastIndex());
+        assertEquals(row8, mStaggeredGrid.getLocation(5).row);
+    }
+
+    @Test
+    public void testLocationsGrowAndWrap() {
+        StaggeredGrid.Locations locations = new StaggeredGrid.Locations(2);
+        for (int i = 0; i < 10; i++) {
+            locations.addLast(i, i * 10, i * 100);
+            locations.addFirst(-i, -i * 10, -i * 100);
+        }
+        assertEquals(20, locations.size());
+        assertEquals(-9, locations.getRow(0));
+        assertEquals(-90, locations.getOffset(0));
+        assertEquals(9, locations.getRow(19));
+        assertEquals(900, locations.getSize(19));
+
+        locations.removeFromStart(10);
+        locations.removeFromEnd(5);
+        assertEquals(5, locations.size());
+        assertEquals(0, locations.getRow(0));
+        assertEquals(4, locations.getRow(4));
+        locations.setSize(4, 1);
+        assertEquals(1, locations.getSize(4));
+    }
+
+    private StaggeredGridDefault createGrid() {
+        StaggeredGridDefault grid = new StaggeredGridDefault();
+        grid.setNumRows(3);
+        grid.setSpacing(20);
+        grid.setProvider(mProvider);
+        return grid;
+    }
 }
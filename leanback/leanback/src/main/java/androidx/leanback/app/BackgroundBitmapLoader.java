@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.leanback.app;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.core.os.TraceCompat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decodes background images off the main thread, downsampled to the size they're shown at, and
+ * keeps recently decoded bitmaps in a cache shared by all {@link BackgroundManager}s.
+ */
+final class BackgroundBitmapLoader {
+    static final String TAG = "BackgroundBitmapLoader";
+    static final boolean DEBUG = false;
+
+    // The cache may keep a few full screen backgrounds, but no more than 1/16 of the heap.
+    private static final int MAX_CACHE_SIZE_BYTES = 32 * 1024 * 1024;
+
+    private static LruCache<String, Bitmap> sCache;
+    private static ExecutorService sExecutor;
+
+    /**
+     * Callback of {@link #load}, called on the handler given to it.
+     */
+    interface Callback {
+        /**
+         * Called when the bitmap is decoded, or with {@code null} if the image couldn't be
+         * decoded.
+         */
+        void onBitmapLoaded(@NonNull Uri uri, @Nullable Bitmap bitmap);
+    }
+
+    /**
+     * A pending load, which can be cancelled when it's superseded.
+     */
+    static final class Request implements Runnable {
+        final ContentResolver mResolver;
+        final Uri mUri;
+        final int mWidth;
+        final int mHeight;
+        final Handler mHandler;
+        final Callback mCallback;
+        Future<?> mFuture;
+        volatile boolean mCancelled;
+
+        Request(ContentResolver resolver, Uri uri, int width, int height, Handler handler,
+                Callback callback) {
+            mResolver = resolver;
+            mUri = uri;
+            mWidth = width;
+            mHeight = height;
+            mHandler = handler;
+            mCallback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            Bitmap bitmap = null;
+            try {
+                bitmap = decode(mResolver, mUri, mWidth, mHeight);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Failed to decode " + mUri, e);
+            }
+            if (bitmap != null) {
+                putCache(createKey(mUri, mWidth, mHeight), bitmap);
+            }
+            final Bitmap result = bitmap;
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!mCancelled) {
+                        mCallback.onBitmapLoaded(mUri, result);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Cancels the request. Must be called on the thread of the handler, so that the
+         * callback is never called after this.
+         */
+        void cancel() {
+            mCancelled = true;
+            if (mFuture != null) {
+                mFuture.cancel(false);
+            }
+        }
+    }
+
+    private BackgroundBitmapLoader() {
+    }
+
+    static String createKey(@NonNull Uri uri, int width, int height) {
+        return uri.toString() + '@' + width + 'x' + height;
+    }
+
+    /**
+     * Returns the bitmap decoded for the uri and size, or {@code null} if it's not in cache.
+     */
+    @Nullable
+    static synchronized Bitmap getCachedBitmap(@NonNull Uri uri, int width, int height) {
+        return sCache == null ? null : sCache.get(createKey(uri, width, height));
+    }
+
+    static synchronized void putCache(@NonNull String key, @NonNull Bitmap bitmap) {
+        if (sCache == null) {
+            int maxSize = (int) Math.min(MAX_CACHE_SIZE_BYTES,
+                    Runtime.getRuntime().maxMemory() / 16);
+            sCache = new LruCache<String, Bitmap>(maxSize) {
+                @Override
+                protected int sizeOf(@NonNull String key, @NonNull Bitmap value) {
+                    return value.getByteCount();
+                }
+            };
+        }
+        sCache.put(key, bitmap);
+    }
+
+    static synchronized void clearCache() {
+        if (sCache != null) {
+            sCache.evictAll();
+        }
+    }
+
+    /**
+     * Starts decoding the image at the uri on a background thread.
+     *
+     * @param width Width that the image is shown at.
+     * @param height Height that the image is shown at.
+     */
+    @NonNull
+    static Request load(@NonNull ContentResolver resolver, @NonNull Uri uri, int width,
+            int height, @NonNull Handler handler, @NonNull Callback callback) {
+        Request request = new Request(resolver, uri, width, height, handler, callback);
+        request.mFuture = getExecutor().submit(request);
+        return request;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            r.run();
+                        }
+                    }, TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    /**
+     * Decodes the image at the uri, subsampled so that it still covers width x height.
+     */
+    @Nullable
+    static Bitmap decode(@NonNull ContentResolver resolver, @NonNull Uri uri, int width,
+            int height) throws IOException {
+        TraceCompat.beginSection("BackgroundBitmapLoader.decode");
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            decodeStream(resolver, uri, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight,
+                    width, height);
+            if (DEBUG) {
+                Log.v(TAG, "decode " + uri + " " + options.outWidth + "x" + options.outHeight
+                        + " inSampleSize " + options.inSampleSize);
+            }
+            return decodeStream(resolver, uri, options);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private static Bitmap decodeStream(ContentResolver resolver, Uri uri,
+            BitmapFactory.Options options) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        try {
+            return BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the largest power of two sample size that keeps the image at least as large as
+     * the requested size in both dimensions, as the background is scaled to cover the window.
+     */
+    static int calculateInSampleSize(int imageWidth, int imageHeight, int reqWidth,
+            int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize;
+        }
+        while (imageWidth / (inSampleSize * 2) >= reqWidth
+                && imageHeight / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+}
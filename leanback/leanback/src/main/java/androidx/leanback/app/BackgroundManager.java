@@ -29,6 +29,7 @@ import android.graphics.PixelFormat;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
 import android.util.Log;
@@ -38,8 +39,10 @@ import android.view.animation.Interpolator;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
+import androidx.core.os.TraceCompat;
 import androidx.interpolator.view.animation.FastOutLinearInInterpolator;
 import androidx.leanback.R;
 import androidx.leanback.widget.BackgroundHelper;
@@ -68,8 +71,8 @@ import java.lang.ref.WeakReference;
  * <ul>
  *   <li>the background Drawable of the theme</li>
  *   <li>a solid color (set via {@link #setColor})</li>
- *   <li>two Drawables, previous and current (set via {@link #setBitmap} or
- *   {@link #setDrawable}), which may be in transition</li>
+ *   <li>two Drawables, previous and current (set via {@link #setBitmap},
+ *   {@link #setBitmapUri} or {@link #setDrawable}), which may be in transition</li>
  * </ul>
  *
  * <p>BackgroundManager holds references to potentially large bitmap Drawables.
@@ -87,6 +90,8 @@ public final class BackgroundManager {
     static final int FULL_ALPHA = 255;
     private static final int CHANGE_BG_DELAY_MS = 500;
     private static final int FADE_DURATION = 500;
+    // Delay before decoding an image set by uri, so quickly superseded images aren't decoded.
+    private static final int LOAD_BITMAP_DELAY_MS = 100;
 
     private static final String FRAGMENT_TAG = BackgroundManager.class.getCanonicalName();
 
@@ -348,41 +353,46 @@ public final class BackgroundManager {
 
         @Override
         public void draw(Canvas canvas) {
-            for (int i = 0; i < mWrapper.length; i++) {
-                final Drawable d;
-                // For each child drawable, we multiple Wrapper's alpha and LayerDrawable's alpha
-                // temporarily using mSuspendInvalidation to suppress invalidate event.
-                if (mWrapper[i] != null && (d = mWrapper[i].getDrawable()) != null) {
-                    int alpha = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
-                            ? DrawableCompat.getAlpha(d) : FULL_ALPHA;
-                    final int savedAlpha = alpha;
-                    int multiple = 0;
-                    if (mAlpha < FULL_ALPHA) {
-                        alpha = alpha * mAlpha;
-                        multiple++;
-                    }
-                    if (mWrapper[i].mAlpha < FULL_ALPHA) {
-                        alpha = alpha * mWrapper[i].mAlpha;
-                        multiple++;
-                    }
-                    if (multiple == 0) {
-                        d.draw(canvas);
-                    } else {
-                        if (multiple == 1) {
-                            alpha = alpha / FULL_ALPHA;
-                        } else if (multiple == 2) {
-                            alpha = alpha / (FULL_ALPHA * FULL_ALPHA);
+            TraceCompat.beginSection("BackgroundManager.draw");
+            try {
+                for (int i = 0; i < mWrapper.length; i++) {
+                    final Drawable d;
+                    // For each child drawable, we multiple Wrapper's alpha and LayerDrawable's
+                    // alpha temporarily using mSuspendInvalidation to suppress invalidate event.
+                    if (mWrapper[i] != null && (d = mWrapper[i].getDrawable()) != null) {
+                        int alpha = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                                ? DrawableCompat.getAlpha(d) : FULL_ALPHA;
+                        final int savedAlpha = alpha;
+                        int multiple = 0;
+                        if (mAlpha < FULL_ALPHA) {
+                            alpha = alpha * mAlpha;
+                            multiple++;
+                        }
+                        if (mWrapper[i].mAlpha < FULL_ALPHA) {
+                            alpha = alpha * mWrapper[i].mAlpha;
+                            multiple++;
                         }
-                        try {
-                            mSuspendInvalidation = true;
-                            d.setAlpha(alpha);
+                        if (multiple == 0) {
                             d.draw(canvas);
-                            d.setAlpha(savedAlpha);
-                        } finally {
-                            mSuspendInvalidation = false;
+                        } else {
+                            if (multiple == 1) {
+                                alpha = alpha / FULL_ALPHA;
+                            } else if (multiple == 2) {
+                                alpha = alpha / (FULL_ALPHA * FULL_ALPHA);
+                            }
+                            try {
+                                mSuspendInvalidation = true;
+                                d.setAlpha(alpha);
+                                d.draw(canvas);
+                                d.setAlpha(savedAlpha);
+                            } finally {
+                                mSuspendInvalidation = false;
+                            }
                         }
                     }
                 }
+            } finally {
+                TraceCompat.endSection();
             }
         }
     }
@@ -406,6 +416,34 @@ public final class BackgroundManager {
     int mImageOutWrapperIndex;
     ChangeBackgroundRunnable mChangeRunnable;
     private boolean mChangeRunnablePending;
+    Uri mBitmapUri;
+    BackgroundBitmapLoader.Request mLoadBitmapRequest;
+
+    private final Runnable mLoadBitmapRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mBitmapUri == null) {
+                return;
+            }
+            mLoadBitmapRequest = BackgroundBitmapLoader.load(mContext.getContentResolver(),
+                    mBitmapUri, mWidthPx, mHeightPx, mHandler, mLoadBitmapCallback);
+        }
+    };
+
+    private final BackgroundBitmapLoader.Callback mLoadBitmapCallback =
+            new BackgroundBitmapLoader.Callback() {
+        @Override
+        public void onBitmapLoaded(@NonNull Uri uri, @Nullable Bitmap bitmap) {
+            if (!uri.equals(mBitmapUri)) {
+                return;
+            }
+            mBitmapUri = null;
+            mLoadBitmapRequest = null;
+            if (bitmap != null && mAttached) {
+                setBitmap(bitmap);
+            }
+        }
+    };
 
     private final Animator.AnimatorListener mAnimationListener = new Animator.AnimatorListener() {
         final Runnable mRunnable = new Runnable() {
@@ -713,6 +751,7 @@ public final class BackgroundManager {
      */
     public void release() {
         if (DEBUG) Log.v(TAG, "release " + this);
+        cancelLoadBitmap();
         if (mChangeRunnable != null) {
             mHandler.removeCallbacks(mChangeRunnable);
             mChangeRunnable = null;
@@ -815,6 +854,7 @@ public final class BackgroundManager {
     public void setColor(@ColorInt int color) {
         if (DEBUG) Log.v(TAG, "setColor " + Integer.toHexString(color));
 
+        cancelLoadBitmap();
         mService.setColor(color);
         mBackgroundColor = color;
         mBackgroundDrawable = null;
@@ -833,6 +873,7 @@ public final class BackgroundManager {
     public void setDrawable(Drawable drawable) {
         if (DEBUG) Log.v(TAG, "setBackgroundDrawable " + drawable);
 
+        cancelLoadBitmap();
         mService.setDrawable(drawable);
         mBackgroundDrawable = drawable;
         if (mLayerDrawable == null) {
@@ -933,6 +974,51 @@ public final class BackgroundManager {
         setDrawable(bitmapDrawable);
     }
 
+    /**
+     * Sets the image at the given uri into the background, as {@link #setBitmap(Bitmap)} does.
+     * The image is decoded on a background thread and subsampled to the size of the display,
+     * and recently decoded images are cached. A load that is superseded by another call to
+     * set the background is cancelled, and decoding starts after a short delay so that quickly
+     * changing backgrounds, for example while moving the focus across a row, are not decoded.
+     * Images that cannot be decoded are ignored.
+     *
+     * @param uri Uri of the image, with a scheme supported by
+     *            {@link android.content.ContentResolver#openInputStream(Uri)}, or {@code null}
+     *            to clear the drawable.
+     */
+    public void setBitmapUri(@Nullable Uri uri) {
+        if (DEBUG) Log.v(TAG, "setBitmapUri " + uri);
+
+        if (uri == null) {
+            setDrawable(null);
+            return;
+        }
+        if (uri.equals(mBitmapUri)) {
+            return;
+        }
+        Bitmap bitmap = BackgroundBitmapLoader.getCachedBitmap(uri, mWidthPx, mHeightPx);
+        if (bitmap != null) {
+            setBitmap(bitmap);
+            return;
+        }
+        cancelLoadBitmap();
+        mBitmapUri = uri;
+        mHandler.postDelayed(mLoadBitmapRunnable, LOAD_BITMAP_DELAY_MS);
+    }
+
+    private void cancelLoadBitmap() {
+        if (mBitmapUri == null) {
+            return;
+        }
+        if (DEBUG) Log.v(TAG, "cancel loading " + mBitmapUri);
+        mHandler.removeCallbacks(mLoadBitmapRunnable);
+        if (mLoadBitmapRequest != null) {
+            mLoadBitmapRequest.cancel();
+            mLoadBitmapRequest = null;
+        }
+        mBitmapUri = null;
+    }
+
     /**
      * Enable or disable call release() in Activity onStop(). Default is true.
      * @param autoReleaseOnStop True to call release() in Activity onStop(), false otherwise.
@@ -995,7 +1081,12 @@ public final class BackgroundManager {
 
         @Override
         public void run() {
-            runTask();
+            TraceCompat.beginSection("BackgroundManager.changeBackground");
+            try {
+                runTask();
+            } finally {
+                TraceCompat.endSection();
+            }
             mChangeRunnable = null;
         }
 
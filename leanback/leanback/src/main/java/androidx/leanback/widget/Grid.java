@@ -265,6 +265,20 @@ abstract class Grid {
         }
     }
 
+    /**
+     * Updates cached layout results after items are inserted at index, so that cached results
+     * of other items can be kept. Must be called when there is no visible item.
+     */
+    public void onItemsInserted(int index, int count) {
+    }
+
+    /**
+     * Updates cached layout results after items are removed from index, so that cached results
+     * of other items can be kept. Must be called when there is no visible item.
+     */
+    public void onItemsRemoved(int index, int count) {
+    }
+
     /**
      * Gets the row index of item at given index.
      */
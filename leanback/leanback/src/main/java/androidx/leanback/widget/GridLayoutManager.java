@@ -708,6 +708,13 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
 
     final ViewsStateBundle mChildrenStates = new ViewsStateBundle();
 
+    /**
+     * Range inserts and removes since last layout, in pairs of position start and item count
+     * (negative for removes). They are applied to mGrid in layoutInit() after pre-layout, when
+     * the grid is no longer used with old positions.
+     */
+    private final CircularIntArray mPendingItemRangeChanges = new CircularIntArray();
+
     /**
      * Optional interface implemented by Adapter.
      */
@@ -1236,6 +1243,7 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
             updateScrollController();
             updateSecondaryScrollLimits();
             mGrid.setSpacing(mSpacingPrimary);
+            mPendingItemRangeChanges.clear();
             return true;
         } else {
             mFlag &= ~PF_FORCE_FULL_LAYOUT;
@@ -1251,12 +1259,30 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
             mGrid.setSpacing(mSpacingPrimary);
             detachAndScrapAttachedViews(mRecycler);
             mGrid.resetVisibleIndex();
+            applyPendingItemRangeChanges();
             mWindowAlignment.mainAxis().invalidateScrollMin();
             mWindowAlignment.mainAxis().invalidateScrollMax();
             return false;
         }
     }
 
+    /**
+     * Updates cached locations of mGrid for range inserts and removes, so the grid keeps the
+     * locations of unchanged items instead of mapping old locations to new positions.
+     */
+    private void applyPendingItemRangeChanges() {
+        for (int i = 0, size = mPendingItemRangeChanges.size(); i < size; i += 2) {
+            final int positionStart = mPendingItemRangeChanges.get(i);
+            final int itemCount = mPendingItemRangeChanges.get(i + 1);
+            if (itemCount > 0) {
+                mGrid.onItemsInserted(positionStart, itemCount);
+            } else {
+                mGrid.onItemsRemoved(positionStart, -itemCount);
+            }
+        }
+        mPendingItemRangeChanges.clear();
+    }
+
     private int getRowSizeSecondary(int rowIndex) {
         if (mFixedRowSizeSecondary != 0) {
             return mFixedRowSizeSecondary;
@@ -2811,6 +2837,7 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
                 mFocusPositionOffset += itemCount;
             }
         }
+        addPendingItemRangeChange(positionStart, itemCount);
         mChildrenStates.clear();
     }
 
@@ -2818,9 +2845,19 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
     public void onItemsChanged(RecyclerView recyclerView) {
         if (DEBUG) Log.v(getTag(), "onItemsChanged");
         mFocusPositionOffset = 0;
+        // positions are unknown, keep the cached locations as they are.
+        mPendingItemRangeChanges.clear();
         mChildrenStates.clear();
     }
 
+    private void addPendingItemRangeChange(int positionStart, int signedItemCount) {
+        if (mGrid == null) {
+            return;
+        }
+        mPendingItemRangeChanges.addLast(positionStart);
+        mPendingItemRangeChanges.addLast(signedItemCount);
+    }
+
     @Override
     public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
         if (DEBUG) Log.v(getTag(), "onItemsRemoved positionStart "
@@ -2839,6 +2876,7 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
                 }
             }
         }
+        addPendingItemRangeChange(positionStart, -itemCount);
         mChildrenStates.clear();
     }
 
@@ -2860,6 +2898,8 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
                 mFocusPositionOffset += itemCount;
             }
         }
+        addPendingItemRangeChange(fromPosition, -itemCount);
+        addPendingItemRangeChange(toPosition, itemCount);
         mChildrenStates.clear();
     }
 
@@ -3579,6 +3619,7 @@ final class GridLayoutManager extends RecyclerView.LayoutManager {
 
     private void discardLayoutInfo() {
         mGrid = null;
+        mPendingItemRangeChanges.clear();
         mRowSizeSecondary = null;
         mFlag &= ~PF_ROW_SECONDARY_SIZE_REFRESH;
     }
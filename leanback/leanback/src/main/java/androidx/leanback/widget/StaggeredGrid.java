@@ -13,7 +13,6 @@
  */
 package androidx.leanback.widget;
 
-import androidx.collection.CircularArray;
 import androidx.collection.CircularIntArray;
 
 import java.io.PrintWriter;
@@ -31,7 +30,8 @@ import java.io.PrintWriter;
  * scrolls back to 0 and we don't keep history location information, edges of
  * the very beginning of rows will not be aligned. It is recommended to keep a
  * list of tens of thousands of {@link StaggeredGrid.Location}s which will be
- * big enough to remember a typical user's scroll history.
+ * big enough to remember a typical user's scroll history. Locations are stored
+ * in parallel int arrays so that such a list doesn't allocate an object per item.
  *
  * <p>
  * This class is abstract and can be replaced with different implementations.
@@ -61,7 +61,133 @@ abstract class StaggeredGrid extends Grid {
         }
     }
 
-    protected CircularArray<Location> mLocations = new CircularArray<Location>(64);
+    /**
+     * Circular array of cached locations, stored as parallel int arrays of row, offset and size.
+     */
+    static final class Locations {
+        private int[] mRows;
+        private int[] mOffsets;
+        private int[] mSizes;
+        private int mHead;
+        private int mSize;
+        private int mCapacityBitmask;
+
+        Locations(int minCapacity) {
+            int arrayCapacity = Integer.highestOneBit(Math.max(minCapacity, 2));
+            if (arrayCapacity < minCapacity) {
+                arrayCapacity <<= 1;
+            }
+            mCapacityBitmask = arrayCapacity - 1;
+            mRows = new int[arrayCapacity];
+            mOffsets = new int[arrayCapacity];
+            mSizes = new int[arrayCapacity];
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        void clear() {
+            mSize = 0;
+        }
+
+        void addFirst(int row, int offset, int size) {
+            if (mSize == mRows.length) {
+                doubleCapacity();
+            }
+            mHead = (mHead - 1) & mCapacityBitmask;
+            mRows[mHead] = row;
+            mOffsets[mHead] = offset;
+            mSizes[mHead] = size;
+            mSize++;
+        }
+
+        void addLast(int row, int offset, int size) {
+            if (mSize == mRows.length) {
+                doubleCapacity();
+            }
+            final int tail = (mHead + mSize) & mCapacityBitmask;
+            mRows[tail] = row;
+            mOffsets[tail] = offset;
+            mSizes[tail] = size;
+            mSize++;
+        }
+
+        void removeFromStart(int numOfElements) {
+            if (numOfElements <= 0) {
+                return;
+            }
+            if (numOfElements > mSize) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            mHead = (mHead + numOfElements) & mCapacityBitmask;
+            mSize -= numOfElements;
+        }
+
+        void removeFromEnd(int numOfElements) {
+            if (numOfElements <= 0) {
+                return;
+            }
+            if (numOfElements > mSize) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            mSize -= numOfElements;
+        }
+
+        int getRow(int n) {
+            return mRows[arrayIndex(n)];
+        }
+
+        int getOffset(int n) {
+            return mOffsets[arrayIndex(n)];
+        }
+
+        int getSize(int n) {
+            return mSizes[arrayIndex(n)];
+        }
+
+        void setOffset(int n, int offset) {
+            mOffsets[arrayIndex(n)] = offset;
+        }
+
+        void setSize(int n, int size) {
+            mSizes[arrayIndex(n)] = size;
+        }
+
+        private int arrayIndex(int n) {
+            if (n < 0 || n >= mSize) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            return (mHead + n) & mCapacityBitmask;
+        }
+
+        private void doubleCapacity() {
+            final int capacity = mRows.length;
+            final int newCapacity = capacity << 1;
+            if (newCapacity < 0) {
+                throw new RuntimeException("Max array capacity exceeded");
+            }
+            mRows = copyToCapacity(mRows, newCapacity);
+            mOffsets = copyToCapacity(mOffsets, newCapacity);
+            mSizes = copyToCapacity(mSizes, newCapacity);
+            mHead = 0;
+            mCapacityBitmask = newCapacity - 1;
+        }
+
+        // Copies the elements in order starting at index 0, only called when the array is full.
+        private int[] copyToCapacity(int[] array, int newCapacity) {
+            final int[] a = new int[newCapacity];
+            final int rightElements = array.length - mHead;
+            System.arraycopy(array, mHead, a, 0, rightElements);
+            System.arraycopy(array, 0, a, rightElements, mHead);
+            return a;
+        }
+    }
+
+    protected Locations mLocations = new Locations(64);
+
+    // Shared by getLocation(), see Grid#getLocation(int).
+    private final Location mTmpLocation = new Location(0, 0, 0);
 
     // mFirstIndex <= mFirstVisibleIndex <= mLastVisibleIndex
     //    <= mFirstIndex + mLocations.size() - 1
@@ -99,14 +225,38 @@ abstract class StaggeredGrid extends Grid {
         if (indexInArray < 0 || indexInArray >= mLocations.size()) {
             return null;
         }
-        return mLocations.get(indexInArray);
+        mTmpLocation.row = mLocations.getRow(indexInArray);
+        mTmpLocation.offset = mLocations.getOffset(indexInArray);
+        mTmpLocation.size = mLocations.getSize(indexInArray);
+        return mTmpLocation;
+    }
+
+    /**
+     * Returns the row of a cached item, the index must be between {@link #getFirstIndex()} and
+     * {@link #getLastIndex()}.
+     */
+    protected final int getLocationRow(int index) {
+        return mLocations.getRow(index - mFirstIndex);
+    }
+
+    /**
+     * Returns the offset to the previous item of a cached item, see {@link Location#offset}.
+     */
+    protected final int getLocationOffset(int index) {
+        return mLocations.getOffset(index - mFirstIndex);
+    }
+
+    /**
+     * Returns the size of a cached item.
+     */
+    protected final int getLocationSize(int index) {
+        return mLocations.getSize(index - mFirstIndex);
     }
 
     @Override
     public final void debugPrint(PrintWriter pw) {
         for (int i = 0, size = mLocations.size(); i < size; i++) {
-            Location loc = mLocations.get(i);
-            pw.print("<" + (mFirstIndex + i) + "," + loc.row + ">");
+            pw.print("<" + (mFirstIndex + i) + "," + mLocations.getRow(i) + ">");
             pw.print(" ");
             pw.println();
         }
@@ -145,7 +295,7 @@ abstract class StaggeredGrid extends Grid {
         if (mFirstVisibleIndex >= 0) {
             // prepend visible items from first visible index
             edge = mProvider.getEdge(mFirstVisibleIndex);
-            offset = getLocation(mFirstVisibleIndex).offset;
+            offset = getLocationOffset(mFirstVisibleIndex);
             itemIndex = mFirstVisibleIndex - 1;
         } else {
             // prepend first visible item
@@ -163,10 +313,9 @@ abstract class StaggeredGrid extends Grid {
         }
         int firstIndex = Math.max(mProvider.getMinIndex(), mFirstIndex);
         for (; itemIndex >= firstIndex; itemIndex--) {
-            Location loc = getLocation(itemIndex);
-            int rowIndex = loc.row;
+            int rowIndex = getLocationRow(itemIndex);
             int size = mProvider.createItem(itemIndex, false, mTmpItem, false);
-            if (size != loc.size) {
+            if (size != getLocationSize(itemIndex)) {
                 mLocations.removeFromStart(itemIndex + 1 - mFirstIndex);
                 mFirstIndex = mFirstVisibleIndex;
                 // pending item will be added in prependVisibleItemsWithoutCache
@@ -183,7 +332,7 @@ abstract class StaggeredGrid extends Grid {
                 return true;
             }
             edge = mProvider.getEdge(itemIndex);
-            offset = loc.offset;
+            offset = getLocationOffset(itemIndex);
             // Check limit after filled a full column
             if (rowIndex == 0) {
                 if (oneColumnMode) {
@@ -202,8 +351,7 @@ abstract class StaggeredGrid extends Grid {
         int cachedIndex = getLastIndex();
         boolean foundCachedItemInSameRow = false;
         while (cachedIndex >= mFirstIndex) {
-            Location loc = getLocation(cachedIndex);
-            if (loc.row == row) {
+            if (getLocationRow(cachedIndex) == row) {
                 foundCachedItemInSameRow = true;
                 break;
             }
@@ -215,10 +363,10 @@ abstract class StaggeredGrid extends Grid {
         // Assuming the cachedIndex is next to item on the same row, so the
         // sum of offset of [cachedIndex + 1, itemIndex] should be size of the
         // cached item plus spacing.
-        int offset = isReversedFlow() ?  -getLocation(cachedIndex).size - mSpacing:
-                getLocation(cachedIndex).size + mSpacing;
+        int offset = isReversedFlow() ?  -getLocationSize(cachedIndex) - mSpacing:
+                getLocationSize(cachedIndex) + mSpacing;
         for (int i = cachedIndex + 1; i <= getLastIndex(); i++) {
-            offset -= getLocation(i).offset;
+            offset -= getLocationOffset(i);
         }
         return offset;
     }
@@ -241,29 +389,29 @@ abstract class StaggeredGrid extends Grid {
                 throw new IllegalStateException();
             }
         }
-        Location oldFirstLoc = mFirstIndex >= 0 ? getLocation(mFirstIndex) : null;
+        boolean hasOldFirstLoc = mFirstIndex >= 0 && mLocations.size() > 0;
         int oldFirstEdge = mProvider.getEdge(mFirstIndex);
-        Location loc = new Location(rowIndex, 0, 0);
-        mLocations.addFirst(loc);
+        int size;
         Object item;
         if (mPendingItem != null) {
-            loc.size = mPendingItemSize;
+            size = mPendingItemSize;
             item = mPendingItem;
             mPendingItem = null;
         } else {
-            loc.size = mProvider.createItem(itemIndex, false, mTmpItem, false);
+            size = mProvider.createItem(itemIndex, false, mTmpItem, false);
             item = mTmpItem[0];
         }
+        mLocations.addFirst(rowIndex, 0, size);
         mFirstIndex = mFirstVisibleIndex = itemIndex;
         if (mLastVisibleIndex < 0) {
             mLastVisibleIndex = itemIndex;
         }
-        int thisEdge = !mReversedFlow ? edge - loc.size : edge + loc.size;
-        if (oldFirstLoc != null) {
-            oldFirstLoc.offset = oldFirstEdge - thisEdge;
+        int thisEdge = !mReversedFlow ? edge - size : edge + size;
+        if (hasOldFirstLoc) {
+            mLocations.setOffset(1, oldFirstEdge - thisEdge);
         }
-        mProvider.addItem(item, itemIndex, loc.size, rowIndex, thisEdge);
-        return loc.size;
+        mProvider.addItem(item, itemIndex, size, rowIndex, thisEdge);
+        return size;
     }
 
     @Override
@@ -316,14 +464,13 @@ abstract class StaggeredGrid extends Grid {
         }
         int lastIndex = getLastIndex();
         for (; itemIndex < count && itemIndex <= lastIndex; itemIndex++) {
-            Location loc = getLocation(itemIndex);
             if (edge != Integer.MAX_VALUE) {
-                edge = edge + loc.offset;
+                edge = edge + getLocationOffset(itemIndex);
             }
-            int rowIndex = loc.row;
+            int rowIndex = getLocationRow(itemIndex);
             int size = mProvider.createItem(itemIndex, true, mTmpItem, false);
-            if (size != loc.size) {
-                loc.size = size;
+            if (size != getLocationSize(itemIndex)) {
+                mLocations.setSize(itemIndex - mFirstIndex, size);
                 mLocations.removeFromEnd(lastIndex - itemIndex);
                 lastIndex = itemIndex;
             }
@@ -377,17 +524,17 @@ abstract class StaggeredGrid extends Grid {
         } else {
             offset = location - mProvider.getEdge(mLastVisibleIndex);
         }
-        Location loc = new Location(rowIndex, offset, 0);
-        mLocations.addLast(loc);
+        int size;
         Object item;
         if (mPendingItem != null) {
-            loc.size = mPendingItemSize;
+            size = mPendingItemSize;
             item = mPendingItem;
             mPendingItem = null;
         } else {
-            loc.size = mProvider.createItem(itemIndex, true, mTmpItem, false);
+            size = mProvider.createItem(itemIndex, true, mTmpItem, false);
             item = mTmpItem[0];
         }
+        mLocations.addLast(rowIndex, offset, size);
         if (mLocations.size() == 1) {
             mFirstIndex = mFirstVisibleIndex = mLastVisibleIndex = itemIndex;
         } else {
@@ -397,8 +544,8 @@ abstract class StaggeredGrid extends Grid {
                 mLastVisibleIndex++;
             }
         }
-        mProvider.addItem(item, itemIndex, loc.size, rowIndex, location);
-        return loc.size;
+        mProvider.addItem(item, itemIndex, size, rowIndex, location);
+        return size;
     }
 
     @Override
@@ -408,7 +555,7 @@ abstract class StaggeredGrid extends Grid {
         }
         if (startPos >= 0) {
             for (int i = startPos; i <= endPos; i++) {
-                CircularIntArray row = mTmpItemPositionsInRows[getLocation(i).row];
+                CircularIntArray row = mTmpItemPositionsInRows[getLocationRow(i)];
                 if (row.size() > 0 && row.getLast() == i - 1) {
                     // update continuous range
                     row.popLast();
@@ -432,4 +579,35 @@ abstract class StaggeredGrid extends Grid {
         }
     }
 
+    @Override
+    public void onItemsInserted(int index, int count) {
+        if (mLocations.size() == 0 || count <= 0 || index > getLastIndex()) {
+            return;
+        }
+        if (index <= mFirstIndex) {
+            // all cached items are moved down together, their locations are still valid.
+            mFirstIndex += count;
+        } else {
+            mLocations.removeFromEnd(getLastIndex() - index + 1);
+        }
+    }
+
+    @Override
+    public void onItemsRemoved(int index, int count) {
+        if (mLocations.size() == 0 || count <= 0 || index > getLastIndex()) {
+            return;
+        }
+        final int end = index + count;
+        if (end <= mFirstIndex) {
+            // all cached items are moved up together, their locations are still valid.
+            mFirstIndex -= count;
+        } else if (index <= mFirstIndex) {
+            // keep the cached items after the removed ones.
+            mLocations.removeFromStart(Math.min(end, getLastIndex() + 1) - mFirstIndex);
+            mFirstIndex = mLocations.size() == 0 ? -1 : index;
+        } else {
+            mLocations.removeFromEnd(getLastIndex() - index + 1);
+        }
+    }
+
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
+import androidx.media2.common.MediaParcelUtils;
+import androidx.media2.player.MediaPlayer;
+import androidx.media2.session.MediaLibraryService.LibraryParams;
+import androidx.media2.session.MediaLibraryService.MediaLibrarySession;
+import androidx.media2.session.MediaSession.ControllerInfo;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures browsing a local fake library back and forth, with and without the children page
+ * cache of {@link MediaBrowser}, and the parcelled size of pages with and without bitmaps.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LibraryBrowsingBenchmark {
+    private static final String PARENT_ID = "parent_id";
+    private static final int CHILDREN_COUNT = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES_TO_BROWSE = 5;
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private ExecutorService mExecutor;
+    private MediaPlayer mPlayer;
+    private MediaLibrarySession mSession;
+    private final List<MediaItem> mChildren = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Bitmap art = Bitmap.createBitmap(128, 128, Bitmap.Config.ARGB_8888);
+        for (int i = 0; i < CHILDREN_COUNT; i++) {
+            mChildren.add(new MediaItem.Builder()
+                    .setMetadata(new MediaMetadata.Builder()
+                            .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "media_id_" + i)
+                            .putString(MediaMetadata.METADATA_KEY_TITLE, "Title " + i)
+                            .putLong(MediaMetadata.METADATA_KEY_PLAYABLE, 1)
+                            .putBitmap(MediaMetadata.METADATA_KEY_ART, art)
+                            .build())
+                    .build());
+        }
+        mExecutor = Executors.newSingleThreadExecutor();
+        mPlayer = new MediaPlayer(mContext);
+        FakeLibraryService service = new FakeLibraryService();
+        service.attach(mContext);
+        mSession = new MediaLibrarySession.Builder(service, mPlayer, mExecutor,
+                new FakeLibraryCallback())
+                .setId("LibraryBrowsingBenchmark")
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mSession.close();
+        mPlayer.close();
+        mExecutor.shutdown();
+    }
+
+    @Test
+    public void browseBackAndForth_withoutCache() throws Exception {
+        browseBackAndForth(0);
+    }
+
+    @Test
+    public void browseBackAndForth_withCache() throws Exception {
+        browseBackAndForth(PAGES_TO_BROWSE + 1);
+    }
+
+    @Test
+    public void parcelPage_withBitmaps() {
+        parcelPage(null);
+    }
+
+    @Test
+    public void parcelPage_withoutBitmaps() {
+        Bundle extras = new Bundle();
+        extras.putBoolean(MediaConstants.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS, true);
+        parcelPage(new LibraryParams.Builder().setExtras(extras).build());
+    }
+
+    private void browseBackAndForth(int cacheSize) throws Exception {
+        final CountDownLatch connected = new CountDownLatch(1);
+        MediaBrowser browser = new MediaBrowser.Builder(mContext)
+                .setSessionToken(mSession.getToken())
+                .setChildrenPageCacheSize(cacheSize)
+                .setControllerCallback(mExecutor, new MediaBrowser.BrowserCallback() {
+                    @Override
+                    public void onConnected(@NonNull MediaController controller,
+                            @NonNull SessionCommandGroup allowedCommands) {
+                        connected.countDown();
+                    }
+                })
+                .build();
+        try {
+            assertTrue(connected.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            final BenchmarkState state = mBenchmarkRule.getState();
+            while (state.keepRunning()) {
+                for (int page = 0; page < PAGES_TO_BROWSE; page++) {
+                    getChildren(browser, page);
+                }
+                for (int page = PAGES_TO_BROWSE - 1; page >= 0; page--) {
+                    getChildren(browser, page);
+                }
+            }
+        } finally {
+            browser.close();
+        }
+    }
+
+    private void parcelPage(LibraryParams params) {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        LibraryResult result = new LibraryResult(LibraryResult.RESULT_SUCCESS,
+                mChildren.subList(0, PAGE_SIZE), null);
+        while (state.keepRunning()) {
+            Parcel parcel = Parcel.obtain();
+            try {
+                LibraryResult sent = MediaUtils.removeBitmapsIfRequested(result, params);
+                parcel.writeParcelable(MediaParcelUtils.toParcelable(sent), 0);
+            } finally {
+                parcel.recycle();
+            }
+        }
+    }
+
+    private static void getChildren(MediaBrowser browser, int page) throws Exception {
+        LibraryResult result = browser.getChildren(PARENT_ID, page, PAGE_SIZE, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(LibraryResult.RESULT_SUCCESS, result.getResultCode());
+    }
+
+    private class FakeLibraryCallback extends MediaLibrarySession.MediaLibrarySessionCallback {
+        @NonNull
+        @Override
+        public LibraryResult onGetChildren(@NonNull MediaLibrarySession session,
+                @NonNull ControllerInfo controller, @NonNull String parentId, int page,
+                int pageSize, @Nullable LibraryParams params) {
+            int fromIndex = Math.min(page * pageSize, mChildren.size());
+            int toIndex = Math.min(fromIndex + pageSize, mChildren.size());
+            return new LibraryResult(LibraryResult.RESULT_SUCCESS,
+                    new ArrayList<>(mChildren.subList(fromIndex, toIndex)), params);
+        }
+    }
+
+    /**
+     * Service that is only used as the context of the session.
+     */
+    public static class FakeLibraryService extends MediaLibraryService {
+        void attach(Context context) {
+            attachBaseContext(context);
+        }
+
+        @Nullable
+        @Override
+        public MediaLibrarySession onGetSession(@NonNull ControllerInfo controllerInfo) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import android.os.Parcel;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
+import androidx.media2.common.ParcelImplListSlice;
+import androidx.test.filters.LargeTest;
+import androidx.versionedparcelable.ParcelImpl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the cost of notifying a playlist change to a single controller, for the whole
+ * playlist and for the incremental change made by {@link PlaylistSnapshot}.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class PlaylistNotificationBenchmark {
+    @Parameterized.Parameters(name = "size={0}")
+    public static List<Object[]> data() {
+        return Arrays.asList(new Object[][] {{100}, {1000}, {5000}});
+    }
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final int mSize;
+
+    public PlaylistNotificationBenchmark(int size) {
+        mSize = size;
+    }
+
+    @Test
+    public void appendItem_fullPlaylist() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        final List<MediaItem> playlist = createPlaylist(mSize);
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            playlist.add(createMediaItem(playlist.size()));
+            state.resumeTiming();
+
+            marshall(MediaUtils.convertMediaItemListToParcelImplListSlice(playlist));
+
+            state.pauseTiming();
+            playlist.remove(playlist.size() - 1);
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void appendItem_incremental() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        final List<MediaItem> playlist = createPlaylist(mSize);
+        final PlaylistSnapshot snapshot = new PlaylistSnapshot();
+        snapshot.update(playlist);
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            playlist.add(createMediaItem(playlist.size()));
+            state.resumeTiming();
+
+            PlaylistSnapshot.Change change = snapshot.update(playlist);
+            marshall(MediaUtils.convertMediaItemListToParcelImplListSlice(
+                    change.mInsertedItems));
+
+            state.pauseTiming();
+            playlist.remove(playlist.size() - 1);
+            snapshot.update(playlist);
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void replaceMiddleItem_fullPlaylist() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        final List<MediaItem> playlist = createPlaylist(mSize);
+        final int index = mSize / 2;
+        int count = 0;
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            playlist.set(index, createMediaItem(count++));
+            state.resumeTiming();
+
+            marshall(MediaUtils.convertMediaItemListToParcelImplListSlice(playlist));
+        }
+    }
+
+    @Test
+    public void replaceMiddleItem_incremental() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        final List<MediaItem> playlist = createPlaylist(mSize);
+        final PlaylistSnapshot snapshot = new PlaylistSnapshot();
+        snapshot.update(playlist);
+        final int index = mSize / 2;
+        int count = 0;
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            playlist.set(index, createMediaItem(count++));
+            state.resumeTiming();
+
+            PlaylistSnapshot.Change change = snapshot.update(playlist);
+            marshall(MediaUtils.convertMediaItemListToParcelImplListSlice(
+                    change.mInsertedItems));
+        }
+    }
+
+    // Writes items as ParcelImplListSlice does, without the binder for the remaining items.
+    private static void marshall(ParcelImplListSlice slice) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            List<ParcelImpl> list = slice.getList();
+            parcel.writeInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                parcel.writeInt(1);
+                parcel.writeParcelable(list.get(i), 0);
+            }
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static List<MediaItem> createPlaylist(int size) {
+        List<MediaItem> list = new ArrayList<>(size + 1);
+        for (int i = 0; i < size; i++) {
+            list.add(createMediaItem(i));
+        }
+        return list;
+    }
+
+    private static MediaItem createMediaItem(int index) {
+        return new MediaItem.Builder()
+                .setMetadata(new MediaMetadata.Builder()
+                        .putString(MediaMetadata.METADATA_KEY_MEDIA_ID, "media_id_" + index)
+                        .putString(MediaMetadata.METADATA_KEY_TITLE, "Title " + index)
+                        .putString(MediaMetadata.METADATA_KEY_ARTIST, "Artist " + index)
+                        .putLong(MediaMetadata.METADATA_KEY_DURATION, 180_000)
+                        .build())
+                .build();
+    }
+}
@@ -16,6 +16,11 @@
 
 package androidx.media2.session;
 
+import static androidx.media2.common.MediaMetadata.BROWSABLE_TYPE_NONE;
+import static androidx.media2.common.MediaMetadata.METADATA_KEY_ART;
+import static androidx.media2.common.MediaMetadata.METADATA_KEY_BROWSABLE;
+import static androidx.media2.common.MediaMetadata.METADATA_KEY_MEDIA_ID;
+import static androidx.media2.common.MediaMetadata.METADATA_KEY_PLAYABLE;
 import static androidx.media2.session.LibraryResult.RESULT_ERROR_PERMISSION_DENIED;
 import static androidx.media2.session.LibraryResult.RESULT_SUCCESS;
 import static androidx.media2.session.TestUtils.assertLibraryParamsEquals;
@@ -32,11 +37,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.os.Process;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
 import androidx.media2.session.MediaBrowser.BrowserCallback;
 import androidx.media2.session.MediaController.ControllerCallback;
 import androidx.media2.session.MediaLibraryService.LibraryParams;
@@ -46,10 +54,16 @@ import androidx.media2.session.MediaSession.ControllerInfo;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -66,6 +80,8 @@ import java.util.concurrent.atomic.AtomicReference;
 public class MediaBrowserTest extends MediaControllerTest {
     private static final String TAG = "MediaBrowserTest";
 
+    private int mChildrenPageCacheSize;
+
     @Override
     MediaController onCreateController(@NonNull final SessionToken token,
             @Nullable final Bundle connectionHints, @Nullable final TestBrowserCallback callback)
@@ -83,6 +99,9 @@ public class MediaBrowserTest extends MediaControllerTest {
                 if (connectionHints != null) {
                     builder.setConnectionHints(connectionHints);
                 }
+                if (mChildrenPageCacheSize > 0) {
+                    builder.setChildrenPageCacheSize(mChildrenPageCacheSize);
+                }
                 controller.set(builder.build());
             }
         });
@@ -99,6 +118,12 @@ public class MediaBrowserTest extends MediaControllerTest {
                 true, null, callback);
     }
 
+    final MediaBrowser createBrowserWithChildrenPageCache(int maxPages,
+            @Nullable BrowserCallback callback) throws InterruptedException {
+        mChildrenPageCacheSize = maxPages;
+        return createBrowser(callback);
+    }
+
     /**
      * Test if the {@link TestBrowserCallback} wraps the callback proxy without missing any method.
      */
@@ -530,4 +555,300 @@ public class MediaBrowserTest extends MediaControllerTest {
         // onChildrenChanged() should be called.
         assertTrue(latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
     }
+
+    @Test
+    public void getChildren_withChildrenPageCache_returnsCachedPage() throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 10;
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+
+        LibraryResult result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 0, pageSize, result.getMediaItems());
+
+        // The second call should be served from the cache.
+        result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 0, pageSize, result.getMediaItems());
+        assertEquals(1, recorder.getRequestCount(parentId, 0));
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_sharesPendingPage() throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 10;
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+
+        // Keeps the first page pending while it's requested again.
+        CountDownLatch releaseFirstPage = recorder.blockRequest(parentId, 0);
+        ListenableFuture<LibraryResult> first = browser.getChildren(parentId, 0, pageSize, null);
+        ListenableFuture<LibraryResult> second = browser.getChildren(parentId, 0, pageSize, null);
+        releaseFirstPage.countDown();
+
+        LibraryResult result = first.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 0, pageSize, result.getMediaItems());
+        result = second.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 0, pageSize, result.getMediaItems());
+        assertEquals(1, recorder.getRequestCount(parentId, 0));
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_prefetchesNextPageAfterFullPage()
+            throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 10;
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+        CountDownLatch secondPageRequested = recorder.expectRequest(parentId, 1);
+        CountDownLatch thirdPageRequested = recorder.expectRequest(parentId, 2);
+
+        LibraryResult result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertEquals(pageSize, result.getMediaItems().size());
+
+        // The first page is full, so the second page should be prefetched.
+        assertTrue(secondPageRequested.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        result = browser.getChildren(parentId, 1, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 1, pageSize, result.getMediaItems());
+        assertEquals(1, recorder.getRequestCount(parentId, 1));
+
+        // The second page isn't full, so nothing should be prefetched after it.
+        assertFalse(thirdPageRequested.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_cancelsPrefetchOfPreviousParent()
+            throws Exception {
+        final String parentId = "parentId";
+        final String anotherParentId = "anotherParentId";
+        final int pageSize = 10;
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+        CountDownLatch prefetchRequested = recorder.expectRequest(parentId, 1);
+        CountDownLatch releasePrefetch = recorder.blockRequest(parentId, 1);
+
+        LibraryResult result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertTrue(prefetchRequested.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Moving to another parent should cancel the pending prefetch of the previous one.
+        ListenableFuture<LibraryResult> anotherParentPage =
+                browser.getChildren(anotherParentId, 0, pageSize, null);
+        releasePrefetch.countDown();
+        result = anotherParentPage.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(anotherParentId, 0, pageSize, result.getMediaItems());
+
+        result = browser.getChildren(parentId, 1, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 1, pageSize, result.getMediaItems());
+        assertEquals(2, recorder.getRequestCount(parentId, 1));
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_invalidatedOnChildrenChanged()
+            throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 20;
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final BrowserCallback callback = new BrowserCallback() {
+            @Override
+            public void onChildrenChanged(@NonNull MediaBrowser browser, @NonNull String parentId,
+                    int itemCount, LibraryParams params) {
+                latch.countDown();
+            }
+        };
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, callback);
+        assertEquals(RESULT_SUCCESS, browser.subscribe(parentId, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS).getResultCode());
+
+        LibraryResult result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+
+        recorder.getSession().notifyChildrenChanged(parentId, 15, null);
+        assertTrue(latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // The cached page is stale, so it should be requested again.
+        result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        assertChildren(parentId, 0, pageSize, result.getMediaItems());
+        assertEquals(2, recorder.getRequestCount(parentId, 0));
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_uncacheableParams() throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 20;
+        final LibraryParams params = createLibraryParams();
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+
+        // Params with custom extras can't be compared, so they should bypass the cache.
+        for (int i = 0; i < 2; i++) {
+            LibraryResult result = browser.getChildren(parentId, 0, pageSize, params)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(RESULT_SUCCESS, result.getResultCode());
+            assertChildren(parentId, 0, pageSize, result.getMediaItems());
+        }
+        assertEquals(2, recorder.getRequestCount(parentId, 0));
+    }
+
+    @Test
+    public void getChildren_itemsWithoutBitmaps() throws Exception {
+        final String parentId = "parentId";
+        final int pageSize = 20;
+        final Bundle extras = new Bundle();
+        extras.putBoolean(MediaConstants.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS, true);
+        final LibraryParams params = new LibraryParams.Builder().setExtras(extras).build();
+        final ChildrenPageRecorder recorder = new ChildrenPageRecorder(15);
+        TestServiceRegistry.getInstance().setSessionCallback(recorder);
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10, null);
+
+        for (int i = 0; i < 2; i++) {
+            LibraryResult result = browser.getChildren(parentId, 0, pageSize, params)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(RESULT_SUCCESS, result.getResultCode());
+            assertChildren(parentId, 0, pageSize, result.getMediaItems());
+            for (MediaItem item : result.getMediaItems()) {
+                assertNull(item.getMetadata().getBitmap(METADATA_KEY_ART));
+            }
+        }
+        // Params with only this extra are still cacheable.
+        assertEquals(1, recorder.getRequestCount(parentId, 0));
+
+        // Pages with bitmaps are cached separately.
+        LibraryResult result = browser.getChildren(parentId, 0, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_SUCCESS, result.getResultCode());
+        for (MediaItem item : result.getMediaItems()) {
+            assertNotNull(item.getMetadata().getBitmap(METADATA_KEY_ART));
+        }
+        assertEquals(2, recorder.getRequestCount(parentId, 0));
+    }
+
+    private static void assertChildren(String parentId, int page, int pageSize,
+            List<MediaItem> items) {
+        assertNotNull(items);
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(ChildrenPageRecorder.getMediaId(parentId, page * pageSize + i),
+                    items.get(i).getMediaId());
+        }
+    }
+
+    /**
+     * Library session callback that returns a fixed number of children with bitmaps for any
+     * parent, and records the requested pages.
+     */
+    private static class ChildrenPageRecorder extends MediaLibrarySessionCallback {
+        private final int mChildrenCount;
+        private final Bitmap mArt = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+        private final Map<String, Integer> mRequestCounts = new ConcurrentHashMap<>();
+        private final Map<String, CountDownLatch> mRequestLatches = new ConcurrentHashMap<>();
+        private final Map<String, CountDownLatch> mBlockingLatches = new ConcurrentHashMap<>();
+        private volatile MediaLibrarySession mSession;
+
+        ChildrenPageRecorder(int childrenCount) {
+            mChildrenCount = childrenCount;
+        }
+
+        static String getMediaId(String parentId, int index) {
+            return parentId + "_child_" + index;
+        }
+
+        int getRequestCount(String parentId, int page) {
+            Integer count = mRequestCounts.get(getPageName(parentId, page));
+            return count == null ? 0 : count;
+        }
+
+        /**
+         * Returns a latch that is counted down when the page is requested.
+         */
+        CountDownLatch expectRequest(String parentId, int page) {
+            CountDownLatch latch = new CountDownLatch(1);
+            mRequestLatches.put(getPageName(parentId, page), latch);
+            return latch;
+        }
+
+        /**
+         * Returns a latch that the request of the page waits for, before returning the result.
+         */
+        CountDownLatch blockRequest(String parentId, int page) {
+            CountDownLatch latch = new CountDownLatch(1);
+            mBlockingLatches.put(getPageName(parentId, page), latch);
+            return latch;
+        }
+
+        MediaLibrarySession getSession() {
+            return mSession;
+        }
+
+        @Override
+        public int onSubscribe(@NonNull MediaLibrarySession session,
+                @NonNull ControllerInfo controller, @NonNull String parentId,
+                @Nullable LibraryParams params) {
+            mSession = session;
+            return RESULT_SUCCESS;
+        }
+
+        @NonNull
+        @Override
+        public LibraryResult onGetChildren(@NonNull MediaLibrarySession session,
+                @NonNull ControllerInfo controller, @NonNull String parentId, int page,
+                int pageSize, LibraryParams params) {
+            mSession = session;
+            String pageName = getPageName(parentId, page);
+            synchronized (mRequestCounts) {
+                mRequestCounts.put(pageName, getRequestCount(parentId, page) + 1);
+            }
+            CountDownLatch requestLatch = mRequestLatches.get(pageName);
+            if (requestLatch != null) {
+                requestLatch.countDown();
+            }
+            CountDownLatch blockingLatch = mBlockingLatches.remove(pageName);
+            if (blockingLatch != null) {
+                try {
+                    assertTrue(blockingLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    fail();
+                }
+            }
+            List<MediaItem> items = new ArrayList<>();
+            for (int i = page * pageSize; i < Math.min((page + 1) * pageSize, mChildrenCount);
+                    i++) {
+                items.add(new MediaItem.Builder()
+                        .setMetadata(new MediaMetadata.Builder()
+                                .putString(METADATA_KEY_MEDIA_ID, getMediaId(parentId, i))
+                                .putLong(METADATA_KEY_BROWSABLE, BROWSABLE_TYPE_NONE)
+                                .putLong(METADATA_KEY_PLAYABLE, 1)
+                                .putBitmap(METADATA_KEY_ART, mArt)
+                                .build())
+                        .build());
+            }
+            return new LibraryResult(RESULT_SUCCESS, items, null);
+        }
+
+        private static String getPageName(String parentId, int page) {
+            return parentId + "/" + page;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import androidx.media2.common.MediaItem;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link PlaylistSnapshot}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class PlaylistSnapshotTest extends MediaTestBase {
+    private PlaylistSnapshot mSnapshot;
+    private List<MediaItem> mPlaylist;
+    // Playlist of the controller, built only with the changes.
+    private List<MediaItem> mReceivedPlaylist;
+
+    @Before
+    public void setUp() {
+        mSnapshot = new PlaylistSnapshot();
+        mPlaylist = new ArrayList<>(TestUtils.createMediaItems(10));
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(PlaylistSnapshot.VERSION_NONE, change.mBaseVersion);
+        mReceivedPlaylist = new ArrayList<>(change.mInsertedItems);
+    }
+
+    @Test
+    public void update_withoutChange_returnsEmptyChange() {
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(0, change.mRemovedCount);
+        assertEquals(0, change.mInsertedItems.size());
+        assertEquals(change.mBaseVersion + 1, change.mVersion);
+    }
+
+    @Test
+    public void update_append_sendsOnlyNewItems() {
+        List<MediaItem> newItems = TestUtils.createMediaItems(3);
+        mPlaylist.addAll(newItems);
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(10, change.mFromIndex);
+        assertEquals(0, change.mRemovedCount);
+        assertEquals(newItems, change.mInsertedItems);
+        assertApplied(change);
+    }
+
+    @Test
+    public void update_remove() {
+        mPlaylist.remove(4);
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(4, change.mFromIndex);
+        assertEquals(1, change.mRemovedCount);
+        assertEquals(0, change.mInsertedItems.size());
+        assertApplied(change);
+    }
+
+    @Test
+    public void update_replace() {
+        mPlaylist.set(7, TestUtils.createMediaItemWithMetadata());
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(7, change.mFromIndex);
+        assertEquals(1, change.mRemovedCount);
+        assertEquals(1, change.mInsertedItems.size());
+        assertApplied(change);
+    }
+
+    @Test
+    public void update_move() {
+        mPlaylist.add(8, mPlaylist.remove(2));
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(2, change.mFromIndex);
+        assertEquals(7, change.mRemovedCount);
+        assertEquals(7, change.mInsertedItems.size());
+        assertApplied(change);
+    }
+
+    @Test
+    public void update_itemMetadataChanged() {
+        mPlaylist.get(5).setMetadata(TestUtils.createMetadata(
+                mPlaylist.get(5).getMediaId(), 1000));
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(5, change.mFromIndex);
+        assertEquals(1, change.mRemovedCount);
+        assertSame(mPlaylist.get(5), change.mInsertedItems.get(0));
+    }
+
+    @Test
+    public void update_afterReset_replacesWholePlaylist() {
+        mSnapshot.reset();
+        PlaylistSnapshot.Change change = mSnapshot.update(mPlaylist);
+        assertEquals(PlaylistSnapshot.VERSION_NONE, change.mBaseVersion);
+        assertEquals(mPlaylist, change.mInsertedItems);
+    }
+
+    @Test
+    public void apply_outOfRange_returnsNull() {
+        assertNull(PlaylistSnapshot.apply(mReceivedPlaylist, 8, 3,
+                Collections.<MediaItem>emptyList()));
+        assertNull(PlaylistSnapshot.apply(null, 0, 0, Collections.<MediaItem>emptyList()));
+    }
+
+    private void assertApplied(PlaylistSnapshot.Change change) {
+        List<MediaItem> applied = PlaylistSnapshot.apply(mReceivedPlaylist, change.mFromIndex,
+                change.mRemovedCount, change.mInsertedItems);
+        assertEquals(mPlaylist, applied);
+    }
+}
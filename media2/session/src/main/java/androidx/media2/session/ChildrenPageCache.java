@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import android.os.Bundle;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.core.util.ObjectsCompat;
+import androidx.media2.session.MediaLibraryService.LibraryParams;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link MediaBrowser#getChildren} results, including the ones in flight.
+ * <p>
+ * Results are cached by the parent id, page, page size and library params. Library params with
+ * extras other than {@link MediaConstants#LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS} aren't
+ * cacheable because bundles cannot be compared.
+ * <p>
+ * This class isn't thread safe.
+ */
+final class ChildrenPageCache {
+    private final LruCache<PageKey, Page> mPages;
+
+    ChildrenPageCache(int maxPages) {
+        mPages = new LruCache<PageKey, Page>(maxPages) {
+            @Override
+            protected void entryRemoved(boolean evicted, @NonNull PageKey key,
+                    @NonNull Page oldValue, @Nullable Page newValue) {
+                if (evicted) {
+                    oldValue.cancelIfUnused();
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets the key for the page, or {@code null} if the page isn't cacheable.
+     */
+    @Nullable
+    static PageKey createKey(@NonNull String parentId, int page, int pageSize,
+            @Nullable LibraryParams params) {
+        boolean recent = false;
+        boolean offline = false;
+        boolean suggested = false;
+        boolean withoutBitmaps = false;
+        if (params != null) {
+            recent = params.isRecent();
+            offline = params.isOffline();
+            suggested = params.isSuggested();
+            Bundle extras = params.getExtras();
+            if (extras != null && !extras.isEmpty()) {
+                if (extras.size() != 1 || !extras.containsKey(
+                        MediaConstants.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS)) {
+                    return null;
+                }
+                withoutBitmaps = extras.getBoolean(
+                        MediaConstants.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS);
+            }
+        }
+        return new PageKey(parentId, page, pageSize, recent, offline, suggested, withoutBitmaps);
+    }
+
+    /**
+     * Gets the cached or pending page, and marks it as used.
+     */
+    @Nullable
+    ListenableFuture<LibraryResult> get(@NonNull PageKey key) {
+        Page page = mPages.get(key);
+        if (page == null) {
+            return null;
+        }
+        page.mUsed = true;
+        return page.mFuture;
+    }
+
+    boolean contains(@NonNull PageKey key) {
+        return mPages.get(key) != null;
+    }
+
+    /**
+     * Adds the page.
+     *
+     * @param key key of the page
+     * @param future result of the page
+     * @param prefetch {@code true} if nobody waits for the result yet. Such pages can be
+     *                 cancelled while they're pending
+     */
+    void put(@NonNull PageKey key, @NonNull ListenableFuture<LibraryResult> future,
+            boolean prefetch) {
+        mPages.put(key, new Page(future, !prefetch));
+    }
+
+    /**
+     * Removes the page only if it's still mapped to the given future.
+     */
+    void remove(@NonNull PageKey key, @NonNull ListenableFuture<LibraryResult> future) {
+        Page page = mPages.get(key);
+        if (page != null && page.mFuture == future) {
+            mPages.remove(key);
+        }
+    }
+
+    /**
+     * Removes all pages of the parent, for instance when its children are changed.
+     * Pending pages are kept running for the callers who already wait for them.
+     */
+    void invalidate(@NonNull String parentId) {
+        for (PageKey key : getKeys()) {
+            if (TextUtils.equals(key.mParentId, parentId)) {
+                mPages.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Cancels prefetched pages of other parents that are still pending. Called when the browser
+     * moves to the parent, because they're unlikely to be used.
+     */
+    void cancelPendingPagesExcept(@NonNull String parentId) {
+        for (PageKey key : getKeys()) {
+            if (TextUtils.equals(key.mParentId, parentId)) {
+                continue;
+            }
+            Page page = mPages.get(key);
+            if (page != null && !page.mUsed && !page.mFuture.isDone()) {
+                mPages.remove(key);
+                page.cancelIfUnused();
+            }
+        }
+    }
+
+    void clear() {
+        for (Page page : mPages.snapshot().values()) {
+            page.cancelIfUnused();
+        }
+        mPages.evictAll();
+    }
+
+    private List<PageKey> getKeys() {
+        Map<PageKey, Page> snapshot = mPages.snapshot();
+        return new ArrayList<>(snapshot.keySet());
+    }
+
+    private static final class Page {
+        final ListenableFuture<LibraryResult> mFuture;
+        boolean mUsed;
+
+        Page(ListenableFuture<LibraryResult> future, boolean used) {
+            mFuture = future;
+            mUsed = used;
+        }
+
+        void cancelIfUnused() {
+            if (!mUsed) {
+                mFuture.cancel(false);
+            }
+        }
+    }
+
+    static final class PageKey {
+        final String mParentId;
+        final int mPage;
+        final int mPageSize;
+        final boolean mRecent;
+        final boolean mOffline;
+        final boolean mSuggested;
+        final boolean mWithoutBitmaps;
+
+        PageKey(String parentId, int page, int pageSize, boolean recent, boolean offline,
+                boolean suggested, boolean withoutBitmaps) {
+            mParentId = parentId;
+            mPage = page;
+            mPageSize = pageSize;
+            mRecent = recent;
+            mOffline = offline;
+            mSuggested = suggested;
+            mWithoutBitmaps = withoutBitmaps;
+        }
+
+        PageKey nextPage() {
+            return new PageKey(mParentId, mPage + 1, mPageSize, mRecent, mOffline, mSuggested,
+                    mWithoutBitmaps);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) obj;
+            return TextUtils.equals(mParentId, other.mParentId) && mPage == other.mPage
+                    && mPageSize == other.mPageSize && mRecent == other.mRecent
+                    && mOffline == other.mOffline && mSuggested == other.mSuggested
+                    && mWithoutBitmaps == other.mWithoutBitmaps;
+        }
+
+        @Override
+        public int hashCode() {
+            return ObjectsCompat.hash(mParentId, mPage, mPageSize, mRecent, mOffline, mSuggested,
+                    mWithoutBitmaps);
+        }
+    }
+}
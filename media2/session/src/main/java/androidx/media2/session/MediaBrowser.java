@@ -38,6 +38,8 @@ public class MediaBrowser extends MediaController {
     static final String TAG = "MediaBrowser";
     static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
 
+    private final int mChildrenPageCacheSize;
+
     /**
      * Callback to listen events from {@link MediaLibraryService}.
      */
@@ -84,14 +86,16 @@ public class MediaBrowser extends MediaController {
      */
     MediaBrowser(@NonNull Context context, @NonNull SessionToken token,
             @Nullable Bundle connectionHints, @Nullable Executor executor,
-            @Nullable BrowserCallback callback) {
+            @Nullable BrowserCallback callback, int childrenPageCacheSize) {
         super(context, token, connectionHints, executor, callback);
+        mChildrenPageCacheSize = childrenPageCacheSize;
     }
 
     MediaBrowser(@NonNull Context context, @NonNull MediaSessionCompat.Token token,
             @Nullable Bundle connectionHints, @Nullable Executor executor,
-            @Nullable BrowserCallback callback) {
+            @Nullable BrowserCallback callback, int childrenPageCacheSize) {
         super(context, token, connectionHints, executor, callback);
+        mChildrenPageCacheSize = childrenPageCacheSize;
     }
 
     @Override
@@ -109,6 +113,10 @@ public class MediaBrowser extends MediaController {
         return (MediaBrowserImpl) super.getImpl();
     }
 
+    int getChildrenPageCacheSize() {
+        return mChildrenPageCacheSize;
+    }
+
     /**
      * Gets the library root.
      * <p>
@@ -305,6 +313,8 @@ public class MediaBrowser extends MediaController {
      */
     public static final class Builder extends
             BuilderBase<MediaBrowser, MediaBrowser.Builder, BrowserCallback> {
+        private int mChildrenPageCacheSize;
+
         public Builder(@NonNull Context context) {
             super(context);
         }
@@ -334,6 +344,34 @@ public class MediaBrowser extends MediaController {
             return super.setConnectionHints(connectionHints);
         }
 
+        /**
+         * Sets the maximum number of pages of {@link MediaBrowser#getChildren} results that the
+         * browser keeps in memory. When it's set, the browser returns cached pages without asking
+         * the library service again, and prefetches the next page of a full page in the
+         * background. Prefetched pages of other parents are cancelled when you get children of
+         * a parent.
+         * <p>
+         * Cached pages of a parent are dropped when
+         * {@link BrowserCallback#onChildrenChanged} is called for it, so it's recommended to
+         * {@link MediaBrowser#subscribe subscribe} to the parents whose children can change.
+         * Only library params without extras, or only with
+         * {@link MediaConstants#LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS}, are cached.
+         * <p>
+         * The default value is {@code 0}, which disables the cache. It's ignored when the browser
+         * connects to a {@link androidx.media.MediaBrowserServiceCompat}.
+         *
+         * @param maxPages maximum number of pages to keep
+         * @return the builder itself
+         */
+        @NonNull
+        public Builder setChildrenPageCacheSize(@IntRange(from = 0) int maxPages) {
+            if (maxPages < 0) {
+                throw new IllegalArgumentException("maxPages shouldn't be negative");
+            }
+            mChildrenPageCacheSize = maxPages;
+            return this;
+        }
+
         /**
          * Builds a {@link MediaBrowser}.
          *
@@ -350,10 +388,10 @@ public class MediaBrowser extends MediaController {
             }
             if (mToken != null) {
                 return new MediaBrowser(mContext, mToken, mConnectionHints,
-                        mCallbackExecutor, (BrowserCallback) mCallback);
+                        mCallbackExecutor, (BrowserCallback) mCallback, mChildrenPageCacheSize);
             } else {
                 return new MediaBrowser(mContext, mCompatToken, mConnectionHints,
-                        mCallbackExecutor, (BrowserCallback) mCallback);
+                        mCallbackExecutor, (BrowserCallback) mCallback, mChildrenPageCacheSize);
             }
         }
     }
@@ -19,6 +19,8 @@ package androidx.media2.session;
 import static androidx.media2.session.LibraryResult.RESULT_ERROR_PERMISSION_DENIED;
 import static androidx.media2.session.LibraryResult.RESULT_ERROR_SESSION_DISCONNECTED;
 import static androidx.media2.session.LibraryResult.RESULT_INFO_SKIPPED;
+import static androidx.media2.session.LibraryResult.RESULT_SUCCESS;
+import static androidx.media2.session.MediaUtils.DIRECT_EXECUTOR;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_LIBRARY_GET_CHILDREN;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_LIBRARY_GET_ITEM;
 import static androidx.media2.session.SessionCommand.COMMAND_CODE_LIBRARY_GET_LIBRARY_ROOT;
@@ -32,8 +34,11 @@ import android.os.Bundle;
 import android.os.RemoteException;
 import android.util.Log;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.concurrent.futures.ResolvableFuture;
+import androidx.media2.common.MediaItem;
 import androidx.media2.common.MediaParcelUtils;
 import androidx.media2.session.MediaBrowser.BrowserCallback;
 import androidx.media2.session.MediaBrowser.BrowserCallbackRunnable;
@@ -42,6 +47,10 @@ import androidx.media2.session.SequencedFutureManager.SequencedFuture;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
 /**
  * Base implementation of MediaBrowser.
  */
@@ -50,11 +59,30 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
     private static final LibraryResult RESULT_WHEN_CLOSED =
             new LibraryResult(RESULT_INFO_SKIPPED);
 
+    private final Object mChildrenPageCacheLock = new Object();
+    // Created on the first getChildren(), because MediaBrowser isn't fully constructed here.
+    @GuardedBy("mChildrenPageCacheLock")
+    private ChildrenPageCache mChildrenPageCache;
+    @GuardedBy("mChildrenPageCacheLock")
+    private boolean mChildrenPageCacheReleased;
+
     MediaBrowserImplBase(Context context, MediaController instance, SessionToken token,
             @Nullable Bundle connectionHints) {
         super(context, instance, token, connectionHints);
     }
 
+    @Override
+    public void close() {
+        synchronized (mChildrenPageCacheLock) {
+            mChildrenPageCacheReleased = true;
+            if (mChildrenPageCache != null) {
+                mChildrenPageCache.clear();
+                mChildrenPageCache = null;
+            }
+        }
+        super.close();
+    }
+
     @NonNull
     MediaBrowser getMediaBrowser() {
         return (MediaBrowser) mInstance;
@@ -99,6 +127,82 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
     @Override
     public ListenableFuture<LibraryResult> getChildren(final String parentId, final int page,
             final int pageSize, final LibraryParams params) {
+        final ChildrenPageCache.PageKey key;
+        final ListenableFuture<LibraryResult> future;
+        synchronized (mChildrenPageCacheLock) {
+            if (mChildrenPageCache == null && !mChildrenPageCacheReleased) {
+                int maxPages = getMediaBrowser().getChildrenPageCacheSize();
+                if (maxPages > 0) {
+                    mChildrenPageCache = new ChildrenPageCache(maxPages);
+                }
+            }
+            if (mChildrenPageCache == null) {
+                return requestChildren(parentId, page, pageSize, params);
+            }
+            key = ChildrenPageCache.createKey(parentId, page, pageSize, params);
+            if (key == null) {
+                return requestChildren(parentId, page, pageSize, params);
+            }
+            mChildrenPageCache.cancelPendingPagesExcept(parentId);
+            ListenableFuture<LibraryResult> cached = mChildrenPageCache.get(key);
+            if (cached != null) {
+                future = cached;
+            } else {
+                future = requestChildren(parentId, page, pageSize, params);
+                mChildrenPageCache.put(key, future, /* prefetch= */ false);
+            }
+        }
+        onChildrenPageRequested(key, future, params, /* prefetchNextPage= */ true);
+        // Callers may cancel the returned future, which shouldn't affect the cached one.
+        final ResolvableFuture<LibraryResult> result = ResolvableFuture.create();
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                result.set(getResultOrSkipped(future));
+            }
+        }, DIRECT_EXECUTOR);
+        return result;
+    }
+
+    private void onChildrenPageRequested(final ChildrenPageCache.PageKey key,
+            final ListenableFuture<LibraryResult> future, final LibraryParams params,
+            final boolean prefetchNextPage) {
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                LibraryResult result = getResultOrSkipped(future);
+                synchronized (mChildrenPageCacheLock) {
+                    if (mChildrenPageCache == null) {
+                        return;
+                    }
+                    List<MediaItem> items = result.getMediaItems();
+                    if (result.getResultCode() != RESULT_SUCCESS || items == null) {
+                        // Don't keep errors, so the next request can try again.
+                        mChildrenPageCache.remove(key, future);
+                        return;
+                    }
+                    if (!prefetchNextPage || items.size() < key.mPageSize) {
+                        // Last page.
+                        return;
+                    }
+                    ChildrenPageCache.PageKey nextKey = key.nextPage();
+                    if (mChildrenPageCache.contains(nextKey)) {
+                        return;
+                    }
+                    ListenableFuture<LibraryResult> nextPage = requestChildren(
+                            nextKey.mParentId, nextKey.mPage, nextKey.mPageSize, params);
+                    mChildrenPageCache.put(nextKey, nextPage, /* prefetch= */ true);
+                    // Only prefetches one page ahead. The page after that is prefetched when
+                    // the next page is actually requested.
+                    onChildrenPageRequested(nextKey, nextPage, params,
+                            /* prefetchNextPage= */ false);
+                }
+            }
+        }, DIRECT_EXECUTOR);
+    }
+
+    private ListenableFuture<LibraryResult> requestChildren(final String parentId,
+            final int page, final int pageSize, final LibraryParams params) {
         return dispatchRemoteLibrarySessionTask(COMMAND_CODE_LIBRARY_GET_CHILDREN,
                 new RemoteLibrarySessionTask() {
                     @Override
@@ -109,6 +213,14 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
                 });
     }
 
+    private static LibraryResult getResultOrSkipped(ListenableFuture<LibraryResult> future) {
+        try {
+            return future.get();
+        } catch (CancellationException | ExecutionException | InterruptedException e) {
+            return new LibraryResult(RESULT_INFO_SKIPPED);
+        }
+    }
+
     @Override
     public ListenableFuture<LibraryResult> getItem(final String mediaId) {
         return dispatchRemoteLibrarySessionTask(COMMAND_CODE_LIBRARY_GET_ITEM,
@@ -158,6 +270,11 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
 
     void notifyChildrenChanged(final String parentId, final int itemCount,
             final LibraryParams libraryParams) {
+        synchronized (mChildrenPageCacheLock) {
+            if (mChildrenPageCache != null) {
+                mChildrenPageCache.invalidate(parentId);
+            }
+        }
         getMediaBrowser().notifyBrowserCallback(new BrowserCallbackRunnable() {
             @Override
             public void run(@NonNull BrowserCallback callback) {
@@ -86,6 +86,17 @@ public class MediaConstants {
      */
     public static final String MEDIA_URI_QUERY_QUERY = "query";
 
+    /**
+     * A boolean key for the {@link MediaLibraryService.LibraryParams#getExtras() extras} of the
+     * library params in {@link MediaBrowser#getChildren} and
+     * {@link MediaBrowser#getSearchResult}. When it's {@code true}, bitmaps in the metadata of
+     * the returned media items are removed before they're sent to the browser, which makes
+     * results much smaller for list views. Use {@link MediaBrowser#getItem} to get the media item
+     * with its bitmaps.
+     */
+    public static final String LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS =
+            "androidx.media2.session.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS";
+
     static final String ARGUMENT_CAPTIONING_ENABLED = "androidx.media2.argument.CAPTIONING_ENABLED";
 
     private MediaConstants() {
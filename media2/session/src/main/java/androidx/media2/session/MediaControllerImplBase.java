@@ -124,6 +124,10 @@ class MediaControllerImplBase implements MediaControllerImpl {
     @GuardedBy("mLock")
     private List<MediaItem> mPlaylist;
     @GuardedBy("mLock")
+    private int mPlaylistVersion = PlaylistSnapshot.VERSION_NONE;
+    @GuardedBy("mLock")
+    private boolean mPlaylistSyncRequested;
+    @GuardedBy("mLock")
     private MediaMetadata mPlaylistMetadata;
     @GuardedBy("mLock")
     private @RepeatMode int mRepeatMode;
@@ -988,6 +992,49 @@ class MediaControllerImplBase implements MediaControllerImpl {
         });
     }
 
+    void notifyPlaylistItemsChanges(int baseVersion, int version, int fromIndex,
+            int removedCount, List<MediaItem> insertedItems, MediaMetadata metadata,
+            int currentMediaItemIndex, int previousMediaItemIndex, int nextMediaItemIndex) {
+        final List<MediaItem> playlist;
+        final IMediaSession iSession;
+        synchronized (mLock) {
+            if (baseVersion == PlaylistSnapshot.VERSION_NONE) {
+                playlist = insertedItems;
+                mPlaylistSyncRequested = false;
+            } else if (baseVersion == mPlaylistVersion) {
+                playlist = PlaylistSnapshot.apply(mPlaylist, fromIndex, removedCount,
+                        insertedItems);
+            } else {
+                playlist = null;
+            }
+            if (playlist != null) {
+                mPlaylistVersion = version;
+                iSession = null;
+            } else {
+                // Missed a change. Asks the session to send the whole playlist again, and
+                // ignores changes until then.
+                mPlaylistVersion = PlaylistSnapshot.VERSION_NONE;
+                iSession = mPlaylistSyncRequested ? null : mISession;
+                mPlaylistSyncRequested = true;
+            }
+        }
+        if (playlist != null) {
+            notifyPlaylistChanges(playlist, metadata, currentMediaItemIndex,
+                    previousMediaItemIndex, nextMediaItemIndex);
+            return;
+        }
+        Log.w(TAG, "Playlist is out of sync, baseVersion=" + baseVersion
+                + ". Requesting the whole playlist");
+        if (iSession != null) {
+            try {
+                iSession.requestPlaylistSync(mControllerStub,
+                        mSequencedFutureManager.obtainNextSequenceNumber());
+            } catch (RemoteException e) {
+                Log.w(TAG, "Cannot connect to the service or the session is gone", e);
+            }
+        }
+    }
+
     void notifyPlaylistMetadataChanges(final MediaMetadata metadata) {
         synchronized (mLock) {
             mPlaylistMetadata = metadata;
@@ -160,6 +160,27 @@ class MediaControllerStub extends IMediaController.Stub {
         });
     }
 
+    @Override
+    public void onPlaylistItemsChanged(int seq, final int baseVersion, final int version,
+            final int fromIndex, final int removedCount, final ParcelImplListSlice insertedItems,
+            final ParcelImpl metadata, final int currentIdx, final int previousIdx,
+            final int nextIdx) {
+        if (insertedItems == null || metadata == null) {
+            return;
+        }
+        dispatchControllerTask(new ControllerTask() {
+            @Override
+            public void run(MediaControllerImplBase controller) {
+                List<MediaItem> items =
+                        MediaUtils.convertParcelImplListSliceToMediaItemList(insertedItems);
+                controller.notifyPlaylistItemsChanges(baseVersion, version, fromIndex,
+                        removedCount, items,
+                        (MediaMetadata) MediaParcelUtils.fromParcelable(metadata), currentIdx,
+                        previousIdx, nextIdx);
+            }
+        });
+    }
+
     @Override
     public void onPlaylistMetadataChanged(int seq, final ParcelImpl metadata)
             throws RuntimeException {
@@ -240,7 +240,8 @@ class MediaLibrarySessionImplBase extends MediaSessionImplBase implements
             final LibraryParams params) {
         LibraryResult result = getCallback().onGetChildren(getInstance(),
                 controller, parentId, page, pageSize, params);
-        return ensureNonNullResultWithValidList(result, pageSize);
+        return MediaUtils.removeBitmapsIfRequested(
+                ensureNonNullResultWithValidList(result, pageSize), params);
     }
 
     @Override
@@ -289,7 +290,8 @@ class MediaLibrarySessionImplBase extends MediaSessionImplBase implements
             final LibraryParams params) {
         LibraryResult result = getCallback().onGetSearchResult(getInstance(),
                 controller, query, page, pageSize, params);
-        return ensureNonNullResultWithValidList(result, pageSize);
+        return MediaUtils.removeBitmapsIfRequested(
+                ensureNonNullResultWithValidList(result, pageSize), params);
     }
 
     @Override
@@ -36,6 +36,7 @@ import android.util.Log;
 import android.util.SparseArray;
 import android.view.Surface;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.ObjectsCompat;
@@ -325,7 +326,7 @@ class MediaSessionStub extends IMediaSession.Stub {
                 new MediaSessionManager.RemoteUserInfo(callingPackage, pid, uid);
         final ControllerInfo controllerInfo = new ControllerInfo(remoteUserInfo, controllerVersion,
                 mSessionManager.isTrustedForMediaControl(remoteUserInfo),
-                new Controller2Cb(caller), connectionHints);
+                new Controller2Cb(caller, controllerVersion), connectionHints);
         mSessionImpl.getCallbackExecutor().execute(new Runnable() {
             @Override
             public void run() {
@@ -907,6 +908,51 @@ class MediaSessionStub extends IMediaSession.Stub {
                 });
     }
 
+    @Override
+    public void requestPlaylistSync(final IMediaController caller, int seq) {
+        if (caller == null) {
+            return;
+        }
+        final long token = Binder.clearCallingIdentity();
+        try {
+            final ControllerInfo controller =
+                    mConnectedControllersManager.getController(caller.asBinder());
+            if (controller == null || !(controller.getControllerCb() instanceof Controller2Cb)) {
+                return;
+            }
+            mSessionImpl.getCallbackExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mSessionImpl.isClosed()) {
+                        return;
+                    }
+                    SequencedFutureManager manager =
+                            mConnectedControllersManager.getSequencedFutureManager(controller);
+                    if (manager == null) {
+                        return;
+                    }
+                    Controller2Cb cb = (Controller2Cb) controller.getControllerCb();
+                    cb.resetPlaylistSnapshot();
+                    List<MediaItem> playlist = mSessionImpl.getPlaylist();
+                    if (playlist == null) {
+                        return;
+                    }
+                    try {
+                        cb.onPlaylistChanged(manager.obtainNextSequenceNumber(), playlist,
+                                mSessionImpl.getPlaylistMetadata(),
+                                mSessionImpl.getCurrentMediaItemIndex(),
+                                mSessionImpl.getPreviousMediaItemIndex(),
+                                mSessionImpl.getNextMediaItemIndex());
+                    } catch (RemoteException e) {
+                        Log.w(TAG, "Exception in " + controller.toString(), e);
+                    }
+                }
+            });
+        } finally {
+            Binder.restoreCallingIdentity(token);
+        }
+    }
+
     @Override
     public void setRepeatMode(IMediaController caller, int seq, final int repeatMode) {
         if (caller == null) {
@@ -1177,9 +1223,20 @@ class MediaSessionStub extends IMediaSession.Stub {
     final class Controller2Cb extends ControllerCb {
         // TODO: Drop 'Callback' from the name.
         private final IMediaController mIControllerCallback;
+        private final int mControllerVersion;
+        private final Object mPlaylistLock = new Object();
+        @GuardedBy("mPlaylistLock")
+        private final PlaylistSnapshot mPlaylistSnapshot = new PlaylistSnapshot();
 
-        Controller2Cb(@NonNull IMediaController callback) {
+        Controller2Cb(@NonNull IMediaController callback, int controllerVersion) {
             mIControllerCallback = callback;
+            mControllerVersion = controllerVersion;
+        }
+
+        void resetPlaylistSnapshot() {
+            synchronized (mPlaylistLock) {
+                mPlaylistSnapshot.reset();
+            }
         }
 
         @NonNull
@@ -1271,13 +1328,34 @@ class MediaSessionStub extends IMediaSession.Stub {
                     getCallbackBinder());
             if (mConnectedControllersManager.isAllowedCommand(controller,
                     SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST)) {
-                mIControllerCallback.onPlaylistChanged(seq,
-                        MediaUtils.convertMediaItemListToParcelImplListSlice(playlist),
-                        MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx, nextIdx);
-            } else if (mConnectedControllersManager.isAllowedCommand(controller,
-                    SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST_METADATA)) {
-                mIControllerCallback.onPlaylistMetadataChanged(seq,
-                        MediaParcelUtils.toParcelable(metadata));
+                if (mControllerVersion < MediaUtils.VERSION_1 || playlist == null) {
+                    resetPlaylistSnapshot();
+                    mIControllerCallback.onPlaylistChanged(seq,
+                            MediaUtils.convertMediaItemListToParcelImplListSlice(playlist),
+                            MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx,
+                            nextIdx);
+                    return;
+                }
+                // Only sends the changed range to the controller. Holds the lock while sending,
+                // so the controller receives changes in the same order as the versions.
+                synchronized (mPlaylistLock) {
+                    PlaylistSnapshot.Change change = mPlaylistSnapshot.update(playlist);
+                    mIControllerCallback.onPlaylistItemsChanged(seq, change.mBaseVersion,
+                            change.mVersion, change.mFromIndex, change.mRemovedCount,
+                            MediaUtils.convertMediaItemListToParcelImplListSlice(
+                                    change.mInsertedItems),
+                            MediaParcelUtils.toParcelable(metadata), currentIdx, previousIdx,
+                            nextIdx);
+                }
+            } else {
+                // Controller wouldn't have the playlist. Sends the whole playlist if it's allowed
+                // again.
+                resetPlaylistSnapshot();
+                if (mConnectedControllersManager.isAllowedCommand(controller,
+                        SessionCommand.COMMAND_CODE_PLAYER_GET_PLAYLIST_METADATA)) {
+                    mIControllerCallback.onPlaylistMetadataChanged(seq,
+                            MediaParcelUtils.toParcelable(metadata));
+                }
             }
         }
 
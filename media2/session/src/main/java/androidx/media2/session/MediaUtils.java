@@ -109,8 +109,11 @@ public class MediaUtils {
     // Initial version for all Media2 APIs.
     public static final int VERSION_0 = 0;
 
+    // Adds incremental playlist changes with IMediaController#onPlaylistItemsChanged().
+    public static final int VERSION_1 = 1;
+
     // Current version for all Media2 APIs.
-    public static final int CURRENT_VERSION = VERSION_0;
+    public static final int CURRENT_VERSION = VERSION_1;
 
     private static final Map<String, String> METADATA_COMPAT_KEY_TO_METADATA_KEY = new HashMap<>();
     private static final Map<String, String> METADATA_KEY_TO_METADATA_COMPAT_KEY = new HashMap<>();
@@ -665,6 +668,53 @@ public class MediaUtils {
         return parcelImplList;
     }
 
+    /**
+     * Removes bitmaps from the metadata of the media items in the result, if the library params
+     * asks for it with {@link MediaConstants#LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS}.
+     */
+    @NonNull
+    public static LibraryResult removeBitmapsIfRequested(@NonNull LibraryResult result,
+            @Nullable LibraryParams params) {
+        if (params == null || params.getExtras() == null
+                || !params.getExtras().getBoolean(
+                        MediaConstants.LIBRARY_PARAMS_KEY_ITEMS_WITHOUT_BITMAPS)) {
+            return result;
+        }
+        List<MediaItem> items = result.getMediaItems();
+        if (result.getResultCode() != LibraryResult.RESULT_SUCCESS || items == null) {
+            return result;
+        }
+        List<MediaItem> newItems = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            newItems.add(removeBitmaps(items.get(i)));
+        }
+        return new LibraryResult(result.getResultCode(), newItems, result.getLibraryParams());
+    }
+
+    private static MediaItem removeBitmaps(MediaItem item) {
+        MediaMetadata metadata = item.getMetadata();
+        if (metadata == null) {
+            return item;
+        }
+        MediaMetadata.Builder builder = null;
+        for (String key : metadata.keySet()) {
+            if (metadata.getObject(key) instanceof Bitmap) {
+                if (builder == null) {
+                    builder = new MediaMetadata.Builder(metadata);
+                }
+                builder.putBitmap(key, null);
+            }
+        }
+        if (builder == null) {
+            return item;
+        }
+        return new MediaItem.Builder()
+                .setMetadata(builder.build())
+                .setStartPosition(item.getStartPosition())
+                .setEndPosition(item.getEndPosition())
+                .build();
+    }
+
     /**
      * Convert a list of {@link MediaItem} to a list of {@link ParcelImplListSlice}.
      */
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media2.common.MediaItem;
+import androidx.media2.common.MediaMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the last playlist sent to a single controller, so that following playlist changes
+ * can be sent as one changed range instead of re-marshalling the whole playlist.
+ * <p>
+ * Items are compared by reference, and so is their {@link MediaMetadata}, because
+ * {@link MediaItem#setMetadata(MediaMetadata)} replaces the metadata instance. Comparing
+ * references keeps the diff linear and cheap relative to the parcelling it avoids.
+ * <p>
+ * This class isn't thread safe.
+ */
+final class PlaylistSnapshot {
+    /**
+     * Version used when the controller doesn't have a playlist that a change can be applied to.
+     * A change with this base version replaces the whole playlist.
+     */
+    static final int VERSION_NONE = -1;
+
+    private static final MediaItem[] EMPTY_ITEMS = new MediaItem[0];
+    private static final MediaMetadata[] EMPTY_METADATA = new MediaMetadata[0];
+
+    private MediaItem[] mItems = EMPTY_ITEMS;
+    private MediaMetadata[] mMetadata = EMPTY_METADATA;
+    private int mVersion = VERSION_NONE;
+
+    /**
+     * Gets the version of the playlist that was sent last, or {@link #VERSION_NONE} if nothing
+     * was sent since the last {@link #reset()}.
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Forgets the last sent playlist, so the next {@link #update(List)} returns a change that
+     * replaces the whole playlist.
+     */
+    void reset() {
+        mItems = EMPTY_ITEMS;
+        mMetadata = EMPTY_METADATA;
+        mVersion = VERSION_NONE;
+    }
+
+    /**
+     * Takes the new playlist as the last sent one and returns the change from the previous one.
+     * The version is increased even when the items aren't changed, because the notification
+     * still carries the playlist metadata and indices.
+     *
+     * @param playlist new playlist
+     * @return change to be sent
+     */
+    @NonNull
+    Change update(@NonNull List<MediaItem> playlist) {
+        final int newSize = playlist.size();
+        final MediaItem[] newItems = new MediaItem[newSize];
+        final MediaMetadata[] newMetadata = new MediaMetadata[newSize];
+        for (int i = 0; i < newSize; i++) {
+            MediaItem item = playlist.get(i);
+            newItems[i] = item;
+            newMetadata[i] = item == null ? null : item.getMetadata();
+        }
+
+        final int baseVersion = mVersion;
+        final MediaItem[] oldItems = mItems;
+        final MediaMetadata[] oldMetadata = mMetadata;
+        mItems = newItems;
+        mMetadata = newMetadata;
+
+        if (baseVersion == VERSION_NONE) {
+            mVersion = 0;
+            return new Change(VERSION_NONE, mVersion, 0, 0, playlist);
+        }
+
+        final int oldSize = oldItems.length;
+        int prefix = 0;
+        final int maxPrefix = Math.min(oldSize, newSize);
+        while (prefix < maxPrefix && oldItems[prefix] == newItems[prefix]
+                && oldMetadata[prefix] == newMetadata[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        final int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && oldItems[oldSize - 1 - suffix] == newItems[newSize - 1 - suffix]
+                && oldMetadata[oldSize - 1 - suffix] == newMetadata[newSize - 1 - suffix]) {
+            suffix++;
+        }
+        mVersion = baseVersion + 1;
+        return new Change(baseVersion, mVersion, prefix, oldSize - prefix - suffix,
+                playlist.subList(prefix, newSize - suffix));
+    }
+
+    /**
+     * Applies a change made by {@link #update(List)} to the playlist of the controller.
+     *
+     * @param playlist playlist that the change is based on
+     * @param fromIndex index of the first changed item
+     * @param removedCount number of items to be removed from {@code fromIndex}
+     * @param insertedItems items to be inserted at {@code fromIndex}
+     * @return new playlist, or {@code null} if the change cannot be applied to the playlist
+     */
+    @Nullable
+    static List<MediaItem> apply(@Nullable List<MediaItem> playlist, int fromIndex,
+            int removedCount, @NonNull List<MediaItem> insertedItems) {
+        if (playlist == null || fromIndex < 0 || removedCount < 0
+                || fromIndex + removedCount > playlist.size()) {
+            return null;
+        }
+        final int newSize = playlist.size() - removedCount + insertedItems.size();
+        final List<MediaItem> result = new ArrayList<>(newSize);
+        result.addAll(playlist.subList(0, fromIndex));
+        result.addAll(insertedItems);
+        result.addAll(playlist.subList(fromIndex + removedCount, playlist.size()));
+        return result;
+    }
+
+    /**
+     * Change between two playlists, described as a single range of removed and inserted items.
+     * Append, insert, remove and replace of an item can be described by a small change.
+     */
+    static final class Change {
+        final int mBaseVersion;
+        final int mVersion;
+        final int mFromIndex;
+        final int mRemovedCount;
+        @NonNull
+        final List<MediaItem> mInsertedItems;
+
+        Change(int baseVersion, int version, int fromIndex, int removedCount,
+                @NonNull List<MediaItem> insertedItems) {
+            mBaseVersion = baseVersion;
+            mVersion = version;
+            mFromIndex = fromIndex;
+            mRemovedCount = removedCount;
+            mInsertedItems = insertedItems;
+        }
+    }
+}
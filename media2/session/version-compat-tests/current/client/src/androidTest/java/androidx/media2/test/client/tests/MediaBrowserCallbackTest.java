@@ -19,6 +19,7 @@ package androidx.media2.test.client.tests;
 import static androidx.media2.session.LibraryResult.RESULT_ERROR_BAD_VALUE;
 import static androidx.media2.session.LibraryResult.RESULT_SUCCESS;
 import static androidx.media2.test.common.CommonConstants.MOCK_MEDIA2_LIBRARY_SERVICE;
+import static androidx.media2.test.common.MediaBrowserConstants.CHILDREN_COUNT;
 import static androidx.media2.test.common.MediaBrowserConstants.CUSTOM_ACTION_ASSERT_PARAMS;
 import static androidx.media2.test.common.MediaBrowserConstants.LONG_LIST_COUNT;
 import static androidx.media2.test.common.MediaBrowserConstants.NOTIFY_CHILDREN_CHANGED_EXTRAS;
@@ -81,6 +82,8 @@ import java.util.concurrent.atomic.AtomicReference;
 public class MediaBrowserCallbackTest extends MediaControllerCallbackTest {
     private static final String TAG = "MediaBrowserCallbackTest";
 
+    private int mChildrenPageCacheSize;
+
     @Override
     MediaController onCreateController(@NonNull final SessionToken token,
             @Nullable final Bundle connectionHints, @Nullable final TestBrowserCallback callback)
@@ -99,6 +102,9 @@ public class MediaBrowserCallbackTest extends MediaControllerCallbackTest {
                 if (connectionHints != null) {
                     builder.setConnectionHints(connectionHints);
                 }
+                if (mChildrenPageCacheSize > 0) {
+                    builder.setChildrenPageCacheSize(mChildrenPageCacheSize);
+                }
                 controller.set(builder.build());
             }
         });
@@ -115,6 +121,12 @@ public class MediaBrowserCallbackTest extends MediaControllerCallbackTest {
         return (MediaBrowser) createController(token, true, connectionHints, callback);
     }
 
+    final MediaBrowser createBrowserWithChildrenPageCache(int maxPages)
+            throws InterruptedException {
+        mChildrenPageCacheSize = maxPages;
+        return createBrowser();
+    }
+
     @Test
     public void getLibraryRoot() throws Exception {
         final LibraryParams params = new LibraryParams.Builder()
@@ -255,6 +267,61 @@ public class MediaBrowserCallbackTest extends MediaControllerCallbackTest {
         assertNull(result.getMediaItems());
     }
 
+    @Test
+    public void getChildren_withChildrenPageCache() throws Exception {
+        final String parentId = MediaBrowserConstants.PARENT_ID;
+        final int pageSize = 30;
+        final int pageCount = (CHILDREN_COUNT + pageSize - 1) / pageSize;
+
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10);
+
+        // Browses forward and back, so pages are served from the library, the prefetched pages
+        // and the cache.
+        for (int i = 0; i < pageCount * 2; i++) {
+            int page = i < pageCount ? i : pageCount * 2 - i - 1;
+            LibraryResult result = browser.getChildren(parentId, page, pageSize, null)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(RESULT_SUCCESS, result.getResultCode());
+            MediaTestUtils.assertPaginatedListHasIds(
+                    result.getMediaItems(), MediaBrowserConstants.GET_CHILDREN_RESULT,
+                    page, pageSize);
+        }
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_uncacheableParams() throws Exception {
+        final String parentId = MediaBrowserConstants.PARENT_ID;
+        final int page = 4;
+        final int pageSize = 10;
+        final LibraryParams params = MediaTestUtils.createLibraryParams();
+
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10);
+        setExpectedLibraryParam(browser, params);
+
+        for (int i = 0; i < 2; i++) {
+            LibraryResult result = browser.getChildren(parentId, page, pageSize, params)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(RESULT_SUCCESS, result.getResultCode());
+            MediaTestUtils.assertPaginatedListHasIds(
+                    result.getMediaItems(), MediaBrowserConstants.GET_CHILDREN_RESULT,
+                    page, pageSize);
+        }
+    }
+
+    @Test
+    public void getChildren_withChildrenPageCache_nullResult() throws Exception {
+        final String parentId = MediaBrowserConstants.PARENT_ID_ERROR;
+
+        MediaBrowser browser = createBrowserWithChildrenPageCache(10);
+        // Errors aren't cached, so each call gets the result of the library.
+        for (int i = 0; i < 2; i++) {
+            LibraryResult result = browser.getChildren(parentId, 1, 1, null)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertNotEquals(RESULT_SUCCESS, result.getResultCode());
+            assertNull(result.getMediaItems());
+        }
+    }
+
     @Test
     public void searchCallbacks() throws Exception {
         final String query = MediaBrowserConstants.SEARCH_QUERY;
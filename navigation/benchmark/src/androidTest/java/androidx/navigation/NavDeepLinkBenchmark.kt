@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation
+
+import android.net.Uri
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.testutils.TestNavigator
+import androidx.testutils.TestNavigatorProvider
+import org.junit.Assert.assertNotNull
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares matching a deep link in a graph of [DESTINATION_COUNT] destinations with the deep
+ * link index of [NavGraph] and with matching every deep link of every destination.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class NavDeepLinkBenchmark {
+
+    companion object {
+        const val DESTINATION_COUNT = 400
+    }
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val graph = createGraph()
+
+    private val request = NavDeepLinkRequest(
+        Uri.parse("https://www.example.com/section${DESTINATION_COUNT - 1}/items/42"),
+        null,
+        null
+    )
+
+    @Test
+    fun matchDeepLinkIndex() {
+        assertNotNull(graph.matchDeepLink(request))
+        benchmarkRule.measureRepeated {
+            graph.matchDeepLink(request)
+        }
+    }
+
+    @Test
+    fun matchDeepLinkScan() {
+        assertNotNull(scanDeepLinks())
+        benchmarkRule.measureRepeated {
+            scanDeepLinks()
+        }
+    }
+
+    // Matches every destination, as NavGraph did without the index.
+    private fun scanDeepLinks(): NavDestination.DeepLinkMatch? {
+        var bestMatch: NavDestination.DeepLinkMatch? = null
+        for (destination in graph) {
+            val match = destination.matchDeepLink(request)
+            if (match != null && (bestMatch == null || match > bestMatch)) {
+                bestMatch = match
+            }
+        }
+        return bestMatch
+    }
+
+    private fun createGraph(): NavGraph {
+        val navigatorProvider = TestNavigatorProvider()
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val idArgument = NavArgument.Builder().setType(NavType.IntType).build()
+        for (i in 0 until DESTINATION_COUNT) {
+            val destination = navigatorProvider.getNavigator(TestNavigator::class.java)
+                .createDestination()
+            destination.id = i + 1
+            destination.addArgument("id", idArgument)
+            destination.addDeepLink("www.example.com/section$i/items/{id}")
+            destination.addDeepLink("www.example.com/section$i/items/{id}?ref={ref}")
+            destination.addDeepLink(NavDeepLink.Builder.fromAction("action$i").build())
+            graph.addDestination(destination)
+        }
+        graph.startDestination = 1
+        return graph
+    }
+}
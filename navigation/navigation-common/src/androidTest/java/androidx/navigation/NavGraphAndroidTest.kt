@@ -190,6 +190,106 @@ class NavGraphAndroidTest {
             .isEqualTo(99)
     }
 
+    @Test
+    fun matchDeepLinkNestedGraphFirstBestMatch() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = 1
+        val nestedDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        nestedDestination.id = 2
+        nestedDestination.addDeepLink("www.example.com/users/{id}")
+        nestedGraph.addDestination(nestedDestination)
+        graph.addDestination(nestedGraph)
+
+        val otherDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        otherDestination.id = 3
+        otherDestination.addDeepLink("www.example.com/users/{name}")
+        graph.addDestination(otherDestination)
+
+        val match = graph.matchDeepLink(Uri.parse("https://www.example.com/users/43"))
+
+        assertWithMessage("Deep link should pick the first of equal matches")
+            .that(match?.destination)
+            .isSameInstanceAs(nestedDestination)
+    }
+
+    @Test
+    fun matchDeepLinkAfterGraphChanges() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val nestedGraph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        nestedGraph.id = 1
+        graph.addDestination(nestedGraph)
+        val uri = Uri.parse("https://www.example.com/users/43")
+        assertWithMessage("Deep link should not match before it's added")
+            .that(graph.matchDeepLink(uri))
+            .isNull()
+
+        val destination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        destination.id = 2
+        nestedGraph.addDestination(destination)
+        destination.addDeepLink("www.example.com/users/{id}")
+        assertWithMessage("Deep link should match once added to a nested destination")
+            .that(graph.matchDeepLink(uri)?.destination)
+            .isSameInstanceAs(destination)
+
+        nestedGraph.remove(destination)
+        assertWithMessage("Deep link should not match once its destination is removed")
+            .that(graph.matchDeepLink(uri))
+            .isNull()
+    }
+
+    @Test
+    fun matchDeepLinkActionAndMimeType() {
+        val navigatorProvider = NavigatorProvider().apply {
+            addNavigator(NavGraphNavigator(this))
+            addNavigator(NoOpNavigator())
+        }
+        val graph = navigatorProvider.getNavigator(NavGraphNavigator::class.java)
+            .createDestination()
+        val actionDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        actionDestination.id = 1
+        actionDestination.addDeepLink(NavDeepLink.Builder.fromAction("test.action").build())
+        graph.addDestination(actionDestination)
+        val imageDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        imageDestination.id = 2
+        imageDestination.addDeepLink(NavDeepLink.Builder.fromMimeType("image/*").build())
+        graph.addDestination(imageDestination)
+        val anyDestination = navigatorProvider.getNavigator(NoOpNavigator::class.java)
+            .createDestination()
+        anyDestination.id = 3
+        anyDestination.addDeepLink(NavDeepLink.Builder.fromMimeType("*/*").build())
+        graph.addDestination(anyDestination)
+
+        assertWithMessage("Deep link should match the action")
+            .that(graph.matchDeepLink(NavDeepLinkRequest(null, "test.action", null))
+                ?.destination)
+            .isSameInstanceAs(actionDestination)
+        assertWithMessage("Deep link should pick the best mimeType")
+            .that(graph.matchDeepLink(NavDeepLinkRequest(null, null, "image/png"))?.destination)
+            .isSameInstanceAs(imageDestination)
+        assertWithMessage("Deep link should match the wildcard mimeType")
+            .that(graph.matchDeepLink(NavDeepLinkRequest(null, null, "text/plain"))
+                ?.destination)
+            .isSameInstanceAs(anyDestination)
+    }
+
     @Test
     fun toStringStartDestIdOnly() {
         val navigatorProvider = NavigatorProvider().apply {
@@ -23,7 +23,10 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -203,6 +206,37 @@ public final class NavDeepLink {
         return mExactDeepLink;
     }
 
+    /**
+     * Returns the literal strings that every Uri matched by this deep link starts with: the uri
+     * pattern up to its first placeholder, wildcard or query, prefixed with the schemes it is
+     * assumed to have when it has none. Returns an empty list if this deep link has no uri
+     * pattern.
+     */
+    @NonNull
+    List<String> getUriLiteralPrefixes() {
+        if (mUri == null) {
+            return Collections.emptyList();
+        }
+        int end = mUri.length();
+        int placeholder = mUri.indexOf('{');
+        if (placeholder >= 0) {
+            end = Math.min(end, placeholder);
+        }
+        int wildcard = mUri.indexOf(".*");
+        if (wildcard >= 0) {
+            end = Math.min(end, wildcard);
+        }
+        int query = mUri.indexOf('?');
+        if (query >= 0) {
+            end = Math.min(end, query);
+        }
+        String literal = mUri.substring(0, end);
+        if (SCHEME_PATTERN.matcher(mUri).find()) {
+            return Collections.singletonList(literal);
+        }
+        return Arrays.asList("http://" + literal, "https://" + literal);
+    }
+
     /**
      * Get the uri pattern from the NavDeepLink.
      *
@@ -247,6 +281,9 @@ public final class NavDeepLink {
     @Nullable
     Bundle getMatchingArguments(@NonNull Uri deepLink,
             @NonNull Map<String, NavArgument> arguments) {
+        if (mPattern == null) {
+            return null;
+        }
         Matcher matcher = mPattern.matcher(deepLink.toString());
         if (!matcher.matches()) {
             return null;
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Index of all deep links of a {@link NavGraph} and its descendants, which finds the deep links
+ * that may match a {@link NavDeepLinkRequest} without running the patterns of all of them.
+ *
+ * <p>Deep links are found by:
+ * <ul>
+ *     <li>the '/' separated segments of the literal beginning of their uri pattern, in a trie
+ *     walked with the segments of the requested Uri,</li>
+ *     <li>their action,</li>
+ *     <li>the type of their mimeType, with wildcard types matching any type.</li>
+ * </ul>
+ * Only those deep links are matched against the request, in the order
+ * {@link NavGraph} visits its deep links, so the best match is the same as when matching all of
+ * them.
+ */
+final class NavDeepLinkIndex {
+    private final ArrayList<NavDestination> mDestinations = new ArrayList<>();
+    private final ArrayList<NavDeepLink> mDeepLinks = new ArrayList<>();
+
+    private final UriNode mUriRoot = new UriNode();
+    private final HashMap<String, List<Integer>> mActions = new HashMap<>();
+    private final HashMap<String, List<Integer>> mMimeTypes = new HashMap<>();
+    // Deep links whose mimeType has a wildcard type, or a type that isn't plain.
+    private final ArrayList<Integer> mWildcardMimeTypes = new ArrayList<>();
+    private final ArrayList<Integer> mAllMimeTypes = new ArrayList<>();
+
+    NavDeepLinkIndex(@NonNull NavGraph graph) {
+        addDeepLinks(graph);
+    }
+
+    // Visits the deep links in the same order as NavGraph#matchDeepLink did before the index:
+    // the deep links of the graph first, then the ones of each child.
+    private void addDeepLinks(@NonNull NavDestination destination) {
+        List<NavDeepLink> deepLinks = destination.getDeepLinks();
+        if (deepLinks != null) {
+            for (NavDeepLink deepLink : deepLinks) {
+                add(destination, deepLink);
+            }
+        }
+        if (destination instanceof NavGraph) {
+            for (NavDestination child : (NavGraph) destination) {
+                addDeepLinks(child);
+            }
+        }
+    }
+
+    private void add(@NonNull NavDestination destination, @NonNull NavDeepLink deepLink) {
+        int index = mDeepLinks.size();
+        mDestinations.add(destination);
+        mDeepLinks.add(deepLink);
+
+        for (String prefix : deepLink.getUriLiteralPrefixes()) {
+            UriNode node = mUriRoot;
+            int start = 0;
+            int end;
+            // Only segments followed by '/' are complete, the last one may continue in the Uri.
+            while ((end = prefix.indexOf('/', start)) >= 0) {
+                node = node.getOrCreateChild(prefix.substring(start, end));
+                start = end + 1;
+            }
+            node.mDeepLinks.add(index);
+        }
+
+        String action = deepLink.getAction();
+        if (action != null) {
+            addToBucket(mActions, action, index);
+        }
+
+        String mimeType = deepLink.getMimeType();
+        if (mimeType != null) {
+            String type = mimeType.substring(0, mimeType.indexOf('/'));
+            // The type is used as a regex by the deep link, so only plain types are bucketed.
+            if (!isPlainType(type)) {
+                mWildcardMimeTypes.add(index);
+            } else {
+                addToBucket(mMimeTypes, type, index);
+            }
+            mAllMimeTypes.add(index);
+        }
+    }
+
+    private static void addToBucket(HashMap<String, List<Integer>> buckets, String key,
+            int index) {
+        List<Integer> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(key, bucket);
+        }
+        bucket.add(index);
+    }
+
+    /**
+     * Finds the best deep link matching the request.
+     *
+     * @see NavDestination#matchDeepLink(NavDeepLinkRequest)
+     */
+    @Nullable
+    NavDestination.DeepLinkMatch matchDeepLink(@NonNull NavDeepLinkRequest request) {
+        BitSet candidates = new BitSet(mDeepLinks.size());
+
+        Uri uri = request.getUri();
+        if (uri != null) {
+            String uriString = uri.toString();
+            UriNode node = mUriRoot;
+            int start = 0;
+            while (node != null) {
+                setAll(candidates, node.mDeepLinks);
+                int end = uriString.indexOf('/', start);
+                if (end < 0 || node.mChildren == null) {
+                    break;
+                }
+                node = node.mChildren.get(uriString.substring(start, end));
+                start = end + 1;
+            }
+        }
+
+        String action = request.getAction();
+        if (action != null) {
+            setAll(candidates, mActions.get(action));
+        }
+
+        String mimeType = request.getMimeType();
+        if (mimeType != null) {
+            int separator = mimeType.indexOf('/');
+            String type = separator >= 0 ? mimeType.substring(0, separator) : mimeType;
+            if (isWildcard(type)) {
+                // The deep links of any type match a wildcard type.
+                setAll(candidates, mAllMimeTypes);
+            } else {
+                setAll(candidates, mMimeTypes.get(type));
+                setAll(candidates, mWildcardMimeTypes);
+            }
+        }
+
+        NavDestination.DeepLinkMatch bestMatch = null;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            NavDestination.DeepLinkMatch newMatch =
+                    mDestinations.get(i).matchDeepLink(mDeepLinks.get(i), request);
+            if (newMatch != null && (bestMatch == null || newMatch.compareTo(bestMatch) > 0)) {
+                bestMatch = newMatch;
+            }
+        }
+        return bestMatch;
+    }
+
+    private static boolean isWildcard(String type) {
+        if (type.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < type.length(); i++) {
+            if (type.charAt(i) != '*') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlainType(String type) {
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setAll(BitSet bits, @Nullable List<Integer> indexes) {
+        if (indexes == null) {
+            return;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            bits.set(indexes.get(i));
+        }
+    }
+
+    private static final class UriNode {
+        HashMap<String, UriNode> mChildren;
+        final ArrayList<Integer> mDeepLinks = new ArrayList<>();
+
+        UriNode getOrCreateChild(String segment) {
+            if (mChildren == null) {
+                mChildren = new HashMap<>();
+            }
+            UriNode child = mChildren.get(segment);
+            if (child == null) {
+                child = new UriNode();
+                mChildren.put(segment, child);
+            }
+            return child;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -453,6 +454,7 @@ public class NavDestination {
             mDeepLinks = new ArrayList<>();
         }
         mDeepLinks.add(navDeepLink);
+        invalidateDeepLinkIndex();
     }
 
     /**
@@ -469,28 +471,58 @@ public class NavDestination {
         }
         DeepLinkMatch bestMatch = null;
         for (NavDeepLink deepLink : mDeepLinks) {
-            Uri uri = navDeepLinkRequest.getUri();
-            Bundle matchingArguments = uri != null
-                    ? deepLink.getMatchingArguments(uri, getArguments()) : null;
-
-            String requestAction = navDeepLinkRequest.getAction();
-            boolean matchingAction = requestAction != null && requestAction.equals(
-                    deepLink.getAction());
-
-            String mimeType = navDeepLinkRequest.getMimeType();
-            int mimeTypeMatchLevel = mimeType != null
-                    ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
-            if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
-                DeepLinkMatch newMatch = new DeepLinkMatch(this, matchingArguments,
-                        deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
-                if (bestMatch == null || newMatch.compareTo(bestMatch) > 0) {
-                    bestMatch = newMatch;
-                }
+            DeepLinkMatch newMatch = matchDeepLink(deepLink, navDeepLinkRequest);
+            if (newMatch != null && (bestMatch == null || newMatch.compareTo(bestMatch) > 0)) {
+                bestMatch = newMatch;
             }
         }
         return bestMatch;
     }
 
+    /**
+     * Determines if the given deep link of this destination matches the request.
+     *
+     * @return the match, or null if the deep link doesn't match.
+     */
+    @Nullable
+    final DeepLinkMatch matchDeepLink(@NonNull NavDeepLink deepLink,
+            @NonNull NavDeepLinkRequest navDeepLinkRequest) {
+        Uri uri = navDeepLinkRequest.getUri();
+        Bundle matchingArguments = uri != null
+                ? deepLink.getMatchingArguments(uri, getArguments()) : null;
+
+        String requestAction = navDeepLinkRequest.getAction();
+        boolean matchingAction = requestAction != null && requestAction.equals(
+                deepLink.getAction());
+
+        String mimeType = navDeepLinkRequest.getMimeType();
+        int mimeTypeMatchLevel = mimeType != null
+                ? deepLink.getMimeTypeMatchRating(mimeType) : -1;
+        if (matchingArguments != null || matchingAction || mimeTypeMatchLevel > -1) {
+            return new DeepLinkMatch(this, matchingArguments,
+                    deepLink.isExactDeepLink(), matchingAction, mimeTypeMatchLevel);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the deep links added to this destination, or null if there are none.
+     */
+    @Nullable
+    final List<NavDeepLink> getDeepLinks() {
+        return mDeepLinks;
+    }
+
+    /**
+     * Called when deep links are added to this destination or to any of its children, so that
+     * the graphs containing it no longer use their indexes of deep links.
+     */
+    void invalidateDeepLinkIndex() {
+        if (mParent != null) {
+            mParent.invalidateDeepLinkIndex();
+        }
+    }
+
     /**
      * Build an array containing the hierarchy from the root down to this destination.
      *
@@ -43,6 +43,9 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     final SparseArrayCompat<NavDestination> mNodes = new SparseArrayCompat<>();
     private int mStartDestId;
     private String mStartDestIdName;
+    // Built on the first deep link match, and cleared when deep links or destinations are added
+    // to or removed from this graph or its descendants.
+    private NavDeepLinkIndex mDeepLinkIndex;
 
     /**
      * Construct a new NavGraph. This NavGraph is not valid until you
@@ -72,17 +75,18 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @Override
     @Nullable
     DeepLinkMatch matchDeepLink(@NonNull NavDeepLinkRequest request) {
-        // First search through any deep links directly added to this NavGraph
-        DeepLinkMatch bestMatch = super.matchDeepLink(request);
-        // Then search through all child destinations for a matching deep link
-        for (NavDestination child : this) {
-            DeepLinkMatch childBestMatch = child.matchDeepLink(request);
-            if (childBestMatch != null && (bestMatch == null
-                    || childBestMatch.compareTo(bestMatch) > 0)) {
-                bestMatch = childBestMatch;
-            }
+        // Search through the deep links of this NavGraph and all of its descendants, using the
+        // index to only match the ones that can match the request
+        if (mDeepLinkIndex == null) {
+            mDeepLinkIndex = new NavDeepLinkIndex(this);
         }
-        return bestMatch;
+        return mDeepLinkIndex.matchDeepLink(request);
+    }
+
+    @Override
+    void invalidateDeepLinkIndex() {
+        mDeepLinkIndex = null;
+        super.invalidateDeepLinkIndex();
     }
 
     /**
@@ -118,6 +122,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         }
         node.setParent(this);
         mNodes.put(node.getId(), node);
+        invalidateDeepLinkIndex();
     }
 
     /**
@@ -210,6 +215,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
                 }
                 mNodes.valueAt(mIndex).setParent(null);
                 mNodes.removeAt(mIndex);
+                invalidateDeepLinkIndex();
                 mIndex--;
                 mWentToNext = false;
             }
@@ -242,6 +248,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         if (index >= 0) {
             mNodes.valueAt(index).setParent(null);
             mNodes.removeAt(index);
+            invalidateDeepLinkIndex();
         }
     }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.selection
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares selecting all the items of a long list, moving a selection band over a part of it,
+ * and saving and restoring the selection, with the set and range storages of Long keys.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class SelectionBenchmark(
+    private val storageName: String
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val storage = when (storageName) {
+        "ranges" -> StorageStrategy.createLongRangeStorage()
+        else -> StorageStrategy.createLongStorage()
+    }
+
+    private val tracker = DefaultSelectionTracker(
+        "benchmark",
+        keyProvider,
+        SelectionPredicates.createSelectAnything(),
+        storage
+    )
+
+    @Test
+    fun selectAll() {
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                tracker.clearSelection()
+            }
+            tracker.setItemsSelected(allKeys, true)
+        }
+    }
+
+    @Test
+    fun bandSelect() {
+        benchmarkRule.measureRepeated {
+            for (band in bands) {
+                tracker.setProvisionalSelection(band)
+            }
+            tracker.clearProvisionalSelection()
+        }
+    }
+
+    @Test
+    fun saveAndRestore() {
+        tracker.setItemsSelected(allKeys, true)
+        tracker.deselect(ITEM_COUNT / 2L)
+        val selection = tracker.selection
+        benchmarkRule.measureRepeated {
+            storage.asSelection(storage.asBundle(selection))
+        }
+    }
+
+    companion object {
+        private const val ITEM_COUNT = 500_000
+        private const val BAND_MOVES = 100
+        private const val BAND_STEP = 20
+
+        private val allKeys: List<Long> = (0L until ITEM_COUNT).toList()
+
+        // A band growing over more items on every move, as the pointer is dragged down.
+        private val bands: List<Set<Long>> = (1..BAND_MOVES).map { move ->
+            (1000L until 1000L + move * BAND_STEP).toCollection(LinkedHashSet())
+        }
+
+        private val keyProvider = object : ItemKeyProvider<Long>(ItemKeyProvider.SCOPE_MAPPED) {
+            override fun getKey(position: Int): Long = position.toLong()
+
+            override fun getPosition(key: Long): Int = key.toInt()
+        }
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "storage_{0}")
+        fun params() = listOf("keys", "ranges")
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.selection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public final class LongRangeSetTest {
+
+    @Test
+    public void testAddMergesAdjacentKeys() {
+        LongRangeSet set = new LongRangeSet();
+        assertTrue(set.add(3L));
+        assertTrue(set.add(1L));
+        assertTrue(set.add(2L));
+        assertFalse(set.add(2L));
+
+        assertEquals(3, set.size());
+        assertEquals(1, set.getRangeCount());
+        assertEquals(Arrays.asList(1L, 2L, 3L), new ArrayList<>(set));
+    }
+
+    @Test
+    public void testAddRangeMergesOverlappingRanges() {
+        LongRangeSet set = new LongRangeSet();
+        set.addRange(0, 9);
+        set.addRange(20, 29);
+        set.addRange(40, 49);
+        assertEquals(3, set.getRangeCount());
+
+        assertTrue(set.addRange(5, 41));
+        assertEquals(1, set.getRangeCount());
+        assertEquals(50, set.size());
+        assertFalse(set.addRange(10, 20));
+    }
+
+    @Test
+    public void testRemoveSplitsRange() {
+        LongRangeSet set = new LongRangeSet();
+        set.addRange(0, 99);
+
+        assertTrue(set.remove(50L));
+        assertFalse(set.remove(50L));
+        assertFalse(set.remove("50"));
+        assertEquals(99, set.size());
+        assertEquals(2, set.getRangeCount());
+        assertFalse(set.contains(50L));
+        assertTrue(set.contains(49L));
+        assertTrue(set.contains(51L));
+
+        assertTrue(set.removeRange(40, 60));
+        assertEquals(80, set.size());
+        assertEquals(39, set.getRangeLast(0));
+        assertEquals(61, set.getRangeFirst(1));
+    }
+
+    @Test
+    public void testExtremeKeys() {
+        LongRangeSet set = new LongRangeSet();
+        set.addRange(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+        set.addRange(Long.MIN_VALUE, Long.MIN_VALUE + 1);
+        set.add(Long.MAX_VALUE - 2);
+
+        assertEquals(5, set.size());
+        assertEquals(2, set.getRangeCount());
+        assertEquals(Arrays.asList(Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE - 2,
+                Long.MAX_VALUE - 1, Long.MAX_VALUE), new ArrayList<>(set));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        LongRangeSet set = new LongRangeSet();
+        set.addRange(0, 9);
+        for (Iterator<Long> iterator = set.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(Arrays.asList(1L, 3L, 5L, 7L, 9L), new ArrayList<>(set));
+    }
+
+    @Test
+    public void testEqualsOtherSets() {
+        LongRangeSet set = new LongRangeSet();
+        set.addRange(5, 7);
+        Set<Long> other = new HashSet<>(Arrays.asList(7L, 6L, 5L));
+
+        assertEquals(other, set);
+        assertEquals(set, other);
+        assertEquals(other.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testSetOperations() {
+        LongRangeSet a = new LongRangeSet();
+        a.addRange(0, 9);
+        a.addRange(20, 29);
+        LongRangeSet b = new LongRangeSet();
+        b.addRange(5, 24);
+
+        LongRangeSet union = new LongRangeSet();
+        union.addRange(0, 29);
+        assertEquals(union, LongRangeSet.union(a, b));
+
+        LongRangeSet intersection = new LongRangeSet();
+        intersection.addRange(5, 9);
+        intersection.addRange(20, 24);
+        assertEquals(intersection, LongRangeSet.intersection(a, b));
+
+        LongRangeSet difference = new LongRangeSet();
+        difference.addRange(0, 4);
+        difference.addRange(25, 29);
+        assertEquals(difference, LongRangeSet.difference(a, b));
+    }
+
+    @Test
+    public void testSetProvisionalSelection_matchesKeySets() {
+        Selection<Long> keys = new Selection<>(new LinkedHashSet<Long>(),
+                new LinkedHashSet<Long>());
+        Selection<Long> ranges = new Selection<Long>(new LongRangeSet(), new LongRangeSet());
+        for (long key = 0; key < 10; key++) {
+            keys.add(key);
+            ranges.add(key);
+        }
+
+        long[][] bands = {{5, 20}, {8, 30}, {15, 16}, {0, 3}};
+        for (long[] band : bands) {
+            Set<Long> newSelection = new LinkedHashSet<>();
+            for (long key = band[0]; key <= band[1]; key++) {
+                newSelection.add(key);
+            }
+            Map<Long, Boolean> expected = keys.setProvisionalSelection(newSelection);
+            Map<Long, Boolean> actual = ranges.setProvisionalSelection(newSelection);
+            assertEquals(expected, actual);
+            assertEquals(keys, ranges);
+        }
+
+        keys.mergeProvisionalSelection();
+        ranges.mergeProvisionalSelection();
+        assertEquals(keys, ranges);
+    }
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.selection;
+
+import static androidx.core.util.Preconditions.checkArgument;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@link Long} keys stored as sorted, disjoint ranges of consecutive keys.
+ *
+ * <p>
+ * Selections of Long keys, such as stable ids, are mostly made of consecutive keys: selecting
+ * all the items of a list, or a band of items. Such selections take a couple of longs per range
+ * instead of an entry and a boxed key per selected item, and are compared and combined range by
+ * range.
+ *
+ * <p>
+ * Keys are iterated in ascending order, rather than in the order they were added.
+ */
+final class LongRangeSet extends AbstractSet<Long> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    // The first and last keys of the ranges, sorted. Consecutive ranges are separated by at
+    // least one key that isn't in the set.
+    private long[] mFirsts;
+    private long[] mLasts;
+    private int mRangeCount;
+    private long mSize;
+    private int mModCount;
+
+    LongRangeSet() {
+        mFirsts = new long[INITIAL_CAPACITY];
+        mLasts = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the given keys as a {@link LongRangeSet}, which is the given collection itself if
+     * it's already one.
+     */
+    static @NonNull LongRangeSet copyOf(@NonNull Collection<Long> keys) {
+        if (keys instanceof LongRangeSet) {
+            return (LongRangeSet) keys;
+        }
+        LongRangeSet set = new LongRangeSet();
+        for (Long key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /**
+     * @return the keys in either of the given sets.
+     */
+    static @NonNull LongRangeSet union(@NonNull LongRangeSet a, @NonNull LongRangeSet b) {
+        LongRangeSet result = new LongRangeSet();
+        int i = 0;
+        int j = 0;
+        while (i < a.mRangeCount || j < b.mRangeCount) {
+            if (j == b.mRangeCount
+                    || (i < a.mRangeCount && a.mFirsts[i] <= b.mFirsts[j])) {
+                result.appendRange(a.mFirsts[i], a.mLasts[i]);
+                i++;
+            } else {
+                result.appendRange(b.mFirsts[j], b.mLasts[j]);
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the keys in both of the given sets.
+     */
+    static @NonNull LongRangeSet intersection(@NonNull LongRangeSet a, @NonNull LongRangeSet b) {
+        LongRangeSet result = new LongRangeSet();
+        int i = 0;
+        int j = 0;
+        while (i < a.mRangeCount && j < b.mRangeCount) {
+            long first = Math.max(a.mFirsts[i], b.mFirsts[j]);
+            long last = Math.min(a.mLasts[i], b.mLasts[j]);
+            if (first <= last) {
+                result.appendRange(first, last);
+            }
+            if (a.mLasts[i] < b.mLasts[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the keys in the first set which aren't in the second one.
+     */
+    static @NonNull LongRangeSet difference(@NonNull LongRangeSet a, @NonNull LongRangeSet b) {
+        LongRangeSet result = new LongRangeSet();
+        int j = 0;
+        for (int i = 0; i < a.mRangeCount; i++) {
+            long first = a.mFirsts[i];
+            long last = a.mLasts[i];
+            // Skips the ranges of b entirely before the current range of a.
+            while (j < b.mRangeCount && b.mLasts[j] < first) {
+                j++;
+            }
+            boolean covered = false;
+            while (j < b.mRangeCount && b.mFirsts[j] <= last) {
+                if (b.mFirsts[j] > first) {
+                    result.appendRange(first, b.mFirsts[j] - 1);
+                }
+                if (b.mLasts[j] >= last) {
+                    // The range of b may also overlap the next range of a.
+                    covered = true;
+                    break;
+                }
+                first = b.mLasts[j] + 1;
+                j++;
+            }
+            if (!covered) {
+                result.appendRange(first, last);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(mSize, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mRangeCount == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object key) {
+        return key instanceof Long && contains(((Long) key).longValue());
+    }
+
+    boolean contains(long key) {
+        int index = findRange(key);
+        return index >= 0 && key <= mLasts[index];
+    }
+
+    @Override
+    public boolean add(@NonNull Long key) {
+        return addRange(key, key);
+    }
+
+    @Override
+    public boolean remove(@Nullable Object key) {
+        if (!(key instanceof Long)) {
+            return false;
+        }
+        long value = (Long) key;
+        return removeRange(value, value);
+    }
+
+    @Override
+    public boolean addAll(@NonNull Collection<? extends Long> keys) {
+        if (!(keys instanceof LongRangeSet)) {
+            return super.addAll(keys);
+        }
+        LongRangeSet other = (LongRangeSet) keys;
+        if (mRangeCount == 0) {
+            copyFrom(other);
+            return other.mRangeCount > 0;
+        }
+        boolean changed = false;
+        for (int i = 0; i < other.mRangeCount; i++) {
+            changed |= addRange(other.mFirsts[i], other.mLasts[i]);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        mRangeCount = 0;
+        mSize = 0;
+        mModCount++;
+    }
+
+    /**
+     * Adds the keys from {@code first} to {@code last}, inclusive.
+     *
+     * @return true if any key was added.
+     */
+    boolean addRange(long first, long last) {
+        checkArgument(first <= last);
+        // The ranges from start to end overlap or are adjacent to the added keys.
+        int start = findRange(first);
+        if (start < 0 || (mLasts[start] < first && mLasts[start] + 1 != first)) {
+            start++;
+        }
+        int end = findRange(last == Long.MAX_VALUE ? last : last + 1);
+        if (end < start) {
+            insertRanges(start, 1);
+            mFirsts[start] = first;
+            mLasts[start] = last;
+            mSize += last - first + 1;
+            mModCount++;
+            return true;
+        }
+        long mergedFirst = Math.min(first, mFirsts[start]);
+        long mergedLast = Math.max(last, mLasts[end]);
+        long removedSize = 0;
+        for (int i = start; i <= end; i++) {
+            removedSize += mLasts[i] - mFirsts[i] + 1;
+        }
+        long addedSize = mergedLast - mergedFirst + 1 - removedSize;
+        if (addedSize == 0) {
+            return false;
+        }
+        removeRanges(start + 1, end - start);
+        mFirsts[start] = mergedFirst;
+        mLasts[start] = mergedLast;
+        mSize += addedSize;
+        mModCount++;
+        return true;
+    }
+
+    /**
+     * Removes the keys from {@code first} to {@code last}, inclusive.
+     *
+     * @return true if any key was removed.
+     */
+    boolean removeRange(long first, long last) {
+        checkArgument(first <= last);
+        // The ranges from start to end overlap the removed keys.
+        int start = findRange(first);
+        if (start < 0 || mLasts[start] < first) {
+            start++;
+        }
+        int end = findRange(last);
+        if (end < start) {
+            return false;
+        }
+        long startFirst = mFirsts[start];
+        long endLast = mLasts[end];
+        for (int i = start; i <= end; i++) {
+            mSize -= mLasts[i] - mFirsts[i] + 1;
+        }
+        boolean keepsHead = startFirst < first;
+        boolean keepsTail = endLast > last;
+        int keptCount = (keepsHead ? 1 : 0) + (keepsTail ? 1 : 0);
+        int removedCount = end - start + 1;
+        if (keptCount > removedCount) {
+            insertRanges(start, keptCount - removedCount);
+        } else {
+            removeRanges(start, removedCount - keptCount);
+        }
+        int index = start;
+        if (keepsHead) {
+            mFirsts[index] = startFirst;
+            mLasts[index] = first - 1;
+            mSize += first - startFirst;
+            index++;
+        }
+        if (keepsTail) {
+            mFirsts[index] = last + 1;
+            mLasts[index] = endLast;
+            mSize += endLast - last;
+        }
+        mModCount++;
+        return true;
+    }
+
+    /**
+     * @return the number of ranges of consecutive keys in this set.
+     */
+    int getRangeCount() {
+        return mRangeCount;
+    }
+
+    /**
+     * @return the first key of the range at the given index, ranges being sorted.
+     */
+    long getRangeFirst(int index) {
+        return mFirsts[index];
+    }
+
+    /**
+     * @return the last key of the range at the given index, ranges being sorted.
+     */
+    long getRangeLast(int index) {
+        return mLasts[index];
+    }
+
+    /**
+     * Replaces the keys of this set with the keys of the given set.
+     */
+    void copyFrom(@NonNull LongRangeSet other) {
+        if (mFirsts.length < other.mRangeCount) {
+            mFirsts = new long[other.mRangeCount];
+            mLasts = new long[other.mRangeCount];
+        }
+        System.arraycopy(other.mFirsts, 0, mFirsts, 0, other.mRangeCount);
+        System.arraycopy(other.mLasts, 0, mLasts, 0, other.mRangeCount);
+        mRangeCount = other.mRangeCount;
+        mSize = other.mSize;
+        mModCount++;
+    }
+
+    @Override
+    public @NonNull Iterator<Long> iterator() {
+        return new KeyIterator();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+        if (!(other instanceof LongRangeSet)) {
+            return super.equals(other);
+        }
+        LongRangeSet set = (LongRangeSet) other;
+        if (mRangeCount != set.mRangeCount) {
+            return false;
+        }
+        for (int i = 0; i < mRangeCount; i++) {
+            if (mFirsts[i] != set.mFirsts[i] || mLasts[i] != set.mLasts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same as the hash code of any other set of the same Long keys, without boxing them.
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int i = 0; i < mRangeCount; i++) {
+            long last = mLasts[i];
+            for (long key = mFirsts[i]; ; key++) {
+                hashCode += (int) (key ^ (key >>> 32));
+                if (key == last) {
+                    break;
+                }
+            }
+        }
+        return hashCode;
+    }
+
+    /**
+     * @return the index of the last range starting at or before the key, or -1 if there's none.
+     */
+    private int findRange(long key) {
+        int low = 0;
+        int high = mRangeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (mFirsts[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Appends a range after all the ranges of this set, merging it with the last range if
+     * they're adjacent.
+     */
+    private void appendRange(long first, long last) {
+        int lastIndex = mRangeCount - 1;
+        if (lastIndex >= 0
+                && (mLasts[lastIndex] >= first || mLasts[lastIndex] + 1 == first)) {
+            if (last > mLasts[lastIndex]) {
+                mSize += last - mLasts[lastIndex];
+                mLasts[lastIndex] = last;
+            }
+        } else {
+            insertRanges(mRangeCount, 1);
+            mFirsts[mRangeCount - 1] = first;
+            mLasts[mRangeCount - 1] = last;
+            mSize += last - first + 1;
+        }
+        mModCount++;
+    }
+
+    private void insertRanges(int index, int count) {
+        if (mRangeCount + count > mFirsts.length) {
+            int capacity = Math.max(mRangeCount + count, mFirsts.length * 2);
+            mFirsts = Arrays.copyOf(mFirsts, capacity);
+            mLasts = Arrays.copyOf(mLasts, capacity);
+        }
+        System.arraycopy(mFirsts, index, mFirsts, index + count, mRangeCount - index);
+        System.arraycopy(mLasts, index, mLasts, index + count, mRangeCount - index);
+        mRangeCount += count;
+    }
+
+    private void removeRanges(int index, int count) {
+        System.arraycopy(mFirsts, index + count, mFirsts, index, mRangeCount - index - count);
+        System.arraycopy(mLasts, index + count, mLasts, index, mRangeCount - index - count);
+        mRangeCount -= count;
+    }
+
+    private final class KeyIterator implements Iterator<Long> {
+        private int mRange;
+        private long mNext;
+        private long mLastReturned;
+        private boolean mCanRemove;
+        private int mExpectedModCount = mModCount;
+
+        KeyIterator() {
+            if (mRangeCount > 0) {
+                mNext = mFirsts[0];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mRange < mRangeCount;
+        }
+
+        @Override
+        public Long next() {
+            if (mExpectedModCount != mModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (mRange >= mRangeCount) {
+                throw new NoSuchElementException();
+            }
+            long key = mNext;
+            if (key == mLasts[mRange]) {
+                mRange++;
+                if (mRange < mRangeCount) {
+                    mNext = mFirsts[mRange];
+                }
+            } else {
+                mNext = key + 1;
+            }
+            mLastReturned = key;
+            mCanRemove = true;
+            return key;
+        }
+
+        @Override
+        public void remove() {
+            if (!mCanRemove) {
+                throw new IllegalStateException();
+            }
+            if (mExpectedModCount != mModCount) {
+                throw new ConcurrentModificationException();
+            }
+            boolean hasNext = hasNext();
+            removeRange(mLastReturned, mLastReturned);
+            mExpectedModCount = mModCount;
+            mCanRemove = false;
+            // The removed key may have split or removed its range, find the next key's range.
+            mRange = hasNext ? findRange(mNext) : mRangeCount;
+        }
+    }
+}
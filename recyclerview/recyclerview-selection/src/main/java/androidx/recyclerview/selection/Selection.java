@@ -76,6 +76,15 @@ public class Selection<K> implements Iterable<K> {
         mProvisionalSelection = new LinkedHashSet<>();
     }
 
+    /**
+     * Used by {@link DefaultSelectionTracker} to store keys in the sets of its
+     * {@link StorageStrategy}.
+     */
+    Selection(@NonNull Set<K> selection, @NonNull Set<K> provisionalSelection) {
+        mSelection = selection;
+        mProvisionalSelection = provisionalSelection;
+    }
+
     /**
      * @return true if the position is currently selected.
      */
@@ -115,7 +124,14 @@ public class Selection<K> implements Iterable<K> {
      *
      * @return Map of ids added or removed. Added ids have a value of true, removed are false.
      */
+    @SuppressWarnings("unchecked")
     Map<K, Boolean> setProvisionalSelection(@NonNull Set<K> newSelection) {
+        if (mSelection instanceof LongRangeSet && mProvisionalSelection instanceof LongRangeSet) {
+            return (Map<K, Boolean>) (Map<?, Boolean>) setProvisionalRanges(
+                    (LongRangeSet) mSelection, (LongRangeSet) mProvisionalSelection,
+                    LongRangeSet.copyOf((Set<Long>) newSelection));
+        }
+
         Map<K, Boolean> delta = new LinkedHashMap<>();
 
         for (K key : mProvisionalSelection) {
@@ -157,6 +173,31 @@ public class Selection<K> implements Iterable<K> {
         return delta;
     }
 
+    /**
+     * Sets the provisional selection of keys stored in ranges, comparing the selections range
+     * by range rather than key by key.
+     */
+    private static Map<Long, Boolean> setProvisionalRanges(@NonNull LongRangeSet selection,
+            @NonNull LongRangeSet provisionalSelection, @NonNull LongRangeSet newSelection) {
+        // Same as above: keys of either selection not in the new selection are removed, and keys
+        // in neither selection are added.
+        LongRangeSet current = LongRangeSet.union(selection, provisionalSelection);
+        LongRangeSet removed = LongRangeSet.difference(current, newSelection);
+        LongRangeSet added = LongRangeSet.difference(newSelection, current);
+
+        Map<Long, Boolean> delta = new LinkedHashMap<>();
+        for (Long key : removed) {
+            delta.put(key, false);
+        }
+        for (Long key : added) {
+            delta.put(key, true);
+        }
+
+        provisionalSelection.copyFrom(LongRangeSet.union(
+                LongRangeSet.intersection(provisionalSelection, newSelection), added));
+        return delta;
+    }
+
     /**
      * Saves the existing provisional selection. Once the provisional selection is saved,
      * subsequent provisional selections which are different from this existing one cannot
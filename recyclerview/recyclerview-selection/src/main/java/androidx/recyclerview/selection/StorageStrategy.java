@@ -26,12 +26,14 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Strategy for storing keys in saved state. Extend this class when using custom
  * key types that aren't supported by default. Prefer use of builtin storage strategies:
  * {@link #createStringStorage()}, {@link #createLongStorage()},
- * {@link #createParcelableStorage(Class)}.
+ * {@link #createParcelableStorage(Class)}, {@link #createLongRangeStorage()}.
  *
  * <p>
  * See
@@ -53,6 +55,9 @@ public abstract class StorageStrategy<K> {
     @VisibleForTesting
     static final String SELECTION_KEY_TYPE = "androidx.recyclerview.selection.type";
 
+    @VisibleForTesting
+    static final String SELECTION_RANGES = "androidx.recyclerview.selection.ranges";
+
     private final Class<K> mType;
 
     /**
@@ -83,6 +88,13 @@ public abstract class StorageStrategy<K> {
         return mType.getCanonicalName();
     }
 
+    /**
+     * Creates a set to store selected keys in.
+     */
+    @NonNull Set<K> createKeySet() {
+        return new LinkedHashSet<>();
+    }
+
     /**
      * @return StorageStrategy suitable for use with {@link Parcelable} keys
      * (like {@link android.net.Uri}).
@@ -106,6 +118,25 @@ public abstract class StorageStrategy<K> {
         return new LongStorageStrategy();
     }
 
+    /**
+     * Returns a StorageStrategy for {@link Long} keys which stores selections as ranges of
+     * consecutive keys, rather than as sets of keys.
+     *
+     * <p>
+     * This is suitable for large selections of mostly consecutive keys, such as the stable ids
+     * of all the items of a long list: such selections take little memory, and are saved as a
+     * few ranges. Keys of the selection are iterated in ascending order, rather than in the order
+     * they were selected in.
+     *
+     * <p>
+     * Selections saved by {@link #createLongStorage()} can be restored by this strategy.
+     *
+     * @return StorageStrategy suitable for use with {@link Long} keys.
+     */
+    public static @NonNull StorageStrategy<Long> createLongRangeStorage() {
+        return new LongRangeStorageStrategy();
+    }
+
     private static class StringStorageStrategy extends StorageStrategy<String> {
 
         StringStorageStrategy() {
@@ -187,6 +218,68 @@ public abstract class StorageStrategy<K> {
         }
     }
 
+    private static class LongRangeStorageStrategy extends StorageStrategy<Long> {
+
+        LongRangeStorageStrategy() {
+            super(Long.class);
+        }
+
+        @Override
+        @NonNull Set<Long> createKeySet() {
+            return new LongRangeSet();
+        }
+
+        @Override
+        public @Nullable Selection<Long> asSelection(@NonNull Bundle state) {
+            String keyType = state.getString(SELECTION_KEY_TYPE, null);
+            if (keyType == null || !keyType.equals(getKeyTypeName())) {
+                return null;
+            }
+
+            LongRangeSet keys = new LongRangeSet();
+            @Nullable long[] ranges = state.getLongArray(SELECTION_RANGES);
+            if (ranges != null) {
+                if (ranges.length % 2 != 0) {
+                    return null;
+                }
+                for (int i = 0; i < ranges.length; i += 2) {
+                    if (ranges[i] > ranges[i + 1]) {
+                        return null;
+                    }
+                    keys.addRange(ranges[i], ranges[i + 1]);
+                }
+            } else {
+                // Restores a selection saved as keys by LongStorageStrategy.
+                @Nullable long[] stored = state.getLongArray(SELECTION_ENTRIES);
+                if (stored == null) {
+                    return null;
+                }
+                for (long key : stored) {
+                    keys.addRange(key, key);
+                }
+            }
+
+            return new Selection<Long>(keys, new LongRangeSet());
+        }
+
+        @Override
+        public @NonNull Bundle asBundle(@NonNull Selection<Long> selection) {
+
+            Bundle bundle = new Bundle();
+            bundle.putString(SELECTION_KEY_TYPE, getKeyTypeName());
+
+            LongRangeSet keys = LongRangeSet.copyOf(selection.mSelection);
+            long[] value = new long[keys.getRangeCount() * 2];
+            for (int i = 0; i < keys.getRangeCount(); i++) {
+                value[i * 2] = keys.getRangeFirst(i);
+                value[i * 2 + 1] = keys.getRangeLast(i);
+            }
+            bundle.putLongArray(SELECTION_RANGES, value);
+
+            return bundle;
+        }
+    }
+
     private static class ParcelableStorageStrategy<K extends Parcelable>
             extends StorageStrategy<K> {
 
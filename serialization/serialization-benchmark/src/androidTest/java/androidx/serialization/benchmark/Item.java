@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.serialization.runtime.internal.DecoderV1;
+import androidx.serialization.runtime.internal.EncoderV1;
+import androidx.serialization.runtime.internal.SerializerV1;
+
+/**
+ * An item of a list, with a serializer written as generated code would be.
+ */
+final class Item {
+    long mId;
+    @Nullable String mTitle;
+    @Nullable String mUri;
+    @Nullable int[] mTags;
+    double mRating;
+    boolean mExplicit;
+
+    static final class Serializer implements SerializerV1<Item> {
+        @NonNull
+        static final Serializer INSTANCE = new Serializer();
+
+        @Override
+        public void encode(@NonNull EncoderV1 encoder, @NonNull Item message) {
+            encoder.encodeInt64(1, message.mId);
+            encoder.encodeString(2, message.mTitle);
+            encoder.encodeString(3, message.mUri);
+            encoder.encodeRepeatedSInt32(4, message.mTags);
+            encoder.encodeDouble(5, message.mRating);
+            encoder.encodeBool(6, message.mExplicit);
+        }
+
+        @NonNull
+        @Override
+        public Item decode(@NonNull DecoderV1 decoder, @Nullable Item mergeFrom) {
+            Item message = mergeFrom != null ? mergeFrom : new Item();
+            while (decoder.hasNextField()) {
+                switch (decoder.nextFieldId()) {
+                    case 1:
+                        message.mId = decoder.decodeInt64();
+                        break;
+                    case 2:
+                        message.mTitle = decoder.decodeString();
+                        break;
+                    case 3:
+                        message.mUri = decoder.decodeString();
+                        break;
+                    case 4:
+                        message.mTags = decoder.decodeRepeatedSInt32(message.mTags);
+                        break;
+                    case 5:
+                        message.mRating = decoder.decodeDouble();
+                        break;
+                    case 6:
+                        message.mExplicit = decoder.decodeBool();
+                        break;
+                }
+            }
+            return message;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.serialization.runtime.internal.DecoderV1;
+import androidx.serialization.runtime.internal.EncoderV1;
+import androidx.serialization.runtime.internal.SerializationRuntime;
+import androidx.serialization.runtime.internal.SerializerV1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of {@link Item}s, with a serializer written as generated code would be.
+ */
+final class ItemList {
+    @NonNull List<Item> mItems = new ArrayList<>();
+    @Nullable String mNextPageToken;
+
+    static final class Serializer implements SerializerV1<ItemList> {
+        @NonNull
+        static final Serializer INSTANCE = new Serializer();
+
+        @Override
+        public void encode(@NonNull EncoderV1 encoder, @NonNull ItemList message) {
+            encoder.encodeRepeatedMessage(1, Item.Serializer.INSTANCE, message.mItems);
+            encoder.encodeString(2, message.mNextPageToken);
+        }
+
+        @NonNull
+        @Override
+        public ItemList decode(@NonNull DecoderV1 decoder, @Nullable ItemList mergeFrom) {
+            ItemList message = mergeFrom != null ? mergeFrom : new ItemList();
+            while (decoder.hasNextField()) {
+                switch (decoder.nextFieldId()) {
+                    case 1:
+                        decoder.decodeRepeatedMessage(Item.Serializer.INSTANCE, message.mItems,
+                                SerializationRuntime.<Item>getListFactory());
+                        break;
+                    case 2:
+                        message.mNextPageToken = decoder.decodeString();
+                        break;
+                }
+            }
+            return message;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.serialization.benchmark.proto.ItemListProto;
+import androidx.serialization.benchmark.proto.ItemProto;
+import androidx.serialization.runtime.proto.internal.ProtoDecoder;
+import androidx.serialization.runtime.proto.internal.ProtoEncoder;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares encoding and decoding a list of {@link #ITEM_COUNT} items with {@link ProtoEncoder}
+ * and {@link ProtoDecoder}, to heap and direct buffers, and with protobuf-lite.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ProtoBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final ItemList mItemList = new ItemList();
+    private final ItemListProto mItemListProto = createItemListProto();
+
+    private final ProtoEncoder mHeapEncoder = new ProtoEncoder();
+    private final ProtoEncoder mDirectEncoder =
+            new ProtoEncoder(ByteBuffer.allocateDirect(256));
+
+    private byte[] mEncoded;
+
+    @Before
+    public void setUp() throws InvalidProtocolBufferException {
+        for (ItemProto itemProto : mItemListProto.getItemsList()) {
+            Item item = new Item();
+            item.mId = itemProto.getId();
+            item.mTitle = itemProto.getTitle();
+            item.mUri = itemProto.getUri();
+            item.mTags = new int[itemProto.getTagsCount()];
+            for (int i = 0; i < item.mTags.length; i++) {
+                item.mTags[i] = itemProto.getTags(i);
+            }
+            item.mRating = itemProto.getRating();
+            item.mExplicit = itemProto.getExplicit();
+            mItemList.mItems.add(item);
+        }
+        mItemList.mNextPageToken = mItemListProto.getNextPageToken();
+
+        ByteBuffer buffer = mHeapEncoder.encode(ItemList.Serializer.INSTANCE, mItemList);
+        mEncoded = new byte[buffer.remaining()];
+        buffer.get(mEncoded);
+        // Both encode the same message, in a different field order.
+        assertEquals(mItemListProto, ItemListProto.parseFrom(mEncoded));
+        assertEquals(mItemListProto.getSerializedSize(), mEncoded.length);
+    }
+
+    @Test
+    public void encodeHeap() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mHeapEncoder.encode(ItemList.Serializer.INSTANCE, mItemList);
+        }
+    }
+
+    @Test
+    public void encodeDirect() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mDirectEncoder.encode(ItemList.Serializer.INSTANCE, mItemList);
+        }
+    }
+
+    @Test
+    public void encodeProtoLite() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mItemListProto.toByteArray();
+        }
+    }
+
+    @Test
+    public void decodeHeap() {
+        ByteBuffer buffer = ByteBuffer.wrap(mEncoded);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new ProtoDecoder(buffer).decode(ItemList.Serializer.INSTANCE);
+        }
+    }
+
+    @Test
+    public void decodeDirect() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(mEncoded.length);
+        buffer.put(mEncoded);
+        buffer.flip();
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new ProtoDecoder(buffer).decode(ItemList.Serializer.INSTANCE);
+        }
+    }
+
+    @Test
+    public void decodeProtoLite() throws InvalidProtocolBufferException {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            ItemListProto.parseFrom(mEncoded);
+        }
+    }
+
+    private static ItemListProto createItemListProto() {
+        ItemListProto.Builder builder = ItemListProto.newBuilder();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            ItemProto.Builder item = ItemProto.newBuilder()
+                    .setId(1_000_000_000L + i)
+                    .setTitle("Item " + i + (i % 10 == 0 ? " \u00fcn\u00efc\u00f6d\u00e9" : ""))
+                    .setUri("https://example.com/items/" + i)
+                    .setRating(i / 20.0)
+                    .setExplicit(i % 3 == 0);
+            for (int tag = 0; tag < i % 8; tag++) {
+                item.addTags(tag * 37 - 100);
+            }
+            builder.addItems(item);
+        }
+        return builder.setNextPageToken("page-2").build();
+    }
+}
@@ -0,0 +1,918 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.FIXED32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.FIXED64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.INT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.INT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.SINT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.SINT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.TAG_TYPE_BITS;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.TAG_TYPE_MASK;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.UINT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.UINT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.UTF_8;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_END_GROUP;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_FIXED32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_FIXED64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_LENGTH_DELIMITED;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_START_GROUP;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_VARINT;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.decodeZigZag32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.decodeZigZag64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.wireTypeOf;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.serialization.runtime.internal.CollectionFactory;
+import androidx.serialization.runtime.internal.DecoderV1;
+import androidx.serialization.runtime.internal.EnumSerializerV1;
+import androidx.serialization.runtime.internal.SerializerV1;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * A decoder which reads messages in the Protocol Buffers wire format.
+ * <p>
+ * The decoder reads its buffer in place with absolute indexes, without copying it or changing
+ * its position. Embedded messages are decoded by narrowing the range of the buffer the decoder
+ * reads, and strings are decoded directly from the buffer.
+ * <p>
+ * Repeated scalar fields are accepted both packed and unpacked. The number of values of a
+ * repeated field is counted before decoding it, so that arrays and collections are allocated
+ * with their final size. Consecutive entries of repeated messages, strings and bytes are decoded
+ * in a single call.
+ */
+public final class ProtoDecoder implements DecoderV1 {
+    private static final int NO_FIELD = -1;
+
+    @NonNull
+    private final ByteBuffer mBuffer;
+
+    /**
+     * The backing array of {@link #mBuffer}, or null if it isn't accessible, such as for direct
+     * buffers.
+     */
+    @Nullable
+    private final byte[] mArray;
+    private final int mArrayOffset;
+
+    private int mPosition;
+
+    /**
+     * The end of the message being decoded.
+     */
+    private int mLimit;
+
+    /**
+     * The tag of the current field.
+     */
+    private int mTag;
+
+    /**
+     * The wire type of the current field, or {@link #NO_FIELD} if the decoder isn't positioned
+     * on a field or the field has been decoded.
+     */
+    private int mWireType = NO_FIELD;
+
+    /**
+     * The end of the packed values of the repeated field being decoded, or {@link #NO_FIELD} if
+     * it isn't packed.
+     */
+    private int mPackedEnd = NO_FIELD;
+
+    /**
+     * Creates a decoder reading a buffer.
+     *
+     * @param buffer the buffer to read, between its position and its limit.
+     */
+    public ProtoDecoder(@NonNull ByteBuffer buffer) {
+        mBuffer = buffer;
+        if (buffer.hasArray()) {
+            mArray = buffer.array();
+            mArrayOffset = buffer.arrayOffset();
+        } else {
+            mArray = null;
+            mArrayOffset = 0;
+        }
+        mPosition = buffer.position();
+        mLimit = buffer.limit();
+    }
+
+    /**
+     * Decode a message.
+     *
+     * @param serializer the serializer for the message class.
+     * @param <T>        the message class.
+     * @return the decoded message.
+     * @throws IllegalStateException if the buffer isn't a valid message.
+     */
+    @NonNull
+    public <T> T decode(@NonNull SerializerV1<T> serializer) {
+        return serializer.decode(this, null);
+    }
+
+    @Override
+    public boolean hasNextField() {
+        skipField();
+        return mPosition < mLimit;
+    }
+
+    @Override
+    public int nextFieldId() {
+        skipField();
+        if (mPosition >= mLimit) {
+            throw new NoSuchElementException();
+        }
+        int tag = readVarint32();
+        int fieldId = tag >>> TAG_TYPE_BITS;
+        if (fieldId == 0) {
+            throw new IllegalStateException("Invalid field ID 0");
+        }
+        mTag = tag;
+        mWireType = tag & TAG_TYPE_MASK;
+        return fieldId;
+    }
+
+    @NonNull
+    @Override
+    public <T> T decodeMessage(@NonNull SerializerV1<T> serializer, @Nullable T mergeFrom) {
+        consumeField(WIRE_TYPE_LENGTH_DELIMITED);
+        int length = readLength();
+        int end = mPosition + length;
+        int parentLimit = mLimit;
+        mLimit = end;
+        T result = serializer.decode(this, mergeFrom);
+        mPosition = end;
+        mLimit = parentLimit;
+        mWireType = NO_FIELD;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <T, C extends Collection<T>> C decodeRepeatedMessage(
+            @NonNull SerializerV1<T> serializer,
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = countRepeatedFields();
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                nextRepeatedField();
+            }
+            result.add(decodeMessage(serializer, null));
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <T extends Enum<T>> T decodeEnum(@NonNull EnumSerializerV1<T> serializer) {
+        consumeField(WIRE_TYPE_VARINT);
+        return serializer.decode(readVarint32());
+    }
+
+    @NonNull
+    @Override
+    public <T extends Enum<T>, C extends Collection<T>> C decodeRepeatedEnum(
+            @NonNull EnumSerializerV1<T> serializer,
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(WIRE_TYPE_VARINT);
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(serializer.decode(readVarint32()));
+        }
+        endRepeated();
+        return result;
+    }
+
+    @Override
+    public boolean decodeBool() {
+        consumeField(WIRE_TYPE_VARINT);
+        return readVarint64() != 0;
+    }
+
+    @NonNull
+    @Override
+    public boolean[] decodeRepeatedBool(@Nullable boolean[] mergeFrom) {
+        int count = beginRepeated(WIRE_TYPE_VARINT);
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        boolean[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new boolean[count];
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = readVarint64() != 0;
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Boolean>> C decodeRepeatedBool(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(WIRE_TYPE_VARINT);
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(readVarint64() != 0);
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public byte[] decodeBytes() {
+        consumeField(WIRE_TYPE_LENGTH_DELIMITED);
+        int length = readLength();
+        byte[] result = new byte[length];
+        if (mArray != null) {
+            System.arraycopy(mArray, mArrayOffset + mPosition, result, 0, length);
+        } else {
+            ByteBuffer buffer = mBuffer.duplicate();
+            buffer.position(mPosition);
+            buffer.get(result);
+        }
+        mPosition += length;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<byte[]>> C decodeRepeatedBytes(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = countRepeatedFields();
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                nextRepeatedField();
+            }
+            result.add(decodeBytes());
+        }
+        return result;
+    }
+
+    @Override
+    public double decodeDouble() {
+        consumeField(WIRE_TYPE_FIXED64);
+        return Double.longBitsToDouble(readFixed64());
+    }
+
+    @NonNull
+    @Override
+    public double[] decodeRepeatedDouble(@Nullable double[] mergeFrom) {
+        int count = beginRepeated(WIRE_TYPE_FIXED64);
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        double[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new double[count];
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = Double.longBitsToDouble(readFixed64());
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Double>> C decodeRepeatedDouble(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(WIRE_TYPE_FIXED64);
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Double.longBitsToDouble(readFixed64()));
+        }
+        endRepeated();
+        return result;
+    }
+
+    @Override
+    public float decodeFloat() {
+        consumeField(WIRE_TYPE_FIXED32);
+        return Float.intBitsToFloat(readFixed32());
+    }
+
+    @NonNull
+    @Override
+    public float[] decodeRepeatedFloat(@Nullable float[] mergeFrom) {
+        int count = beginRepeated(WIRE_TYPE_FIXED32);
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        float[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new float[count];
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = Float.intBitsToFloat(readFixed32());
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Float>> C decodeRepeatedFloat(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(WIRE_TYPE_FIXED32);
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Float.intBitsToFloat(readFixed32()));
+        }
+        endRepeated();
+        return result;
+    }
+
+    @Override
+    public int decodeInt32() {
+        return decodeInt(INT32);
+    }
+
+    @NonNull
+    @Override
+    public int[] decodeRepeatedInt32(@Nullable int[] mergeFrom) {
+        return decodeRepeatedInt(INT32, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Integer>> C decodeRepeatedInt32(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedInt(INT32, mergeFrom, factory);
+    }
+
+    @Override
+    public int decodeSInt32() {
+        return decodeInt(SINT32);
+    }
+
+    @NonNull
+    @Override
+    public int[] decodeRepeatedSInt32(@Nullable int[] mergeFrom) {
+        return decodeRepeatedInt(SINT32, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Integer>> C decodeRepeatedSInt32(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedInt(SINT32, mergeFrom, factory);
+    }
+
+    @Override
+    public int decodeUInt32() {
+        return decodeInt(UINT32);
+    }
+
+    @NonNull
+    @Override
+    public int[] decodeRepeatedUInt32(@Nullable int[] mergeFrom) {
+        return decodeRepeatedInt(UINT32, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Integer>> C decodeRepeatedUInt32(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedInt(UINT32, mergeFrom, factory);
+    }
+
+    @Override
+    public int decodeFixed32() {
+        return decodeInt(FIXED32);
+    }
+
+    @NonNull
+    @Override
+    public int[] decodeRepeatedFixed32(@Nullable int[] mergeFrom) {
+        return decodeRepeatedInt(FIXED32, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Integer>> C decodeRepeatedFixed32(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedInt(FIXED32, mergeFrom, factory);
+    }
+
+    @Override
+    public long decodeInt64() {
+        return decodeLong(INT64);
+    }
+
+    @NonNull
+    @Override
+    public long[] decodeRepeatedInt64(@Nullable long[] mergeFrom) {
+        return decodeRepeatedLong(INT64, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Long>> C decodeRepeatedInt64(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedLong(INT64, mergeFrom, factory);
+    }
+
+    @Override
+    public long decodeSInt64() {
+        return decodeLong(SINT64);
+    }
+
+    @NonNull
+    @Override
+    public long[] decodeRepeatedSInt64(@Nullable long[] mergeFrom) {
+        return decodeRepeatedLong(SINT64, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Long>> C decodeRepeatedSInt64(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedLong(SINT64, mergeFrom, factory);
+    }
+
+    @Override
+    public long decodeUInt64() {
+        return decodeLong(UINT64);
+    }
+
+    @NonNull
+    @Override
+    public long[] decodeRepeatedUInt64(@Nullable long[] mergeFrom) {
+        return decodeRepeatedLong(UINT64, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Long>> C decodeRepeatedUInt64(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedLong(UINT64, mergeFrom, factory);
+    }
+
+    @Override
+    public long decodeFixed64() {
+        return decodeLong(FIXED64);
+    }
+
+    @NonNull
+    @Override
+    public long[] decodeRepeatedFixed64(@Nullable long[] mergeFrom) {
+        return decodeRepeatedLong(FIXED64, mergeFrom);
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<Long>> C decodeRepeatedFixed64(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        return decodeRepeatedLong(FIXED64, mergeFrom, factory);
+    }
+
+    @NonNull
+    @Override
+    public String decodeString() {
+        consumeField(WIRE_TYPE_LENGTH_DELIMITED);
+        int length = readLength();
+        String result;
+        if (mArray != null) {
+            result = new String(mArray, mArrayOffset + mPosition, length, UTF_8);
+        } else {
+            result = readUtf8(mPosition, mPosition + length);
+        }
+        mPosition += length;
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String[] decodeRepeatedString(@Nullable String[] mergeFrom) {
+        int count = countRepeatedFields();
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        String[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new String[count];
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                nextRepeatedField();
+            }
+            result[offset + i] = decodeString();
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public <C extends Collection<String>> C decodeRepeatedString(
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = countRepeatedFields();
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                nextRepeatedField();
+            }
+            result.add(decodeString());
+        }
+        return result;
+    }
+
+    private int decodeInt(int encoding) {
+        consumeField(wireTypeOf(encoding));
+        return readInt(encoding);
+    }
+
+    @NonNull
+    private int[] decodeRepeatedInt(int encoding, @Nullable int[] mergeFrom) {
+        int count = beginRepeated(wireTypeOf(encoding));
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        int[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new int[count];
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = readInt(encoding);
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    private <C extends Collection<Integer>> C decodeRepeatedInt(
+            int encoding,
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(wireTypeOf(encoding));
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(readInt(encoding));
+        }
+        endRepeated();
+        return result;
+    }
+
+    private long decodeLong(int encoding) {
+        consumeField(wireTypeOf(encoding));
+        return readLong(encoding);
+    }
+
+    @NonNull
+    private long[] decodeRepeatedLong(int encoding, @Nullable long[] mergeFrom) {
+        int count = beginRepeated(wireTypeOf(encoding));
+        int offset = mergeFrom != null ? mergeFrom.length : 0;
+        long[] result = mergeFrom != null
+                ? Arrays.copyOf(mergeFrom, offset + count)
+                : new long[count];
+        for (int i = 0; i < count; i++) {
+            result[offset + i] = readLong(encoding);
+        }
+        endRepeated();
+        return result;
+    }
+
+    @NonNull
+    private <C extends Collection<Long>> C decodeRepeatedLong(
+            int encoding,
+            @Nullable C mergeFrom,
+            @NonNull CollectionFactory<C> factory
+    ) {
+        int count = beginRepeated(wireTypeOf(encoding));
+        C result = mergeFrom != null ? mergeFrom : factory.create(count);
+        for (int i = 0; i < count; i++) {
+            result.add(readLong(encoding));
+        }
+        endRepeated();
+        return result;
+    }
+
+    /**
+     * Checks the decoder is positioned on a field of the wire type, and marks it as decoded.
+     */
+    private void consumeField(int wireType) {
+        checkField(wireType);
+        mWireType = NO_FIELD;
+    }
+
+    private void checkField(int wireType) {
+        if (mWireType == NO_FIELD) {
+            throw new IllegalStateException("Decoder is not positioned on a field");
+        }
+        if (mWireType != wireType) {
+            throw new IllegalStateException("Expected wire type " + wireType + " for field "
+                    + (mTag >>> TAG_TYPE_BITS) + ", found " + mWireType);
+        }
+    }
+
+    /**
+     * Consumes a repeated scalar field of the wire type, which may be packed.
+     *
+     * @return the number of values to read.
+     */
+    private int beginRepeated(int wireType) {
+        if (mWireType != WIRE_TYPE_LENGTH_DELIMITED) {
+            consumeField(wireType);
+            mPackedEnd = NO_FIELD;
+            return 1;
+        }
+        consumeField(WIRE_TYPE_LENGTH_DELIMITED);
+        int length = readLength();
+        mPackedEnd = mPosition + length;
+        switch (wireType) {
+            case WIRE_TYPE_FIXED32:
+                return countFixed(length, 4);
+            case WIRE_TYPE_FIXED64:
+                return countFixed(length, 8);
+            default:
+                int count = 0;
+                for (int i = mPosition; i < mPackedEnd; i++) {
+                    if (getByte(i) >= 0) {
+                        count++;
+                    }
+                }
+                return count;
+        }
+    }
+
+    private void endRepeated() {
+        if (mPackedEnd != NO_FIELD && mPosition != mPackedEnd) {
+            throw new IllegalStateException("Malformed packed field " + (mTag >>> TAG_TYPE_BITS));
+        }
+        mPackedEnd = NO_FIELD;
+    }
+
+    private int countFixed(int length, int size) {
+        if (length % size != 0) {
+            throw new IllegalStateException("Malformed packed field " + (mTag >>> TAG_TYPE_BITS));
+        }
+        return length / size;
+    }
+
+    /**
+     * Counts the current length delimited field and the entries of the same field which directly
+     * follow it, without moving the decoder.
+     */
+    private int countRepeatedFields() {
+        checkField(WIRE_TYPE_LENGTH_DELIMITED);
+        int start = mPosition;
+        int count = 0;
+        do {
+            count++;
+            int length = readLength();
+            mPosition += length;
+        } while (mPosition < mLimit && readVarint32() == mTag);
+        mPosition = start;
+        return count;
+    }
+
+    /**
+     * Moves to the next of the entries counted by {@link #countRepeatedFields()}.
+     */
+    private void nextRepeatedField() {
+        readVarint32();
+        mWireType = WIRE_TYPE_LENGTH_DELIMITED;
+    }
+
+    /**
+     * Skips the value of the current field if it hasn't been decoded.
+     */
+    private void skipField() {
+        if (mWireType != NO_FIELD) {
+            int wireType = mWireType;
+            mWireType = NO_FIELD;
+            skipValue(wireType);
+        }
+    }
+
+    private void skipValue(int wireType) {
+        switch (wireType) {
+            case WIRE_TYPE_VARINT:
+                readVarint64();
+                break;
+            case WIRE_TYPE_FIXED64:
+                skip(8);
+                break;
+            case WIRE_TYPE_LENGTH_DELIMITED:
+                skip(readLength());
+                break;
+            case WIRE_TYPE_START_GROUP:
+                while (true) {
+                    int tag = readVarint32();
+                    if ((tag & TAG_TYPE_MASK) == WIRE_TYPE_END_GROUP) {
+                        break;
+                    }
+                    skipValue(tag & TAG_TYPE_MASK);
+                }
+                break;
+            case WIRE_TYPE_FIXED32:
+                skip(4);
+                break;
+            default:
+                throw new IllegalStateException("Invalid wire type " + wireType);
+        }
+    }
+
+    private void skip(int length) {
+        require(length);
+        mPosition += length;
+    }
+
+    private int readLength() {
+        int length = readVarint32();
+        if (length < 0) {
+            throw new IllegalStateException("Negative length");
+        }
+        require(length);
+        return length;
+    }
+
+    private void require(int length) {
+        if (mLimit - mPosition < length) {
+            throw new IllegalStateException("Truncated message");
+        }
+    }
+
+    private int readInt(int encoding) {
+        switch (encoding) {
+            case SINT32:
+                return decodeZigZag32(readVarint32());
+            case FIXED32:
+                return readFixed32();
+            default:
+                return readVarint32();
+        }
+    }
+
+    private long readLong(int encoding) {
+        switch (encoding) {
+            case SINT64:
+                return decodeZigZag64(readVarint64());
+            case FIXED64:
+                return readFixed64();
+            default:
+                return readVarint64();
+        }
+    }
+
+    /**
+     * Reads a varint as 32 bits, discarding the upper bits of sign extended int32 values.
+     */
+    private int readVarint32() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            if (readByte() >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private long readVarint64() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private int readFixed32() {
+        require(4);
+        int index = mPosition;
+        mPosition += 4;
+        return (getByte(index) & 0xFF)
+                | (getByte(index + 1) & 0xFF) << 8
+                | (getByte(index + 2) & 0xFF) << 16
+                | (getByte(index + 3) & 0xFF) << 24;
+    }
+
+    private long readFixed64() {
+        require(8);
+        int index = mPosition;
+        mPosition += 8;
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result |= (getByte(index + i) & 0xFFL) << (i * 8);
+        }
+        return result;
+    }
+
+    private byte readByte() {
+        if (mPosition >= mLimit) {
+            throw new IllegalStateException("Truncated message");
+        }
+        return getByte(mPosition++);
+    }
+
+    private byte getByte(int index) {
+        return mArray != null ? mArray[mArrayOffset + index] : mBuffer.get(index);
+    }
+
+    /**
+     * Decodes UTF-8 from the buffer without copying it to an array first, for buffers without
+     * an accessible array. Malformed input is replaced with U+FFFD, as {@link String} does.
+     */
+    @NonNull
+    private String readUtf8(int start, int end) {
+        char[] chars = new char[end - start];
+        int count = 0;
+        int index = start;
+        while (index < end) {
+            int b = mBuffer.get(index++);
+            if (b >= 0) {
+                chars[count++] = (char) b;
+                continue;
+            }
+            int codePoint;
+            int continuationBytes;
+            int minCodePoint;
+            if ((b & 0xE0) == 0xC0) {
+                codePoint = b & 0x1F;
+                continuationBytes = 1;
+                minCodePoint = 0x80;
+            } else if ((b & 0xF0) == 0xE0) {
+                codePoint = b & 0x0F;
+                continuationBytes = 2;
+                minCodePoint = 0x800;
+            } else if ((b & 0xF8) == 0xF0) {
+                codePoint = b & 0x07;
+                continuationBytes = 3;
+                minCodePoint = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+            } else {
+                chars[count++] = '\uFFFD';
+                continue;
+            }
+            int read = 0;
+            while (read < continuationBytes && index < end) {
+                int continuation = mBuffer.get(index);
+                if ((continuation & 0xC0) != 0x80) {
+                    break;
+                }
+                codePoint = (codePoint << 6) | (continuation & 0x3F);
+                index++;
+                read++;
+            }
+            if (read < continuationBytes
+                    || codePoint < minCodePoint
+                    || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE
+                    && codePoint <= Character.MAX_SURROGATE)) {
+                chars[count++] = '\uFFFD';
+            } else {
+                count += Character.toChars(codePoint, chars, count);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
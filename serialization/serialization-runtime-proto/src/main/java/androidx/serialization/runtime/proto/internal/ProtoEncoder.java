@@ -0,0 +1,797 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.FIXED32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.FIXED64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.INT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.INT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.SINT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.SINT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.UINT32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.UINT64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_FIXED32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_FIXED64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_LENGTH_DELIMITED;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.WIRE_TYPE_VARINT;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.encodeZigZag32;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.encodeZigZag64;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.makeTag;
+import static androidx.serialization.runtime.proto.internal.ProtoWireFormat.wireTypeOf;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.serialization.runtime.internal.EncoderV1;
+import androidx.serialization.runtime.internal.EnumSerializerV1;
+import androidx.serialization.runtime.internal.SerializerV1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An encoder which writes messages in the Protocol Buffers wire format.
+ * <p>
+ * The encoder writes from the end of its buffer towards the beginning. Writing the content of an
+ * embedded message before its header means the length of the content is known when the header is
+ * written, so messages are encoded in a single pass, without computing their sizes up front or
+ * copying their content. As a consequence, fields are written in the reverse of the order they
+ * are received in, which the wire format allows. Repeated values are reversed before writing so
+ * that they are decoded in order.
+ * <p>
+ * Empty fields are omitted as in proto3: zero numbers, false booleans, enums encoded as zero, and
+ * empty strings, bytes and repeated fields. Repeated scalar fields are written packed.
+ * <p>
+ * The buffer is grown as needed. An encoder is not thread safe, but can be reused to encode
+ * several messages with the same buffer.
+ */
+public final class ProtoEncoder implements EncoderV1 {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private ByteBuffer mBuffer;
+
+    /**
+     * The backing array of {@link #mBuffer}, or null if it isn't accessible, such as for direct
+     * buffers.
+     */
+    @Nullable
+    private byte[] mArray;
+    private int mArrayOffset;
+
+    /**
+     * The index of the first written byte in {@link #mBuffer}. Bytes are written before it.
+     */
+    private int mPosition;
+
+    /**
+     * Creates an encoder writing to a heap buffer.
+     */
+    public ProtoEncoder() {
+        this(ByteBuffer.allocate(DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Creates an encoder writing to a buffer. If messages don't fit in the remaining space of the
+     * buffer, the encoder continues with a larger buffer of the same kind, heap or direct.
+     *
+     * @param buffer the buffer to write to, between its position and its limit.
+     */
+    public ProtoEncoder(@NonNull ByteBuffer buffer) {
+        setBuffer(buffer.slice());
+        mPosition = mBuffer.capacity();
+    }
+
+    /**
+     * Encode a message.
+     * <p>
+     * The returned buffer is a view of the buffer of the encoder, and is only valid until the
+     * next message is encoded.
+     *
+     * @param serializer the serializer for the message class.
+     * @param message    the message to encode.
+     * @param <T>        the message class.
+     * @return a buffer of the encoded message, between its position and its limit.
+     */
+    @NonNull
+    public <T> ByteBuffer encode(@NonNull SerializerV1<T> serializer, @NonNull T message) {
+        mPosition = mBuffer.capacity();
+        serializer.encode(this, message);
+        ByteBuffer result = mBuffer.duplicate();
+        result.position(mPosition);
+        return result.slice();
+    }
+
+    @Override
+    public <T> void encodeMessage(
+            int fieldId,
+            @NonNull SerializerV1<T> serializer,
+            @Nullable T message
+    ) {
+        if (message != null) {
+            int start = size();
+            serializer.encode(this, message);
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    @Override
+    public <T> void encodeRepeatedMessage(
+            int fieldId,
+            @NonNull SerializerV1<T> serializer,
+            @Nullable Iterable<T> messages
+    ) {
+        if (messages != null) {
+            List<T> list = toList(messages);
+            for (int i = list.size() - 1; i >= 0; i--) {
+                int start = size();
+                serializer.encode(this, list.get(i));
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    @Override
+    public <T extends Enum<T>> void encodeEnum(
+            int fieldId,
+            @NonNull EnumSerializerV1<T> serializer,
+            @Nullable T value
+    ) {
+        if (value != null) {
+            encodeInt(fieldId, INT32, serializer.encode(value));
+        }
+    }
+
+    @Override
+    public <T extends Enum<T>> void encodeRepeatedEnum(
+            int fieldId,
+            @NonNull EnumSerializerV1<T> serializer,
+            @Nullable Iterable<T> values
+    ) {
+        if (values != null) {
+            List<T> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeInt(INT32, serializer.encode(list.get(i)));
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    @Override
+    public void encodeBool(int fieldId, boolean value) {
+        if (value) {
+            writeVarint32(1);
+            writeTag(fieldId, WIRE_TYPE_VARINT);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedBool(int fieldId, @Nullable boolean[] values) {
+        if (values != null && values.length != 0) {
+            int start = size();
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeVarint32(values[i] ? 1 : 0);
+            }
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedBool(int fieldId, @Nullable Iterable<Boolean> values) {
+        if (values != null) {
+            List<Boolean> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeVarint32(list.get(i) ? 1 : 0);
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    @Override
+    public void encodeBytes(int fieldId, @Nullable byte[] value) {
+        if (value != null && value.length != 0) {
+            writeBytesField(fieldId, value);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedBytes(int fieldId, @Nullable Iterable<byte[]> values) {
+        if (values != null) {
+            List<byte[]> list = toList(values);
+            for (int i = list.size() - 1; i >= 0; i--) {
+                writeBytesField(fieldId, list.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void encodeDouble(int fieldId, double value) {
+        encodeLong(fieldId, FIXED64, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void encodeRepeatedDouble(int fieldId, @Nullable double[] values) {
+        if (values != null && values.length != 0) {
+            int start = size();
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeFixed64(Double.doubleToRawLongBits(values[i]));
+            }
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedDouble(int fieldId, @Nullable Iterable<Double> values) {
+        if (values != null) {
+            List<Double> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeFixed64(Double.doubleToRawLongBits(list.get(i)));
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    @Override
+    public void encodeFloat(int fieldId, float value) {
+        encodeInt(fieldId, FIXED32, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void encodeRepeatedFloat(int fieldId, @Nullable float[] values) {
+        if (values != null && values.length != 0) {
+            int start = size();
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeFixed32(Float.floatToRawIntBits(values[i]));
+            }
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedFloat(int fieldId, @Nullable Iterable<Float> values) {
+        if (values != null) {
+            List<Float> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeFixed32(Float.floatToRawIntBits(list.get(i)));
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    @Override
+    public void encodeInt32(int fieldId, int value) {
+        encodeInt(fieldId, INT32, value);
+    }
+
+    @Override
+    public void encodeRepeatedInt32(int fieldId, @Nullable int[] values) {
+        encodeRepeatedInt(fieldId, INT32, values);
+    }
+
+    @Override
+    public void encodeRepeatedInt32(int fieldId, @Nullable Iterable<Integer> values) {
+        encodeRepeatedInt(fieldId, INT32, values);
+    }
+
+    @Override
+    public void encodeSInt32(int fieldId, int value) {
+        encodeInt(fieldId, SINT32, value);
+    }
+
+    @Override
+    public void encodeRepeatedSInt32(int fieldId, @Nullable int[] values) {
+        encodeRepeatedInt(fieldId, SINT32, values);
+    }
+
+    @Override
+    public void encodeRepeatedSInt32(int fieldId, @Nullable Iterable<Integer> values) {
+        encodeRepeatedInt(fieldId, SINT32, values);
+    }
+
+    @Override
+    public void encodeUInt32(int fieldId, int value) {
+        encodeInt(fieldId, UINT32, value);
+    }
+
+    @Override
+    public void encodeRepeatedUInt32(int fieldId, @Nullable int[] values) {
+        encodeRepeatedInt(fieldId, UINT32, values);
+    }
+
+    @Override
+    public void encodeRepeatedUInt32(int fieldId, @Nullable Iterable<Integer> values) {
+        encodeRepeatedInt(fieldId, UINT32, values);
+    }
+
+    @Override
+    public void encodeFixed32(int fieldId, int value) {
+        encodeInt(fieldId, FIXED32, value);
+    }
+
+    @Override
+    public void encodeRepeatedFixed32(int fieldId, @Nullable int[] values) {
+        encodeRepeatedInt(fieldId, FIXED32, values);
+    }
+
+    @Override
+    public void encodeRepeatedFixed32(int fieldId, @Nullable Iterable<Integer> values) {
+        encodeRepeatedInt(fieldId, FIXED32, values);
+    }
+
+    @Override
+    public void encodeInt64(int fieldId, long value) {
+        encodeLong(fieldId, INT64, value);
+    }
+
+    @Override
+    public void encodeRepeatedInt64(int fieldId, @Nullable long[] values) {
+        encodeRepeatedLong(fieldId, INT64, values);
+    }
+
+    @Override
+    public void encodeRepeatedInt64(int fieldId, @Nullable Iterable<Long> values) {
+        encodeRepeatedLong(fieldId, INT64, values);
+    }
+
+    @Override
+    public void encodeSInt64(int fieldId, long value) {
+        encodeLong(fieldId, SINT64, value);
+    }
+
+    @Override
+    public void encodeRepeatedSInt64(int fieldId, @Nullable long[] values) {
+        encodeRepeatedLong(fieldId, SINT64, values);
+    }
+
+    @Override
+    public void encodeRepeatedSInt64(int fieldId, @Nullable Iterable<Long> values) {
+        encodeRepeatedLong(fieldId, SINT64, values);
+    }
+
+    @Override
+    public void encodeUInt64(int fieldId, long value) {
+        encodeLong(fieldId, UINT64, value);
+    }
+
+    @Override
+    public void encodeRepeatedUInt64(int fieldId, @Nullable long[] values) {
+        encodeRepeatedLong(fieldId, UINT64, values);
+    }
+
+    @Override
+    public void encodeRepeatedUInt64(int fieldId, @Nullable Iterable<Long> values) {
+        encodeRepeatedLong(fieldId, UINT64, values);
+    }
+
+    @Override
+    public void encodeFixed64(int fieldId, long value) {
+        encodeLong(fieldId, FIXED64, value);
+    }
+
+    @Override
+    public void encodeRepeatedFixed64(int fieldId, @Nullable long[] values) {
+        encodeRepeatedLong(fieldId, FIXED64, values);
+    }
+
+    @Override
+    public void encodeRepeatedFixed64(int fieldId, @Nullable Iterable<Long> values) {
+        encodeRepeatedLong(fieldId, FIXED64, values);
+    }
+
+    @Override
+    public void encodeString(int fieldId, @Nullable String value) {
+        if (value != null && !value.isEmpty()) {
+            writeStringField(fieldId, value);
+        }
+    }
+
+    @Override
+    public void encodeRepeatedString(int fieldId, @Nullable String[] values) {
+        if (values != null) {
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeStringField(fieldId, values[i]);
+            }
+        }
+    }
+
+    @Override
+    public void encodeRepeatedString(int fieldId, @Nullable Iterable<String> values) {
+        if (values != null) {
+            List<String> list = toList(values);
+            for (int i = list.size() - 1; i >= 0; i--) {
+                writeStringField(fieldId, list.get(i));
+            }
+        }
+    }
+
+    private void encodeInt(int fieldId, int encoding, int value) {
+        if (value != 0) {
+            writeInt(encoding, value);
+            writeTag(fieldId, wireTypeOf(encoding));
+        }
+    }
+
+    private void encodeRepeatedInt(int fieldId, int encoding, @Nullable int[] values) {
+        if (values != null && values.length != 0) {
+            int start = size();
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeInt(encoding, values[i]);
+            }
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    private void encodeRepeatedInt(int fieldId, int encoding, @Nullable Iterable<Integer> values) {
+        if (values != null) {
+            List<Integer> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeInt(encoding, list.get(i));
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    private void encodeLong(int fieldId, int encoding, long value) {
+        if (value != 0) {
+            writeLong(encoding, value);
+            writeTag(fieldId, wireTypeOf(encoding));
+        }
+    }
+
+    private void encodeRepeatedLong(int fieldId, int encoding, @Nullable long[] values) {
+        if (values != null && values.length != 0) {
+            int start = size();
+            for (int i = values.length - 1; i >= 0; i--) {
+                writeLong(encoding, values[i]);
+            }
+            writeLengthAndTag(fieldId, start);
+        }
+    }
+
+    private void encodeRepeatedLong(int fieldId, int encoding, @Nullable Iterable<Long> values) {
+        if (values != null) {
+            List<Long> list = toList(values);
+            if (!list.isEmpty()) {
+                int start = size();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    writeLong(encoding, list.get(i));
+                }
+                writeLengthAndTag(fieldId, start);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far, which doesn't change when the buffer grows.
+     */
+    private int size() {
+        return mBuffer.capacity() - mPosition;
+    }
+
+    /**
+     * Writes the header of a length delimited field, whose content was written since
+     * {@link #size()} was {@code start}.
+     */
+    private void writeLengthAndTag(int fieldId, int start) {
+        writeVarint32(size() - start);
+        writeTag(fieldId, WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    private void writeTag(int fieldId, int wireType) {
+        writeVarint32(makeTag(fieldId, wireType));
+    }
+
+    private void writeStringField(int fieldId, @NonNull String value) {
+        int start = size();
+        writeString(value);
+        writeLengthAndTag(fieldId, start);
+    }
+
+    private void writeBytesField(int fieldId, @NonNull byte[] value) {
+        int length = value.length;
+        require(length);
+        mPosition -= length;
+        if (mArray != null) {
+            System.arraycopy(value, 0, mArray, mArrayOffset + mPosition, length);
+        } else {
+            ByteBuffer buffer = mBuffer.duplicate();
+            buffer.position(mPosition);
+            buffer.put(value);
+        }
+        writeVarint32(length);
+        writeTag(fieldId, WIRE_TYPE_LENGTH_DELIMITED);
+    }
+
+    private void writeInt(int encoding, int value) {
+        switch (encoding) {
+            case INT32:
+                if (value >= 0) {
+                    writeVarint32(value);
+                } else {
+                    // Negative int32 values are sign extended to 64 bits.
+                    writeVarint64(value);
+                }
+                break;
+            case SINT32:
+                writeVarint32(encodeZigZag32(value));
+                break;
+            case UINT32:
+                writeVarint32(value);
+                break;
+            default:
+                writeFixed32(value);
+                break;
+        }
+    }
+
+    private void writeLong(int encoding, long value) {
+        switch (encoding) {
+            case SINT64:
+                writeVarint64(encodeZigZag64(value));
+                break;
+            case FIXED64:
+                writeFixed64(value);
+                break;
+            default:
+                writeVarint64(value);
+                break;
+        }
+    }
+
+    /**
+     * Writes an unsigned 32 bit varint.
+     */
+    private void writeVarint32(int value) {
+        if ((value & ~0x7F) == 0) {
+            require(1);
+            putByte(--mPosition, (byte) value);
+            return;
+        }
+        int size = varint32Size(value);
+        require(size);
+        mPosition -= size;
+        int index = mPosition;
+        while ((value & ~0x7F) != 0) {
+            putByte(index++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        putByte(index, (byte) value);
+    }
+
+    private void writeVarint64(long value) {
+        int size = varint64Size(value);
+        require(size);
+        mPosition -= size;
+        int index = mPosition;
+        while ((value & ~0x7FL) != 0) {
+            putByte(index++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        putByte(index, (byte) value);
+    }
+
+    private void writeFixed32(int value) {
+        require(4);
+        mPosition -= 4;
+        int index = mPosition;
+        putByte(index, (byte) value);
+        putByte(index + 1, (byte) (value >> 8));
+        putByte(index + 2, (byte) (value >> 16));
+        putByte(index + 3, (byte) (value >> 24));
+    }
+
+    private void writeFixed64(long value) {
+        require(8);
+        mPosition -= 8;
+        int index = mPosition;
+        for (int i = 0; i < 8; i++) {
+            putByte(index + i, (byte) (value >> (i * 8)));
+        }
+    }
+
+    /**
+     * Writes a string in UTF-8, directly to the buffer. Unpaired surrogates are replaced with
+     * {@code ?}, as {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    private void writeString(@NonNull String value) {
+        int length = value.length();
+        int size = utf8Length(value);
+        require(size);
+        mPosition -= size;
+        int index = mPosition;
+        // Writes the ASCII prefix of the string in a tight loop.
+        int i = 0;
+        if (mArray != null) {
+            byte[] array = mArray;
+            int offset = mArrayOffset + index;
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                array[offset + i] = (byte) c;
+            }
+            index += i;
+        }
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                putByte(index++, (byte) c);
+            } else if (c < 0x800) {
+                putByte(index++, (byte) (0xC0 | (c >>> 6)));
+                putByte(index++, (byte) (0x80 | (c & 0x3F)));
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                putByte(index++, (byte) (0xE0 | (c >>> 12)));
+                putByte(index++, (byte) (0x80 | ((c >>> 6) & 0x3F)));
+                putByte(index++, (byte) (0x80 | (c & 0x3F)));
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                putByte(index++, (byte) (0xF0 | (codePoint >>> 18)));
+                putByte(index++, (byte) (0x80 | ((codePoint >>> 12) & 0x3F)));
+                putByte(index++, (byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+                putByte(index++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                putByte(index++, (byte) '?');
+            }
+        }
+    }
+
+    private void putByte(int index, byte value) {
+        if (mArray != null) {
+            mArray[mArrayOffset + index] = value;
+        } else {
+            mBuffer.put(index, value);
+        }
+    }
+
+    /**
+     * Ensures there is room for {@code size} more bytes before {@link #mPosition}.
+     */
+    private void require(int size) {
+        if (mPosition < size) {
+            grow(size);
+        }
+    }
+
+    private void grow(int size) {
+        int capacity = mBuffer.capacity();
+        int used = capacity - mPosition;
+        int newCapacity = Math.max(capacity * 2, used + size);
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError("Encoded message too large");
+        }
+        ByteBuffer buffer = mBuffer.isDirect()
+                ? ByteBuffer.allocateDirect(newCapacity)
+                : ByteBuffer.allocate(newCapacity);
+        int newPosition = newCapacity - used;
+        ByteBuffer written = mBuffer.duplicate();
+        written.position(mPosition);
+        buffer.position(newPosition);
+        buffer.put(written);
+        buffer.clear();
+        setBuffer(buffer);
+        mPosition = newPosition;
+    }
+
+    private void setBuffer(@NonNull ByteBuffer buffer) {
+        mBuffer = buffer;
+        if (buffer.hasArray()) {
+            mArray = buffer.array();
+            mArrayOffset = buffer.arrayOffset();
+        } else {
+            mArray = null;
+            mArrayOffset = 0;
+        }
+    }
+
+    static int varint32Size(int value) {
+        if ((value & (~0 << 7)) == 0) {
+            return 1;
+        }
+        if ((value & (~0 << 14)) == 0) {
+            return 2;
+        }
+        if ((value & (~0 << 21)) == 0) {
+            return 3;
+        }
+        if ((value & (~0 << 28)) == 0) {
+            return 4;
+        }
+        return 5;
+    }
+
+    static int varint64Size(long value) {
+        if ((value & (~0L << 7)) == 0) {
+            return 1;
+        }
+        if (value < 0) {
+            return 10;
+        }
+        int size = 2;
+        if ((value & (~0L << 35)) != 0) {
+            size += 4;
+            value >>>= 28;
+        }
+        if ((value & (~0L << 21)) != 0) {
+            size += 2;
+            value >>>= 14;
+        }
+        if ((value & (~0L << 14)) != 0) {
+            size += 1;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the length of a string in UTF-8, counting unpaired surrogates as one byte.
+     */
+    static int utf8Length(@NonNull String value) {
+        int length = value.length();
+        int size = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    size += 1;
+                } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                    size += 2;
+                } else if (isSurrogatePair(value, i)) {
+                    size += 2;
+                    i++;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isSurrogatePair(@NonNull String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    /**
+     * Returns a list of the values which can be iterated backwards by index without copying
+     * lists with random access.
+     */
+    @NonNull
+    private static <T> List<T> toList(@NonNull Iterable<T> values) {
+        if (values instanceof List && values instanceof RandomAccess) {
+            return (List<T>) values;
+        }
+        List<T> list = new ArrayList<>();
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
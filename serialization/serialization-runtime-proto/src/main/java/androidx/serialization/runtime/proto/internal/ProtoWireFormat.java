@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants and helpers of the Protocol Buffers wire format shared by {@link ProtoEncoder} and
+ * {@link ProtoDecoder}.
+ */
+final class ProtoWireFormat {
+    static final int WIRE_TYPE_VARINT = 0;
+    static final int WIRE_TYPE_FIXED64 = 1;
+    static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    static final int WIRE_TYPE_START_GROUP = 3;
+    static final int WIRE_TYPE_END_GROUP = 4;
+    static final int WIRE_TYPE_FIXED32 = 5;
+
+    static final int TAG_TYPE_BITS = 3;
+    static final int TAG_TYPE_MASK = (1 << TAG_TYPE_BITS) - 1;
+
+    static final int MAX_FIELD_ID = (1 << 29) - 1;
+
+    /**
+     * Integer encodings, which select how the integer values of scalar fields are written.
+     */
+    static final int INT32 = 0;
+    static final int SINT32 = 1;
+    static final int UINT32 = 2;
+    static final int FIXED32 = 3;
+    static final int INT64 = 4;
+    static final int SINT64 = 5;
+    static final int UINT64 = 6;
+    static final int FIXED64 = 7;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static int makeTag(int fieldId, int wireType) {
+        return (fieldId << TAG_TYPE_BITS) | wireType;
+    }
+
+    static int wireTypeOf(int encoding) {
+        switch (encoding) {
+            case FIXED32:
+                return WIRE_TYPE_FIXED32;
+            case FIXED64:
+                return WIRE_TYPE_FIXED64;
+            default:
+                return WIRE_TYPE_VARINT;
+        }
+    }
+
+    static int encodeZigZag32(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long encodeZigZag64(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int decodeZigZag32(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long decodeZigZag64(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private ProtoWireFormat() {
+    }
+}
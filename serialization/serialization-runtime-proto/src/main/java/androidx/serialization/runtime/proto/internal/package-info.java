@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Protocol Buffers backend for generated serialization code.
+ * <p>
+ * {@link androidx.serialization.runtime.proto.internal.ProtoEncoder} and
+ * {@link androidx.serialization.runtime.proto.internal.ProtoDecoder} implement the
+ * {@link androidx.serialization.runtime.internal.EncoderV1} and
+ * {@link androidx.serialization.runtime.internal.DecoderV1} interfaces over the proto3 wire
+ * format, reading and writing {@link java.nio.ByteBuffer}s in place.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+package androidx.serialization.runtime.proto.internal;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+import androidx.annotation.RestrictTo;
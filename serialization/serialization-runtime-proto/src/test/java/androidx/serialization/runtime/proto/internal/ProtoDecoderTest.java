@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import static androidx.serialization.runtime.proto.internal.ProtoEncoderTest.bytes;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Unit tests for {@link ProtoDecoder}.
+ */
+public final class ProtoDecoderTest {
+    @Test
+    public void testDecodeInt32() {
+        assertThat(decode(bytes(0x08, 0x96, 0x01)).mInt32).isEqualTo(150);
+        assertThat(decode(bytes(0x08, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF,
+                0x01)).mInt32).isEqualTo(-1);
+    }
+
+    @Test
+    public void testDecodeFieldsInAnyOrder() {
+        TestMessage message = decode(bytes(0x08, 0x96, 0x01, 0x10, 0x01));
+        assertThat(message.mInt32).isEqualTo(150);
+        assertThat(message.mSInt32).isEqualTo(-1);
+    }
+
+    @Test
+    public void testSkipsUnknownFields() {
+        TestMessage message = decode(bytes(
+                0xF8, 0x01, 0x96, 0x01, // Field 31, varint
+                0xF9, 0x01, 1, 2, 3, 4, 5, 6, 7, 8, // Field 31, fixed64
+                0xFA, 0x01, 0x02, 0x08, 0x01, // Field 31, length delimited
+                0xFB, 0x01, 0x08, 0x01, 0xFC, 0x01, // Field 31, group
+                0xFD, 0x01, 1, 2, 3, 4, // Field 31, fixed32
+                0x08, 0x96, 0x01));
+        assertThat(message.mInt32).isEqualTo(150);
+    }
+
+    @Test
+    public void testSkipsFieldsNotDecoded() {
+        ProtoDecoder decoder = new ProtoDecoder(ByteBuffer.wrap(bytes(0x62, 0x01, 'a', 0x08,
+                0x01)));
+        assertThat(decoder.nextFieldId()).isEqualTo(12);
+        assertThat(decoder.nextFieldId()).isEqualTo(1);
+        assertThat(decoder.decodeInt32()).isEqualTo(1);
+        assertThat(decoder.hasNextField()).isFalse();
+        try {
+            decoder.nextFieldId();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    @Test
+    public void testDecodeRepeatedPackedAndUnpacked() {
+        TestMessage message = decode(bytes(
+                0x80, 0x01, 0x03, // Field 16, unpacked
+                0x82, 0x01, 0x03, 0x8E, 0x02, 0x01, // Field 16, packed
+                0x80, 0x01, 0x02)); // Field 16, unpacked
+        assertThat(message.mRepeatedInt32).isEqualTo(new int[]{3, 270, 1, 2});
+    }
+
+    @Test
+    public void testDecodeRepeatedStringsAppends() {
+        TestMessage message = decode(bytes(
+                0x92, 0x01, 0x01, 'a',
+                0x92, 0x01, 0x00,
+                0x08, 0x01,
+                0x92, 0x01, 0x01, 'b'));
+        assertThat(message.mRepeatedString).containsExactly("a", "", "b").inOrder();
+    }
+
+    @Test
+    public void testDecodeMergesMessages() {
+        TestMessage message = decode(bytes(0x7A, 0x02, 0x08, 0x01, 0x7A, 0x02, 0x10, 0x01));
+        assertThat(message.mChild.mInt32).isEqualTo(1);
+        assertThat(message.mChild.mSInt32).isEqualTo(-1);
+    }
+
+    @Test
+    public void testDecodeDirectBuffer() {
+        TestMessage message = ProtoEncoderTest.createMessage();
+        ByteBuffer encoded = new ProtoEncoder().encode(TestMessage.Serializer.INSTANCE, message);
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.remaining() + 4);
+        direct.position(4);
+        direct.put(encoded);
+        direct.position(4);
+        assertThat(new ProtoDecoder(direct).decode(TestMessage.Serializer.INSTANCE))
+                .isEqualTo(message);
+        assertThat(direct.position()).isEqualTo(4);
+    }
+
+    @Test
+    public void testDecodeMalformedUtf8() {
+        byte[] bytes = bytes(0x62, 0x04, 'a', 0xC3, 0xFF, 'b');
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+        assertThat(new ProtoDecoder(direct).decode(TestMessage.Serializer.INSTANCE).mString)
+                .isEqualTo(decode(bytes).mString);
+    }
+
+    @Test
+    public void testDecodeTruncated() {
+        byte[][] truncated = {
+                bytes(0x08),
+                bytes(0x08, 0x96),
+                bytes(0x62, 0x07, 0x74),
+                bytes(0x25, 0x01, 0x02),
+                bytes(0x7A, 0x03, 0x08, 0x96)
+        };
+        for (byte[] bytes : truncated) {
+            try {
+                decode(bytes);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeWrongWireType() {
+        try {
+            decode(bytes(0x0A, 0x00));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static TestMessage decode(byte[] bytes) {
+        return new ProtoDecoder(ByteBuffer.wrap(bytes)).decode(TestMessage.Serializer.INSTANCE);
+    }
+}
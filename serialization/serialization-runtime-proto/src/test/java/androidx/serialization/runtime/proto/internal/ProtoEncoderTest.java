@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Unit tests for {@link ProtoEncoder}.
+ */
+public final class ProtoEncoderTest {
+    @Test
+    public void testEncodeInt32() {
+        TestMessage message = new TestMessage();
+        message.mInt32 = 150;
+        assertThat(encode(message)).isEqualTo(bytes(0x08, 0x96, 0x01));
+
+        message.mInt32 = -1;
+        assertThat(encode(message)).isEqualTo(bytes(0x08, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF,
+                0xFF, 0xFF, 0xFF, 0x01));
+    }
+
+    @Test
+    public void testEncodeSInt32() {
+        TestMessage message = new TestMessage();
+        message.mSInt32 = -1;
+        assertThat(encode(message)).isEqualTo(bytes(0x10, 0x01));
+    }
+
+    @Test
+    public void testEncodeFixed32() {
+        TestMessage message = new TestMessage();
+        message.mFixed32 = 0x01020304;
+        assertThat(encode(message)).isEqualTo(bytes(0x25, 0x04, 0x03, 0x02, 0x01));
+    }
+
+    @Test
+    public void testEncodeString() {
+        TestMessage message = new TestMessage();
+        message.mString = "testing";
+        assertThat(encode(message))
+                .isEqualTo(bytes(0x62, 0x07, 0x74, 0x65, 0x73, 0x74, 0x69, 0x6E, 0x67));
+    }
+
+    @Test
+    public void testEncodeStringUtf8() {
+        String value = "é€😀";
+        TestMessage message = new TestMessage();
+        message.mString = value;
+        byte[] utf8 = value.getBytes(ProtoWireFormat.UTF_8);
+        byte[] encoded = encode(message);
+        assertThat(Arrays.copyOfRange(encoded, 2, encoded.length)).isEqualTo(utf8);
+
+        // Unpaired surrogates are replaced, as String.getBytes() does.
+        message.mString = "a\uD83Db";
+        assertThat(encode(message)).isEqualTo(bytes(0x62, 0x03, 'a', '?', 'b'));
+    }
+
+    @Test
+    public void testEncodeMessage() {
+        TestMessage message = new TestMessage();
+        message.mChild = new TestMessage();
+        message.mChild.mInt32 = 150;
+        assertThat(encode(message)).isEqualTo(bytes(0x7A, 0x03, 0x08, 0x96, 0x01));
+
+        // Empty embedded messages are still present.
+        message.mChild = new TestMessage();
+        assertThat(encode(message)).isEqualTo(bytes(0x7A, 0x00));
+    }
+
+    @Test
+    public void testEncodeRepeatedInt32Packed() {
+        TestMessage message = new TestMessage();
+        message.mRepeatedInt32 = new int[]{3, 270, 86942};
+        assertThat(encode(message)).isEqualTo(
+                bytes(0x82, 0x01, 0x06, 0x03, 0x8E, 0x02, 0x9E, 0xA7, 0x05));
+    }
+
+    @Test
+    public void testEncodeRepeatedStringInOrder() {
+        TestMessage message = new TestMessage();
+        message.mRepeatedString.add("a");
+        message.mRepeatedString.add("");
+        message.mRepeatedString.add("b");
+        assertThat(encode(message)).isEqualTo(bytes(0x92, 0x01, 0x01, 'a', 0x92, 0x01, 0x00,
+                0x92, 0x01, 0x01, 'b'));
+    }
+
+    @Test
+    public void testOmitsEmptyFields() {
+        TestMessage message = new TestMessage();
+        message.mString = "";
+        message.mBytes = new byte[0];
+        message.mColor = TestMessage.Color.NONE;
+        message.mRepeatedInt32 = new int[0];
+        assertThat(encode(message)).isEqualTo(new byte[0]);
+    }
+
+    @Test
+    public void testFieldsInReverseOrder() {
+        TestMessage message = new TestMessage();
+        message.mInt32 = 150;
+        message.mSInt32 = -1;
+        assertThat(encode(message)).isEqualTo(bytes(0x10, 0x01, 0x08, 0x96, 0x01));
+    }
+
+    @Test
+    public void testGrowsBuffer() {
+        TestMessage message = createMessage();
+        byte[] expected = encode(message);
+        assertThat(encode(new ProtoEncoder(ByteBuffer.allocate(1)), message))
+                .isEqualTo(expected);
+        assertThat(encode(new ProtoEncoder(ByteBuffer.allocateDirect(1)), message))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    public void testReusesEncoder() {
+        ProtoEncoder encoder = new ProtoEncoder();
+        TestMessage message = createMessage();
+        byte[] expected = encode(encoder, message);
+        encode(encoder, new TestMessage());
+        assertThat(encode(encoder, message)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        TestMessage message = createMessage();
+        ByteBuffer heap = new ProtoEncoder().encode(TestMessage.Serializer.INSTANCE, message);
+        assertThat(new ProtoDecoder(heap).decode(TestMessage.Serializer.INSTANCE))
+                .isEqualTo(message);
+
+        ByteBuffer direct = new ProtoEncoder(ByteBuffer.allocateDirect(16))
+                .encode(TestMessage.Serializer.INSTANCE, message);
+        assertThat(new ProtoDecoder(direct).decode(TestMessage.Serializer.INSTANCE))
+                .isEqualTo(message);
+    }
+
+    @Test
+    public void testVarintSizes() {
+        long[] values = {0, 1, 127, 128, 16383, 16384, 1L << 21, 1L << 28, 1L << 35, 1L << 42,
+                1L << 49, 1L << 56, 1L << 63, Long.MAX_VALUE, -1};
+        for (long value : values) {
+            int size = 1;
+            for (long remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+                size++;
+            }
+            assertThat(ProtoEncoder.varint64Size(value)).isEqualTo(size);
+            if (value == (int) value || value >>> 32 == 0) {
+                assertThat(ProtoEncoder.varint32Size((int) value)).isEqualTo(size > 5 ? 5 : size);
+            }
+        }
+    }
+
+    static TestMessage createMessage() {
+        TestMessage message = new TestMessage();
+        message.mInt32 = -42;
+        message.mSInt32 = -300;
+        message.mUInt32 = 0xFFFFFFFF;
+        message.mFixed32 = 123456789;
+        message.mInt64 = Long.MIN_VALUE;
+        message.mSInt64 = -1234567890123L;
+        message.mUInt64 = -1;
+        message.mFixed64 = 0x0102030405060708L;
+        message.mBool = true;
+        message.mFloat = 1.5f;
+        message.mDouble = -0.25;
+        message.mString = "héllo wörld 😀";
+        message.mBytes = new byte[]{0, 1, 2, (byte) 0xFF};
+        message.mColor = TestMessage.Color.GREEN;
+        message.mChild = new TestMessage();
+        message.mChild.mString = "child";
+        message.mRepeatedInt32 = new int[]{1, -1, 300, Integer.MAX_VALUE};
+        message.mRepeatedSInt64.addAll(Arrays.asList(-1L, 0L, Long.MAX_VALUE));
+        message.mRepeatedString.addAll(Arrays.asList("one", "", "three"));
+        for (int i = 0; i < 3; i++) {
+            TestMessage child = new TestMessage();
+            child.mInt32 = i;
+            child.mRepeatedString.add("item " + i);
+            message.mRepeatedChild.add(child);
+        }
+        message.mRepeatedDouble = new double[]{0.5, -1, Double.MAX_VALUE};
+        message.mRepeatedBool.addAll(Arrays.asList(true, false, true));
+        message.mRepeatedColor.addAll(Arrays.asList(TestMessage.Color.RED,
+                TestMessage.Color.NONE, TestMessage.Color.GREEN));
+        return message;
+    }
+
+    static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(TestMessage message) {
+        return encode(new ProtoEncoder(), message);
+    }
+
+    private static byte[] encode(ProtoEncoder encoder, TestMessage message) {
+        ByteBuffer buffer = encoder.encode(TestMessage.Serializer.INSTANCE, message);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.serialization.runtime.proto.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.serialization.runtime.internal.DecoderV1;
+import androidx.serialization.runtime.internal.EncoderV1;
+import androidx.serialization.runtime.internal.EnumSerializerV1;
+import androidx.serialization.runtime.internal.SerializationRuntime;
+import androidx.serialization.runtime.internal.SerializerV1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A message with a field of every type, with a serializer written as generated code would be.
+ */
+final class TestMessage {
+    int mInt32;
+    int mSInt32;
+    int mUInt32;
+    int mFixed32;
+    long mInt64;
+    long mSInt64;
+    long mUInt64;
+    long mFixed64;
+    boolean mBool;
+    float mFloat;
+    double mDouble;
+    @Nullable String mString;
+    @Nullable byte[] mBytes;
+    @Nullable Color mColor;
+    @Nullable TestMessage mChild;
+    @Nullable int[] mRepeatedInt32;
+    @NonNull List<Long> mRepeatedSInt64 = new ArrayList<>();
+    @NonNull List<String> mRepeatedString = new ArrayList<>();
+    @NonNull List<TestMessage> mRepeatedChild = new ArrayList<>();
+    @Nullable double[] mRepeatedDouble;
+    @NonNull List<Boolean> mRepeatedBool = new ArrayList<>();
+    @NonNull List<Color> mRepeatedColor = new ArrayList<>();
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TestMessage)) {
+            return false;
+        }
+        TestMessage message = (TestMessage) other;
+        return mInt32 == message.mInt32
+                && mSInt32 == message.mSInt32
+                && mUInt32 == message.mUInt32
+                && mFixed32 == message.mFixed32
+                && mInt64 == message.mInt64
+                && mSInt64 == message.mSInt64
+                && mUInt64 == message.mUInt64
+                && mFixed64 == message.mFixed64
+                && mBool == message.mBool
+                && Float.compare(mFloat, message.mFloat) == 0
+                && Double.compare(mDouble, message.mDouble) == 0
+                && equal(emptyToNull(mString), emptyToNull(message.mString))
+                && Arrays.equals(emptyToNull(mBytes), emptyToNull(message.mBytes))
+                && (mColor == null ? Color.NONE : mColor)
+                == (message.mColor == null ? Color.NONE : message.mColor)
+                && equal(mChild, message.mChild)
+                && Arrays.equals(emptyToNull(mRepeatedInt32), emptyToNull(message.mRepeatedInt32))
+                && mRepeatedSInt64.equals(message.mRepeatedSInt64)
+                && mRepeatedString.equals(message.mRepeatedString)
+                && mRepeatedChild.equals(message.mRepeatedChild)
+                && Arrays.equals(emptyToNull(mRepeatedDouble),
+                emptyToNull(message.mRepeatedDouble))
+                && mRepeatedBool.equals(message.mRepeatedBool)
+                && mRepeatedColor.equals(message.mRepeatedColor);
+    }
+
+    @Override
+    public int hashCode() {
+        return mInt32;
+    }
+
+    private static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Nullable
+    private static String emptyToNull(@Nullable String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    @Nullable
+    private static byte[] emptyToNull(@Nullable byte[] value) {
+        return value == null || value.length == 0 ? null : value;
+    }
+
+    @Nullable
+    private static int[] emptyToNull(@Nullable int[] value) {
+        return value == null || value.length == 0 ? null : value;
+    }
+
+    @Nullable
+    private static double[] emptyToNull(@Nullable double[] value) {
+        return value == null || value.length == 0 ? null : value;
+    }
+
+    enum Color {
+        NONE,
+        RED,
+        GREEN
+    }
+
+    static final class ColorSerializer implements EnumSerializerV1<Color> {
+        @NonNull
+        static final ColorSerializer INSTANCE = new ColorSerializer();
+
+        @Override
+        public int encode(@NonNull Color value) {
+            return value.ordinal();
+        }
+
+        @NonNull
+        @Override
+        public Color decode(int value) {
+            return value >= 0 && value < Color.values().length ? Color.values()[value] : Color.NONE;
+        }
+    }
+
+    static final class Serializer implements SerializerV1<TestMessage> {
+        @NonNull
+        static final Serializer INSTANCE = new Serializer();
+
+        @Override
+        public void encode(@NonNull EncoderV1 encoder, @NonNull TestMessage message) {
+            encoder.encodeInt32(1, message.mInt32);
+            encoder.encodeSInt32(2, message.mSInt32);
+            encoder.encodeUInt32(3, message.mUInt32);
+            encoder.encodeFixed32(4, message.mFixed32);
+            encoder.encodeInt64(5, message.mInt64);
+            encoder.encodeSInt64(6, message.mSInt64);
+            encoder.encodeUInt64(7, message.mUInt64);
+            encoder.encodeFixed64(8, message.mFixed64);
+            encoder.encodeBool(9, message.mBool);
+            encoder.encodeFloat(10, message.mFloat);
+            encoder.encodeDouble(11, message.mDouble);
+            encoder.encodeString(12, message.mString);
+            encoder.encodeBytes(13, message.mBytes);
+            encoder.encodeEnum(14, ColorSerializer.INSTANCE, message.mColor);
+            encoder.encodeMessage(15, INSTANCE, message.mChild);
+            encoder.encodeRepeatedInt32(16, message.mRepeatedInt32);
+            encoder.encodeRepeatedSInt64(17, message.mRepeatedSInt64);
+            encoder.encodeRepeatedString(18, message.mRepeatedString);
+            encoder.encodeRepeatedMessage(19, INSTANCE, message.mRepeatedChild);
+            encoder.encodeRepeatedDouble(20, message.mRepeatedDouble);
+            encoder.encodeRepeatedBool(21, message.mRepeatedBool);
+            encoder.encodeRepeatedEnum(22, ColorSerializer.INSTANCE, message.mRepeatedColor);
+        }
+
+        @NonNull
+        @Override
+        public TestMessage decode(@NonNull DecoderV1 decoder, @Nullable TestMessage mergeFrom) {
+            TestMessage message = mergeFrom != null ? mergeFrom : new TestMessage();
+            while (decoder.hasNextField()) {
+                switch (decoder.nextFieldId()) {
+                    case 1:
+                        message.mInt32 = decoder.decodeInt32();
+                        break;
+                    case 2:
+                        message.mSInt32 = decoder.decodeSInt32();
+                        break;
+                    case 3:
+                        message.mUInt32 = decoder.decodeUInt32();
+                        break;
+                    case 4:
+                        message.mFixed32 = decoder.decodeFixed32();
+                        break;
+                    case 5:
+                        message.mInt64 = decoder.decodeInt64();
+                        break;
+                    case 6:
+                        message.mSInt64 = decoder.decodeSInt64();
+                        break;
+                    case 7:
+                        message.mUInt64 = decoder.decodeUInt64();
+                        break;
+                    case 8:
+                        message.mFixed64 = decoder.decodeFixed64();
+                        break;
+                    case 9:
+                        message.mBool = decoder.decodeBool();
+                        break;
+                    case 10:
+                        message.mFloat = decoder.decodeFloat();
+                        break;
+                    case 11:
+                        message.mDouble = decoder.decodeDouble();
+                        break;
+                    case 12:
+                        message.mString = decoder.decodeString();
+                        break;
+                    case 13:
+                        message.mBytes = decoder.decodeBytes();
+                        break;
+                    case 14:
+                        message.mColor = decoder.decodeEnum(ColorSerializer.INSTANCE);
+                        break;
+                    case 15:
+                        message.mChild = decoder.decodeMessage(INSTANCE, message.mChild);
+                        break;
+                    case 16:
+                        message.mRepeatedInt32 =
+                                decoder.decodeRepeatedInt32(message.mRepeatedInt32);
+                        break;
+                    case 17:
+                        decoder.decodeRepeatedSInt64(message.mRepeatedSInt64,
+                                SerializationRuntime.<Long>getListFactory());
+                        break;
+                    case 18:
+                        decoder.decodeRepeatedString(message.mRepeatedString,
+                                SerializationRuntime.<String>getListFactory());
+                        break;
+                    case 19:
+                        decoder.decodeRepeatedMessage(INSTANCE, message.mRepeatedChild,
+                                SerializationRuntime.<TestMessage>getListFactory());
+                        break;
+                    case 20:
+                        message.mRepeatedDouble =
+                                decoder.decodeRepeatedDouble(message.mRepeatedDouble);
+                        break;
+                    case 21:
+                        decoder.decodeRepeatedBool(message.mRepeatedBool,
+                                SerializationRuntime.<Boolean>getListFactory());
+                        break;
+                    case 22:
+                        decoder.decodeRepeatedEnum(ColorSerializer.INSTANCE,
+                                message.mRepeatedColor,
+                                SerializationRuntime.<Color>getListFactory());
+                        break;
+                }
+            }
+            return message;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.slice.builders.ListBuilder;
+import androidx.slice.builders.SliceAction;
+import androidx.slice.widget.SliceLiveData;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+import androidx.versionedparcelable.ParcelUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures writing and reading a list slice of {@link #ROW_COUNT} rows as returned by a
+ * {@link SliceProvider} to a host, as a versioned parcelable and as a {@link FlattenedSlice},
+ * and logs the size of each payload.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+@SdkSuppress(minSdkVersion = 19)
+public class SliceParcelMetrics {
+
+    private static final String TAG = "SliceParcelMetrics";
+    private static final int ROW_COUNT = 100;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private final Parcel mParcel = Parcel.obtain();
+    private Slice mSlice;
+
+    @Before
+    public void setup() {
+        SliceProvider.setSpecs(SliceLiveData.SUPPORTED_SPECS);
+        mSlice = createSlice();
+    }
+
+    @After
+    public void tearDown() {
+        mParcel.recycle();
+    }
+
+    @Test
+    public void testWriteVersionedParcelable() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mParcel.setDataSize(0);
+            mParcel.writeParcelable(ParcelUtils.toParcelable(mSlice), 0);
+        }
+        Log.i(TAG, "Versioned parcelable payload: " + mParcel.dataSize() + " bytes");
+    }
+
+    @Test
+    public void testWriteFlattened() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mParcel.setDataSize(0);
+            mParcel.writeBundle(FlattenedSlice.toBundle(mSlice));
+        }
+        Log.i(TAG, "Flattened payload: " + mParcel.dataSize() + " bytes");
+    }
+
+    @Test
+    public void testReadVersionedParcelable() {
+        mParcel.writeParcelable(ParcelUtils.toParcelable(mSlice), 0);
+        ClassLoader classLoader = getClass().getClassLoader();
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mParcel.setDataPosition(0);
+            Parcelable parcelable = mParcel.readParcelable(classLoader);
+            ParcelUtils.<Slice>fromParcelable(parcelable);
+        }
+    }
+
+    @Test
+    public void testReadFlattened() {
+        mParcel.writeBundle(FlattenedSlice.toBundle(mSlice));
+        ClassLoader classLoader = getClass().getClassLoader();
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mParcel.setDataPosition(0);
+            Bundle bundle = mParcel.readBundle(classLoader);
+            FlattenedSlice.fromBundle(bundle);
+        }
+    }
+
+    private Slice createSlice() {
+        Uri uri = Uri.parse("content://androidx.slice.benchmark/parcel");
+        ListBuilder lb = new ListBuilder(mContext, uri, ListBuilder.INFINITY);
+        lb.setHeader(new ListBuilder.HeaderBuilder()
+                .setTitle("Messages")
+                .setPrimaryAction(getAction("Open", 0)));
+        for (int i = 0; i < ROW_COUNT; i++) {
+            lb.addRow(new ListBuilder.RowBuilder()
+                    .setTitle("Contact " + i)
+                    .setSubtitle("Sent you a message")
+                    .addEndItem(IconCompat.createWithResource(mContext,
+                            android.R.drawable.ic_dialog_email), ListBuilder.ICON_IMAGE)
+                    .setPrimaryAction(getAction("Reply", i)));
+        }
+        return lb.build();
+    }
+
+    private SliceAction getAction(String actionName, int requestCode) {
+        Intent intent = new Intent(actionName);
+        intent.setPackage(mContext.getPackageName());
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, requestCode, intent,
+                0);
+        IconCompat icon = IconCompat.createWithResource(mContext,
+                android.R.drawable.ic_menu_send);
+        return SliceAction.create(pendingIntent, icon, ListBuilder.ICON_IMAGE, actionName);
+    }
+}
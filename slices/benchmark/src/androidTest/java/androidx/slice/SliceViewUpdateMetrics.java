@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.slice.builders.ListBuilder;
+import androidx.slice.builders.SliceAction;
+import androidx.slice.widget.SliceLiveData;
+import androidx.slice.widget.SliceView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures updating a {@link SliceView} showing a list of {@link #ROW_COUNT} rows, as a slice
+ * updating a progress row every second does, and laying it out again.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+@SdkSuppress(minSdkVersion = 19)
+public class SliceViewUpdateMetrics {
+
+    private static final int ROW_COUNT = 8;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private final Uri mUri = Uri.parse("content://androidx.slice.benchmark/update");
+
+    @Before
+    public void setup() {
+        SliceProvider.setSpecs(SliceLiveData.SUPPORTED_SPECS);
+    }
+
+    @Test
+    @UiThreadTest
+    public void testUpdateProgress() {
+        Slice[] slices = {createSlice(25), createSlice(50)};
+        SliceView v = createSliceView(slices[0]);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            v.setSlice(slices[++i % slices.length]);
+            layout(v);
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void testUpdateSameContent() {
+        Slice[] slices = {createSlice(25), createSlice(25)};
+        SliceView v = createSliceView(slices[0]);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            v.setSlice(slices[++i % slices.length]);
+            layout(v);
+        }
+    }
+
+    private SliceView createSliceView(Slice slice) {
+        SliceView v = new SliceView(mContext);
+        v.setMode(SliceView.MODE_LARGE);
+        v.setSlice(slice);
+        layout(v);
+        return v;
+    }
+
+    private static void layout(View v) {
+        v.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.AT_MOST));
+        v.layout(0, 0, WIDTH, v.getMeasuredHeight());
+    }
+
+    private Slice createSlice(int progress) {
+        ListBuilder lb = new ListBuilder(mContext, mUri, ListBuilder.INFINITY);
+        lb.addRow(new ListBuilder.RowBuilder()
+                .setTitle("Downloads")
+                .setSubtitle("Downloading 1 file")
+                .setPrimaryAction(getAction("Open")));
+        lb.addRange(new ListBuilder.RangeBuilder()
+                .setTitle("Progress")
+                .setMax(100)
+                .setValue(progress));
+        for (int i = 2; i < ROW_COUNT; i++) {
+            lb.addRow(new ListBuilder.RowBuilder()
+                    .setTitle("File " + i)
+                    .setSubtitle("Downloaded"));
+        }
+        return lb.build();
+    }
+
+    private SliceAction getAction(String actionName) {
+        Intent intent = new Intent(actionName);
+        intent.setPackage(mContext.getPackageName());
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, 0, intent, 0);
+        IconCompat icon = IconCompat.createWithResource(mContext,
+                android.R.drawable.ic_menu_view);
+        return SliceAction.create(pendingIntent, icon, ListBuilder.ICON_IMAGE, actionName);
+    }
+}
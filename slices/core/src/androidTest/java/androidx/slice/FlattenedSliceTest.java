@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import static android.app.slice.Slice.HINT_LIST_ITEM;
+import static android.app.slice.Slice.HINT_TITLE;
+import static android.app.slice.Slice.SUBTYPE_MILLIS;
+import static android.app.slice.SliceItem.FORMAT_ACTION;
+import static android.app.slice.SliceItem.FORMAT_IMAGE;
+import static android.app.slice.SliceItem.FORMAT_INT;
+import static android.app.slice.SliceItem.FORMAT_LONG;
+import static android.app.slice.SliceItem.FORMAT_SLICE;
+import static android.app.slice.SliceItem.FORMAT_TEXT;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.slice.core.test.R;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+import androidx.versionedparcelable.ParcelUtils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+@SdkSuppress(minSdkVersion = 19)
+public class FlattenedSliceTest {
+
+    private static final Uri BASE_URI = Uri.parse("content://androidx.slice.core.test/");
+    private static final int ROW_COUNT = 20;
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+
+    @Test
+    public void testReadsWrittenSlice() {
+        Slice before = createSlice();
+
+        Slice after = FlattenedSlice.fromBundle(parcel(FlattenedSlice.toBundle(before)));
+
+        assertEquivalent(before, after);
+    }
+
+    @Test
+    public void testSharesIcons() {
+        Slice after = FlattenedSlice.fromBundle(parcel(FlattenedSlice.toBundle(createSlice())));
+
+        IconCompat first = after.getItems().get(1).getSlice().getItems().get(1).getIcon();
+        IconCompat second = after.getItems().get(2).getSlice().getItems().get(1).getIcon();
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testIsFlattened() {
+        Slice slice = createSlice();
+
+        assertTrue(FlattenedSlice.isFlattened(FlattenedSlice.toBundle(slice)));
+        assertFalse(FlattenedSlice.isFlattened(slice.toBundle()));
+    }
+
+    @Test
+    public void testWritesVersionReaderReads() {
+        Slice slice = createSlice();
+
+        assertNull(FlattenedSlice.toBundle(slice, 0));
+        assertEquivalent(slice, FlattenedSlice.fromBundle(
+                parcel(FlattenedSlice.toBundle(slice, FlattenedSlice.VERSION))));
+        // A reader of a later version reads the versions before it.
+        assertEquivalent(slice, FlattenedSlice.fromBundle(
+                parcel(FlattenedSlice.toBundle(slice, FlattenedSlice.VERSION + 1))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsLaterVersion() {
+        Bundle bundle = FlattenedSlice.toBundle(createSlice());
+        bundle.putInt("androidx.slice.flattened.version", FlattenedSlice.VERSION + 1);
+
+        FlattenedSlice.fromBundle(parcel(bundle));
+    }
+
+    @Test
+    public void testSmallerThanVersionedParcelable() {
+        Slice slice = createSlice();
+
+        Parcel parcel = Parcel.obtain();
+        parcel.writeBundle(FlattenedSlice.toBundle(slice));
+        int flattenedSize = parcel.dataSize();
+        parcel.recycle();
+        parcel = Parcel.obtain();
+        parcel.writeParcelable(ParcelUtils.toParcelable(slice), 0);
+        int versionedParcelableSize = parcel.dataSize();
+        parcel.recycle();
+
+        assertTrue(flattenedSize < versionedParcelableSize);
+    }
+
+    private Slice createSlice() {
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, 0,
+                new Intent("androidx.slice.test.ACTION").setPackage(mContext.getPackageName()),
+                0);
+        Slice.Builder builder = new Slice.Builder(BASE_URI)
+                .setSpec(new SliceSpec("androidx.slice.LIST", 1))
+                .addLong(1234567890123L, SUBTYPE_MILLIS);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Slice row = new Slice.Builder(builder)
+                    .addText("Row " + i, null, HINT_TITLE)
+                    .addIcon(IconCompat.createWithResource(mContext, R.drawable.size_48x48),
+                            null)
+                    .addInt(i, "value")
+                    .addAction(pendingIntent, new Slice.Builder(builder)
+                            .addText("Action", null)
+                            .addHints(HINT_TITLE)
+                            .build(), null)
+                    .addHints(HINT_LIST_ITEM)
+                    .build();
+            builder.addSubSlice(row);
+        }
+        return builder.build();
+    }
+
+    private static Bundle parcel(Bundle bundle) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(bundle);
+            parcel.setDataPosition(0);
+            return parcel.readBundle(FlattenedSliceTest.class.getClassLoader());
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void assertEquivalent(Slice expected, Slice actual) {
+        assertEquals(expected.getUri(), actual.getUri());
+        assertEquals(expected.getSpec(), actual.getSpec());
+        assertArrayEquals(expected.getHintArray(), actual.getHintArray());
+        assertEquals(expected.getItems().size(), actual.getItems().size());
+        for (int i = 0; i < expected.getItems().size(); i++) {
+            assertEquivalent(expected.getItems().get(i), actual.getItems().get(i));
+        }
+    }
+
+    private static void assertEquivalent(SliceItem expected, SliceItem actual) {
+        assertEquals(expected.getFormat(), actual.getFormat());
+        assertEquals(expected.getSubType(), actual.getSubType());
+        assertArrayEquals(expected.getHintArray(), actual.getHintArray());
+        switch (expected.getFormat()) {
+            case FORMAT_SLICE:
+                assertEquivalent(expected.getSlice(), actual.getSlice());
+                break;
+            case FORMAT_ACTION:
+                assertEquals(expected.getAction(), actual.getAction());
+                assertEquivalent(expected.getSlice(), actual.getSlice());
+                break;
+            case FORMAT_TEXT:
+                assertEquals(expected.getText().toString(), actual.getText().toString());
+                break;
+            case FORMAT_IMAGE:
+                assertEquals(expected.getIcon().getResId(), actual.getIcon().getResId());
+                break;
+            case FORMAT_INT:
+                assertEquals(expected.getInt(), actual.getInt());
+                break;
+            case FORMAT_LONG:
+                assertEquals(expected.getLong(), actual.getLong());
+                break;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.versionedparcelable.ParcelUtils;
+import androidx.versionedparcelable.VersionedParcelable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Writes a {@link Slice} into a {@link Bundle} holding a flat representation of its tree, and
+ * reads it back.
+ * <p>
+ * Unlike parceling the slice as a {@link VersionedParcelable}, the strings of the slice (uris,
+ * formats, subtypes, hints and texts) are written once in a shared table, and so are its icons
+ * and other parcelables. The items reference them by index from a single array of ints. When
+ * reading the slice, the {@link SliceItemHolder}s of the items are reused, and the icons
+ * referenced by several items are read once.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@RequiresApi(19)
+public final class FlattenedSlice {
+
+    private static final String KEY_VERSION = "androidx.slice.flattened.version";
+    private static final String KEY_STRINGS = "strings";
+    private static final String KEY_DATA = "data";
+    private static final String KEY_PARCELABLES = "parcelables";
+
+    /**
+     * The version of the format written by {@link #toBundle(Slice)}, which is also the highest
+     * version {@link #fromBundle} reads. A reader reads all the versions up to its own, so a
+     * writer must write the version a reader asks for, or not write this format at all.
+     */
+    public static final int VERSION = 1;
+
+    private static final int NONE = -1;
+
+    // The fields of the SliceItemHolder of an item which are written after it.
+    private static final int FIELD_SLICE = 1;
+    private static final int FIELD_VERSIONED_PARCELABLE = 1 << 1;
+    private static final int FIELD_PARCELABLE = 1 << 2;
+    private static final int FIELD_STR = 1 << 3;
+    private static final int FIELD_INT = 1 << 4;
+    private static final int FIELD_LONG = 1 << 5;
+    private static final int FIELD_BUNDLE = 1 << 6;
+
+    private FlattenedSlice() {
+    }
+
+    /**
+     * Writes the slice into a bundle.
+     */
+    @NonNull
+    public static Bundle toBundle(@NonNull Slice slice) {
+        Writer writer = new Writer();
+        writer.writeSlice(slice);
+        return writer.toBundle();
+    }
+
+    /**
+     * Writes the slice into a bundle that a reader of the given version can read.
+     *
+     * @param maxVersion The highest version the reader reads.
+     * @return The bundle, or {@code null} if the reader can't read any version written here.
+     */
+    @Nullable
+    public static Bundle toBundle(@NonNull Slice slice, int maxVersion) {
+        if (maxVersion < VERSION) {
+            return null;
+        }
+        return toBundle(slice);
+    }
+
+    /**
+     * @return whether the bundle was written by {@link #toBundle(Slice)}, rather than by
+     * {@link Slice#toBundle()}.
+     */
+    public static boolean isFlattened(@NonNull Bundle bundle) {
+        return bundle.containsKey(KEY_VERSION);
+    }
+
+    /**
+     * Reads a slice written by {@link #toBundle(Slice)}.
+     */
+    @NonNull
+    public static Slice fromBundle(@NonNull Bundle bundle) {
+        bundle.setClassLoader(FlattenedSlice.class.getClassLoader());
+        int version = bundle.getInt(KEY_VERSION);
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported version " + version);
+        }
+        return new Reader(bundle).readSlice();
+    }
+
+    private static final class Writer {
+        private final ArrayList<String> mStrings = new ArrayList<>();
+        private final HashMap<String, Integer> mStringIndices = new HashMap<>();
+        private final ArrayList<Parcelable> mParcelables = new ArrayList<>();
+        private final HashMap<Object, Integer> mParcelableIndices = new HashMap<>();
+        private int[] mData = new int[256];
+        private int mSize;
+
+        Writer() {
+        }
+
+        void writeSlice(Slice slice) {
+            writeString(slice.mUri);
+            SliceSpec spec = slice.mSpec;
+            writeString(spec != null ? spec.getType() : null);
+            writeInt(spec != null ? spec.getRevision() : 0);
+            writeHints(slice.mHints);
+            writeInt(slice.mItems.length);
+            for (SliceItem item : slice.mItems) {
+                writeItem(item);
+            }
+        }
+
+        private void writeItem(SliceItem item) {
+            writeString(item.mFormat);
+            writeString(item.mSubType);
+            writeHints(item.mHints);
+            // The holder converts the content of the item as when parceling the item.
+            SliceItemHolder holder = new SliceItemHolder(item.mFormat, item.mObj, false);
+            int fields = 0;
+            if (holder.mVersionedParcelable instanceof Slice) {
+                fields |= FIELD_SLICE;
+            } else if (holder.mVersionedParcelable != null) {
+                fields |= FIELD_VERSIONED_PARCELABLE;
+            }
+            if (holder.mParcelable != null) {
+                fields |= FIELD_PARCELABLE;
+            }
+            if (holder.mStr != null) {
+                fields |= FIELD_STR;
+            }
+            if (holder.mInt != 0) {
+                fields |= FIELD_INT;
+            }
+            if (holder.mLong != 0) {
+                fields |= FIELD_LONG;
+            }
+            if (holder.mBundle != null) {
+                fields |= FIELD_BUNDLE;
+            }
+            writeInt(fields);
+            if ((fields & FIELD_SLICE) != 0) {
+                writeSlice((Slice) holder.mVersionedParcelable);
+            }
+            if ((fields & FIELD_VERSIONED_PARCELABLE) != 0) {
+                writeVersionedParcelable(holder.mVersionedParcelable);
+            }
+            if ((fields & FIELD_PARCELABLE) != 0) {
+                writeParcelable(holder.mParcelable, holder.mParcelable);
+            }
+            if ((fields & FIELD_STR) != 0) {
+                writeString(holder.mStr);
+            }
+            if ((fields & FIELD_INT) != 0) {
+                writeInt(holder.mInt);
+            }
+            if ((fields & FIELD_LONG) != 0) {
+                writeInt((int) (holder.mLong >>> 32));
+                writeInt((int) holder.mLong);
+            }
+            if ((fields & FIELD_BUNDLE) != 0) {
+                writeParcelable(holder.mBundle, holder.mBundle);
+            }
+        }
+
+        private void writeVersionedParcelable(VersionedParcelable obj) {
+            Object key = obj;
+            if (obj instanceof IconCompat) {
+                IconCompat icon = (IconCompat) obj;
+                switch (icon.getType()) {
+                    case IconCompat.TYPE_RESOURCE:
+                    case IconCompat.TYPE_URI:
+                    case IconCompat.TYPE_URI_ADAPTIVE_BITMAP:
+                        // Equal icons are often created for each row; their description
+                        // includes their source and their tint.
+                        key = icon.toString();
+                        break;
+                }
+            }
+            Integer index = mParcelableIndices.get(key);
+            if (index == null) {
+                index = mParcelables.size();
+                mParcelables.add(ParcelUtils.toParcelable(obj));
+                mParcelableIndices.put(key, index);
+            }
+            writeInt(index);
+        }
+
+        private void writeParcelable(Object key, Parcelable parcelable) {
+            Integer index = mParcelableIndices.get(key);
+            if (index == null) {
+                index = mParcelables.size();
+                mParcelables.add(parcelable);
+                mParcelableIndices.put(key, index);
+            }
+            writeInt(index);
+        }
+
+        private void writeHints(String[] hints) {
+            writeInt(hints.length);
+            for (String hint : hints) {
+                writeString(hint);
+            }
+        }
+
+        private void writeString(@Nullable String str) {
+            if (str == null) {
+                writeInt(NONE);
+                return;
+            }
+            Integer index = mStringIndices.get(str);
+            if (index == null) {
+                index = mStrings.size();
+                mStrings.add(str);
+                mStringIndices.put(str, index);
+            }
+            writeInt(index);
+        }
+
+        private void writeInt(int value) {
+            if (mSize == mData.length) {
+                mData = Arrays.copyOf(mData, mSize * 2);
+            }
+            mData[mSize++] = value;
+        }
+
+        Bundle toBundle() {
+            Bundle bundle = new Bundle();
+            bundle.putInt(KEY_VERSION, VERSION);
+            bundle.putStringArray(KEY_STRINGS, mStrings.toArray(new String[mStrings.size()]));
+            bundle.putIntArray(KEY_DATA, Arrays.copyOf(mData, mSize));
+            bundle.putParcelableArray(KEY_PARCELABLES,
+                    mParcelables.toArray(new Parcelable[mParcelables.size()]));
+            return bundle;
+        }
+    }
+
+    private static final class Reader {
+        private final String[] mStrings;
+        private final int[] mData;
+        private final Parcelable[] mParcelables;
+        private final VersionedParcelable[] mVersionedParcelables;
+        // The holders of the items are released once their object is read, so only as many
+        // holders as the depth of the slice are created.
+        private final SliceItemHolder.SliceItemPool mPool = new SliceItemHolder.SliceItemPool();
+        private int mPosition;
+
+        Reader(Bundle bundle) {
+            mStrings = bundle.getStringArray(KEY_STRINGS);
+            mData = bundle.getIntArray(KEY_DATA);
+            mParcelables = bundle.getParcelableArray(KEY_PARCELABLES);
+            mVersionedParcelables = new VersionedParcelable[mParcelables.length];
+        }
+
+        Slice readSlice() {
+            Slice slice = new Slice();
+            slice.mUri = readString();
+            String specType = readString();
+            int specRevision = readInt();
+            slice.mSpec = specType != null ? new SliceSpec(specType, specRevision) : null;
+            slice.mHints = readHints();
+            int count = readInt();
+            ArrayList<SliceItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SliceItem item = readItem();
+                // As when reading a parceled slice, items whose content is missing are dropped.
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            slice.mItems = items.isEmpty() ? Slice.NO_ITEMS
+                    : items.toArray(new SliceItem[items.size()]);
+            return slice;
+        }
+
+        @Nullable
+        private SliceItem readItem() {
+            String format = readString();
+            String subType = readString();
+            String[] hints = readHints();
+            int fields = readInt();
+            SliceItemHolder holder = mPool.get();
+            if ((fields & FIELD_SLICE) != 0) {
+                holder.mVersionedParcelable = readSlice();
+            }
+            if ((fields & FIELD_VERSIONED_PARCELABLE) != 0) {
+                holder.mVersionedParcelable = readVersionedParcelable();
+            }
+            if ((fields & FIELD_PARCELABLE) != 0) {
+                holder.mParcelable = mParcelables[readInt()];
+            }
+            if ((fields & FIELD_STR) != 0) {
+                holder.mStr = readString();
+            }
+            if ((fields & FIELD_INT) != 0) {
+                holder.mInt = readInt();
+            }
+            if ((fields & FIELD_LONG) != 0) {
+                long high = readInt();
+                long low = readInt() & 0xffffffffL;
+                holder.mLong = (high << 32) | low;
+            }
+            if ((fields & FIELD_BUNDLE) != 0) {
+                holder.mBundle = (Bundle) mParcelables[readInt()];
+            }
+            Object obj = holder.getObj(format);
+            holder.release();
+            return obj != null ? new SliceItem(obj, format, subType, hints) : null;
+        }
+
+        private VersionedParcelable readVersionedParcelable() {
+            int index = readInt();
+            if (mVersionedParcelables[index] == null) {
+                mVersionedParcelables[index] = ParcelUtils.fromParcelable(mParcelables[index]);
+            }
+            return mVersionedParcelables[index];
+        }
+
+        private String[] readHints() {
+            int count = readInt();
+            if (count == 0) {
+                return Slice.NO_HINTS;
+            }
+            String[] hints = new String[count];
+            for (int i = 0; i < count; i++) {
+                hints[i] = readString();
+            }
+            return hints;
+        }
+
+        @Nullable
+        private String readString() {
+            int index = readInt();
+            return index != NONE ? mStrings[index] : null;
+        }
+
+        private int readInt() {
+            return mData[mPosition++];
+        }
+    }
+}
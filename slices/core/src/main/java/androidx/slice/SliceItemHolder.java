@@ -189,6 +189,7 @@ public class SliceItemHolder implements VersionedParcelable {
             sliceItemHolder.mInt = 0;
             sliceItemHolder.mLong = 0;
             sliceItemHolder.mStr = null;
+            sliceItemHolder.mBundle = null;
             mCached.add(sliceItemHolder);
         }
     }
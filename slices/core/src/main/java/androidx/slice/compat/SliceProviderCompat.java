@@ -50,6 +50,7 @@ import androidx.annotation.RestrictTo.Scope;
 import androidx.collection.ArraySet;
 import androidx.core.graphics.drawable.IconCompat;
 import androidx.core.util.Preconditions;
+import androidx.slice.FlattenedSlice;
 import androidx.slice.Slice;
 import androidx.slice.SliceItemHolder;
 import androidx.slice.SliceProvider;
@@ -91,6 +92,7 @@ public class SliceProviderCompat {
     public static final String EXTRA_SLICE = "slice";
     public static final String EXTRA_SUPPORTED_SPECS = "specs";
     public static final String EXTRA_SUPPORTED_SPECS_REVS = "revs";
+    public static final String EXTRA_FLATTENED_SLICE_VERSION = "flattened_slice_version";
     public static final String EXTRA_PKG = "pkg";
     public static final String EXTRA_PROVIDER_PKG = "provider_pkg";
     public static final String EXTRA_SLICE_DESCENDANTS = "slice_descendants";
@@ -149,13 +151,7 @@ public class SliceProviderCompat {
 
             Slice s = handleBindSlice(uri, specs, getCallingPackage());
             Bundle b = new Bundle();
-            if (ARG_SUPPORTS_VERSIONED_PARCELABLE.equals(arg)) {
-                synchronized (SliceItemHolder.sSerializeLock) {
-                    b.putParcelable(EXTRA_SLICE, s != null ? ParcelUtils.toParcelable(s) : null);
-                }
-            } else {
-                b.putParcelable(EXTRA_SLICE, s != null ? s.toBundle() : null);
-            }
+            putSlice(b, s, arg, extras);
             return b;
         } else if (method.equals(METHOD_MAP_INTENT)) {
             Intent intent = extras.getParcelable(EXTRA_INTENT);
@@ -165,14 +161,7 @@ public class SliceProviderCompat {
             if (uri != null) {
                 Set<SliceSpec> specs = getSpecs(extras);
                 Slice s = handleBindSlice(uri, specs, getCallingPackage());
-                if (ARG_SUPPORTS_VERSIONED_PARCELABLE.equals(arg)) {
-                    synchronized (SliceItemHolder.sSerializeLock) {
-                        b.putParcelable(EXTRA_SLICE,
-                                s != null ? ParcelUtils.toParcelable(s) : null);
-                    }
-                } else {
-                    b.putParcelable(EXTRA_SLICE, s != null ? s.toBundle() : null);
-                }
+                putSlice(b, s, arg, extras);
             } else {
                 b.putParcelable(EXTRA_SLICE, null);
             }
@@ -246,6 +235,25 @@ public class SliceProviderCompat {
         return null;
     }
 
+    /**
+     * Puts the slice in the result bundle, in the most compact format the caller can read.
+     */
+    private static void putSlice(Bundle b, Slice s, String arg, Bundle extras) {
+        if (s == null) {
+            b.putParcelable(EXTRA_SLICE, null);
+        } else if (ARG_SUPPORTS_VERSIONED_PARCELABLE.equals(arg)) {
+            synchronized (SliceItemHolder.sSerializeLock) {
+                // Callers which can't read a flattened slice don't send a version.
+                Bundle flattened = FlattenedSlice.toBundle(s,
+                        extras.getInt(EXTRA_FLATTENED_SLICE_VERSION, 0));
+                b.putParcelable(EXTRA_SLICE,
+                        flattened != null ? flattened : ParcelUtils.toParcelable(s));
+            }
+        } else {
+            b.putParcelable(EXTRA_SLICE, s.toBundle());
+        }
+    }
+
     private Collection<Uri> handleGetDescendants(Uri uri) {
         mCallback = "onGetSliceDescendants";
         return mProvider.onGetSliceDescendants(uri);
@@ -332,6 +340,7 @@ public class SliceProviderCompat {
             Bundle extras = new Bundle();
             extras.putParcelable(EXTRA_BIND_URI, uri);
             addSpecs(extras, supportedSpecs);
+            extras.putInt(EXTRA_FLATTENED_SLICE_VERSION, FlattenedSlice.VERSION);
             final Bundle res = holder.mProvider.call(METHOD_SLICE,
                     ARG_SUPPORTS_VERSIONED_PARCELABLE, extras);
             return parseSlice(context, res);
@@ -421,6 +430,7 @@ public class SliceProviderCompat {
             Bundle extras = new Bundle();
             extras.putParcelable(EXTRA_INTENT, intent);
             addSpecs(extras, supportedSpecs);
+            extras.putInt(EXTRA_FLATTENED_SLICE_VERSION, FlattenedSlice.VERSION);
             final Bundle res = holder.mProvider.call(METHOD_MAP_INTENT,
                     ARG_SUPPORTS_VERSIONED_PARCELABLE, extras);
             return parseSlice(context, res);
@@ -458,7 +468,9 @@ public class SliceProviderCompat {
                     return null;
                 }
                 if (parcel instanceof Bundle) {
-                    return new Slice((Bundle) parcel);
+                    Bundle bundle = (Bundle) parcel;
+                    return FlattenedSlice.isFlattened(bundle) ? FlattenedSlice.fromBundle(bundle)
+                            : new Slice(bundle);
                 }
                 return ParcelUtils.fromParcelable(parcel);
             } finally {
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.net.Uri;
+import android.view.View;
+
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.slice.Slice;
+import androidx.slice.SliceProvider;
+import androidx.slice.builders.ListBuilder;
+import androidx.slice.builders.SliceAction;
+import androidx.slice.render.SliceRenderActivity;
+import androidx.slice.view.R;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link SliceAdapter}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+@SdkSuppress(minSdkVersion = 19)
+public class SliceAdapterTest {
+
+    private static final int ROW_COUNT = 4;
+    private static final int COLOR = 0xff4285f4;
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private RecyclerView mRecyclerView;
+    private SliceAdapter mAdapter;
+
+    @Before
+    @UiThreadTest
+    public void setup() {
+        SliceProvider.setSpecs(SliceLiveData.SUPPORTED_SPECS);
+        mAdapter = new SliceAdapter(mContext);
+        mAdapter.setStyle(new SliceStyle(mContext, null, R.attr.sliceViewStyle,
+                R.style.Widget_SliceView));
+        mAdapter.setPolicy(new SliceViewPolicy());
+        mRecyclerView = new RecyclerView(mContext);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(mContext));
+        mRecyclerView.setItemAnimator(null);
+        mRecyclerView.setAdapter(mAdapter);
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetSliceItems_bindsAllRows() {
+        setSlice(createSlice(-1), COLOR);
+
+        assertEquals(ROW_COUNT, mAdapter.getBindCount());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetSliceItems_sameContent_bindsNoRows() {
+        setSlice(createSlice(-1), COLOR);
+        int bindCount = mAdapter.getBindCount();
+
+        setSlice(createSlice(-1), COLOR);
+
+        assertEquals(bindCount, mAdapter.getBindCount());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetSliceItems_changedRow_bindsChangedRow() {
+        setSlice(createSlice(-1), COLOR);
+        int bindCount = mAdapter.getBindCount();
+
+        setSlice(createSlice(2), COLOR);
+
+        assertEquals(bindCount + 1, mAdapter.getBindCount());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetSliceItems_changedColor_bindsAllRows() {
+        setSlice(createSlice(-1), COLOR);
+        int bindCount = mAdapter.getBindCount();
+
+        setSlice(createSlice(-1), 0xffdb4437);
+
+        assertEquals(bindCount + ROW_COUNT, mAdapter.getBindCount());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetInsets_sameContent_bindsLastRow() {
+        setSlice(createSlice(-1), COLOR);
+        int bindCount = mAdapter.getBindCount();
+
+        mAdapter.setInsets(0, 0, 0, 50);
+        layout();
+
+        assertEquals(bindCount + 1, mAdapter.getBindCount());
+        View lastRow = mRecyclerView.getChildAt(ROW_COUNT - 1);
+        assertEquals(50, lastRow.getPaddingBottom());
+
+        setSlice(createSlice(-1), COLOR);
+
+        assertEquals(bindCount + 1, mAdapter.getBindCount());
+        assertEquals(50, mRecyclerView.getChildAt(ROW_COUNT - 1).getPaddingBottom());
+    }
+
+    @Test
+    @UiThreadTest
+    public void testSetInsets_changedSides_bindsAllRows() {
+        setSlice(createSlice(-1), COLOR);
+        int bindCount = mAdapter.getBindCount();
+
+        mAdapter.setInsets(20, 0, 20, 0);
+        layout();
+
+        assertEquals(bindCount + ROW_COUNT, mAdapter.getBindCount());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals(20, mRecyclerView.getChildAt(i).getPaddingLeft());
+        }
+    }
+
+    private void setSlice(Slice slice, int color) {
+        ListContent listContent = new ListContent(slice);
+        mAdapter.setSliceItems(listContent.getRowItems(), color, SliceView.MODE_LARGE);
+        layout();
+    }
+
+    private void layout() {
+        int width = 1000;
+        int height = 2000;
+        mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, width, height);
+    }
+
+    /**
+     * Creates a slice of {@link #ROW_COUNT} rows, whose subtitle is different at the given row.
+     */
+    private Slice createSlice(int changedRow) {
+        Uri uri = Uri.parse("content://pkg/slice");
+        ListBuilder lb = new ListBuilder(mContext, uri, ListBuilder.INFINITY);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            ListBuilder.RowBuilder row = new ListBuilder.RowBuilder()
+                    .setTitle("Title " + i)
+                    .setSubtitle(i == changedRow ? "Changed" : "Subtitle");
+            if (i == 0) {
+                row.setPrimaryAction(getAction("Action"));
+            }
+            lb.addRow(row);
+        }
+        return lb.build();
+    }
+
+    private SliceAction getAction(String actionName) {
+        Bitmap b = Bitmap.createBitmap(50, 25, Bitmap.Config.ARGB_8888);
+        new Canvas(b).drawColor(0xffff0000);
+        IconCompat icon = IconCompat.createWithBitmap(b);
+        return new SliceAction(getIntent(""), icon, actionName);
+    }
+
+    private PendingIntent getIntent(String action) {
+        Intent intent = new Intent(action);
+        intent.setClassName(mContext.getPackageName(), SliceRenderActivity.class.getName());
+        return PendingIntent.getActivity(mContext, 0, intent, 0);
+    }
+}
@@ -32,7 +32,9 @@ import android.view.ViewGroup.LayoutParams;
 
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.collection.ArrayMap;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.slice.SliceItem;
 import androidx.slice.core.SliceAction;
@@ -68,6 +70,7 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
     SliceView.OnSliceActionListener mSliceObserver;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     int mColor;
+    private int mMode;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     SliceStyle mSliceStyle;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -94,6 +97,7 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
     boolean mAllowTwoLines;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     SliceViewPolicy mPolicy;
+    private int mBindCount;
 
     public SliceAdapter(Context context) {
         mContext = context;
@@ -114,10 +118,28 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
      * will be applied to it whereas subsequent rows would get a top inset of 0.
      */
     public void setInsets(int l, int t, int r, int b) {
+        final boolean sidesChanged = mInsetStart != l || mInsetEnd != r;
+        final boolean topChanged = mInsetTop != t;
+        final boolean bottomChanged = mInsetBottom != b;
         mInsetStart = l;
         mInsetTop = t;
         mInsetEnd = r;
         mInsetBottom = b;
+        final int count = getItemCount();
+        if (count == 0) {
+            return;
+        }
+        if (sidesChanged) {
+            // The start and end insets apply to every row.
+            notifyItemRangeChanged(0, count);
+            return;
+        }
+        if (topChanged) {
+            notifyItemChanged(0);
+        }
+        if (bottomChanged && (count > 1 || !topChanged)) {
+            notifyItemChanged(count - 1);
+        }
     }
 
     /**
@@ -131,12 +153,17 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
      * Sets the actions to display for this slice, this adjusts what's displayed in the header item.
      */
     public void setSliceActions(List<SliceAction> actions) {
+        final boolean changed = !SliceDiff.areActionsEqual(mSliceActions, actions);
         mSliceActions = actions;
-        notifyHeaderChanged();
+        if (changed) {
+            notifyHeaderChanged();
+        }
     }
 
     /**
      * Set the {@link SliceItem}'s to be displayed in the adapter and the accent color.
+     * <p>
+     * When only the items change, only the rows whose content changed are bound again.
      */
     public void setSliceItems(List<SliceContent> slices, int color, int mode) {
         if (slices == null) {
@@ -144,12 +171,20 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
             mSlices.clear();
         } else {
             mIdGen.resetUsage();
+            List<SliceWrapper> oldSlices = mSlices;
             mSlices = new ArrayList<>(slices.size());
             for (SliceContent s : slices) {
                 mSlices.add(new SliceWrapper(s, mIdGen, mode));
             }
+            if (color == mColor && mode == mMode && !oldSlices.isEmpty()
+                    && !mSlices.isEmpty()) {
+                DiffUtil.calculateDiff(new SliceDiffCallback(oldSlices, mSlices))
+                        .dispatchUpdatesTo(this);
+                return;
+            }
         }
         mColor = color;
+        mMode = mode;
         notifyDataSetChanged();
     }
 
@@ -184,7 +219,10 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
     public void setLastUpdated(long lastUpdated) {
         if (mLastUpdated != lastUpdated) {
             mLastUpdated = lastUpdated;
-            notifyHeaderChanged();
+            // The header only needs to be bound again if it displays the time.
+            if (mShowLastUpdated) {
+                notifyHeaderChanged();
+            }
         }
     }
 
@@ -193,8 +231,15 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
      */
     public void setLoadingActions(Set<SliceItem> actions) {
         if (actions == null) {
+            if (mLoadingActions.isEmpty()) {
+                return;
+            }
             mLoadingActions.clear();
         } else {
+            if (actions != mLoadingActions && actions.equals(mLoadingActions)) {
+                mLoadingActions = actions;
+                return;
+            }
             mLoadingActions = actions;
         }
         notifyDataSetChanged();
@@ -221,8 +266,10 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
      * Sets whether this slice can have 2 lines of subtitle text in the first row.
      */
     public void setAllowTwoLines(boolean allowTwoLines) {
-        mAllowTwoLines = allowTwoLines;
-        notifyHeaderChanged();
+        if (mAllowTwoLines != allowTwoLines) {
+            mAllowTwoLines = allowTwoLines;
+            notifyHeaderChanged();
+        }
     }
 
     /**
@@ -260,6 +307,16 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
     public void onBindViewHolder(SliceViewHolder holder, int position) {
         SliceWrapper slice = mSlices.get(position);
         holder.bind(slice.mItem, position);
+        mBindCount++;
+    }
+
+    /**
+     * @return the number of rows bound since the adapter was created, to measure how many rows
+     * are bound again when the slice is updated.
+     */
+    @VisibleForTesting
+    int getBindCount() {
+        return mBindCount;
     }
 
     private View inflateForType(int viewType) {
@@ -366,6 +423,46 @@ public class SliceAdapter extends RecyclerView.Adapter<SliceAdapter.SliceViewHol
         }
     }
 
+    /**
+     * Finds the rows of an updated slice whose content changed. Rows at a different position or
+     * in a list of a different size are bound again, as their insets may have changed.
+     */
+    private static class SliceDiffCallback extends DiffUtil.Callback {
+        private final List<SliceWrapper> mOldSlices;
+        private final List<SliceWrapper> mNewSlices;
+
+        SliceDiffCallback(List<SliceWrapper> oldSlices, List<SliceWrapper> newSlices) {
+            mOldSlices = oldSlices;
+            mNewSlices = newSlices;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldSlices.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewSlices.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            SliceWrapper oldSlice = mOldSlices.get(oldItemPosition);
+            SliceWrapper newSlice = mNewSlices.get(newItemPosition);
+            return oldSlice.mId == newSlice.mId && oldSlice.mType == newSlice.mType;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldItemPosition == newItemPosition
+                    && mOldSlices.size() == mNewSlices.size()
+                    && SliceDiff.areItemsEqual(
+                            mOldSlices.get(oldItemPosition).mItem.getSliceItem(),
+                            mNewSlices.get(newItemPosition).mItem.getSliceItem());
+        }
+    }
+
     private static class IdGenerator {
         private long mNextLong = 0;
         private final ArrayMap<String, Long> mCurrentIds = new ArrayMap<>();
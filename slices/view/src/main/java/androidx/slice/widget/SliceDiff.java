@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice.widget;
+
+import static android.app.slice.SliceItem.FORMAT_ACTION;
+import static android.app.slice.SliceItem.FORMAT_IMAGE;
+import static android.app.slice.SliceItem.FORMAT_INT;
+import static android.app.slice.SliceItem.FORMAT_LONG;
+import static android.app.slice.SliceItem.FORMAT_SLICE;
+import static android.app.slice.SliceItem.FORMAT_TEXT;
+
+import android.app.PendingIntent;
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.core.util.ObjectsCompat;
+import androidx.slice.Slice;
+import androidx.slice.SliceItem;
+import androidx.slice.core.SliceAction;
+import androidx.slice.core.SliceActionImpl;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the content of slices, to only update the views of the rows of a slice that changed.
+ * <p>
+ * Unlike {@link androidx.slice.SliceStructure}, the content is compared too: two items are equal
+ * if they would be displayed the same way. Content which can't be compared, such as action
+ * handlers and remote inputs, is only equal to itself.
+ */
+@RequiresApi(19)
+final class SliceDiff {
+
+    private SliceDiff() {
+    }
+
+    /**
+     * @return whether the given slices have the same uri, hints and items.
+     */
+    static boolean areSlicesEqual(@Nullable Slice a, @Nullable Slice b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (!ObjectsCompat.equals(a.getUri(), b.getUri())
+                || !Arrays.equals(a.getHintArray(), b.getHintArray())) {
+            return false;
+        }
+        SliceItem[] aItems = a.getItemArray();
+        SliceItem[] bItems = b.getItemArray();
+        if (aItems.length != bItems.length) {
+            return false;
+        }
+        for (int i = 0; i < aItems.length; i++) {
+            if (!areItemsEqual(aItems[i], bItems[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the given items have the same format, subtype, hints and content.
+     */
+    static boolean areItemsEqual(@Nullable SliceItem a, @Nullable SliceItem b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        final String format = a.getFormat();
+        if (!format.equals(b.getFormat())
+                || !ObjectsCompat.equals(a.getSubType(), b.getSubType())
+                || !Arrays.equals(a.getHintArray(), b.getHintArray())) {
+            return false;
+        }
+        switch (format) {
+            case FORMAT_SLICE:
+                return areSlicesEqual(a.getSlice(), b.getSlice());
+            case FORMAT_ACTION:
+                // Action handlers can't be compared, only pending intents.
+                PendingIntent action = a.getAction();
+                return action != null && action.equals(b.getAction())
+                        && areSlicesEqual(a.getSlice(), b.getSlice());
+            case FORMAT_TEXT:
+                return ObjectsCompat.equals(a.getText(), b.getText());
+            case FORMAT_IMAGE:
+                return areIconsEqual(a.getIcon(), b.getIcon());
+            case FORMAT_INT:
+                return a.getInt() == b.getInt();
+            case FORMAT_LONG:
+                return a.getLong() == b.getLong();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the given lists of actions have equal actions, in the same order.
+     */
+    static boolean areActionsEqual(@Nullable List<SliceAction> a, @Nullable List<SliceAction> b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            SliceAction aAction = a.get(i);
+            SliceAction bAction = b.get(i);
+            if (aAction == bAction) {
+                continue;
+            }
+            // Only the actions read from a slice can be compared.
+            SliceItem aItem = aAction instanceof SliceActionImpl
+                    ? ((SliceActionImpl) aAction).getSliceItem() : null;
+            SliceItem bItem = bAction instanceof SliceActionImpl
+                    ? ((SliceActionImpl) bAction).getSliceItem() : null;
+            if (aItem == null || !areItemsEqual(aItem, bItem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean areIconsEqual(@Nullable IconCompat a, @Nullable IconCompat b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.getType() != b.getType()) {
+            return false;
+        }
+        switch (a.getType()) {
+            case IconCompat.TYPE_RESOURCE:
+            case IconCompat.TYPE_URI:
+            case IconCompat.TYPE_URI_ADAPTIVE_BITMAP:
+                // The description of these icons includes their source and their tint.
+                return a.toString().equals(b.toString());
+            case IconCompat.TYPE_BITMAP:
+                Bitmap aBitmap = a.getBitmap();
+                Bitmap bBitmap = b.getBitmap();
+                return aBitmap != null && bBitmap != null && a.toString().equals(b.toString())
+                        && (aBitmap == bBitmap || aBitmap.sameAs(bBitmap));
+            default:
+                return false;
+        }
+    }
+}
@@ -69,12 +69,18 @@ object MessageFactory {
     fun createQueryCommand(
         databaseId: Int,
         query: String,
-        queryParams: List<String?>? = null
+        queryParams: List<String?>? = null,
+        pageSize: Int = 0,
+        rowOffset: Int = 0,
+        blobSizeLimit: Int = 0
     ): Command =
         Command.newBuilder().setQuery(
             QueryCommand.newBuilder()
                 .setDatabaseId(databaseId)
                 .setQuery(query)
+                .setPageSize(pageSize)
+                .setRowOffset(rowOffset)
+                .setBlobSizeLimit(blobSizeLimit)
                 .also { queryCommandBuilder ->
                     if (queryParams != null) queryCommandBuilder.addAllQueryParameterValues(
                         queryParams.map { param ->
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection.test
+
+import android.database.sqlite.SQLiteDatabase
+import android.util.Log
+import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryResponse
+import androidx.sqlite.inspection.test.MessageFactory.createQueryCommand
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.test.filters.MediumTest
+import androidx.test.filters.SdkSuppress
+import androidx.test.platform.app.InstrumentationRegistry.getInstrumentation
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.runBlocking
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+
+@MediumTest
+@RunWith(AndroidJUnit4::class)
+@SdkSuppress(minSdkVersion = 26)
+class QueryPagingTest {
+    @get:Rule
+    val testEnvironment = SqliteInspectorTestEnvironment()
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder(getInstrumentation().context.cacheDir)
+
+    private val table = Table("table1", Column("id", "INTEGER"), Column("b", "BLOB"))
+
+    @Test
+    fun test_pages() = runBlocking {
+        val databaseId = inspectDatabase(createDatabase(25))
+
+        val pages = (0 until 3).map { page ->
+            query(databaseId, pageSize = 10, rowOffset = page * 10)
+        }
+
+        assertThat(pages.map { it.rowsCount }).isEqualTo(listOf(10, 10, 5))
+        assertThat(pages.map { it.hasMoreRows }).isEqualTo(listOf(true, true, false))
+        assertThat(pages.flatMap { page -> page.rowsList.map { it.getValues(0).value } })
+            .isEqualTo((0L until 25L).toList())
+        assertThat(pages.last().columnNamesList).isEqualTo(listOf("id", "b"))
+    }
+
+    @Test
+    fun test_page_past_the_end() = runBlocking {
+        val databaseId = inspectDatabase(createDatabase(5))
+
+        val response = query(databaseId, pageSize = 10, rowOffset = 10)
+
+        assertThat(response.rowsCount).isEqualTo(0)
+        assertThat(response.hasMoreRows).isFalse()
+        assertThat(response.columnNamesList).isEqualTo(listOf("id", "b"))
+    }
+
+    @Test
+    fun test_no_page_size_returns_all_rows() = runBlocking {
+        val databaseId = inspectDatabase(createDatabase(25))
+
+        val response = query(databaseId)
+
+        assertThat(response.rowsCount).isEqualTo(25)
+        assertThat(response.hasMoreRows).isFalse()
+    }
+
+    @Test
+    fun test_blob_truncation() = runBlocking {
+        val databaseId = inspectDatabase(createDatabase(1))
+
+        val truncated = query(databaseId, blobSizeLimit = 4).getRows(0).getValues(1)
+        assertThat(truncated.blobValue.toByteArray()).isEqualTo(byteArrayOf(0, 1, 2, 3))
+        assertThat(truncated.blobSize).isEqualTo(BLOB_SIZE.toLong())
+
+        val complete = query(databaseId).getRows(0).getValues(1)
+        assertThat(complete.blobValue.size()).isEqualTo(BLOB_SIZE)
+        assertThat(complete.blobSize).isEqualTo(0L)
+    }
+
+    @LargeTest
+    @Test
+    fun test_large_table_peak_memory() = runBlocking {
+        val rowCount = 1_000_000
+        val databaseId = inspectDatabase(createDatabase(rowCount))
+        val runtime = Runtime.getRuntime()
+        runtime.gc()
+        val baseline = runtime.totalMemory() - runtime.freeMemory()
+        var peak = baseline
+
+        val pageSize = 1000
+        var rowOffset = 0
+        var readRows = 0
+        do {
+            val page = query(databaseId, pageSize = pageSize, rowOffset = rowOffset,
+                blobSizeLimit = 4)
+            readRows += page.rowsCount
+            rowOffset += pageSize
+            peak = maxOf(peak, runtime.totalMemory() - runtime.freeMemory())
+            // Only reading the first and last pages keeps the test short.
+            if (rowOffset == pageSize) rowOffset = rowCount - pageSize
+        } while (page.hasMoreRows)
+
+        val peakMegabytes = (peak - baseline) / (1024 * 1024)
+        Log.i(TAG, "Peak memory while paging through $rowCount rows: $peakMegabytes MB")
+        assertThat(readRows).isEqualTo(2 * pageSize)
+        // All the rows would need hundreds of megabytes.
+        assertThat(peakMegabytes).isLessThan(64L)
+    }
+
+    private fun createDatabase(rowCount: Int): SQLiteDatabase {
+        val database = Database("db", table).createInstance(temporaryFolder)
+        val blob = (0 until BLOB_SIZE).joinToString("") { "%02x".format(it) }
+        database.beginTransaction()
+        try {
+            val statement = database.compileStatement(
+                "insert into ${table.name} values (?, x'$blob')"
+            )
+            for (i in 0 until rowCount) {
+                statement.bindLong(1, i.toLong())
+                statement.executeInsert()
+            }
+            database.setTransactionSuccessful()
+        } finally {
+            database.endTransaction()
+        }
+        return database
+    }
+
+    private suspend fun inspectDatabase(databaseInstance: SQLiteDatabase): Int =
+        testEnvironment.inspectDatabase(databaseInstance)
+
+    private suspend fun query(
+        databaseId: Int,
+        pageSize: Int = 0,
+        rowOffset: Int = 0,
+        blobSizeLimit: Int = 0
+    ): QueryResponse = testEnvironment.sendCommand(
+        createQueryCommand(
+            databaseId,
+            "select * from ${table.name} order by id",
+            pageSize = pageSize,
+            rowOffset = rowOffset,
+            blobSizeLimit = blobSizeLimit
+        )
+    ).query
+
+    companion object {
+        const val TAG = "QueryPagingTest"
+        const val BLOB_SIZE = 256
+    }
+}
@@ -78,7 +78,6 @@ import com.google.protobuf.ByteString;
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -520,11 +519,11 @@ final class SqliteInspector extends Inspector {
                     cursor = rawQuery(reference, command.getQuery(), params,
                             cancellationSignal);
                     List<String> columnNames = Arrays.asList(cursor.getColumnNames());
+                    QueryResponse.Builder responseBuilder = QueryResponse.newBuilder()
+                            .addAllColumnNames(columnNames);
+                    readPage(cursor, command, cancellationSignal, responseBuilder);
                     callback.reply(Response.newBuilder()
-                            .setQuery(QueryResponse.newBuilder()
-                                    .addAllRows(convert(cursor))
-                                    .addAllColumnNames(columnNames)
-                                    .build())
+                            .setQuery(responseBuilder.build())
                             .build()
                             .toByteArray()
                     );
@@ -638,21 +637,37 @@ final class SqliteInspector extends Inspector {
         return database;
     }
 
-    private static List<Row> convert(Cursor cursor) {
-        List<Row> result = new ArrayList<>();
+    /**
+     * Adds the rows of the page requested by the {@code command} to the {@code response}.
+     * The cursor only keeps a window of the result set in memory, so a page of a large result
+     * set doesn't materialize the rows before or after it.
+     */
+    private static void readPage(Cursor cursor, QueryCommand command,
+            CancellationSignal cancellationSignal, QueryResponse.Builder response) {
+        int pageSize = command.getPageSize();
+        int blobSizeLimit = command.getBlobSizeLimit();
         int columnCount = cursor.getColumnCount();
+        if (command.getRowOffset() > 0) {
+            cursor.moveToPosition(command.getRowOffset() - 1);
+        }
+        int rowCount = 0;
         while (cursor.moveToNext()) {
+            if (pageSize > 0 && rowCount == pageSize) {
+                response.setHasMoreRows(true);
+                break;
+            }
+            cancellationSignal.throwIfCanceled();
             Row.Builder rowBuilder = Row.newBuilder();
             for (int i = 0; i < columnCount; i++) {
-                CellValue value = readValue(cursor, i);
+                CellValue value = readValue(cursor, i, blobSizeLimit);
                 rowBuilder.addValues(value);
             }
-            result.add(rowBuilder.build());
+            response.addRows(rowBuilder);
+            rowCount++;
         }
-        return result;
     }
 
-    private static CellValue readValue(Cursor cursor, int index) {
+    private static CellValue readValue(Cursor cursor, int index, int blobSizeLimit) {
         CellValue.Builder builder = CellValue.newBuilder();
 
         switch (cursor.getType(index)) {
@@ -660,7 +675,13 @@ final class SqliteInspector extends Inspector {
                 // no field to set
                 break;
             case Cursor.FIELD_TYPE_BLOB:
-                builder.setBlobValue(ByteString.copyFrom(cursor.getBlob(index)));
+                byte[] blob = cursor.getBlob(index);
+                if (blobSizeLimit > 0 && blob.length > blobSizeLimit) {
+                    builder.setBlobValue(ByteString.copyFrom(blob, 0, blobSizeLimit));
+                    builder.setBlobSize(blob.length);
+                } else {
+                    builder.setBlobValue(ByteString.copyFrom(blob));
+                }
                 break;
             case Cursor.FIELD_TYPE_STRING:
                 builder.setStringValue(cursor.getString(index));
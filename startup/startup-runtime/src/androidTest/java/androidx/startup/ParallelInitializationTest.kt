@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup
+
+import android.content.Context
+import android.os.SystemClock
+import android.util.Log
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.test.platform.app.InstrumentationRegistry
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.containsString
+import org.hamcrest.CoreMatchers.not
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@MediumTest
+class ParallelInitializationTest {
+
+    private lateinit var context: Context
+    private lateinit var appInitializer: AppInitializer
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        appInitializer = AppInitializer(context)
+    }
+
+    @Test
+    fun initializesAllDependencies() {
+        initializeOnMainThread(SleepingTopInitializer::class.java)
+        assertThat(appInitializer.mInitialized.size, `is`(5))
+        assertTrue(appInitializer.mInitialized.containsKey(SleepingRootInitializer::class.java))
+        assertTrue(appInitializer.mInitialized.containsKey(SleepingLeftInitializer::class.java))
+        assertTrue(appInitializer.mInitialized.containsKey(SleepingRightInitializer::class.java))
+        assertTrue(appInitializer.mInitialized.containsKey(MainThreadCheckInitializer::class.java))
+        assertTrue(appInitializer.mInitialized.containsKey(SleepingTopInitializer::class.java))
+    }
+
+    @Test
+    fun mainThreadInitializerRunsOnMainThread() {
+        initializeOnMainThread(SleepingTopInitializer::class.java)
+        assertThat(
+            appInitializer.mInitialized[MainThreadCheckInitializer::class.java] as Boolean,
+            `is`(true)
+        )
+        val mainThread = context.mainLooper.thread
+        assertThat(
+            appInitializer.mInitialized[SleepingRootInitializer::class.java] as Thread,
+            not(mainThread)
+        )
+    }
+
+    @Test
+    fun reportsInitializationDurations() {
+        initializeOnMainThread(SleepingTopInitializer::class.java)
+        val minimumNanos = SleepingInitializer.SLEEP_MILLIS * 1_000_000
+        assertTrue(
+            appInitializer.getInitializationDurationNanos(SleepingRootInitializer::class.java) >=
+                minimumNanos
+        )
+        assertTrue(
+            appInitializer.getInitializationDurationNanos(SleepingTopInitializer::class.java) >=
+                minimumNanos
+        )
+        assertThat(
+            appInitializer.getInitializationDurationNanos(InitializerNoDependencies::class.java),
+            `is`(-1L)
+        )
+    }
+
+    @Test
+    fun skipsInitializedComponents() {
+        appInitializer.initializeComponent(SleepingRootInitializer::class.java)
+        val root = appInitializer.mInitialized[SleepingRootInitializer::class.java]
+        initializeOnMainThread(SleepingLeftInitializer::class.java)
+        assertTrue(appInitializer.mInitialized[SleepingRootInitializer::class.java] === root)
+        assertThat(appInitializer.mInitialized.size, `is`(2))
+    }
+
+    @Test
+    fun nullResultIsInitializedOnce() {
+        val createCount = NullResultInitializer.sCreateCount.get()
+        initializeOnMainThread(NullResultInitializer::class.java)
+        initializeOnMainThread(NullResultInitializer::class.java)
+        appInitializer.initializeComponent(NullResultInitializer::class.java)
+        assertTrue(appInitializer.isInitialized(NullResultInitializer::class.java))
+        assertThat(NullResultInitializer.sCreateCount.get(), `is`(createCount + 1))
+    }
+
+    @Test
+    fun initializesSequentiallyOffMainThread() {
+        ParallelInitialization(appInitializer, context)
+            .initialize(listOf(SleepingTopInitializer::class.java))
+        val callingThread = Thread.currentThread()
+        assertThat(appInitializer.mInitialized.size, `is`(5))
+        val root = appInitializer.mInitialized[SleepingRootInitializer::class.java]
+        assertTrue(root === callingThread)
+        val top = appInitializer.mInitialized[SleepingTopInitializer::class.java]
+        assertTrue(top === callingThread)
+    }
+
+    @Test
+    fun initializationWithCyclicDependencies() {
+        try {
+            initializeOnMainThread(CyclicDependencyInitializer::class.java)
+            fail()
+        } catch (exception: StartupException) {
+            assertThat(exception.localizedMessage, containsString("Cycle detected."))
+        }
+    }
+
+    @Test
+    fun parallelInitializationIsFaster() {
+        val sequential = AppInitializer(context)
+        val sequentialMillis = measureMillis {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync {
+                sequential.initializeComponent(SleepingTopInitializer::class.java)
+            }
+        }
+        val parallelMillis = measureMillis {
+            initializeOnMainThread(SleepingTopInitializer::class.java)
+        }
+        Log.i(TAG, "Sequential: $sequentialMillis ms, parallel: $parallelMillis ms")
+        // The left and right initializers sleep concurrently when there are several threads.
+        if (Runtime.getRuntime().availableProcessors() > 2) {
+            assertTrue(parallelMillis < sequentialMillis)
+        }
+    }
+
+    private fun initializeOnMainThread(vararg components: Class<out Initializer<*>>) {
+        var failure: Throwable? = null
+        InstrumentationRegistry.getInstrumentation().runOnMainSync {
+            try {
+                ParallelInitialization(appInitializer, context).initialize(components.toList())
+            } catch (throwable: Throwable) {
+                failure = throwable
+            }
+        }
+        failure?.let { throw it }
+    }
+
+    private inline fun measureMillis(block: () -> Unit): Long {
+        val start = SystemClock.elapsedRealtime()
+        block()
+        return SystemClock.elapsedRealtime() - start
+    }
+
+    companion object {
+        const val TAG = "ParallelInitialization"
+    }
+}
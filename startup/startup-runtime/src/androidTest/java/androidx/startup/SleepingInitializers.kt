@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup
+
+import android.content.Context
+import android.os.Looper
+
+/**
+ * Synthetic [Initializer]s forming a diamond:
+ * [SleepingRootInitializer] <- [SleepingLeftInitializer], [SleepingRightInitializer],
+ * [MainThreadCheckInitializer] <- [SleepingTopInitializer].
+ */
+abstract class SleepingInitializer(
+    private val dependencies: List<Class<out Initializer<*>>>
+) : Initializer<Thread> {
+    override fun create(context: Context): Thread {
+        Thread.sleep(SLEEP_MILLIS)
+        return Thread.currentThread()
+    }
+
+    override fun dependencies() = dependencies
+
+    companion object {
+        const val SLEEP_MILLIS = 200L
+    }
+}
+
+class SleepingRootInitializer : SleepingInitializer(emptyList())
+
+class SleepingLeftInitializer : SleepingInitializer(listOf(SleepingRootInitializer::class.java))
+
+class SleepingRightInitializer : SleepingInitializer(listOf(SleepingRootInitializer::class.java))
+
+class MainThreadCheckInitializer : MainThreadInitializer<Boolean> {
+    override fun create(context: Context) = Looper.myLooper() == Looper.getMainLooper()
+
+    override fun dependencies() = listOf(SleepingRootInitializer::class.java)
+}
+
+class SleepingTopInitializer : SleepingInitializer(
+    listOf(
+        SleepingLeftInitializer::class.java,
+        SleepingRightInitializer::class.java,
+        MainThreadCheckInitializer::class.java
+    )
+)
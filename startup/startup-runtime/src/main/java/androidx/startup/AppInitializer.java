@@ -25,8 +25,10 @@ import android.content.pm.ProviderInfo;
 import android.os.Bundle;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.tracing.Trace;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -37,6 +39,12 @@ import java.util.Set;
  * An {@link AppInitializer} can be used to initialize all discovered [ComponentInitializer]s.
  * <br/>
  * The discovery mechanism is via `<meta-data>` entries in the merged `AndroidManifest.xml`.
+ * <br/>
+ * Discovered {@link Initializer}s are initialized one after the other on the main thread, unless
+ * the app adds a `<meta-data android:name="androidx.startup.PARALLEL_INITIALIZATION"
+ * android:value="true" />` entry to the `InitializationProvider`. Then, {@link Initializer}s whose
+ * dependencies are initialized are created concurrently on a small pool of background threads,
+ * and {@link MainThreadInitializer}s are created on the main thread.
  */
 @SuppressWarnings("WeakerAccess")
 public final class AppInitializer {
@@ -44,6 +52,11 @@ public final class AppInitializer {
     // Tracing
     private static final String SECTION_NAME = "Startup";
 
+    /**
+     * The name of the `<meta-data>` entry which opts in to parallel initialization.
+     */
+    static final String PARALLEL_INITIALIZATION = "androidx.startup.PARALLEL_INITIALIZATION";
+
     /**
      * The {@link AppInitializer} instance.
      */
@@ -60,6 +73,15 @@ public final class AppInitializer {
     @NonNull
     final Set<Class<? extends Initializer<?>>> mDiscovered;
 
+    /**
+     * The components being created by a parallel initialization.
+     */
+    @NonNull
+    final Set<Class<?>> mRunning;
+
+    @NonNull
+    final Map<Class<?>, Long> mDurations;
+
     @NonNull
     final Context mContext;
 
@@ -72,6 +94,8 @@ public final class AppInitializer {
         mContext = context.getApplicationContext();
         mDiscovered = new HashSet<>();
         mInitialized = new HashMap<>();
+        mRunning = new HashSet<>();
+        mDurations = new HashMap<>();
     }
 
     /**
@@ -115,6 +139,59 @@ public final class AppInitializer {
         return mDiscovered.contains(component);
     }
 
+    /**
+     * Returns the time spent in {@link Initializer#create(Context)} of the {@link Initializer},
+     * excluding the initialization of its dependencies.
+     *
+     * @param component The {@link Initializer} class to check
+     * @return The duration in nanoseconds, or -1 if the {@link Initializer} wasn't initialized.
+     */
+    public long getInitializationDurationNanos(
+            @NonNull Class<? extends Initializer<?>> component) {
+        synchronized (sLock) {
+            Long duration = mDurations.get(component);
+            return duration != null ? duration : -1;
+        }
+    }
+
+    /**
+     * Marks the component as being created by a parallel initialization, unless it's already
+     * initialized. Other threads initializing it wait until {@link #onCreated} is called.
+     *
+     * @return <code>true</code> if the component needs to be created.
+     */
+    boolean startCreating(@NonNull Class<? extends Initializer<?>> component) {
+        synchronized (sLock) {
+            if (mInitialized.containsKey(component)) {
+                return false;
+            }
+            mRunning.add(component);
+            return true;
+        }
+    }
+
+    /**
+     * Called when a component marked by {@link #startCreating} is created, or failed to be
+     * created if <code>created</code> is <code>false</code>.
+     */
+    void onCreated(@NonNull Class<? extends Initializer<?>> component, boolean created,
+            @Nullable Object result, long durationNanos) {
+        synchronized (sLock) {
+            if (created) {
+                mInitialized.put(component, result);
+                mDurations.put(component, durationNanos);
+            }
+            mRunning.remove(component);
+            sLock.notifyAll();
+        }
+    }
+
+    boolean isInitialized(@NonNull Class<? extends Initializer<?>> component) {
+        synchronized (sLock) {
+            return mInitialized.containsKey(component);
+        }
+    }
+
     @NonNull
     @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
     <T> T doInitialize(
@@ -127,6 +204,15 @@ public final class AppInitializer {
                     // Use the simpleName here because section names would get too big otherwise.
                     Trace.beginSection(component.getSimpleName());
                 }
+                // Wait for a parallel initialization that is creating the component.
+                while (mRunning.contains(component)) {
+                    try {
+                        sLock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new StartupException(exception);
+                    }
+                }
                 if (initializing.contains(component)) {
                     String message = String.format(
                             "Cannot initialize %s. Cycle detected.", component.getName()
@@ -152,12 +238,16 @@ public final class AppInitializer {
                         if (StartupLogger.DEBUG) {
                             StartupLogger.i(String.format("Initializing %s", component.getName()));
                         }
+                        long start = System.nanoTime();
                         result = initializer.create(mContext);
+                        long duration = System.nanoTime() - start;
                         if (StartupLogger.DEBUG) {
-                            StartupLogger.i(String.format("Initialized %s", component.getName()));
+                            StartupLogger.i(String.format("Initialized %s in %d ns",
+                                    component.getName(), duration));
                         }
                         initializing.remove(component);
                         mInitialized.put(component, result);
+                        mDurations.put(component, duration);
                     } catch (Throwable throwable) {
                         throw new StartupException(throwable);
                     }
@@ -182,9 +272,12 @@ public final class AppInitializer {
             Bundle metadata = providerInfo.metaData;
             String startup = mContext.getString(R.string.androidx_startup);
             if (metadata != null) {
-                Set<Class<?>> initializing = new HashSet<>();
+                List<Class<? extends Initializer<?>>> components = new ArrayList<>();
                 Set<String> keys = metadata.keySet();
                 for (String key : keys) {
+                    if (PARALLEL_INITIALIZATION.equals(key)) {
+                        continue;
+                    }
                     String value = metadata.getString(key, null);
                     if (startup.equals(value)) {
                         Class<?> clazz = Class.forName(key);
@@ -195,10 +288,18 @@ public final class AppInitializer {
                             if (StartupLogger.DEBUG) {
                                 StartupLogger.i(String.format("Discovered %s", key));
                             }
-                            doInitialize(component, initializing);
+                            components.add(component);
                         }
                     }
                 }
+                if (metadata.getBoolean(PARALLEL_INITIALIZATION, false)) {
+                    new ParallelInitialization(this, mContext).initialize(components);
+                } else {
+                    Set<Class<?>> initializing = new HashSet<>();
+                    for (Class<? extends Initializer<?>> component : components) {
+                        doInitialize(component, initializing);
+                    }
+                }
             }
         } catch (PackageManager.NameNotFoundException | ClassNotFoundException exception) {
             throw new StartupException(exception);
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+/**
+ * An {@link Initializer} which must be created on the main thread.
+ * <br/>
+ * When discovered {@link Initializer}s are initialized in parallel, {@link Initializer}s are
+ * created on background threads unless they implement this interface.
+ *
+ * @param <T> The instance type being initialized
+ * @see AppInitializer
+ */
+public interface MainThreadInitializer<T> extends Initializer<T> {
+}
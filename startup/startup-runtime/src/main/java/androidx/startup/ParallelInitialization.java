@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.startup;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.tracing.Trace;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Initializes {@link Initializer}s and their dependencies concurrently.
+ * <br/>
+ * The graph of {@link Initializer#dependencies()} is built up front. An {@link Initializer} is
+ * created as soon as all its dependencies are, on a bounded pool of background threads, or on
+ * the calling thread if it's a {@link MainThreadInitializer}. When not called on the main thread,
+ * the components are initialized sequentially instead, as there is no main thread to wait for.
+ */
+final class ParallelInitialization {
+
+    private static final int MAX_THREADS = 4;
+
+    @NonNull
+    private final AppInitializer mAppInitializer;
+
+    @NonNull
+    private final Context mContext;
+
+    @NonNull
+    private final Map<Class<?>, Node> mNodes;
+
+    /**
+     * The tasks to run on the calling thread.
+     */
+    @NonNull
+    private final BlockingQueue<Runnable> mMainThreadTasks;
+
+    // Guarded by this.
+    private int mRemaining;
+    private Throwable mFailure;
+
+    private ExecutorService mExecutor;
+
+    ParallelInitialization(@NonNull AppInitializer appInitializer, @NonNull Context context) {
+        mAppInitializer = appInitializer;
+        mContext = context;
+        mNodes = new LinkedHashMap<>();
+        mMainThreadTasks = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Initializes the components and their dependencies, and returns when all of them are
+     * initialized.
+     *
+     * @param components The {@link Initializer}s to initialize.
+     */
+    void initialize(@NonNull List<Class<? extends Initializer<?>>> components) {
+        Set<Class<?>> initializing = new HashSet<>();
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            for (Class<? extends Initializer<?>> component : components) {
+                mAppInitializer.doInitialize(component, initializing);
+            }
+            return;
+        }
+        for (Class<? extends Initializer<?>> component : components) {
+            addNode(component, initializing);
+        }
+        if (mNodes.isEmpty()) {
+            return;
+        }
+        int threads = Math.max(1,
+                Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_THREADS));
+        mExecutor = Executors.newFixedThreadPool(threads, new StartupThreadFactory());
+        try {
+            synchronized (this) {
+                mRemaining = mNodes.size();
+                for (Node node : mNodes.values()) {
+                    if (node.mRemainingDependencies == 0) {
+                        dispatch(node);
+                    }
+                }
+            }
+            runMainThreadTasks();
+        } finally {
+            mExecutor.shutdown();
+        }
+        Throwable failure;
+        synchronized (this) {
+            failure = mFailure;
+        }
+        if (failure != null) {
+            if (failure instanceof StartupException) {
+                throw (StartupException) failure;
+            }
+            throw new StartupException(failure);
+        }
+    }
+
+    /**
+     * Adds the node of the component after the nodes of its dependencies.
+     *
+     * @return The node, or <code>null</code> if the component is already initialized.
+     */
+    @Nullable
+    private Node addNode(@NonNull Class<? extends Initializer<?>> component,
+            @NonNull Set<Class<?>> initializing) {
+        if (initializing.contains(component)) {
+            String message = String.format(
+                    "Cannot initialize %s. Cycle detected.", component.getName()
+            );
+            throw new StartupException(message);
+        }
+        Node node = mNodes.get(component);
+        if (node != null || mAppInitializer.isInitialized(component)) {
+            return node;
+        }
+        initializing.add(component);
+        Initializer<?> initializer;
+        try {
+            initializer = (Initializer<?>) component.getDeclaredConstructor().newInstance();
+        } catch (Throwable throwable) {
+            throw new StartupException(throwable);
+        }
+        node = new Node(component, initializer);
+        for (Class<? extends Initializer<?>> dependency : initializer.dependencies()) {
+            Node dependencyNode = addNode(dependency, initializing);
+            if (dependencyNode != null) {
+                dependencyNode.mDependents.add(node);
+                node.mRemainingDependencies++;
+            }
+        }
+        initializing.remove(component);
+        mNodes.put(component, node);
+        return node;
+    }
+
+    private void dispatch(@NonNull Node node) {
+        if (node.mInitializer instanceof MainThreadInitializer) {
+            mMainThreadTasks.add(node);
+        } else {
+            mExecutor.execute(node);
+        }
+    }
+
+    /**
+     * Runs the tasks of {@link MainThreadInitializer}s until all the nodes are created, or one
+     * of them fails.
+     */
+    private void runMainThreadTasks() {
+        while (true) {
+            synchronized (this) {
+                if (mRemaining == 0 || mFailure != null) {
+                    return;
+                }
+            }
+            Runnable task;
+            try {
+                task = mMainThreadTasks.take();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new StartupException(exception);
+            }
+            task.run();
+        }
+    }
+
+    private synchronized void onNodeDone(@NonNull Node node, @Nullable Throwable failure) {
+        if (failure != null) {
+            if (mFailure == null) {
+                mFailure = failure;
+            }
+        } else if (mFailure == null) {
+            for (Node dependent : node.mDependents) {
+                if (--dependent.mRemainingDependencies == 0) {
+                    dispatch(dependent);
+                }
+            }
+        }
+        mRemaining--;
+        if (mRemaining == 0 || mFailure != null) {
+            // Wakes up the calling thread.
+            mMainThreadTasks.add(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+    }
+
+    private final class Node implements Runnable {
+        final Class<? extends Initializer<?>> mComponent;
+        final Initializer<?> mInitializer;
+        final List<Node> mDependents;
+        // Guarded by ParallelInitialization.this.
+        int mRemainingDependencies;
+
+        Node(@NonNull Class<? extends Initializer<?>> component,
+                @NonNull Initializer<?> initializer) {
+            mComponent = component;
+            mInitializer = initializer;
+            mDependents = new ArrayList<>();
+        }
+
+        @Override
+        public void run() {
+            Throwable failure = null;
+            // The component may have been initialized on demand in the meantime.
+            if (mAppInitializer.startCreating(mComponent)) {
+                Object result = null;
+                boolean created = false;
+                long duration = 0;
+                boolean isTracingEnabled = Trace.isEnabled();
+                try {
+                    if (isTracingEnabled) {
+                        // Use the simpleName here because section names would get too big
+                        // otherwise.
+                        Trace.beginSection(mComponent.getSimpleName());
+                    }
+                    if (StartupLogger.DEBUG) {
+                        StartupLogger.i(String.format("Initializing %s", mComponent.getName()));
+                    }
+                    long start = System.nanoTime();
+                    result = mInitializer.create(mContext);
+                    created = true;
+                    duration = System.nanoTime() - start;
+                    if (StartupLogger.DEBUG) {
+                        StartupLogger.i(String.format("Initialized %s in %d ns",
+                                mComponent.getName(), duration));
+                    }
+                } catch (Throwable throwable) {
+                    failure = throwable;
+                } finally {
+                    mAppInitializer.onCreated(mComponent, created, result, duration);
+                    Trace.endSection();
+                }
+            }
+            onNodeDone(this, failure);
+        }
+    }
+
+    private static final class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, "Startup-" + mCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.textclassifier;
+
+import android.content.Context;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Measures scrolling through a conversation of {@link #ROW_COUNT} messages shown by
+ * {@link #VIEW_COUNT} recycled views, where the messages repeat a few bodies, when generating
+ * the links of every bound message and when loading them with a {@link TextLinksLoader}.
+ * <p>
+ * The loader runs its background work on the benchmark thread, so the measured time includes
+ * the links it generates.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class TextLinksLoaderBenchmark {
+
+    private static final int ROW_COUNT = 200;
+    private static final int VIEW_COUNT = 12;
+
+    private static final String[] MESSAGES = {
+            "Are we still on for lunch tomorrow?",
+            "Sure, see you at www.android.com at noon",
+            "Send the slides to slides@example.com please",
+            "Call me at +1 650-555-0100 when you land",
+            "lol",
+            "The doc is at https://developer.android.com/guide/topics/text",
+            "On my way!",
+            "Can you email contact@example.com or call 650-555-0199?",
+    };
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private final TextClassifier mTextClassifier = LegacyTextClassifier.of(mContext);
+
+    @Test
+    @UiThreadTest
+    public void scrollWithGenerateLinks() {
+        TextView[] views = createViews();
+        TextLinksParams params = TextLinksParams.DEFAULT_PARAMS;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int row = 0; row < ROW_COUNT; row++) {
+                TextView view = views[row % VIEW_COUNT];
+                String message = MESSAGES[row % MESSAGES.length];
+                view.setText(message);
+                TextLinks textLinks = mTextClassifier.generateLinks(
+                        new TextLinks.Request.Builder(message).build());
+                Spannable spannable = new SpannableString(message);
+                if (textLinks.apply(spannable, mTextClassifier, params)
+                        == TextLinks.STATUS_LINKS_APPLIED) {
+                    view.setText(spannable);
+                }
+            }
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void scrollWithLoader() {
+        TextView[] views = createViews();
+        TextLinksParams params = TextLinksParams.DEFAULT_PARAMS;
+        TextLinksLoader loader = new TextLinksLoader(mTextClassifier, 64 * 1024,
+                DIRECT_EXECUTOR, DIRECT_EXECUTOR);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int row = 0; row < ROW_COUNT; row++) {
+                TextView view = views[row % VIEW_COUNT];
+                view.setText(MESSAGES[row % MESSAGES.length]);
+                loader.load(view, params);
+            }
+        }
+    }
+
+    private TextView[] createViews() {
+        TextView[] views = new TextView[VIEW_COUNT];
+        for (int i = 0; i < VIEW_COUNT; i++) {
+            views[i] = new TextView(mContext);
+        }
+        return views;
+    }
+}
@@ -230,6 +230,45 @@ public final class LegacyTextClassifierTest {
         verifyGenerateLinksOnAllEntities(request);
     }
 
+    @Test
+    public void generateLinks_onlyRequestedEntities() {
+        TextLinks.Request request = createTextLinksRequest(TEXT_WITH_ALL_ENTITIES,
+                Arrays.asList(TextClassifier.TYPE_URL, TextClassifier.TYPE_EMAIL));
+
+        TextLinks textLinks = mLegacyTextClassifier.generateLinks(request);
+
+        Collection<TextLinks.TextLink> links = textLinks.getLinks();
+        assertThat(links).hasSize(2);
+        for (TextLinks.TextLink textLink : links) {
+            String entityType = textLink.getEntityType(0);
+            assertThat(TEXT_WITH_ALL_ENTITIES.substring(textLink.getStart(), textLink.getEnd()))
+                    .isEqualTo(entityToSpanText(entityType));
+        }
+    }
+
+    @Test
+    public void generateLinks_overlappingEntitiesOfDifferentTypes() {
+        final String email = "example.com@gmail.com";
+        final String text = "Contact " + email;
+        TextLinks.Request request = createTextLinksRequest(text,
+                Arrays.asList(TextClassifier.TYPE_URL, TextClassifier.TYPE_EMAIL));
+
+        TextLinks textLinks = mLegacyTextClassifier.generateLinks(request);
+
+        // Each entity type is found on its own, so the URL inside the email address is kept.
+        Collection<TextLinks.TextLink> links = textLinks.getLinks();
+        assertThat(links).hasSize(2);
+        for (TextLinks.TextLink textLink : links) {
+            String linkText = text.substring(textLink.getStart(), textLink.getEnd());
+            if (TextClassifier.TYPE_EMAIL.equals(textLink.getEntityType(0))) {
+                assertThat(linkText).isEqualTo(email);
+            } else {
+                assertThat(textLink.getEntityType(0)).isEqualTo(TextClassifier.TYPE_URL);
+                assertThat(linkText).isEqualTo("example.com");
+            }
+        }
+    }
+
     private void verifyGenerateLinksOnAllEntities(TextLinks.Request request) {
 
         final String[] entityTypes =
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.textclassifier;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.text.Spanned;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/** Instrumentation unit tests for {@link TextLinksLoader}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public final class TextLinksLoaderTest {
+
+    private static final String TEXT = "Email me at myemail@android.com";
+    private static final String OTHER_TEXT = "Or at other@android.com";
+
+    private final Queue<Runnable> mWorkerTasks = new ArrayDeque<>();
+    private final Executor mWorkerExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            mWorkerTasks.add(runnable);
+        }
+    };
+    private final Executor mMainThreadExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private Context mContext;
+    private CountingTextClassifier mTextClassifier;
+    private TextLinksLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mTextClassifier = new CountingTextClassifier();
+        mLoader = new TextLinksLoader(mTextClassifier, 1024, mWorkerExecutor,
+                mMainThreadExecutor);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_appliesLinksInBackground() {
+        TextView textView = createTextView(TEXT);
+
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+
+        assertThat(getLinkCount(textView)).isEqualTo(0);
+        runWorkerTasks();
+        assertThat(mTextClassifier.mCount).isEqualTo(1);
+        assertThat(getLinkCount(textView)).isEqualTo(1);
+        assertThat(textView.getText().toString()).isEqualTo(TEXT);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_sharesRequestsOfSameText() {
+        TextView first = createTextView(TEXT);
+        TextView second = createTextView(TEXT);
+
+        mLoader.load(first, TextLinksParams.DEFAULT_PARAMS);
+        mLoader.load(second, TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        assertThat(mTextClassifier.mCount).isEqualTo(1);
+        assertThat(getLinkCount(first)).isEqualTo(1);
+        assertThat(getLinkCount(second)).isEqualTo(1);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_appliesCachedLinks() {
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        TextView textView = createTextView(TEXT);
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+
+        assertThat(mWorkerTasks).isEmpty();
+        assertThat(mTextClassifier.mCount).isEqualTo(1);
+        assertThat(getLinkCount(textView)).isEqualTo(1);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_differentParams() {
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        TextView textView = createTextView(TEXT);
+        mLoader.load(textView, new TextLinksParams.Builder().build());
+        runWorkerTasks();
+
+        assertThat(mTextClassifier.mCount).isEqualTo(2);
+        assertThat(getLinkCount(textView)).isEqualTo(1);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_evictsLinksOverCacheSize() {
+        mLoader = new TextLinksLoader(mTextClassifier, TEXT.length(), mWorkerExecutor,
+                mMainThreadExecutor);
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+        mLoader.load(createTextView(OTHER_TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+
+        assertThat(mWorkerTasks).hasSize(1);
+    }
+
+    @Test
+    @UiThreadTest
+    public void cancel_doesNotGenerateLinks() {
+        TextView textView = createTextView(TEXT);
+
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+        mLoader.cancel(textView);
+        runWorkerTasks();
+
+        assertThat(mTextClassifier.mCount).isEqualTo(0);
+        assertThat(getLinkCount(textView)).isEqualTo(0);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_cancelsPreviousLoadOfView() {
+        TextView textView = createTextView(TEXT);
+
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+        textView.setText(OTHER_TEXT);
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        assertThat(mTextClassifier.mCount).isEqualTo(1);
+        assertThat(textView.getText().toString()).isEqualTo(OTHER_TEXT);
+        assertThat(getLinkCount(textView)).isEqualTo(1);
+    }
+
+    @Test
+    @UiThreadTest
+    public void load_ignoresChangedText() {
+        TextView textView = createTextView(TEXT);
+
+        mLoader.load(textView, TextLinksParams.DEFAULT_PARAMS);
+        textView.setText(OTHER_TEXT);
+        runWorkerTasks();
+
+        assertThat(textView.getText().toString()).isEqualTo(OTHER_TEXT);
+        assertThat(getLinkCount(textView)).isEqualTo(0);
+    }
+
+    @Test
+    @UiThreadTest
+    public void clearCache() {
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        mLoader.clearCache();
+        mLoader.load(createTextView(TEXT), TextLinksParams.DEFAULT_PARAMS);
+        runWorkerTasks();
+
+        assertThat(mTextClassifier.mCount).isEqualTo(2);
+    }
+
+    private TextView createTextView(String text) {
+        TextView textView = new TextView(mContext);
+        textView.setText(text);
+        return textView;
+    }
+
+    private void runWorkerTasks() {
+        Runnable task;
+        while ((task = mWorkerTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static int getLinkCount(TextView textView) {
+        CharSequence text = textView.getText();
+        if (!(text instanceof Spanned)) {
+            return 0;
+        }
+        return ((Spanned) text).getSpans(0, text.length(), TextLinks.TextLinkSpan.class).length;
+    }
+
+    /** Links the text after "at ", and counts the generated links. */
+    private static final class CountingTextClassifier extends TextClassifier {
+        int mCount;
+
+        @NonNull
+        @Override
+        public TextLinks generateLinks(@NonNull TextLinks.Request request) {
+            mCount++;
+            String text = request.getText().toString();
+            int start = text.indexOf("at ") + 3;
+            return new TextLinks.Builder(text)
+                    .addLink(start, text.length(),
+                            Collections.singletonMap(TextClassifier.TYPE_EMAIL, 1f))
+                    .build();
+        }
+    }
+}
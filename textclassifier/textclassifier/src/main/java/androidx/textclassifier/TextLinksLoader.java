@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.textclassifier;
+
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.util.Log;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+import androidx.core.util.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates the {@link TextLinks} of the text of {@link TextView}s in the background, and
+ * applies them on the main thread.
+ * <p>
+ * This is meant for lists showing many texts, such as the messages of a conversation, which bind
+ * the same texts repeatedly:
+ * <ul>
+ *     <li>The links of recently loaded texts are cached, and applied right away when they are
+ *     loaded again.</li>
+ *     <li>Loading the same text with the same {@link TextLinksParams} instance in several views
+ *     generates its links once.</li>
+ *     <li>Loading the links of a view, or calling {@link #cancel(TextView)}, cancels the
+ *     previous load of the view, for instance when it's recycled.</li>
+ *     <li>The links are applied to a copy of the text, which is set on the view at once, rather
+ *     than laying out the view again for every link.</li>
+ * </ul>
+ */
+public final class TextLinksLoader {
+
+    private static final String LOG_TAG = "TextLinksLoader";
+
+    /**
+     * The default total length of the texts whose links are cached.
+     */
+    private static final int DEFAULT_MAX_CACHE_SIZE = 64 * 1024;
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final TextClassifier mTextClassifier;
+    private final Executor mWorkerExecutor;
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final Executor mMainThreadExecutor;
+
+    // Only accessed on the main thread.
+    private final LruCache<Key, TextLinks> mCache;
+    private final Map<Key, Task> mTasks = new HashMap<>();
+    private final WeakHashMap<TextView, Task> mPendingViews = new WeakHashMap<>();
+
+    /**
+     * Creates a loader generating links with the given text classifier, and caching the links
+     * of texts up to a default total length.
+     *
+     * @param textClassifier the text classifier generating the links
+     */
+    public TextLinksLoader(@NonNull TextClassifier textClassifier) {
+        this(textClassifier, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a loader generating links with the given text classifier.
+     *
+     * @param textClassifier the text classifier generating the links
+     * @param maxCacheSize the maximum total length of the texts whose links are cached
+     */
+    public TextLinksLoader(@NonNull TextClassifier textClassifier, int maxCacheSize) {
+        this(textClassifier, maxCacheSize, TextLinks.sWorkerExecutor,
+                TextLinks.sMainThreadExecutor);
+    }
+
+    @VisibleForTesting
+    TextLinksLoader(@NonNull TextClassifier textClassifier, int maxCacheSize,
+            @NonNull Executor workerExecutor, @NonNull Executor mainThreadExecutor) {
+        mTextClassifier = Preconditions.checkNotNull(textClassifier);
+        mWorkerExecutor = Preconditions.checkNotNull(workerExecutor);
+        mMainThreadExecutor = Preconditions.checkNotNull(mainThreadExecutor);
+        mCache = new LruCache<Key, TextLinks>(maxCacheSize) {
+            @Override
+            protected int sizeOf(@NonNull Key key, @NonNull TextLinks value) {
+                return Math.max(1, key.mText.length());
+            }
+        };
+    }
+
+    /**
+     * Generates the links of the current text of the view, and applies them to it.
+     * <p>
+     * If the links of the text are cached, they are applied right away. Otherwise they are
+     * generated in the background, and applied if the text of the view is still the same. The
+     * previous load of the view is cancelled.
+     *
+     * @param textView the view whose text to annotate with links
+     * @param params how to generate and apply the links
+     */
+    @UiThread
+    public void load(@NonNull TextView textView, @NonNull TextLinksParams params) {
+        Preconditions.checkNotNull(textView);
+        Preconditions.checkNotNull(params);
+
+        cancel(textView);
+        final CharSequence text = textView.getText();
+        final Key key = new Key(text.toString(), params);
+        final TextLinks textLinks = mCache.get(key);
+        if (textLinks != null) {
+            apply(textView, text, textLinks, params);
+            return;
+        }
+
+        Task task = mTasks.get(key);
+        final boolean isNewTask = task == null;
+        if (isNewTask) {
+            task = new Task(key);
+            mTasks.put(key, task);
+        }
+        task.mTextViews.put(textView, text);
+        mPendingViews.put(textView, task);
+        if (isNewTask) {
+            mWorkerExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Cancels the load of the links of the view, if any. The links are not generated if no
+     * other view is waiting for them.
+     *
+     * @param textView the view whose links not to apply
+     */
+    @UiThread
+    public void cancel(@NonNull TextView textView) {
+        final Task task = mPendingViews.remove(textView);
+        if (task == null) {
+            return;
+        }
+        task.mTextViews.remove(textView);
+        if (task.mTextViews.isEmpty()) {
+            task.mCancelled = true;
+            mTasks.remove(task.mKey);
+        }
+    }
+
+    /**
+     * Removes all the cached links.
+     */
+    @UiThread
+    public void clearCache() {
+        mCache.evictAll();
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void onLoaded(@NonNull Task task, @Nullable TextLinks textLinks) {
+        if (mTasks.get(task.mKey) == task) {
+            mTasks.remove(task.mKey);
+        }
+        // The links are cached even if the load was cancelled, as the view is likely to show
+        // the same text again.
+        if (textLinks != null) {
+            mCache.put(task.mKey, textLinks);
+        }
+        for (Map.Entry<TextView, CharSequence> entry : task.mTextViews.entrySet()) {
+            final TextView textView = entry.getKey();
+            if (textView == null || mPendingViews.get(textView) != task) {
+                continue;
+            }
+            mPendingViews.remove(textView);
+            if (textLinks != null) {
+                apply(textView, entry.getValue(), textLinks, task.mKey.mParams);
+            }
+        }
+        task.mTextViews.clear();
+    }
+
+    private void apply(@NonNull TextView textView, @NonNull CharSequence text,
+            @NonNull TextLinks textLinks, @NonNull TextLinksParams params) {
+        if (textView.getText() != text) {
+            Log.d(LOG_TAG, "Text has changed from the loaded text. Ignoring.");
+            return;
+        }
+        final Spannable spannable = new SpannableString(text);
+        if (params.apply(spannable, textLinks, mTextClassifier)
+                == TextLinks.STATUS_LINKS_APPLIED) {
+            textView.setText(spannable);
+        }
+    }
+
+    /**
+     * Identifies the links of a text, with the identity of the params as the params are usually
+     * shared by all the texts of a list.
+     */
+    private static final class Key {
+        final String mText;
+        final TextLinksParams mParams;
+
+        Key(@NonNull String text, @NonNull TextLinksParams params) {
+            mText = text;
+            mParams = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return mParams == other.mParams && mText.equals(other.mText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mText.hashCode() + System.identityHashCode(mParams);
+        }
+    }
+
+    /**
+     * Generates the links of a text, for the views waiting for them.
+     */
+    private final class Task implements Runnable {
+        final Key mKey;
+        // Only accessed on the main thread, with the text each view had when loaded.
+        final WeakHashMap<TextView, CharSequence> mTextViews = new WeakHashMap<>();
+        volatile boolean mCancelled;
+
+        Task(@NonNull Key key) {
+            mKey = key;
+        }
+
+        @Override
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            final TextLinksParams params = mKey.mParams;
+            final TextLinks.Request request = new TextLinks.Request.Builder(mKey.mText)
+                    .setEntityConfig(params.getEntityConfig())
+                    .setDefaultLocales(params.getDefaultLocales())
+                    .setReferenceTime(params.getReferenceTime())
+                    .build();
+            TextLinks textLinks = null;
+            try {
+                textLinks = mTextClassifier.generateLinks(request);
+            } catch (RuntimeException e) {
+                Log.e(LOG_TAG, "Error generating links", e);
+            }
+            final TextLinks result = textLinks;
+            mMainThreadExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    onLoaded(Task.this, result);
+                }
+            });
+        }
+    }
+}
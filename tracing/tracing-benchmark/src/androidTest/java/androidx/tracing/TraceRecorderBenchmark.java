@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the overhead of a {@link Trace} section, with and without {@link TraceRecorder}.
+ * The ring buffers are small enough to wrap around many times while measuring.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class TraceRecorderBenchmark {
+    private static final int EVENTS_PER_THREAD = 1024;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @After
+    public void tearDown() {
+        TraceRecorder.stop();
+    }
+
+    @Test
+    public void section_notRecording() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Trace.beginSection("section");
+            Trace.endSection();
+        }
+    }
+
+    @Test
+    public void section_recording() {
+        TraceRecorder.start(EVENTS_PER_THREAD);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Trace.beginSection("section");
+            Trace.endSection();
+        }
+    }
+
+    @Test
+    public void asyncSection_recording() {
+        TraceRecorder.start(EVENTS_PER_THREAD);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Trace.beginAsyncSection("asyncSection", 1);
+            Trace.endAsyncSection("asyncSection", 1);
+        }
+    }
+
+    @Test
+    public void counter_recording() {
+        TraceRecorder.start(EVENTS_PER_THREAD);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        int value = 0;
+        while (state.keepRunning()) {
+            Trace.setCounter("counter", value++);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+@SmallTest
+public final class TraceRecorderTest {
+
+    @After
+    public void stopRecording() {
+        TraceRecorder.stop();
+    }
+
+    @Test
+    public void recordsSections() throws Exception {
+        TraceRecorder.start(16);
+        Trace.beginSection("outer");
+        Trace.beginSection("inner");
+        Trace.endSection();
+        Trace.endSection();
+        TraceRecorder.stop();
+
+        List<JSONObject> events = currentThreadEvents();
+        assertEquals(4, events.size());
+        assertEvent(events.get(0), "B", "outer");
+        assertEvent(events.get(1), "B", "inner");
+        assertEvent(events.get(2), "E", null);
+        assertEvent(events.get(3), "E", null);
+        assertTrue(events.get(0).getDouble("ts") <= events.get(3).getDouble("ts"));
+    }
+
+    @Test
+    public void recordsAsyncSectionsAndCounters() throws Exception {
+        TraceRecorder.start(16);
+        Trace.beginAsyncSection("async", 5099);
+        Trace.setCounter("counterName", 42);
+        Trace.endAsyncSection("async", 5099);
+        TraceRecorder.stop();
+
+        List<JSONObject> events = currentThreadEvents();
+        assertEquals(3, events.size());
+        assertEvent(events.get(0), "b", "async");
+        assertEquals(5099, events.get(0).getInt("id"));
+        assertEvent(events.get(1), "C", "counterName");
+        assertEquals(42, events.get(1).getJSONObject("args").getInt("value"));
+        assertEvent(events.get(2), "e", "async");
+        assertEquals(5099, events.get(2).getInt("id"));
+    }
+
+    @Test
+    public void keepsMostRecentEvents() throws Exception {
+        TraceRecorder.start(4);
+        Trace.beginSection("dropped");
+        for (int i = 0; i < 3; i++) {
+            Trace.setCounter("counter", i);
+        }
+        Trace.endSection();
+        Trace.setCounter("counter", 3);
+        TraceRecorder.stop();
+
+        // The end of the dropped section has no begin anymore, and isn't written.
+        List<JSONObject> events = currentThreadEvents();
+        assertEquals(3, events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEvent(events.get(i), "C", "counter");
+        }
+        assertEquals(3, events.get(2).getJSONObject("args").getInt("value"));
+    }
+
+    @Test
+    public void doesNotRecordWhenStopped() throws Exception {
+        TraceRecorder.start(16);
+        TraceRecorder.stop();
+        assertFalse(TraceRecorder.isRecording());
+        Trace.beginSection("notRecorded");
+        Trace.endSection();
+
+        assertEquals(0, currentThreadEvents().size());
+    }
+
+    @Test
+    public void isEnabledWhileRecording() {
+        TraceRecorder.start(16);
+        assertTrue(TraceRecorder.isRecording());
+        assertTrue(Trace.isEnabled());
+    }
+
+    @Test
+    public void recordsEachThread() throws Exception {
+        TraceRecorder.start(16);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Trace.beginSection("otherThread");
+                Trace.endSection();
+            }
+        }, "TraceRecorderTest");
+        thread.start();
+        thread.join();
+        TraceRecorder.stop();
+
+        JSONArray events = writeTrace();
+        boolean foundThreadName = false;
+        boolean foundSection = false;
+        for (int i = 0; i < events.length(); i++) {
+            JSONObject event = events.getJSONObject(i);
+            if ("M".equals(event.getString("ph"))) {
+                foundThreadName |= "TraceRecorderTest".equals(
+                        event.getJSONObject("args").getString("name"));
+            } else if ("otherThread".equals(event.optString("name"))) {
+                foundSection = true;
+            }
+        }
+        assertTrue(foundThreadName);
+        assertTrue(foundSection);
+    }
+
+    private static void assertEvent(@NonNull JSONObject event, @NonNull String phase,
+            String name) throws JSONException {
+        assertEquals(phase, event.getString("ph"));
+        if (name == null) {
+            assertFalse(event.has("name"));
+        } else {
+            assertEquals(name, event.getString("name"));
+        }
+    }
+
+    @NonNull
+    private static List<JSONObject> currentThreadEvents() throws IOException, JSONException {
+        int tid = android.os.Process.myTid();
+        JSONArray events = writeTrace();
+        List<JSONObject> result = new ArrayList<>();
+        for (int i = 0; i < events.length(); i++) {
+            JSONObject event = events.getJSONObject(i);
+            if (event.getInt("tid") == tid && !"M".equals(event.getString("ph"))) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private static JSONArray writeTrace() throws IOException, JSONException {
+        StringWriter writer = new StringWriter();
+        TraceRecorder.writeTrace(writer);
+        return new JSONObject(writer.toString()).getJSONArray("traceEvents");
+    }
+}
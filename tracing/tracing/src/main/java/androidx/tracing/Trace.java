@@ -35,6 +35,7 @@ import java.lang.reflect.Method;
  * tracing of events that occur across multiple processes.
  * <p>For information about using the Systrace tool, read <a
  * href="{@docRoot}studio/profile/systrace/">Overview of system tracing</a>.
+ * <p>The trace events can also be recorded in memory with {@link TraceRecorder}.
  */
 public final class Trace {
 
@@ -57,6 +58,9 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static boolean isEnabled() {
+        if (TraceRecorder.sRecording) {
+            return true;
+        }
         try {
             if (sIsTagEnabledMethod == null) {
                 return android.os.Trace.isEnabled();
@@ -77,6 +81,9 @@ public final class Trace {
      * @param label The name of the code section to appear in the trace.
      */
     public static void beginSection(@NonNull String label) {
+        if (TraceRecorder.sRecording) {
+            TraceRecorder.beginSection(label);
+        }
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.beginSection(label);
         }
@@ -90,6 +97,9 @@ public final class Trace {
      * thread.
      */
     public static void endSection() {
+        if (TraceRecorder.sRecording) {
+            TraceRecorder.endSection();
+        }
         if (Build.VERSION.SDK_INT >= 18) {
             TraceApi18Impl.endSection();
         }
@@ -107,6 +117,9 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void beginAsyncSection(@NonNull String methodName, int cookie) {
+        if (TraceRecorder.sRecording) {
+            TraceRecorder.beginAsyncSection(methodName, cookie);
+        }
         try {
             if (sAsyncTraceBeginMethod == null) {
                 TraceApi29Impl.beginAsyncSection(methodName, cookie);
@@ -127,6 +140,9 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void endAsyncSection(@NonNull String methodName, int cookie) {
+        if (TraceRecorder.sRecording) {
+            TraceRecorder.endAsyncSection(methodName, cookie);
+        }
         try {
             if (sAsyncTraceEndMethod == null) {
                 TraceApi29Impl.endAsyncSection(methodName, cookie);
@@ -145,6 +161,9 @@ public final class Trace {
      */
     @SuppressLint("NewApi")
     public static void setCounter(@NonNull String counterName, int counterValue) {
+        if (TraceRecorder.sRecording) {
+            TraceRecorder.setCounter(counterName, counterValue);
+        }
         try {
             if (sTraceCounterMethod == null) {
                 TraceApi29Impl.setCounter(counterName, counterValue);
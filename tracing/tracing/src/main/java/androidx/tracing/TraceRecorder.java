@@ -0,0 +1,350 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.tracing;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the events written with {@link Trace} in memory, so they can be inspected without
+ * attaching the Systrace tool.
+ *
+ * <p>While recording, every thread writing events records them in its own ring buffer, which
+ * keeps the most recent events and doesn't allocate once created. The recorded events can be
+ * written with {@link #writeTrace(Writer)} in the JSON format of the Chrome trace viewer, which
+ * can be opened with <a href="https://ui.perfetto.dev">Perfetto</a>.
+ *
+ * <p>Events are recorded in addition to being written to the system trace buffer, and
+ * {@link Trace#isEnabled()} returns true while recording.
+ */
+public final class TraceRecorder {
+
+    static final byte TYPE_BEGIN = 0;
+    static final byte TYPE_END = 1;
+    static final byte TYPE_ASYNC_BEGIN = 2;
+    static final byte TYPE_ASYNC_END = 3;
+    static final byte TYPE_COUNTER = 4;
+
+    /**
+     * Checked by {@link Trace} before recording an event.
+     */
+    static volatile boolean sRecording;
+
+    private static final Object sLock = new Object();
+
+    // Written with sLock held.
+    private static volatile Recording sRecordingState;
+
+    private static final ThreadLocal<EventBuffer> sBuffer = new ThreadLocal<>();
+
+    /**
+     * Starts recording the events written with {@link Trace}, discarding the events of the
+     * previous recording.
+     *
+     * @param eventsPerThread The number of most recent events to keep for each thread.
+     */
+    public static void start(int eventsPerThread) {
+        if (eventsPerThread <= 0) {
+            throw new IllegalArgumentException("eventsPerThread must be positive");
+        }
+        synchronized (sLock) {
+            sRecordingState = new Recording(eventsPerThread);
+            sRecording = true;
+        }
+    }
+
+    /**
+     * Stops recording events. The recorded events can still be written with
+     * {@link #writeTrace(Writer)}.
+     */
+    public static void stop() {
+        synchronized (sLock) {
+            sRecording = false;
+        }
+    }
+
+    /**
+     * @return true if the events written with {@link Trace} are currently recorded.
+     */
+    public static boolean isRecording() {
+        return sRecording;
+    }
+
+    /**
+     * Writes the events of the last recording in the JSON format of the Chrome trace viewer.
+     * This can be called while recording, events recorded concurrently may then be left out.
+     *
+     * @param writer The writer to write the trace to.
+     */
+    public static void writeTrace(@NonNull Writer writer) throws IOException {
+        List<EventBuffer> buffers;
+        synchronized (sLock) {
+            if (sRecordingState == null) {
+                buffers = new ArrayList<>();
+            } else {
+                buffers = new ArrayList<>(sRecordingState.mBuffers);
+            }
+        }
+        int pid = Process.myPid();
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+        for (EventBuffer buffer : buffers) {
+            first = buffer.write(writer, pid, first);
+        }
+        writer.write("],\"displayTimeUnit\":\"ns\"}");
+        writer.flush();
+    }
+
+    static void beginSection(@NonNull String label) {
+        EventBuffer buffer = getBuffer();
+        if (buffer != null) {
+            buffer.add(TYPE_BEGIN, label, 0);
+        }
+    }
+
+    static void endSection() {
+        EventBuffer buffer = getBuffer();
+        if (buffer != null) {
+            buffer.add(TYPE_END, null, 0);
+        }
+    }
+
+    static void beginAsyncSection(@NonNull String methodName, int cookie) {
+        EventBuffer buffer = getBuffer();
+        if (buffer != null) {
+            buffer.add(TYPE_ASYNC_BEGIN, methodName, cookie);
+        }
+    }
+
+    static void endAsyncSection(@NonNull String methodName, int cookie) {
+        EventBuffer buffer = getBuffer();
+        if (buffer != null) {
+            buffer.add(TYPE_ASYNC_END, methodName, cookie);
+        }
+    }
+
+    static void setCounter(@NonNull String counterName, int counterValue) {
+        EventBuffer buffer = getBuffer();
+        if (buffer != null) {
+            buffer.add(TYPE_COUNTER, counterName, counterValue);
+        }
+    }
+
+    /**
+     * Returns the buffer of the current thread for the current recording, creating it if needed.
+     */
+    @Nullable
+    private static EventBuffer getBuffer() {
+        EventBuffer buffer = sBuffer.get();
+        if (buffer != null && buffer.mRecording == sRecordingState) {
+            return buffer;
+        }
+        synchronized (sLock) {
+            Recording recording = sRecordingState;
+            if (!sRecording || recording == null) {
+                return null;
+            }
+            buffer = new EventBuffer(recording, Process.myTid(),
+                    Thread.currentThread().getName());
+            recording.mBuffers.add(buffer);
+            sBuffer.set(buffer);
+            return buffer;
+        }
+    }
+
+    private static final class Recording {
+        final int mCapacity;
+        // Guarded by sLock.
+        final List<EventBuffer> mBuffers = new ArrayList<>();
+
+        Recording(int capacity) {
+            mCapacity = capacity;
+        }
+    }
+
+    /**
+     * A ring buffer of the events of one thread, stored in parallel arrays so that recording an
+     * event doesn't allocate.
+     */
+    private static final class EventBuffer {
+        final Recording mRecording;
+        final int mTid;
+        final String mThreadName;
+
+        private final byte[] mTypes;
+        private final long[] mTimestamps;
+        private final String[] mNames;
+        private final int[] mValues;
+
+        /**
+         * The number of events added. Written after the event so that readers on other
+         * threads see complete events.
+         */
+        private volatile long mCount;
+
+        EventBuffer(@NonNull Recording recording, int tid, @NonNull String threadName) {
+            mRecording = recording;
+            mTid = tid;
+            mThreadName = threadName;
+            int capacity = recording.mCapacity;
+            mTypes = new byte[capacity];
+            mTimestamps = new long[capacity];
+            mNames = new String[capacity];
+            mValues = new int[capacity];
+        }
+
+        void add(byte type, @Nullable String name, int value) {
+            long count = mCount;
+            int index = (int) (count % mTypes.length);
+            mTypes[index] = type;
+            mTimestamps[index] = System.nanoTime();
+            mNames[index] = name;
+            mValues[index] = value;
+            mCount = count + 1;
+        }
+
+        /**
+         * Writes the events of the buffer as comma separated JSON objects.
+         *
+         * @return true if nothing was written and the next event is still the first one.
+         */
+        boolean write(@NonNull Writer writer, int pid, boolean first) throws IOException {
+            int capacity = mTypes.length;
+            long end = mCount;
+            long start = Math.max(0, end - capacity);
+            int size = (int) (end - start);
+            byte[] types = new byte[size];
+            long[] timestamps = new long[size];
+            String[] names = new String[size];
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                int index = (int) ((start + i) % capacity);
+                types[i] = mTypes[index];
+                timestamps[i] = mTimestamps[index];
+                names[i] = mNames[index];
+                values[i] = mValues[index];
+            }
+            // Events overwritten while copying may be torn, skip them, including the one which
+            // may be being written while recording.
+            long overwritten = mCount + (sRecording ? 1 : 0) - capacity;
+            int skipped = (int) Math.min(size, Math.max(0, overwritten - start));
+
+            if (first) {
+                first = false;
+            } else {
+                writer.write(',');
+            }
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":");
+            writer.write(Integer.toString(pid));
+            writer.write(",\"tid\":");
+            writer.write(Integer.toString(mTid));
+            writer.write(",\"args\":{\"name\":");
+            writeString(writer, mThreadName);
+            writer.write("}}");
+
+            // Sections which began before the oldest event can't be ended.
+            int depth = 0;
+            for (int i = skipped; i < size; i++) {
+                byte type = types[i];
+                if (type == TYPE_BEGIN) {
+                    depth++;
+                } else if (type == TYPE_END) {
+                    if (depth == 0) {
+                        continue;
+                    }
+                    depth--;
+                }
+                writer.write(",{\"ph\":\"");
+                writer.write(phase(type));
+                writer.write("\",\"pid\":");
+                writer.write(Integer.toString(pid));
+                writer.write(",\"tid\":");
+                writer.write(Integer.toString(mTid));
+                writer.write(",\"ts\":");
+                writeMicros(writer, timestamps[i]);
+                if (names[i] != null) {
+                    writer.write(",\"name\":");
+                    writeString(writer, names[i]);
+                }
+                if (type == TYPE_ASYNC_BEGIN || type == TYPE_ASYNC_END) {
+                    writer.write(",\"cat\":\"async\",\"id\":");
+                    writer.write(Integer.toString(values[i]));
+                } else if (type == TYPE_COUNTER) {
+                    writer.write(",\"args\":{\"value\":");
+                    writer.write(Integer.toString(values[i]));
+                    writer.write('}');
+                }
+                writer.write('}');
+            }
+            return first;
+        }
+
+        @NonNull
+        private static String phase(byte type) {
+            switch (type) {
+                case TYPE_BEGIN:
+                    return "B";
+                case TYPE_END:
+                    return "E";
+                case TYPE_ASYNC_BEGIN:
+                    return "b";
+                case TYPE_ASYNC_END:
+                    return "e";
+                default:
+                    return "C";
+            }
+        }
+
+        // Timestamps of the Chrome trace format are in microseconds.
+        private static void writeMicros(@NonNull Writer writer, long nanos) throws IOException {
+            writer.write(Long.toString(nanos / 1000));
+            writer.write('.');
+            String fraction = Long.toString(nanos % 1000);
+            for (int i = fraction.length(); i < 3; i++) {
+                writer.write('0');
+            }
+            writer.write(fraction);
+        }
+
+        private static void writeString(@NonNull Writer writer, @NonNull String value)
+                throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    writer.write('\\');
+                    writer.write(c);
+                } else if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+            writer.write('"');
+        }
+    }
+
+    private TraceRecorder() {
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.transition;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.rule.ActivityTestRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the time from {@link TransitionManager#beginDelayedTransition} to the first frame of
+ * the transition, over a hierarchy of {@link #ROW_COUNT} rows of {@link #VIEWS_PER_ROW} views
+ * which all move.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class TransitionBenchmark {
+
+    private static final int ROW_COUNT = 200;
+    private static final int VIEWS_PER_ROW = 10;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Rule
+    public ActivityTestRule<TransitionBenchmarkActivity> mActivityRule =
+            new ActivityTestRule<>(TransitionBenchmarkActivity.class);
+
+    @Test
+    @UiThreadTest
+    public void autoTransition() {
+        beginToFirstFrame(new AutoTransition());
+    }
+
+    @Test
+    @UiThreadTest
+    public void changeBounds() {
+        beginToFirstFrame(new ChangeBounds());
+    }
+
+    private void beginToFirstFrame(Transition transition) {
+        FrameLayout root = mActivityRule.getActivity().mRoot;
+        LinearLayout content = createContent(root);
+        layout(root);
+        boolean shifted = false;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            TransitionManager.beginDelayedTransition(root, transition);
+            shifted = !shifted;
+            content.setPadding(shifted ? 10 : 0, 0, 0, 0);
+            layout(root);
+            // Captures the end values and starts the animators, as the next frame would.
+            root.getViewTreeObserver().dispatchOnPreDraw();
+            state.pauseTiming();
+            TransitionManager.endTransitions(root);
+            state.resumeTiming();
+        }
+    }
+
+    private static LinearLayout createContent(ViewGroup root) {
+        LinearLayout content = new LinearLayout(root.getContext());
+        content.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            LinearLayout row = new LinearLayout(root.getContext());
+            for (int j = 0; j < VIEWS_PER_ROW; j++) {
+                row.addView(new View(root.getContext()), new LinearLayout.LayoutParams(4, 4));
+            }
+            content.addView(row);
+        }
+        root.addView(content);
+        return content;
+    }
+
+    private static void layout(View root) {
+        root.measure(View.MeasureSpec.makeMeasureSpec(root.getWidth(), View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(root.getHeight(), View.MeasureSpec.EXACTLY));
+        root.layout(root.getLeft(), root.getTop(), root.getRight(), root.getBottom());
+    }
+}
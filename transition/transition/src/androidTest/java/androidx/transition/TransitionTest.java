@@ -271,6 +271,53 @@ public class TransitionTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testMatchIdAcrossScenes() throws Throwable {
+        showInitialScene();
+        final int[] matchCount = new int[1];
+        final Transition transition = new EmptyTransition() {
+            @Override
+            public boolean isTransitionRequired(@Nullable TransitionValues startValues,
+                    @Nullable TransitionValues endValues) {
+                return true;
+            }
+
+            @Override
+            public Animator createAnimator(@NonNull ViewGroup sceneRoot,
+                    @Nullable TransitionValues startValues,
+                    @Nullable TransitionValues endValues) {
+                if (startValues != null && endValues != null) {
+                    assertThat(startValues.view.getId(), is(endValues.view.getId()));
+                    assertThat(getMatchedTransitionValues(startValues.view, true),
+                            is(sameInstance(endValues)));
+                    assertThat(getMatchedTransitionValues(endValues.view, false),
+                            is(sameInstance(startValues)));
+                    if (startValues.view != endValues.view) {
+                        matchCount[0]++;
+                    }
+                } else if (startValues != null) {
+                    assertThat(getMatchedTransitionValues(startValues.view, true), is(nullValue()));
+                }
+                return null;
+            }
+        };
+        transition.setMatchOrder(Transition.MATCH_ID);
+        final SyncTransitionListener transitionListener = new SyncTransitionListener(
+                SyncTransitionListener.EVENT_END);
+        transition.addListener(transitionListener);
+        goToScene(mScenes[1], transition);
+        if (!transitionListener.await()) {
+            fail("Timed out waiting for the TransitionListener");
+        }
+        rule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                // The container and its three views are replaced by views with the same IDs.
+                assertThat(matchCount[0], is(4));
+            }
+        });
+    }
+
     @Test
     public void testExcludedTransitionAnimator() throws Throwable {
         showInitialScene();
@@ -53,6 +53,7 @@ import androidx.core.view.ViewCompat;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -200,6 +201,10 @@ public abstract class Transition implements Cloneable {
     private int[] mMatchOrder = DEFAULT_MATCH_ORDER;
     private ArrayList<TransitionValues> mStartValuesList; // only valid after playTransition starts
     private ArrayList<TransitionValues> mEndValuesList; // only valid after playTransitions starts
+    // Whether the values at each index of mStartValues.mViewValues and mEndValues.mViewValues
+    // were consumed while matching them, reused by each run.
+    private boolean[] mStartValuesConsumed;
+    private boolean[] mEndValuesConsumed;
 
     // Per-animator information used for later canceling when future transitions overlap
     private static ThreadLocal<ArrayMap<Animator, Transition.AnimationInfo>> sRunningAnimators =
@@ -536,18 +541,25 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by View instance. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd.
+     * and mEndValuesList and marks them as consumed.
      */
-    private void matchInstances(ArrayMap<View, TransitionValues> unmatchedStart,
-            ArrayMap<View, TransitionValues> unmatchedEnd) {
-        for (int i = unmatchedStart.size() - 1; i >= 0; i--) {
-            View view = unmatchedStart.keyAt(i);
+    private void matchInstances(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end) {
+        for (int i = start.size() - 1; i >= 0; i--) {
+            if (mStartValuesConsumed[i]) {
+                continue;
+            }
+            View view = start.keyAt(i);
             if (view != null && isValidTarget(view)) {
-                TransitionValues end = unmatchedEnd.remove(view);
-                if (end != null && isValidTarget(end.view)) {
-                    TransitionValues start = unmatchedStart.removeAt(i);
-                    mStartValuesList.add(start);
-                    mEndValuesList.add(end);
+                int endIndex = end.indexOfKey(view);
+                if (endIndex >= 0 && !mEndValuesConsumed[endIndex]) {
+                    // The end values are consumed even when they aren't a valid target.
+                    mEndValuesConsumed[endIndex] = true;
+                    TransitionValues endValues = end.valueAt(endIndex);
+                    if (endValues != null && isValidTarget(endValues.view)) {
+                        mStartValuesConsumed[i] = true;
+                        addMatchedValues(start.valueAt(i), endValues);
+                    }
                 }
             }
         }
@@ -555,11 +567,11 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by Adapter item ID. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
-     * startItemIds and endItemIds as a guide for which Views have unique item IDs.
+     * and mEndValuesList and marks them as consumed, using startItemIds and endItemIds as a
+     * guide for which Views have unique item IDs.
      */
-    private void matchItemIds(ArrayMap<View, TransitionValues> unmatchedStart,
-            ArrayMap<View, TransitionValues> unmatchedEnd,
+    private void matchItemIds(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end,
             LongSparseArray<View> startItemIds, LongSparseArray<View> endItemIds) {
         int numStartIds = startItemIds.size();
         for (int i = 0; i < numStartIds; i++) {
@@ -567,14 +579,7 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endItemIds.get(startItemIds.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(start, end, startView, endView);
                 }
             }
         }
@@ -582,11 +587,11 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by Adapter view ID. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
-     * startIds and endIds as a guide for which Views have unique IDs.
+     * and mEndValuesList and marks them as consumed, using startIds and endIds as a guide for
+     * which Views have unique IDs.
      */
-    private void matchIds(ArrayMap<View, TransitionValues> unmatchedStart,
-            ArrayMap<View, TransitionValues> unmatchedEnd,
+    private void matchIds(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end,
             SparseArray<View> startIds, SparseArray<View> endIds) {
         int numStartIds = startIds.size();
         for (int i = 0; i < numStartIds; i++) {
@@ -594,14 +599,7 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endIds.get(startIds.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(start, end, startView, endView);
                 }
             }
         }
@@ -609,11 +607,11 @@ public abstract class Transition implements Cloneable {
 
     /**
      * Match start/end values by Adapter transitionName. Adds matched values to mStartValuesList
-     * and mEndValuesList and removes them from unmatchedStart and unmatchedEnd, using
-     * startNames and endNames as a guide for which Views have unique transitionNames.
+     * and mEndValuesList and marks them as consumed, using startNames and endNames as a guide
+     * for which Views have unique transitionNames.
      */
-    private void matchNames(ArrayMap<View, TransitionValues> unmatchedStart,
-            ArrayMap<View, TransitionValues> unmatchedEnd,
+    private void matchNames(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end,
             ArrayMap<String, View> startNames, ArrayMap<String, View> endNames) {
         int numStartNames = startNames.size();
         for (int i = 0; i < numStartNames; i++) {
@@ -621,69 +619,101 @@ public abstract class Transition implements Cloneable {
             if (startView != null && isValidTarget(startView)) {
                 View endView = endNames.get(startNames.keyAt(i));
                 if (endView != null && isValidTarget(endView)) {
-                    TransitionValues startValues = unmatchedStart.get(startView);
-                    TransitionValues endValues = unmatchedEnd.get(endView);
-                    if (startValues != null && endValues != null) {
-                        mStartValuesList.add(startValues);
-                        mEndValuesList.add(endValues);
-                        unmatchedStart.remove(startView);
-                        unmatchedEnd.remove(endView);
-                    }
+                    matchViews(start, end, startView, endView);
                 }
             }
         }
     }
 
     /**
-     * Adds all values from unmatchedStart and unmatchedEnd to mStartValuesList and mEndValuesList,
-     * assuming that there is no match between values in the list.
+     * Matches the values of startView and endView if neither of them is consumed yet.
      */
-    private void addUnmatched(ArrayMap<View, TransitionValues> unmatchedStart,
-            ArrayMap<View, TransitionValues> unmatchedEnd) {
+    private void matchViews(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end, View startView, View endView) {
+        int startIndex = start.indexOfKey(startView);
+        int endIndex = end.indexOfKey(endView);
+        if (startIndex >= 0 && !mStartValuesConsumed[startIndex]
+                && endIndex >= 0 && !mEndValuesConsumed[endIndex]) {
+            mStartValuesConsumed[startIndex] = true;
+            mEndValuesConsumed[endIndex] = true;
+            addMatchedValues(start.valueAt(startIndex), end.valueAt(endIndex));
+        }
+    }
+
+    /**
+     * Adds all values which aren't consumed from start and end to mStartValuesList and
+     * mEndValuesList, assuming that there is no match between values in the list.
+     */
+    private void addUnmatched(ArrayMap<View, TransitionValues> start,
+            ArrayMap<View, TransitionValues> end) {
         // Views that only exist in the start Scene
-        for (int i = 0; i < unmatchedStart.size(); i++) {
-            final TransitionValues start = unmatchedStart.valueAt(i);
-            if (isValidTarget(start.view)) {
-                mStartValuesList.add(start);
-                mEndValuesList.add(null);
+        for (int i = 0; i < start.size(); i++) {
+            final TransitionValues startValues = start.valueAt(i);
+            if (!mStartValuesConsumed[i] && isValidTarget(startValues.view)) {
+                addMatchedValues(startValues, null);
             }
         }
 
         // Views that only exist in the end Scene
-        for (int i = 0; i < unmatchedEnd.size(); i++) {
-            final TransitionValues end = unmatchedEnd.valueAt(i);
-            if (isValidTarget(end.view)) {
-                mEndValuesList.add(end);
-                mStartValuesList.add(null);
+        for (int i = 0; i < end.size(); i++) {
+            final TransitionValues endValues = end.valueAt(i);
+            if (!mEndValuesConsumed[i] && isValidTarget(endValues.view)) {
+                addMatchedValues(null, endValues);
             }
         }
     }
 
+    /**
+     * Adds a pair of values to mStartValuesList and mEndValuesList, remembering their index for
+     * {@link #getMatchedTransitionValues(View, boolean)}.
+     */
+    private void addMatchedValues(@Nullable TransitionValues start,
+            @Nullable TransitionValues end) {
+        int index = mStartValuesList.size();
+        if (start != null) {
+            start.mMatchIndex = index;
+        }
+        if (end != null) {
+            end.mMatchIndex = index;
+        }
+        mStartValuesList.add(start);
+        mEndValuesList.add(end);
+    }
+
     private void matchStartAndEnd(TransitionValuesMaps startValues,
             TransitionValuesMaps endValues) {
-        ArrayMap<View, TransitionValues> unmatchedStart = new ArrayMap<>(startValues.mViewValues);
-        ArrayMap<View, TransitionValues> unmatchedEnd = new ArrayMap<>(endValues.mViewValues);
+        ArrayMap<View, TransitionValues> start = startValues.mViewValues;
+        ArrayMap<View, TransitionValues> end = endValues.mViewValues;
+        // Matched values are marked instead of being removed from copies of the maps, which
+        // would move the rest of their arrays for every match.
+        mStartValuesConsumed = clearFlags(mStartValuesConsumed, start.size());
+        mEndValuesConsumed = clearFlags(mEndValuesConsumed, end.size());
 
         for (int i = 0; i < mMatchOrder.length; i++) {
             switch (mMatchOrder[i]) {
                 case MATCH_INSTANCE:
-                    matchInstances(unmatchedStart, unmatchedEnd);
+                    matchInstances(start, end);
                     break;
                 case MATCH_NAME:
-                    matchNames(unmatchedStart, unmatchedEnd,
-                            startValues.mNameValues, endValues.mNameValues);
+                    matchNames(start, end, startValues.mNameValues, endValues.mNameValues);
                     break;
                 case MATCH_ID:
-                    matchIds(unmatchedStart, unmatchedEnd,
-                            startValues.mIdValues, endValues.mIdValues);
+                    matchIds(start, end, startValues.mIdValues, endValues.mIdValues);
                     break;
                 case MATCH_ITEM_ID:
-                    matchItemIds(unmatchedStart, unmatchedEnd,
-                            startValues.mItemIdValues, endValues.mItemIdValues);
+                    matchItemIds(start, end, startValues.mItemIdValues, endValues.mItemIdValues);
                     break;
             }
         }
-        addUnmatched(unmatchedStart, unmatchedEnd);
+        addUnmatched(start, end);
+    }
+
+    private static boolean[] clearFlags(@Nullable boolean[] flags, int size) {
+        if (flags == null || flags.length < size) {
+            return new boolean[size];
+        }
+        Arrays.fill(flags, 0, size, false);
+        return flags;
     }
 
     /**
@@ -1683,25 +1713,18 @@ public abstract class Transition implements Cloneable {
         if (lookIn == null) {
             return null;
         }
-        int count = lookIn.size();
-        int index = -1;
-        for (int i = 0; i < count; i++) {
-            TransitionValues values = lookIn.get(i);
-            if (values == null) {
-                // Null values are always added to the end of the list, so we know to stop now.
-                return null;
-            }
-            if (values.view == view) {
-                index = i;
-                break;
-            }
+        // The values in the lists are the ones captured for the view, which know their index.
+        TransitionValuesMaps valuesMaps = viewInStart ? mStartValues : mEndValues;
+        TransitionValues values = valuesMaps.mViewValues.get(view);
+        if (values == null) {
+            return null;
         }
-        TransitionValues values = null;
-        if (index >= 0) {
-            ArrayList<TransitionValues> matchIn = viewInStart ? mEndValuesList : mStartValuesList;
-            values = matchIn.get(index);
+        int index = values.mMatchIndex;
+        if (index < 0 || index >= lookIn.size() || lookIn.get(index) != values) {
+            return null;
         }
-        return values;
+        ArrayList<TransitionValues> matchIn = viewInStart ? mEndValuesList : mStartValuesList;
+        return matchIn.get(index);
     }
 
     /**
@@ -2219,6 +2242,8 @@ public abstract class Transition implements Cloneable {
             clone.mEndValues = new TransitionValuesMaps();
             clone.mStartValuesList = null;
             clone.mEndValuesList = null;
+            clone.mStartValuesConsumed = null;
+            clone.mEndValuesConsumed = null;
             return clone;
         } catch (CloneNotSupportedException e) {
             return null;
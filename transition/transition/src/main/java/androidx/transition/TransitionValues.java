@@ -69,6 +69,12 @@ public class TransitionValues {
      */
     final ArrayList<Transition> mTargetedTransitions = new ArrayList<>();
 
+    /**
+     * The index of these values in the lists of matched values of the Transition which captured
+     * them, or -1 if they weren't matched.
+     */
+    int mMatchIndex = -1;
+
     @Override
     public boolean equals(Object other) {
         if (other instanceof TransitionValues) {
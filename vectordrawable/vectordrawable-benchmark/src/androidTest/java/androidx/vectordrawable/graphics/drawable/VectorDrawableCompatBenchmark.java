@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.vectordrawable.graphics.drawable;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.graphics.drawable.DrawableCompat;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.vectordrawable.benchmark.test.R;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures inflating {@link VectorDrawableCompat}s, and drawing a list of mutated copies of the
+ * same icon with different tints, as a list of tinted icons does.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class VectorDrawableCompatBenchmark {
+
+    private static final int COPY_COUNT = 20;
+    private static final int SIZE = 96;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private final Resources mResources = mContext.getResources();
+
+    private final Canvas mCanvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE,
+            Bitmap.Config.ARGB_8888));
+
+    @Test
+    public void inflate() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            VectorDrawableCompat.createWithoutDelegate(mResources, R.drawable.benchmark_icon,
+                    mContext.getTheme());
+        }
+    }
+
+    @Test
+    public void inflateWithoutPathDataCache() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            VectorDrawableCompat.sPathDataCache.evictAll();
+            state.resumeTiming();
+            VectorDrawableCompat.createWithoutDelegate(mResources, R.drawable.benchmark_icon,
+                    mContext.getTheme());
+        }
+    }
+
+    @Test
+    public void drawNewTintedCopies() {
+        drawNewTintedCopies(true);
+    }
+
+    // Every copy renders its own bitmap, as each copy did before bitmaps were shared.
+    @Test
+    public void drawNewTintedCopiesWithoutSharing() {
+        drawNewTintedCopies(false);
+    }
+
+    @Test
+    public void drawTintedCopies() {
+        Drawable[] copies = createTintedCopies(true);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (Drawable copy : copies) {
+                copy.draw(mCanvas);
+            }
+        }
+    }
+
+    private void drawNewTintedCopies(boolean allowCaching) {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            Drawable[] copies = createTintedCopies(allowCaching);
+            VectorDrawableCompat.sSharedBitmapCache.evictAll();
+            state.resumeTiming();
+            for (Drawable copy : copies) {
+                copy.draw(mCanvas);
+            }
+        }
+    }
+
+    private Drawable[] createTintedCopies(boolean allowCaching) {
+        VectorDrawableCompat drawable = VectorDrawableCompat.createWithoutDelegate(mResources,
+                R.drawable.benchmark_icon, mContext.getTheme());
+        Drawable.ConstantState constantState = drawable.getConstantState();
+        Drawable[] copies = new Drawable[COPY_COUNT];
+        for (int i = 0; i < COPY_COUNT; i++) {
+            VectorDrawableCompat copy =
+                    (VectorDrawableCompat) constantState.newDrawable(mResources).mutate();
+            copy.setAllowCaching(allowCaching);
+            DrawableCompat.setTint(copy, Color.rgb(i * 10, 0, 255 - i * 10));
+            copy.setBounds(0, 0, SIZE, SIZE);
+            copies[i] = copy;
+        }
+        return copies;
+    }
+}
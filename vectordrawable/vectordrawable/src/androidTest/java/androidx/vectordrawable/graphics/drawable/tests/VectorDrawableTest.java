@@ -42,6 +42,7 @@ import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 
+import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.MediumTest;
@@ -568,4 +569,34 @@ public class VectorDrawableTest {
         d.draw(canvas);
         assertEquals(color, bitmap.getPixel(32, 32));
     }
+
+    @Test
+    public void testMutatedCopiesWithDifferentTints() {
+        VectorDrawableCompat d =
+                VectorDrawableCompat.create(mResources, R.drawable.heart, mTheme);
+        Drawable red = d.getConstantState().newDrawable(mResources).mutate();
+        Drawable blue = d.getConstantState().newDrawable(mResources).mutate();
+        DrawableCompat.setTint(red, Color.RED);
+        DrawableCompat.setTint(blue, Color.BLUE);
+        red.setBounds(0, 0, 64, 64);
+        blue.setBounds(0, 0, 64, 64);
+
+        Bitmap bitmap = Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        red.draw(canvas);
+        assertEquals(Color.RED, bitmap.getPixel(32, 32));
+
+        bitmap.eraseColor(TRANSPARENT);
+        blue.draw(canvas);
+        assertEquals(Color.BLUE, bitmap.getPixel(32, 32));
+
+        bitmap.eraseColor(TRANSPARENT);
+        red.setAlpha(0);
+        red.draw(canvas);
+        assertEquals(TRANSPARENT, bitmap.getPixel(32, 32));
+
+        bitmap.eraseColor(TRANSPARENT);
+        blue.draw(canvas);
+        assertEquals(Color.BLUE, bitmap.getPixel(32, 32));
+    }
 }
@@ -58,6 +58,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.collection.ArrayMap;
+import androidx.collection.LruCache;
 import androidx.core.content.res.ComplexColorCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.core.content.res.TypedArrayUtils;
@@ -298,6 +299,32 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
     // The drawable will look blurry above this size.
     private static final int MAX_CACHED_BITMAP_SIZE = 2048;
 
+    // The number of parsed pathData strings kept, shared by all the inflated paths.
+    private static final int PATH_DATA_CACHE_SIZE = 512;
+
+    // The size in bytes of the bitmaps rendered from unchanged trees, shared by the drawables
+    // inflated from the same resource.
+    private static final int SHARED_BITMAP_CACHE_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The nodes parsed from pathData strings. The nodes are never modified, paths copy them
+     * before changing them.
+     */
+    static final LruCache<String, PathParser.PathDataNode[]> sPathDataCache =
+            new LruCache<>(PATH_DATA_CACHE_SIZE);
+
+    /**
+     * The bitmaps rendered from unchanged trees, which don't depend on the tint, the alpha or the
+     * mirroring applied when drawing them. The bitmaps are never drawn into once cached.
+     */
+    static final LruCache<SharedBitmapKey, Bitmap> sSharedBitmapCache =
+            new LruCache<SharedBitmapKey, Bitmap>(SHARED_BITMAP_CACHE_BYTES) {
+                @Override
+                protected int sizeOf(@NonNull SharedBitmapKey key, @NonNull Bitmap value) {
+                    return value.getRowBytes() * value.getHeight();
+                }
+            };
+
     private static final boolean DBG_VECTOR_DRAWABLE = false;
 
     private VectorDrawableCompatState mVectorState;
@@ -340,6 +367,8 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
     }
 
     Object getTargetByName(String name) {
+        // The target may be changed, so the tree can't share its bitmap anymore.
+        mVectorState.mSharedBitmapToken = null;
         return mVectorState.mVPathRenderer.mVGTargetsMap.get(name);
     }
 
@@ -412,13 +441,17 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         // we offset to (0, 0);
         mTmpBounds.offsetTo(0, 0);
 
-        mVectorState.createCachedBitmapIfNeeded(scaledWidth, scaledHeight);
-        if (!mAllowCaching) {
-            mVectorState.updateCachedBitmap(scaledWidth, scaledHeight);
+        if (mAllowCaching && mVectorState.canShareCachedBitmap()) {
+            mVectorState.updateSharedCachedBitmap(scaledWidth, scaledHeight);
         } else {
-            if (!mVectorState.canReuseCache()) {
+            mVectorState.createCachedBitmapIfNeeded(scaledWidth, scaledHeight);
+            if (!mAllowCaching) {
                 mVectorState.updateCachedBitmap(scaledWidth, scaledHeight);
-                mVectorState.updateCacheStates();
+            } else {
+                if (!mVectorState.canReuseCache()) {
+                    mVectorState.updateCachedBitmap(scaledWidth, scaledHeight);
+                    mVectorState.updateCacheStates();
+                }
             }
         }
         mVectorState.drawCachedBitmapWithRootAlpha(canvas, colorFilter, mTmpBounds);
@@ -723,6 +756,7 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         a.recycle();
         state.mChangingConfigurations = getChangingConfigurations();
         state.mCacheDirty = true;
+        state.mSharedBitmapToken = new Object();
         inflateInternal(res, parser, attrs, theme);
 
         mTintFilter = updateTintFilter(mTintFilter, state.mTint, state.mTintMode);
@@ -1021,11 +1055,15 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
 
         Bitmap mCachedBitmap;
         int[] mCachedThemeAttrs;
-        ColorStateList mCachedTint;
-        Mode mCachedTintMode;
-        int mCachedRootAlpha;
-        boolean mCachedAutoMirrored;
         boolean mCacheDirty;
+        // Whether mCachedBitmap is shared through sSharedBitmapCache, and mustn't be drawn into.
+        boolean mCachedBitmapShared;
+
+        /**
+         * Identifies the tree inflated once, shared by the mutated copies of this state while
+         * their tree is unchanged, or null if the tree may have been changed.
+         */
+        Object mSharedBitmapToken;
 
         /**
          * Temporary paint object used to draw cached bitmaps.
@@ -1046,6 +1084,7 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
                 mTint = copy.mTint;
                 mTintMode = copy.mTintMode;
                 mAutoMirrored = copy.mAutoMirrored;
+                mSharedBitmapToken = copy.mSharedBitmapToken;
             }
         }
 
@@ -1084,14 +1123,42 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         }
 
         public void createCachedBitmapIfNeeded(int width, int height) {
-            if (mCachedBitmap == null || !canReuseBitmap(width, height)) {
+            if (mCachedBitmap == null || mCachedBitmapShared || !canReuseBitmap(width, height)) {
                 mCachedBitmap = Bitmap.createBitmap(width, height,
                         Bitmap.Config.ARGB_8888);
+                mCachedBitmapShared = false;
                 mCacheDirty = true;
             }
 
         }
 
+        /**
+         * @return true if the tree is the one inflated and renders the same in any state, so its
+         * bitmap can be shared with the other drawables inflated together.
+         */
+        public boolean canShareCachedBitmap() {
+            return mSharedBitmapToken != null && !isStateful();
+        }
+
+        /**
+         * Finds the bitmap rendered from the same tree at this size, rendering it if needed.
+         */
+        public void updateSharedCachedBitmap(int width, int height) {
+            if (mCachedBitmapShared && !mCacheDirty && canReuseBitmap(width, height)) {
+                return;
+            }
+            final SharedBitmapKey key = new SharedBitmapKey(mSharedBitmapToken, width, height);
+            Bitmap bitmap = sSharedBitmapCache.get(key);
+            if (bitmap == null) {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                mVPathRenderer.draw(new Canvas(bitmap), width, height, null);
+                sSharedBitmapCache.put(key, bitmap);
+            }
+            mCachedBitmap = bitmap;
+            mCachedBitmapShared = true;
+            updateCacheStates();
+        }
+
         public boolean canReuseBitmap(int width, int height) {
             if (width == mCachedBitmap.getWidth()
                     && height == mCachedBitmap.getHeight()) {
@@ -1101,23 +1168,12 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         }
 
         public boolean canReuseCache() {
-            if (!mCacheDirty
-                    && mCachedTint == mTint
-                    && mCachedTintMode == mTintMode
-                    && mCachedAutoMirrored == mAutoMirrored
-                    && mCachedRootAlpha == mVPathRenderer.getRootAlpha()) {
-                return true;
-            }
-            return false;
+            // The tint, the root alpha and the mirroring are applied when drawing the bitmap, so
+            // only changes of the tree need to render it again.
+            return !mCacheDirty;
         }
 
         public void updateCacheStates() {
-            // Use shallow copy here and shallow comparison in canReuseCache(),
-            // likely hit cache miss more, but practically not much difference.
-            mCachedTint = mTint;
-            mCachedTintMode = mTintMode;
-            mCachedRootAlpha = mVPathRenderer.getRootAlpha();
-            mCachedAutoMirrored = mAutoMirrored;
             mCacheDirty = false;
         }
 
@@ -1688,6 +1744,8 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
     private abstract static class VPath extends VObject {
         protected static final int FILL_TYPE_WINDING = 0;
         protected PathParser.PathDataNode[] mNodes = null;
+        // Whether mNodes are shared through sPathDataCache, and must be copied before changing.
+        boolean mNodesShared;
         String mPathName;
         // Default fill rule is winding, or as known as "non-zero".
         int mFillRule = FILL_TYPE_WINDING;
@@ -1722,7 +1780,27 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         VPath(VPath copy) {
             mPathName = copy.mPathName;
             mChangingConfigurations = copy.mChangingConfigurations;
-            mNodes = PathParser.deepCopyNodes(copy.mNodes);
+            if (copy.mNodesShared) {
+                mNodes = copy.mNodes;
+                mNodesShared = true;
+            } else {
+                mNodes = PathParser.deepCopyNodes(copy.mNodes);
+            }
+        }
+
+        /**
+         * Sets the nodes parsed from the pathData, sharing the ones parsed from the same string.
+         */
+        void setPathDataString(String pathData) {
+            PathParser.PathDataNode[] nodes = sPathDataCache.get(pathData);
+            if (nodes == null) {
+                nodes = PathParser.createNodesFromPathData(pathData);
+                if (nodes != null) {
+                    sPathDataCache.put(pathData, nodes);
+                }
+            }
+            mNodes = nodes;
+            mNodesShared = nodes != null;
         }
 
         public void toPath(Path path) {
@@ -1750,14 +1828,21 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         /* Setters and Getters, used by animator from AnimatedVectorDrawable. */
         @SuppressWarnings("unused")
         public PathParser.PathDataNode[] getPathData() {
+            // The caller may change the nodes.
+            if (mNodesShared) {
+                mNodes = PathParser.deepCopyNodes(mNodes);
+                mNodesShared = false;
+            }
             return mNodes;
         }
 
         @SuppressWarnings("unused")
         public void setPathData(PathParser.PathDataNode[] nodes) {
-            if (!PathParser.canMorph(mNodes, nodes)) {
-                // This should not happen in the middle of animation.
+            if (mNodesShared || !PathParser.canMorph(mNodes, nodes)) {
+                // The shared nodes are copied on the first change. Nodes which can't be morphed
+                // should not happen in the middle of animation.
                 mNodes = PathParser.deepCopyNodes(nodes);
+                mNodesShared = false;
             } else {
                 PathParser.updateNodes(mNodes, nodes);
             }
@@ -1801,7 +1886,7 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             final String pathData =
                     a.getString(AndroidResources.STYLEABLE_VECTOR_DRAWABLE_CLIP_PATH_PATH_DATA);
             if (pathData != null) {
-                mNodes = PathParser.createNodesFromPathData(pathData);
+                setPathDataString(pathData);
             }
             mFillRule = TypedArrayUtils.getNamedInt(a, parser, "fillType",
                     AndroidResources.STYLEABLE_VECTOR_DRAWABLE_CLIP_PATH_FILLTYPE,
@@ -1923,7 +2008,7 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             final String pathData =
                     a.getString(AndroidResources.STYLEABLE_VECTOR_DRAWABLE_PATH_PATH_DATA);
             if (pathData != null) {
-                mNodes = PathParser.createNodesFromPathData(pathData);
+                setPathDataString(pathData);
             }
 
             mFillColor = TypedArrayUtils.getNamedComplexColor(a, parser, theme, "fillColor",
@@ -2066,4 +2151,39 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             mTrimPathOffset = trimPathOffset;
         }
     }
+
+    /**
+     * Key of the bitmaps of {@link #sSharedBitmapCache}.
+     */
+    static final class SharedBitmapKey {
+        final Object mToken;
+        final int mWidth;
+        final int mHeight;
+
+        SharedBitmapKey(Object token, int width, int height) {
+            mToken = token;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SharedBitmapKey)) {
+                return false;
+            }
+            SharedBitmapKey other = (SharedBitmapKey) o;
+            return mToken == other.mToken && mWidth == other.mWidth && mHeight == other.mHeight;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mToken);
+            result = 31 * result + mWidth;
+            result = 31 * result + mHeight;
+            return result;
+        }
+    }
 }
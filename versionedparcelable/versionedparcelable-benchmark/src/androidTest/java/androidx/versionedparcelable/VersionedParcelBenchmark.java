@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures round-tripping a list of {@link #ITEM_COUNT} items, each holding nested
+ * VersionedParcelables, through a {@link Parcel} and through a stream, and writing and reading
+ * a list of {@link #LARGE_ITEM_COUNT} items with a stream.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class VersionedParcelBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int LARGE_ITEM_COUNT = 2000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final ItemList mItems = createItems(ITEM_COUNT);
+
+    @Test
+    public void roundTripParcel() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Parcel parcel = Parcel.obtain();
+            parcel.writeParcelable(ParcelUtils.toParcelable(mItems), 0);
+            parcel.setDataPosition(0);
+            Parcelable parcelable = parcel.readParcelable(getClass().getClassLoader());
+            ParcelUtils.fromParcelable(parcelable);
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void roundTripStream() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ParcelUtils.toOutputStream(mItems, outputStream);
+            ParcelUtils.fromInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        }
+    }
+
+    @Test
+    public void writeLargeStream() {
+        ItemList items = createItems(LARGE_ITEM_COUNT);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            outputStream.reset();
+            ParcelUtils.toOutputStream(items, outputStream);
+        }
+    }
+
+    @Test
+    public void readLargeStream() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ParcelUtils.toOutputStream(createItems(LARGE_ITEM_COUNT), outputStream);
+        byte[] bytes = outputStream.toByteArray();
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            ParcelUtils.fromInputStream(new ByteArrayInputStream(bytes));
+        }
+    }
+
+    private static ItemList createItems(int count) {
+        ItemList items = new ItemList();
+        items.mItems = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.mId = "item" + i;
+            item.mStartPosition = i * 1000L;
+            item.mMetadata = new Metadata();
+            item.mMetadata.mTitle = "Title " + i;
+            item.mMetadata.mArtist = "Artist " + i;
+            item.mMetadata.mDuration = 180000L + i;
+            item.mMetadata.mArtwork = new Artwork();
+            item.mMetadata.mArtwork.mWidth = 512;
+            item.mMetadata.mArtwork.mHeight = 512;
+            item.mMetadata.mArtwork.mUri = "content://artwork/" + i;
+            items.mItems.add(item);
+        }
+        return items;
+    }
+
+    @VersionedParcelize
+    public static class ItemList implements VersionedParcelable {
+        @ParcelField(1)
+        List<Item> mItems;
+    }
+
+    @VersionedParcelize
+    public static class Item implements VersionedParcelable {
+        @ParcelField(1)
+        String mId;
+        @ParcelField(2)
+        long mStartPosition;
+        @ParcelField(3)
+        Metadata mMetadata;
+    }
+
+    @VersionedParcelize
+    public static class Metadata implements VersionedParcelable {
+        @ParcelField(1)
+        String mTitle;
+        @ParcelField(2)
+        String mArtist;
+        @ParcelField(3)
+        long mDuration;
+        @ParcelField(4)
+        Artwork mArtwork;
+    }
+
+    @VersionedParcelize
+    public static class Artwork implements VersionedParcelable {
+        @ParcelField(1)
+        int mWidth;
+        @ParcelField(2)
+        int mHeight;
+        @ParcelField(3)
+        String mUri;
+    }
+}
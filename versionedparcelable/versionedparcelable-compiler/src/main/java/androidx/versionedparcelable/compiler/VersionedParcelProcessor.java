@@ -17,9 +17,11 @@ package androidx.versionedparcelable.compiler;
 
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
@@ -73,6 +75,8 @@ public class VersionedParcelProcessor extends AbstractProcessor {
     private static final ClassName RESTRICT_TO_SCOPE = RESTRICT_TO.nestedClass("Scope");
     private static final ClassName VERSIONED_PARCEL =
             ClassName.get("androidx.versionedparcelable", "VersionedParcel");
+    private static final ClassName VERSIONED_PARCELIZER =
+            ClassName.get("androidx.versionedparcelable", "VersionedParcelizer");
 
     private static final String GEN_SUFFIX = "Parcelizer";
     private static final String READ = "read";
@@ -306,18 +310,24 @@ public class VersionedParcelProcessor extends AbstractProcessor {
         readBuilder.addStatement("return obj");
         genClass.addMethod(readBuilder.build());
         genClass.addMethod(writeBuilder.build());
+        String pkg = getPkg(versionedParcelable);
+        String genName = versionedParcelable.getSimpleName() + GEN_SUFFIX;
+        boolean registerParcelizer = canRegisterParcelizer();
+        if (registerParcelizer) {
+            addParcelizerRegistration(genClass, ClassName.get(pkg, genName), type,
+                    pkg.isEmpty() ? genName : pkg + "." + genName);
+        }
         try {
             TypeSpec typeSpec = genClass.build();
-            String pkg = getPkg(versionedParcelable);
             JavaFile.builder(pkg,
                     typeSpec).build().writeTo(mEnv.getFiler());
             if (jetifyAs != null && jetifyAs.length() > 0) {
                 int index = jetifyAs.lastIndexOf('.');
                 String jetPkg = jetifyAs.substring(1, index);
-                String superCls = pkg + "." + versionedParcelable.getSimpleName() + GEN_SUFFIX;
+                String superCls = pkg + "." + genName;
+                String jetName = jetifyAs.substring(index + 1, jetifyAs.length() - 1) + GEN_SUFFIX;
                 TypeSpec.Builder jetifyClass = TypeSpec
-                        .classBuilder(jetifyAs.substring(index + 1, jetifyAs.length() - 1)
-                                + GEN_SUFFIX)
+                        .classBuilder(jetName)
                         .addJavadoc("@hide\n")
                         .addAnnotation(restrictTo)
                         .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
@@ -338,6 +348,10 @@ public class VersionedParcelProcessor extends AbstractProcessor {
                         .addParameter(VERSIONED_PARCEL, "parcel")
                         .addStatement("$L.write(obj, parcel)", superCls)
                         .build());
+                if (registerParcelizer) {
+                    addParcelizerRegistration(jetifyClass, ClassName.get(jetPkg, jetName), type,
+                            superCls);
+                }
                 TypeSpec jetified = jetifyClass.build();
                 JavaFile.builder(jetPkg, jetified).build().writeTo(mEnv.getFiler());
             }
@@ -346,6 +360,45 @@ public class VersionedParcelProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Returns true if the VersionedParcelable library on the classpath supports registering
+     * Parcelizers, older versions only call the static methods through reflection.
+     */
+    private boolean canRegisterParcelizer() {
+        return mEnv.getElementUtils().getTypeElement(VERSIONED_PARCELIZER.toString()) != null;
+    }
+
+    /**
+     * Adds a static initializer registering a VersionedParcelizer which calls the static methods
+     * of the delegate class, so VersionedParcel calls them without reflection.
+     */
+    private void addParcelizerRegistration(TypeSpec.Builder genClass, ClassName genName,
+            TypeName type, String delegate) {
+        TypeSpec parcelizer = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(VERSIONED_PARCELIZER, type))
+                .addMethod(MethodSpec
+                        .methodBuilder(READ)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(type)
+                        .addParameter(VERSIONED_PARCEL, "parcel")
+                        .addStatement("return $L.read(parcel)", delegate)
+                        .build())
+                .addMethod(MethodSpec
+                        .methodBuilder(WRITE)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(type, "obj")
+                        .addParameter(VERSIONED_PARCEL, "parcel")
+                        .addStatement("$L.write(obj, parcel)", delegate)
+                        .build())
+                .build();
+        genClass.addStaticBlock(CodeBlock.builder()
+                .addStatement("$T.registerParcelizer($T.class, $T.class, $L)", VERSIONED_PARCEL,
+                        genName, type, parcelizer)
+                .build());
+    }
+
     private String strip(String s) {
         if (!s.startsWith("\"")) return s;
         return s.substring(1, s.length() - 1);
@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 @SmallTest
 public class VersionedParcelStreamTest {
@@ -63,6 +64,24 @@ public class VersionedParcelStreamTest {
         assertEquals("My string", createInputParcel().readString(null, 0));
     }
 
+    @Test
+    public void testStringWithSurrogates() {
+        mOutputParcel.writeString("a\uD83D\uDE00\uD83D", 0);
+        assertEquals("a\uD83D\uDE00\uFFFD", createInputParcel().readString(null, 0));
+    }
+
+    @Test
+    public void testLargeField() {
+        char[] chars = new char[40000];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+        mOutputParcel.writeString(large, 0);
+        mOutputParcel.writeInt(42, 1);
+        VersionedParcelStream input = createInputParcel();
+        assertEquals(large, input.readString(null, 0));
+        assertEquals(42, input.readInt(0, 1));
+    }
+
     @Test
     public void testNoException() {
         mOutputParcel.writeException(null, 0);
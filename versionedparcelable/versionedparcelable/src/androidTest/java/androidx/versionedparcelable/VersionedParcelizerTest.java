@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.filters.SmallTest;
+import androidx.versionedparcelable.VersionedParcelInheritanceTest.ParcelizableSubImpl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+@SmallTest
+public class VersionedParcelizerTest {
+
+    @Test
+    public void testRoundTrip_withoutReflection() {
+        ParcelizableSubImpl obj = new ParcelizableSubImpl();
+        obj.mSubField = "42";
+        obj.mBaseField = 42;
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        VersionedParcelStream output = new VersionedParcelStream(null, outputStream);
+        output.writeVersionedParcelable(obj);
+        output.closeField();
+        VersionedParcelStream input = new VersionedParcelStream(
+                new ByteArrayInputStream(outputStream.toByteArray()), null);
+        ParcelizableSubImpl other = input.readVersionedParcelable();
+
+        assertEquals(obj.mSubField, other.mSubField);
+        assertEquals(obj.mBaseField, other.mBaseField);
+        // The generated Parcelizer is registered and called directly.
+        assertTrue(output.mWriteCache.isEmpty());
+        assertTrue(input.mReadCache.isEmpty());
+    }
+}
@@ -78,6 +78,13 @@ public abstract class VersionedParcel {
     private static final int TYPE_INTEGER = 7;
     private static final int TYPE_FLOAT = 8;
 
+    // The Parcelizers registered by the generated classes, by the name of the generated class.
+    private static final SimpleArrayMap<String, VersionedParcelizer<?>> sParcelizers =
+            new SimpleArrayMap<>();
+    // The names of the generated classes, by the class they parcel. Guarded by sParcelizers.
+    private static final SimpleArrayMap<Class<?>, String> sParcelizerNames =
+            new SimpleArrayMap<>();
+
     final SimpleArrayMap<String, Method> mReadCache;
     final SimpleArrayMap<String, Method> mWriteCache;
     final SimpleArrayMap<String, Class<?>> mParcelizerCache;
@@ -1038,14 +1045,19 @@ public abstract class VersionedParcel {
     }
 
     private void writeVersionedParcelableCreator(VersionedParcelable p) {
-        Class<?> name;
-        try {
-            name = findParcelClass(p.getClass());
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(p.getClass().getSimpleName() + " does not have a Parcelizer",
-                    e);
+        String name;
+        synchronized (sParcelizers) {
+            name = sParcelizerNames.get(p.getClass());
+        }
+        if (name == null) {
+            try {
+                name = findParcelClass(p.getClass()).getName();
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(p.getClass().getSimpleName()
+                        + " does not have a Parcelizer", e);
+            }
         }
-        writeString(name.getName());
+        writeString(name);
     }
 
     /**
@@ -1562,6 +1574,10 @@ public abstract class VersionedParcel {
     @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
     protected <T extends VersionedParcelable> T readFromParcel(
             String parcelCls, VersionedParcel versionedParcel) {
+        VersionedParcelizer<?> parcelizer = findParcelizer(parcelCls);
+        if (parcelizer != null) {
+            return (T) parcelizer.read(versionedParcel);
+        }
         try {
             Method m = getReadMethod(parcelCls);
             return (T) m.invoke(null, versionedParcel);
@@ -1585,8 +1601,18 @@ public abstract class VersionedParcel {
 
     /**
      */
+    @SuppressWarnings("unchecked")
     protected <T extends VersionedParcelable> void writeToParcel(T val,
             VersionedParcel versionedParcel) {
+        VersionedParcelizer<T> parcelizer;
+        synchronized (sParcelizers) {
+            String name = sParcelizerNames.get(val.getClass());
+            parcelizer = name != null ? (VersionedParcelizer<T>) sParcelizers.get(name) : null;
+        }
+        if (parcelizer != null) {
+            parcelizer.write(val, versionedParcel);
+            return;
+        }
         try {
             Method m = getWriteMethod(val.getClass());
             m.invoke(null, val, versionedParcel);
@@ -1636,12 +1662,60 @@ public abstract class VersionedParcel {
         if (ret == null) {
             String pkg = cls.getPackage().getName();
             String c = String.format("%s.%sParcelizer", pkg, cls.getSimpleName());
-            ret = Class.forName(c, false, cls.getClassLoader());
+            // Initializing the class registers its VersionedParcelizer
+            ret = Class.forName(c, true, cls.getClassLoader());
             mParcelizerCache.put(cls.getName(), ret);
         }
         return ret;
     }
 
+    /**
+     * Returns the registered Parcelizer generated as the class of the given name, loading the
+     * class to register it if needed, or null if the class doesn't register a Parcelizer.
+     */
+    private static VersionedParcelizer<?> findParcelizer(String parcelCls) {
+        synchronized (sParcelizers) {
+            VersionedParcelizer<?> parcelizer = sParcelizers.get(parcelCls);
+            if (parcelizer != null || sParcelizers.containsKey(parcelCls)) {
+                return parcelizer;
+            }
+        }
+        try {
+            Class.forName(parcelCls, true, VersionedParcel.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        synchronized (sParcelizers) {
+            VersionedParcelizer<?> parcelizer = sParcelizers.get(parcelCls);
+            if (parcelizer == null) {
+                // Generated by an older compiler, don't load it again.
+                sParcelizers.put(parcelCls, null);
+            }
+            return parcelizer;
+        }
+    }
+
+    /**
+     * Registers the Parcelizer of a {@link VersionedParcelable} class, which is called directly
+     * instead of the static methods of the generated class. Called by the generated classes when
+     * they are loaded.
+     *
+     * @param parcelizerCls The generated class, whose name is written to the parcel.
+     * @param cls The class read and written by the Parcelizer.
+     * @param parcelizer The Parcelizer.
+     */
+    public static <T extends VersionedParcelable> void registerParcelizer(
+            @NonNull Class<?> parcelizerCls, @NonNull Class<T> cls,
+            @NonNull VersionedParcelizer<T> parcelizer) {
+        synchronized (sParcelizers) {
+            sParcelizers.put(parcelizerCls.getName(), parcelizer);
+            // Classes generated with jetifyAs register the same class under an older name.
+            if (!sParcelizerNames.containsKey(cls)) {
+                sParcelizerNames.put(cls, parcelizerCls.getName());
+            }
+        }
+    }
+
     /**
      */
     public static class ParcelException extends RuntimeException {
@@ -24,15 +24,14 @@ import android.os.Parcelable;
 import androidx.annotation.RestrictTo;
 import androidx.collection.SimpleArrayMap;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -61,11 +60,12 @@ class VersionedParcelStream extends VersionedParcel {
     private static final int TYPE_FLOAT_ARRAY = 14;
 
     private final DataInputStream mMasterInput;
-    private final DataOutputStream mMasterOutput;
 
     private DataInputStream mCurrentInput;
-    private DataOutputStream mCurrentOutput;
-    private FieldBuffer mFieldBuffer;
+    // Shared with the sub parcels, which write their fields inside the current field.
+    private final FieldOutput mOutput;
+    private int mOutputFieldId;
+    private int mOutputFieldStart = -1;
     private boolean mIgnoreParcelables;
 
     int mCount = 0;
@@ -73,11 +73,12 @@ class VersionedParcelStream extends VersionedParcel {
     int mFieldSize = -1;
 
     public VersionedParcelStream(InputStream input, OutputStream output) {
-        this(input, output, new SimpleArrayMap<String, Method>(),
-                new SimpleArrayMap<String, Method>(), new SimpleArrayMap<String, Class<?>>());
+        this(input, output != null ? new FieldOutput(output) : null,
+                new SimpleArrayMap<String, Method>(), new SimpleArrayMap<String, Method>(),
+                new SimpleArrayMap<String, Class<?>>());
     }
 
-    private VersionedParcelStream(InputStream input, OutputStream output,
+    private VersionedParcelStream(InputStream input, FieldOutput output,
             SimpleArrayMap<String, Method> readCache,
             SimpleArrayMap<String, Method> writeCache,
             SimpleArrayMap<String, Class<?>> parcelizerCache) {
@@ -117,9 +118,8 @@ class VersionedParcelStream extends VersionedParcel {
                 return skip;
             }
         }) : null;
-        mMasterOutput = output != null ? new DataOutputStream(output) : null;
+        mOutput = output;
         mCurrentInput = mMasterInput;
-        mCurrentOutput = mMasterOutput;
     }
 
     @Override
@@ -139,21 +139,23 @@ class VersionedParcelStream extends VersionedParcel {
 
     @Override
     public void closeField() {
-        if (mFieldBuffer != null) {
-            try {
-                if (mFieldBuffer.mOutput.size() != 0) {
-                    mFieldBuffer.flushField();
-                }
-            } catch (IOException e) {
-                throw new ParcelException(e);
-            }
-            mFieldBuffer = null;
+        if (mOutput == null) {
+            return;
+        }
+        if (mOutputFieldStart != -1) {
+            mOutput.endField(mOutputFieldId, mOutputFieldStart);
+            mOutputFieldStart = -1;
+        }
+        try {
+            mOutput.flushIfComplete();
+        } catch (IOException e) {
+            throw new ParcelException(e);
         }
     }
 
     @Override
     protected VersionedParcel createSubParcel() {
-        return new VersionedParcelStream(mCurrentInput, mCurrentOutput, mReadCache, mWriteCache,
+        return new VersionedParcelStream(mCurrentInput, mOutput, mReadCache, mWriteCache,
                 mParcelizerCache);
     }
 
@@ -189,35 +191,27 @@ class VersionedParcelStream extends VersionedParcel {
     @Override
     public void setOutputField(int fieldId) {
         closeField();
-        mFieldBuffer = new FieldBuffer(fieldId, mMasterOutput);
-        mCurrentOutput = mFieldBuffer.mDataStream;
+        mOutputFieldId = fieldId;
+        mOutputFieldStart = mOutput.beginField();
     }
 
     @Override
     public void writeByteArray(byte[] b) {
-        try {
-            if (b != null) {
-                mCurrentOutput.writeInt(b.length);
-                mCurrentOutput.write(b);
-            } else {
-                mCurrentOutput.writeInt(-1);
-            }
-        } catch (IOException e) {
-            throw new ParcelException(e);
+        if (b != null) {
+            mOutput.writeInt(b.length);
+            mOutput.write(b, 0, b.length);
+        } else {
+            mOutput.writeInt(-1);
         }
     }
 
     @Override
     public void writeByteArray(byte[] b, int offset, int len) {
-        try {
-            if (b != null) {
-                mCurrentOutput.writeInt(len);
-                mCurrentOutput.write(b, offset, len);
-            } else {
-                mCurrentOutput.writeInt(-1);
-            }
-        } catch (IOException e) {
-            throw new ParcelException(e);
+        if (b != null) {
+            mOutput.writeInt(len);
+            mOutput.write(b, offset, len);
+        } else {
+            mOutput.writeInt(-1);
         }
     }
 
@@ -230,65 +224,36 @@ class VersionedParcelStream extends VersionedParcel {
 
     @Override
     public void writeInt(int val) {
-        try {
-            mCurrentOutput.writeInt(val);
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
+        mOutput.writeInt(val);
     }
 
     @Override
     public void writeLong(long val) {
-        try {
-            mCurrentOutput.writeLong(val);
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
-
+        mOutput.writeLong(val);
     }
 
     @Override
     public void writeFloat(float val) {
-        try {
-            mCurrentOutput.writeFloat(val);
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
-
+        mOutput.writeInt(Float.floatToIntBits(val));
     }
 
     @Override
     public void writeDouble(double val) {
-        try {
-            mCurrentOutput.writeDouble(val);
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
-
+        mOutput.writeLong(Double.doubleToLongBits(val));
     }
 
     @Override
     public void writeString(String val) {
-        try {
-            if (val != null) {
-                byte[] bytes = val.getBytes(UTF_16);
-                mCurrentOutput.writeInt(bytes.length);
-                mCurrentOutput.write(bytes);
-            } else {
-                mCurrentOutput.writeInt(-1);
-            }
-        } catch (IOException e) {
-            throw new ParcelException(e);
+        if (val != null) {
+            mOutput.writeUtf16(val);
+        } else {
+            mOutput.writeInt(-1);
         }
     }
 
     @Override
     public void writeBoolean(boolean val) {
-        try {
-            mCurrentOutput.writeBoolean(val);
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
+        mOutput.writeByte(val ? 1 : 0);
     }
 
     @Override
@@ -407,20 +372,16 @@ class VersionedParcelStream extends VersionedParcel {
 
     @Override
     public void writeBundle(Bundle val) {
-        try {
-            if (val != null) {
-                Set<String> keys = val.keySet();
-                mCurrentOutput.writeInt(keys.size());
-                for (String key : keys) {
-                    writeString(key);
-                    Object o = val.get(key);
-                    writeObject(o);
-                }
-            } else {
-                mCurrentOutput.writeInt(-1);
+        if (val != null) {
+            Set<String> keys = val.keySet();
+            mOutput.writeInt(keys.size());
+            for (String key : keys) {
+                writeString(key);
+                Object o = val.get(key);
+                writeObject(o);
             }
-        } catch (IOException e) {
-            throw new ParcelException(e);
+        } else {
+            mOutput.writeInt(-1);
         }
     }
 
@@ -537,30 +498,173 @@ class VersionedParcelStream extends VersionedParcel {
         }
     }
 
-    // This uses extra buffers at the moment, but makes the code really clean.
-    // TODO: Use less buffers
-    private static class FieldBuffer {
+    /**
+     * A growable buffer which the fields of a parcel and of its sub parcels are written to. The
+     * header of a field is reserved when the field is opened and filled in when it's closed, once
+     * its size is known, so nested fields don't need buffers of their own. The content is written
+     * to the stream once no field is open, and the buffer is pooled in between.
+     */
+    private static final class FieldOutput {
+        private static final int INITIAL_SIZE = 1024;
+        private static final int MAX_POOLED_SIZE = 128 * 1024;
+
+        private static final Object sPoolLock = new Object();
+        // Guarded by sPoolLock.
+        private static byte[] sPooledBuffer;
 
-        final ByteArrayOutputStream mOutput = new ByteArrayOutputStream();
-        final DataOutputStream mDataStream = new DataOutputStream(mOutput);
-        private final int mFieldId;
-        private final DataOutputStream mTarget;
+        private final OutputStream mTarget;
+        private byte[] mBuffer;
+        private int mSize;
+        private int mOpenFields;
 
-        FieldBuffer(int fieldId, DataOutputStream target) {
-            mFieldId = fieldId;
+        FieldOutput(OutputStream target) {
             mTarget = target;
         }
 
-        void flushField() throws IOException {
-            mDataStream.flush();
-            int size = mOutput.size();
-            int fieldInfo = (mFieldId << 16) | (size >= 0xffff ? 0xffff : size);
-            mTarget.writeInt(fieldInfo);
-            if (size >= 0xffff) {
-                mTarget.writeInt(size);
+        /**
+         * Reserves the header of a field.
+         *
+         * @return The position of the header, to pass to {@link #endField(int, int)}.
+         */
+        int beginField() {
+            int start = mSize;
+            writeInt(0);
+            mOpenFields++;
+            return start;
+        }
+
+        void endField(int fieldId, int start) {
+            mOpenFields--;
+            int size = mSize - start - 4;
+            if (size == 0) {
+                // Empty fields aren't written.
+                mSize = start;
+            } else if (size >= 0xffff) {
+                // The size of large fields follows the header, move the content to make room.
+                ensureCapacity(4);
+                System.arraycopy(mBuffer, start + 4, mBuffer, start + 8, size);
+                mSize += 4;
+                putInt(start, (fieldId << 16) | 0xffff);
+                putInt(start + 4, size);
+            } else {
+                putInt(start, (fieldId << 16) | size);
             }
-            mOutput.writeTo(mTarget);
         }
-    }
 
+        /**
+         * Writes the content to the stream if no field is open.
+         */
+        void flushIfComplete() throws IOException {
+            if (mOpenFields != 0 || mBuffer == null) {
+                return;
+            }
+            try {
+                mTarget.write(mBuffer, 0, mSize);
+            } finally {
+                mSize = 0;
+                releaseBuffer();
+            }
+        }
+
+        void writeByte(int val) {
+            ensureCapacity(1);
+            mBuffer[mSize++] = (byte) val;
+        }
+
+        void writeInt(int val) {
+            ensureCapacity(4);
+            putInt(mSize, val);
+            mSize += 4;
+        }
+
+        void writeLong(long val) {
+            ensureCapacity(8);
+            putInt(mSize, (int) (val >>> 32));
+            putInt(mSize + 4, (int) val);
+            mSize += 8;
+        }
+
+        void write(byte[] b, int offset, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, offset, mBuffer, mSize, len);
+            mSize += len;
+        }
+
+        /**
+         * Writes the length and the bytes of the string encoded as {@code String.getBytes(UTF_16)}
+         * does, with a big-endian byte order mark, without encoding it to a temporary array.
+         */
+        void writeUtf16(String val) {
+            int length = val.length();
+            if (length == 0) {
+                writeInt(0);
+                return;
+            }
+            int size = 2 + length * 2;
+            writeInt(size);
+            ensureCapacity(size);
+            byte[] buffer = mBuffer;
+            int position = mSize;
+            buffer[position++] = (byte) 0xfe;
+            buffer[position++] = (byte) 0xff;
+            for (int i = 0; i < length; i++) {
+                char c = val.charAt(i);
+                if (Character.isHighSurrogate(c)) {
+                    if (i + 1 < length && Character.isLowSurrogate(val.charAt(i + 1))) {
+                        buffer[position++] = (byte) (c >> 8);
+                        buffer[position++] = (byte) c;
+                        c = val.charAt(++i);
+                    } else {
+                        c = '\ufffd';
+                    }
+                } else if (Character.isLowSurrogate(c)) {
+                    // Unpaired surrogates are replaced, as the charset encoder does.
+                    c = '\ufffd';
+                }
+                buffer[position++] = (byte) (c >> 8);
+                buffer[position++] = (byte) c;
+            }
+            mSize = position;
+        }
+
+        private void putInt(int position, int val) {
+            byte[] buffer = mBuffer;
+            buffer[position] = (byte) (val >>> 24);
+            buffer[position + 1] = (byte) (val >>> 16);
+            buffer[position + 2] = (byte) (val >>> 8);
+            buffer[position + 3] = (byte) val;
+        }
+
+        private void ensureCapacity(int count) {
+            int required = mSize + count;
+            if (mBuffer == null) {
+                mBuffer = obtainBuffer(required);
+            } else if (required > mBuffer.length) {
+                mBuffer = Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, required));
+            }
+        }
+
+        private void releaseBuffer() {
+            byte[] buffer = mBuffer;
+            mBuffer = null;
+            if (buffer.length <= MAX_POOLED_SIZE) {
+                synchronized (sPoolLock) {
+                    if (sPooledBuffer == null || sPooledBuffer.length < buffer.length) {
+                        sPooledBuffer = buffer;
+                    }
+                }
+            }
+        }
+
+        private static byte[] obtainBuffer(int size) {
+            synchronized (sPoolLock) {
+                byte[] buffer = sPooledBuffer;
+                if (buffer != null && buffer.length >= size) {
+                    sPooledBuffer = null;
+                    return buffer;
+                }
+            }
+            return new byte[Math.max(INITIAL_SIZE, size)];
+        }
+    }
 }
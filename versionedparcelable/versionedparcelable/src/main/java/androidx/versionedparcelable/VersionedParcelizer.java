@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Reads and writes a type of {@link VersionedParcelable}.
+ * <p>
+ * The Parcelizers generated for {@link VersionedParcelize} classes register an implementation
+ * with {@link VersionedParcel#registerParcelizer} when they are loaded, so that
+ * {@link VersionedParcel} calls them directly instead of through reflection.
+ *
+ * @param <T> The type of {@link VersionedParcelable} read and written.
+ * @hide
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public interface VersionedParcelizer<T extends VersionedParcelable> {
+
+    /**
+     * Reads a new object from the parcel.
+     */
+    @NonNull
+    T read(@NonNull VersionedParcel parcel);
+
+    /**
+     * Writes the object to the parcel.
+     */
+    void write(@NonNull T obj, @NonNull VersionedParcel parcel);
+}
@@ -0,0 +1,776 @@
+/*
+ * A generated script of about 24KB, standing in for a bundle of a web application.
+ */
+'use strict';
+
+function component0(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-0',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component1(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-1',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component2(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-2',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component3(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-3',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component4(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-4',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component5(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-5',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component6(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-6',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component7(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-7',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component8(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-8',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component9(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-9',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component10(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-10',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component11(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-11',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component12(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-12',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component13(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-13',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component14(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-14',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component15(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-15',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component16(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-16',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component17(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-17',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component18(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-18',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component19(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-19',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component20(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-20',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component21(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-21',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component22(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-22',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component23(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-23',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component24(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-24',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component25(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-25',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component26(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-26',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component27(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-27',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component28(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-28',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component29(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-29',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component30(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-30',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component31(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-31',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component32(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-32',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component33(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-33',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component34(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-34',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component35(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-35',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component36(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-36',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component37(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-37',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component38(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-38',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component39(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-39',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component40(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-40',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component41(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-41',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component42(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-42',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component43(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-43',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component44(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-44',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component45(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-45',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component46(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-46',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component47(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-47',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component48(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-48',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component49(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-49',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component50(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-50',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component51(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-51',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component52(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-52',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component53(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-53',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component54(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-54',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component55(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-55',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component56(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-56',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component57(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-57',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component58(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-58',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component59(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-59',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component60(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-60',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component61(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-61',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component62(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-62',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component63(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-63',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component64(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-64',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component65(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-65',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component66(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-66',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component67(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-67',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component68(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-68',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component69(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-69',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component70(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 1, 0);
+  return {
+    tag: 'div',
+    className: 'component-70',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component71(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 2, 0);
+  return {
+    tag: 'div',
+    className: 'component-71',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component72(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 3, 0);
+  return {
+    tag: 'div',
+    className: 'component-72',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component73(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 4, 0);
+  return {
+    tag: 'div',
+    className: 'component-73',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component74(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 5, 0);
+  return {
+    tag: 'div',
+    className: 'component-74',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component75(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 6, 0);
+  return {
+    tag: 'div',
+    className: 'component-75',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+function component76(props) {
+  const items = props.items.filter((item) => item.visible);
+  const total = items.reduce((sum, item) => sum + item.value * 7, 0);
+  return {
+    tag: 'div',
+    className: 'component-76',
+    children: items.map((item) => ({tag: 'span', text: item.label + ': ' + total})),
+  };
+}
+
+window.components = [component0, component1, component2, component3, component4, component5, component6, component7, component8, component9, component10, component11, component12, component13, component14, component15, component16, component17, component18, component19, component20, component21, component22, component23, component24, component25, component26, component27, component28, component29, component30, component31, component32, component33, component34, component35, component36, component37, component38, component39, component40, component41, component42, component43, component44, component45, component46, component47, component48, component49, component50, component51, component52, component53, component54, component55, component56, component57, component58, component59, component60, component61, component62, component63, component64, component65, component66, component67, component68, component69, component70, component71, component72, component73, component74, component75, component76];
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.webkit;
+
+import android.content.Context;
+import android.net.Uri;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures answering requests with the {@link WebViewAssetLoader.PathHandler}s of
+ * {@link WebViewAssetLoader}, for an asset of about 24KB and a {@link #FILE_SIZE} bytes file, and
+ * requests for the last {@link #RANGE_SIZE} bytes of the file.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class WebViewAssetLoaderBenchmark {
+
+    private static final String ASSET_URL =
+            "https://appassets.androidplatform.net/assets/www/bundle.js";
+    private static final String FILE_URL =
+            "https://appassets.androidplatform.net/public/video.mp4";
+
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+    private static final int RANGE_SIZE = 64 * 1024;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private final byte[] mBuffer = new byte[8192];
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = new File(mContext.getFilesDir(), "public");
+        mDirectory.mkdirs();
+        byte[] contents = new byte[FILE_SIZE];
+        new Random(0).nextBytes(contents);
+        FileOutputStream os = new FileOutputStream(new File(mDirectory, "video.mp4"));
+        try {
+            os.write(contents);
+        } finally {
+            os.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        new File(mDirectory, "video.mp4").delete();
+        mDirectory.delete();
+    }
+
+    @Test
+    public void handleAsset() throws IOException {
+        WebViewAssetLoader assetLoader = createAssetLoader();
+        Uri url = Uri.parse(ASSET_URL);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            readFully(assetLoader.shouldInterceptRequest(url));
+        }
+    }
+
+    // Every request is answered by a new handler, as every request was before assets were
+    // cached.
+    @Test
+    public void handleAssetWithoutCache() throws IOException {
+        Uri url = Uri.parse(ASSET_URL);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            WebViewAssetLoader assetLoader = createAssetLoader();
+            state.resumeTiming();
+            readFully(assetLoader.shouldInterceptRequest(url));
+        }
+    }
+
+    @Test
+    public void handleFile() throws IOException {
+        WebViewAssetLoader assetLoader = createAssetLoader();
+        Uri url = Uri.parse(FILE_URL);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            readFully(assetLoader.shouldInterceptRequest(url));
+        }
+    }
+
+    @Test
+    @SdkSuppress(minSdkVersion = 21) // for WebResourceRequest
+    public void handleFileRange() throws IOException {
+        WebViewAssetLoader assetLoader = createAssetLoader();
+        WebResourceRequest request = createRangeRequest(Uri.parse(FILE_URL),
+                "bytes=-" + RANGE_SIZE);
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            readFully(assetLoader.shouldInterceptRequest(request));
+        }
+    }
+
+    private WebViewAssetLoader createAssetLoader() {
+        return new WebViewAssetLoader.Builder()
+                .addPathHandler("/assets/", new WebViewAssetLoader.AssetsPathHandler(mContext))
+                .addPathHandler("/public/",
+                        new WebViewAssetLoader.InternalStoragePathHandler(mContext, mDirectory))
+                .build();
+    }
+
+    private void readFully(WebResourceResponse response) throws IOException {
+        InputStream data = response.getData();
+        try {
+            while (data.read(mBuffer) != -1) {
+                // Discard the contents, as WebView would once they're sent to the renderer.
+            }
+        } finally {
+            data.close();
+        }
+    }
+
+    private static WebResourceRequest createRangeRequest(final Uri url, final String range) {
+        return new WebResourceRequest() {
+            @Override
+            public Uri getUrl() {
+                return url;
+            }
+
+            @Override
+            public boolean isForMainFrame() {
+                return false;
+            }
+
+            @Override
+            public boolean isRedirect() {
+                return false;
+            }
+
+            @Override
+            public boolean hasGesture() {
+                return false;
+            }
+
+            @Override
+            public String getMethod() {
+                return "GET";
+            }
+
+            @Override
+            public Map<String, String> getRequestHeaders() {
+                return Collections.singletonMap("Range", range);
+            }
+        };
+    }
+}
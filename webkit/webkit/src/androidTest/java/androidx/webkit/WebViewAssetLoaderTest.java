@@ -18,7 +18,9 @@ package androidx.webkit;
 
 import android.content.Context;
 import android.content.ContextWrapper;
+import android.content.res.Configuration;
 import android.net.Uri;
+import android.webkit.WebResourceRequest;
 import android.webkit.WebResourceResponse;
 
 import static androidx.webkit.WebViewAssetLoader.AssetsPathHandler;
@@ -30,6 +32,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
 import androidx.test.filters.SmallTest;
 import androidx.webkit.internal.AssetHelper;
 
@@ -40,9 +43,13 @@ import org.junit.runner.RunWith;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RunWith(AndroidJUnit4.class)
 public class WebViewAssetLoaderTest {
@@ -68,12 +75,17 @@ public class WebViewAssetLoaderTest {
 
         @Override
         public InputStream openAsset(String path) {
-            return null;
+            return new ByteArrayInputStream(new byte[0]);
         }
 
         @Override
         public InputStream openResource(String path) {
-            return null;
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public String getApkEntityTag() {
+            return "\"test\"";
         }
     }
 
@@ -437,6 +449,214 @@ public class WebViewAssetLoaderTest {
                 "image/png", response.getMimeType());
     }
 
+    @Test
+    @SmallTest
+    public void testAssetsAreCached() throws Throwable {
+        final int[] openCount = new int[1];
+        PathHandler assetsPathHandler = new AssetsPathHandler(new MockAssetHelper() {
+            @Override
+            public InputStream openAsset(String path) {
+                openCount[0]++;
+                try {
+                    return new ByteArrayInputStream(CONTENTS.getBytes(ENCODING));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+                .addPathHandler("/assets/", assetsPathHandler)
+                .build();
+
+        Uri url = Uri.parse("https://appassets.androidplatform.net/assets/www/test.txt");
+        assertResponse(assetLoader.shouldInterceptRequest(url), CONTENTS);
+        assertResponse(assetLoader.shouldInterceptRequest(url), CONTENTS);
+        Assert.assertEquals("the asset should only be opened once", 1, openCount[0]);
+    }
+
+    @Test
+    @SmallTest
+    @SdkSuppress(minSdkVersion = 21) // for response headers
+    public void testResourcesAreCachedPerConfiguration() throws Throwable {
+        final Configuration configuration = new Configuration();
+        configuration.uiMode = Configuration.UI_MODE_NIGHT_NO;
+        final int[] openCount = new int[1];
+        PathHandler resourcesPathHandler = new ResourcesPathHandler(new MockAssetHelper() {
+            @Override
+            public InputStream openResource(String path) {
+                openCount[0]++;
+                // The variant of the resource, as raw/ and raw-night/ would be.
+                String contents = configuration.uiMode == Configuration.UI_MODE_NIGHT_YES
+                        ? "night" : "day";
+                try {
+                    return new ByteArrayInputStream(contents.getBytes(ENCODING));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public Configuration getConfiguration() {
+                return configuration;
+            }
+        });
+        WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+                .addPathHandler("/res/", resourcesPathHandler)
+                .build();
+
+        Uri url = Uri.parse("https://appassets.androidplatform.net/res/raw/test.txt");
+        WebResourceResponse dayResponse = assetLoader.shouldInterceptRequest(url);
+        assertResponse(dayResponse, "day");
+        assertResponse(assetLoader.shouldInterceptRequest(url), "day");
+        Assert.assertEquals("the resource should only be opened once", 1, openCount[0]);
+
+        // The configuration of the resources is updated in place.
+        configuration.uiMode = Configuration.UI_MODE_NIGHT_YES;
+        WebResourceResponse nightResponse = assetLoader.shouldInterceptRequest(url);
+        assertResponse(nightResponse, "night");
+        Assert.assertEquals("the resource should be opened again", 2, openCount[0]);
+        Assert.assertNotEquals("the variants should have different entity tags",
+                dayResponse.getResponseHeaders().get("ETag"),
+                nightResponse.getResponseHeaders().get("ETag"));
+    }
+
+    @Test
+    @SmallTest
+    @SdkSuppress(minSdkVersion = 21) // for response headers
+    public void testResponseHeaders() throws Throwable {
+        WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+                .addPathHandler("/assets/", new AssetsPathHandler(new TextAssetHelper()))
+                .build();
+
+        WebResourceResponse response = assetLoader.shouldInterceptRequest(
+                Uri.parse("https://appassets.androidplatform.net/assets/test.txt"));
+        Assert.assertEquals(200, response.getStatusCode());
+        Map<String, String> headers = response.getResponseHeaders();
+        Assert.assertEquals(String.valueOf(CONTENTS.length()), headers.get("Content-Length"));
+        Assert.assertEquals("bytes", headers.get("Accept-Ranges"));
+        Assert.assertEquals("\"test\"", headers.get("ETag"));
+        Assert.assertEquals("no-cache", headers.get("Cache-Control"));
+    }
+
+    @Test
+    @SmallTest
+    @SdkSuppress(minSdkVersion = 21) // to instantiate WebResourceRequest
+    public void testRangeRequests() throws Throwable {
+        WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+                .addPathHandler("/assets/", new AssetsPathHandler(new TextAssetHelper()))
+                .build();
+        int length = CONTENTS.length();
+
+        WebResourceResponse response = assetLoader.shouldInterceptRequest(
+                createRequest("bytes=5-11"));
+        Assert.assertEquals(206, response.getStatusCode());
+        Assert.assertEquals("bytes 5-11/" + length,
+                response.getResponseHeaders().get("Content-Range"));
+        Assert.assertEquals("7", response.getResponseHeaders().get("Content-Length"));
+        assertResponse(response, CONTENTS.substring(5, 12));
+
+        response = assetLoader.shouldInterceptRequest(createRequest("bytes=10-"));
+        Assert.assertEquals(206, response.getStatusCode());
+        assertResponse(response, CONTENTS.substring(10));
+
+        response = assetLoader.shouldInterceptRequest(createRequest("bytes=-7"));
+        Assert.assertEquals(206, response.getStatusCode());
+        assertResponse(response, CONTENTS.substring(length - 7));
+
+        response = assetLoader.shouldInterceptRequest(createRequest("bytes=0-1000"));
+        Assert.assertEquals(206, response.getStatusCode());
+        assertResponse(response, CONTENTS);
+
+        response = assetLoader.shouldInterceptRequest(createRequest("bytes=" + length + "-"));
+        Assert.assertEquals(416, response.getStatusCode());
+        Assert.assertEquals("bytes */" + length,
+                response.getResponseHeaders().get("Content-Range"));
+
+        response = assetLoader.shouldInterceptRequest(createRequest("bytes=0-1,4-5"));
+        Assert.assertEquals("several ranges should be answered with the whole content",
+                200, response.getStatusCode());
+        assertResponse(response, CONTENTS);
+
+        response = assetLoader.shouldInterceptRequest(createRequest(null));
+        Assert.assertEquals(200, response.getStatusCode());
+        assertResponse(response, CONTENTS);
+    }
+
+    @Test
+    @SmallTest
+    public void testHostInternalStorageGzipFile() throws Throwable {
+        Context context = ApplicationProvider.getApplicationContext();
+        File testDir = new File(context.getFilesDir(), "public");
+        testDir.mkdirs();
+        File gzipFile = new File(testDir, "test.txt.gz");
+        try {
+            GZIPOutputStream os = new GZIPOutputStream(new FileOutputStream(gzipFile));
+            os.write(CONTENTS.getBytes(ENCODING));
+            os.close();
+
+            WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+                    .addPathHandler("/public/",
+                            new InternalStoragePathHandler(context, testDir))
+                    .build();
+            WebResourceResponse response = assetLoader.shouldInterceptRequest(
+                    Uri.parse("https://appassets.androidplatform.net/public/test.txt"));
+            Assert.assertEquals("text/plain", response.getMimeType());
+            assertResponse(response, CONTENTS);
+        } finally {
+            WebkitUtils.recursivelyDeleteFile(testDir);
+        }
+    }
+
+    private static class TextAssetHelper extends MockAssetHelper {
+        @Override
+        public InputStream openAsset(String path) {
+            try {
+                return new ByteArrayInputStream(CONTENTS.getBytes(ENCODING));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @NonNull
+    private static WebResourceRequest createRequest(@Nullable final String range) {
+        return new WebResourceRequest() {
+            @Override
+            public Uri getUrl() {
+                return Uri.parse("https://appassets.androidplatform.net/assets/test.txt");
+            }
+
+            @Override
+            public boolean isForMainFrame() {
+                return false;
+            }
+
+            @Override
+            public boolean isRedirect() {
+                return false;
+            }
+
+            @Override
+            public boolean hasGesture() {
+                return false;
+            }
+
+            @Override
+            public String getMethod() {
+                return "GET";
+            }
+
+            @Override
+            public Map<String, String> getRequestHeaders() {
+                Map<String, String> headers = new HashMap<>();
+                if (range != null) {
+                    headers.put("range", range);
+                }
+                return headers;
+            }
+        };
+    }
+
     private static void assertResponse(@Nullable WebResourceResponse response,
               @NonNull String expectedContent) throws IOException {
         Assert.assertNotNull("failed to match the URL and returned null response", response);
@@ -220,6 +220,28 @@ public class AssetHelperTest {
         }
     }
 
+    // precompressed/star.svg.gz is star.svg compressed with gzip. AssetHelper should open and
+    // decompress it when precompressed/star.svg is requested, as there is no such asset.
+    @Test
+    @SmallTest
+    public void testPrecompressedAsset() throws IOException {
+        InputStream svgStream = null;
+        InputStream precompressedStream = null;
+        try {
+            svgStream = assertOpen("star.svg");
+            byte[] expectedData = readFully(svgStream);
+
+            precompressedStream = assertOpen("precompressed/star.svg");
+            byte[] actualData = readFully(precompressedStream);
+
+            Assert.assertArrayEquals(
+                    "Decompressed star.svg.gz doesn't match star.svg", expectedData, actualData);
+        } finally {
+            if (svgStream != null) svgStream.close();
+            if (precompressedStream != null) precompressedStream.close();
+        }
+    }
+
     private InputStream assertOpen(String path) throws IOException {
         InputStream stream = mAssetHelper.openAsset(path);
         Assert.assertNotNull("Failed to open \"" + path + "\"", stream);
@@ -17,18 +17,24 @@
 package androidx.webkit;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.net.Uri;
 import android.util.Log;
+import android.webkit.WebResourceRequest;
 import android.webkit.WebResourceResponse;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
+import androidx.webkit.internal.AssetCache;
 import androidx.webkit.internal.AssetHelper;
+import androidx.webkit.internal.AssetResponseHelper;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -67,7 +73,7 @@ import java.util.List;
  *     {@literal @}RequiresApi(21)
  *     public WebResourceResponse shouldInterceptRequest(WebView view,
  *                                      WebResourceRequest request) {
- *         return assetLoader.shouldInterceptRequest(request.getUrl());
+ *         return assetLoader.shouldInterceptRequest(request);
  *     }
  *
  *     {@literal @}Override
@@ -105,6 +111,16 @@ public final class WebViewAssetLoader {
      */
     public static final String DEFAULT_DOMAIN = "appassets.androidplatform.net";
 
+    /**
+     * The maximum total size of the assets or resources cached in memory by a handler.
+     */
+    private static final int MAX_CACHE_SIZE = 1024 * 1024;
+
+    /**
+     * The maximum size of a single asset or resource cached in memory.
+     */
+    private static final int MAX_CACHED_ASSET_SIZE = 128 * 1024;
+
     private final List<PathMatcher> mMatchers;
 
     /**
@@ -151,6 +167,7 @@ public final class WebViewAssetLoader {
      */
     public static final class AssetsPathHandler implements PathHandler {
         private AssetHelper mAssetHelper;
+        private final AssetCache mCache = new AssetCache(MAX_CACHE_SIZE, MAX_CACHED_ASSET_SIZE);
 
         /**
          * @param context {@link Context} used to resolve assets.
@@ -178,6 +195,11 @@ public final class WebViewAssetLoader {
          * {@link java.net.URLConnection#guessContentTypeFromName}. Developers should ensure that
          * asset files are named using standard file extensions. If the file does not have a
          * recognised extension, {@code "text/plain"} will be used by default.
+         * <p>
+         * If the requested file doesn't exist but a gzip compressed copy of it with a
+         * {@code ".gz"} suffix does, such as one compressed when building the application, the
+         * compressed copy is decompressed and returned instead. The contents of small files are
+         * kept in memory, so that files requested again aren't read from the APK every time.
          *
          * @param path the suffix path to be handled.
          * @return {@link WebResourceResponse} for the requested file.
@@ -187,9 +209,13 @@ public final class WebViewAssetLoader {
         @Nullable
         public WebResourceResponse handle(@NonNull String path) {
             try {
-                InputStream is = mAssetHelper.openAsset(path);
+                InputStream is = mCache.get(path);
+                if (is == null) {
+                    is = mCache.readThrough(path, mAssetHelper.openAsset(path));
+                }
                 String mimeType = AssetHelper.guessMimeType(path);
-                return new WebResourceResponse(mimeType, null, is);
+                return AssetResponseHelper.createResponse(mimeType, is,
+                        AssetHelper.getRemainingLength(is), mAssetHelper.getApkEntityTag());
             } catch (IOException e) {
                 Log.e(TAG, "Error opening asset path: " + path, e);
                 return new WebResourceResponse(null, null, null);
@@ -202,6 +228,13 @@ public final class WebViewAssetLoader {
      */
     public static final class ResourcesPathHandler implements PathHandler {
         private AssetHelper mAssetHelper;
+        /**
+         * The cache of the resources of the configuration they were resolved for. Resources can
+         * resolve to other variants after a configuration change, such as a locale or night
+         * mode change, so the cache is replaced when the configuration changes.
+         */
+        @Nullable
+        private volatile ConfigurationCache mCache;
 
         /**
          * @param context {@link Context} used to resolve resources.
@@ -229,6 +262,10 @@ public final class WebViewAssetLoader {
          * {@link java.net.URLConnection#guessContentTypeFromName}. Developers should ensure that
          * resource files are named using standard file extensions. If the file does not have a
          * recognised extension, {@code "text/plain"} will be used by default.
+         * <p>
+         * The contents of small files are kept in memory, so that files requested again aren't
+         * read from the APK every time. They are read again after a configuration change, which
+         * may select other variants of the resources.
          *
          * @param path the suffix path to be handled.
          * @return {@link WebResourceResponse} for the requested file.
@@ -238,9 +275,15 @@ public final class WebViewAssetLoader {
         @Nullable
         public WebResourceResponse handle(@NonNull String path) {
             try {
-                InputStream is = mAssetHelper.openResource(path);
+                ConfigurationCache cache = getCache(mAssetHelper.getConfiguration());
+                InputStream is = cache.mAssetCache.get(path);
+                if (is == null) {
+                    is = cache.mAssetCache.readThrough(path, mAssetHelper.openResource(path));
+                }
                 String mimeType = AssetHelper.guessMimeType(path);
-                return new WebResourceResponse(mimeType, null, is);
+                return AssetResponseHelper.createResponse(mimeType, is,
+                        AssetHelper.getRemainingLength(is),
+                        mAssetHelper.getResourcesEntityTag(cache.mConfiguration));
             } catch (Resources.NotFoundException e) {
                 Log.e(TAG, "Resource not found from the path: " + path, e);
             } catch (IOException e) {
@@ -248,6 +291,27 @@ public final class WebViewAssetLoader {
             }
             return new WebResourceResponse(null, null, null);
         }
+
+        @NonNull
+        private ConfigurationCache getCache(@NonNull Configuration configuration) {
+            ConfigurationCache cache = mCache;
+            if (cache == null || !cache.mConfiguration.equals(configuration)) {
+                // Concurrent requests may each replace the cache, which only costs a few reads.
+                cache = new ConfigurationCache(configuration);
+                mCache = cache;
+            }
+            return cache;
+        }
+
+        private static final class ConfigurationCache {
+            final Configuration mConfiguration;
+            final AssetCache mAssetCache = new AssetCache(MAX_CACHE_SIZE, MAX_CACHED_ASSET_SIZE);
+
+            ConfigurationCache(@NonNull Configuration configuration) {
+                // The configuration of the resources is updated in place when it changes.
+                mConfiguration = new Configuration(configuration);
+            }
+        }
     }
 
     /**
@@ -354,6 +418,9 @@ public final class WebViewAssetLoader {
          * {@link java.net.URLConnection#guessContentTypeFromName}. Developers should ensure that
          * files are named using standard file extensions. If the file does not have a
          * recognised extension, {@code "text/plain"} will be used by default.
+         * <p>
+         * If the requested file doesn't exist but a gzip compressed copy of it with a
+         * {@code ".gz"} suffix does, the compressed copy is decompressed and returned instead.
          *
          * @param path the suffix path to be handled.
          * @return {@link WebResourceResponse} for the requested file.
@@ -367,7 +434,11 @@ public final class WebViewAssetLoader {
                 if (file != null) {
                     InputStream is = AssetHelper.openFile(file);
                     String mimeType = AssetHelper.guessMimeType(path);
-                    return new WebResourceResponse(mimeType, null, is);
+                    if (is instanceof FileInputStream) {
+                        return AssetResponseHelper.createResponse(mimeType, is, file.length(),
+                                AssetHelper.getEntityTag(file));
+                    }
+                    return AssetResponseHelper.createResponse(mimeType, is, -1, null);
                 } else {
                     Log.e(TAG, String.format(
                             "The requested file: %s is outside the mounted directory: %s", path,
@@ -571,4 +642,32 @@ public final class WebViewAssetLoader {
         }
         return null;
     }
+
+    /**
+     * Attempt to resolve the {@code request} to an application resource or asset, and return
+     * a {@link WebResourceResponse} for the content.
+     * <p>
+     * Unlike {@link #shouldInterceptRequest(Uri)}, this answers requests for a range of bytes,
+     * such as the requests of media elements, with the requested part of the content when the
+     * length of the content is known. The content before the range is skipped without being
+     * read when possible.
+     * <p>
+     * This method should be invoked from within
+     * {@link android.webkit.WebViewClient#shouldInterceptRequest(android.webkit.WebView,
+     * WebResourceRequest)}.
+     *
+     * @param request the request to process.
+     * @return {@link WebResourceResponse} if the request URL matches a registered URL,
+     *         {@code null} otherwise.
+     */
+    @RequiresApi(21)
+    @WorkerThread
+    @Nullable
+    public WebResourceResponse shouldInterceptRequest(@NonNull WebResourceRequest request) {
+        WebResourceResponse response = shouldInterceptRequest(request.getUrl());
+        if (response == null) {
+            return null;
+        }
+        return AssetResponseHelper.handleRangeRequest(response, request.getRequestHeaders());
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.webkit.internal;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+/**
+ * A cache of the contents of small assets and resources for
+ * {@link androidx.webkit.WebViewAssetLoader}, so that assets requested again aren't read and
+ * decompressed from the APK every time.
+ * <p>
+ * Assets don't change while the application runs, so cached contents never need to be
+ * invalidated. Resources resolve to other variants when the configuration changes, so they
+ * must be cached per configuration. This class is thread-safe.
+ */
+public class AssetCache {
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final LruCache<String, byte[]> mCache;
+    private final int mMaxEntrySize;
+
+    /**
+     * @param maxSize The maximum total size of the cached contents, in bytes.
+     * @param maxEntrySize The maximum size of the contents of a single asset to cache, in bytes.
+     */
+    public AssetCache(int maxSize, int maxEntrySize) {
+        mCache = new LruCache<String, byte[]>(maxSize) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull byte[] value) {
+                return value.length;
+            }
+        };
+        mMaxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Returns a stream of the cached contents for the given path.
+     *
+     * @param path The path the contents were cached for.
+     * @return A stream of the contents, or {@code null} if they aren't cached.
+     */
+    @Nullable
+    public InputStream get(@NonNull String path) {
+        byte[] contents = mCache.get(path);
+        return contents == null ? null : new ByteArrayInputStream(contents);
+    }
+
+    /**
+     * Reads the given stream into the cache if it's small enough to be cached.
+     * <p>
+     * The stream is read up to the maximum entry size. If it ends before that, it's closed and
+     * a stream of the cached contents is returned. Otherwise a stream of the bytes read so far
+     * followed by the rest of the given stream is returned.
+     *
+     * @param path The path to cache the contents for.
+     * @param stream The stream of the contents.
+     * @return A stream of the same contents as the given one.
+     */
+    @NonNull
+    public InputStream readThrough(@NonNull String path, @NonNull InputStream stream)
+            throws IOException {
+        long length = AssetHelper.getRemainingLength(stream);
+        if (length > mMaxEntrySize) {
+            return stream;
+        }
+        byte[] buffer = new byte[length >= 0
+                ? (int) length : Math.min(INITIAL_BUFFER_SIZE, mMaxEntrySize)];
+        int size = 0;
+        try {
+            while (true) {
+                if (size == buffer.length) {
+                    int next = stream.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    if (size == mMaxEntrySize) {
+                        // Too large to be cached.
+                        byte[] head = Arrays.copyOf(buffer, size + 1);
+                        head[size] = (byte) next;
+                        return new SequenceInputStream(new ByteArrayInputStream(head), stream);
+                    }
+                    buffer = Arrays.copyOf(buffer,
+                            Math.min(Math.max(size * 2, INITIAL_BUFFER_SIZE), mMaxEntrySize));
+                    buffer[size++] = (byte) next;
+                    continue;
+                }
+                int read = stream.read(buffer, size, buffer.length - size);
+                if (read == -1) {
+                    break;
+                }
+                size += read;
+            }
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+        stream.close();
+        byte[] contents = size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        mCache.put(path, contents);
+        return new ByteArrayInputStream(contents);
+    }
+}
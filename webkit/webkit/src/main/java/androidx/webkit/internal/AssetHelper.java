@@ -17,7 +17,10 @@
 package androidx.webkit.internal;
 
 import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
 import android.content.res.AssetManager;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.os.Build;
 import android.util.TypedValue;
@@ -25,6 +28,7 @@ import android.util.TypedValue;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -46,8 +50,16 @@ public class AssetHelper {
      */
     public static final String DEFAULT_MIME_TYPE = "text/plain";
 
+    /**
+     * Suffix of the gzip compressed copies of assets and files, which are served decompressed
+     * when the requested path itself doesn't exist.
+     */
+    private static final String GZIP_SUFFIX = ".gz";
+
     @NonNull private Context mContext;
 
+    @Nullable private volatile String mApkEntityTag;
+
     public AssetHelper(@NonNull Context context) {
         this.mContext = context;
     }
@@ -121,11 +133,23 @@ public class AssetHelper {
     public InputStream openAsset(@NonNull String path) throws IOException {
         path = removeLeadingSlash(path);
         AssetManager assets = mContext.getAssets();
-        return handleSvgzStream(path, assets.open(path, AssetManager.ACCESS_STREAMING));
+        try {
+            return handleSvgzStream(path, assets.open(path, AssetManager.ACCESS_STREAMING));
+        } catch (FileNotFoundException e) {
+            try {
+                return new GZIPInputStream(
+                        assets.open(path + GZIP_SUFFIX, AssetManager.ACCESS_STREAMING));
+            } catch (FileNotFoundException gzipException) {
+                throw e;
+            }
+        }
     }
 
     /**
      * Open an {@code InputStream} for a file in application data directories.
+     * <p>
+     * If the file doesn't exist but a gzip compressed copy of it with a {@code ".gz"} suffix
+     * does, the compressed copy is opened and decompressed instead.
      *
      * @param file The file to be opened.
      * @return An {@code InputStream} for the requested file.
@@ -133,10 +157,99 @@ public class AssetHelper {
     @NonNull
     public static InputStream openFile(@NonNull File file) throws FileNotFoundException,
             IOException {
+        if (!file.exists()) {
+            File gzipFile = new File(file.getPath() + GZIP_SUFFIX);
+            if (gzipFile.isFile()) {
+                return new GZIPInputStream(new FileInputStream(gzipFile));
+            }
+        }
         FileInputStream fis = new FileInputStream(file);
         return handleSvgzStream(file.getPath(), fis);
     }
 
+    /**
+     * Returns the number of bytes left in a stream opened by this class, if it's known without
+     * reading the stream.
+     * <p>
+     * The available bytes of asset and resource streams are the remaining length of the asset,
+     * whether it's compressed in the APK or not.
+     *
+     * @param stream A stream returned by {@link #openAsset} or {@link #openResource}, or a
+     *               stream of cached bytes.
+     * @return The number of bytes left in the stream, or {@code -1} if it's unknown.
+     */
+    public static long getRemainingLength(@NonNull InputStream stream) throws IOException {
+        if (stream instanceof AssetManager.AssetInputStream
+                || stream instanceof ByteArrayInputStream) {
+            return stream.available();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an HTTP entity tag for the assets and resources of the application, which only
+     * change when the application is updated.
+     *
+     * @return The quoted entity tag, or {@code null} if the package can't be found.
+     */
+    @Nullable
+    public String getApkEntityTag() {
+        String entityTag = mApkEntityTag;
+        if (entityTag == null) {
+            try {
+                PackageInfo info = mContext.getPackageManager()
+                        .getPackageInfo(mContext.getPackageName(), 0);
+                entityTag = "\"" + Long.toHexString(info.lastUpdateTime) + "\"";
+            } catch (PackageManager.NameNotFoundException e) {
+                return null;
+            }
+            mApkEntityTag = entityTag;
+        }
+        return entityTag;
+    }
+
+    /**
+     * Returns the configuration that resources are currently resolved for by
+     * {@link #openResource}.
+     */
+    @NonNull
+    public Configuration getConfiguration() {
+        return mContext.getResources().getConfiguration();
+    }
+
+    /**
+     * Returns an HTTP entity tag for the resources resolved for a configuration, so that the
+     * variants of a resource for different configurations have different tags.
+     *
+     * @param configuration The configuration the resources are resolved for.
+     * @return The quoted entity tag, or {@code null} if the package can't be found.
+     */
+    @Nullable
+    public String getResourcesEntityTag(@NonNull Configuration configuration) {
+        String apkEntityTag = getApkEntityTag();
+        if (apkEntityTag == null) {
+            return null;
+        }
+        return apkEntityTag.substring(0, apkEntityTag.length() - 1) + "-"
+                + Integer.toHexString(configuration.hashCode()) + "\"";
+    }
+
+    /**
+     * Returns an HTTP entity tag for a file, which changes when the file is modified.
+     *
+     * @param file The file to tag.
+     * @return The quoted entity tag, or {@code null} if the file doesn't exist.
+     */
+    @Nullable
+    public static String getEntityTag(@NonNull File file) {
+        long lastModified = file.lastModified();
+        if (lastModified == 0) {
+            return null;
+        }
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(file.length())
+                + "\"";
+    }
+
     /**
      * Resolves the given relative child string path against the given parent directory.
      *
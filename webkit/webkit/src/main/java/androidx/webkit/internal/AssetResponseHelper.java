@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.webkit.internal;
+
+import android.os.Build;
+import android.util.Log;
+import android.webkit.WebResourceResponse;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utility methods creating the {@link WebResourceResponse}s of
+ * {@link androidx.webkit.WebViewAssetLoader}, and answering range requests with them.
+ * <p>
+ * WebView doesn't allow intercepted responses to have a redirection status code, so conditional
+ * requests can't be answered with {@code 304 Not Modified}. Entity tags are still sent, for the
+ * caches of service workers.
+ */
+public class AssetResponseHelper {
+    private static final String TAG = "AssetResponseHelper";
+
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_RANGE = "Range";
+
+    private static final String BYTES_UNIT = "bytes";
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_PARTIAL_CONTENT = 206;
+    private static final int STATUS_RANGE_NOT_SATISFIABLE = 416;
+
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    private AssetResponseHelper() {
+    }
+
+    /**
+     * Creates a successful response.
+     * <p>
+     * From Lollipop, the response has the headers describing the content, and
+     * {@code "Cache-Control: no-cache"} so that caches revalidate it with its entity tag.
+     *
+     * @param mimeType The MIME type of the content.
+     * @param data The content.
+     * @param length The length of the content, or {@code -1} if it's unknown.
+     * @param entityTag The quoted entity tag of the content, or {@code null} if there's none.
+     * @return The response.
+     */
+    @NonNull
+    public static WebResourceResponse createResponse(@NonNull String mimeType,
+            @NonNull InputStream data, long length, @Nullable String entityTag) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return new WebResourceResponse(mimeType, null, data);
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HEADER_CACHE_CONTROL, "no-cache");
+        if (length >= 0) {
+            headers.put(HEADER_ACCEPT_RANGES, BYTES_UNIT);
+            headers.put(HEADER_CONTENT_LENGTH, Long.toString(length));
+        }
+        if (entityTag != null) {
+            headers.put(HEADER_ETAG, entityTag);
+        }
+        return new WebResourceResponse(mimeType, null, STATUS_OK, "OK", headers, data);
+    }
+
+    /**
+     * Answers a request for a single range of bytes with a part of a successful response of
+     * known length.
+     * <p>
+     * The content before the range is skipped, which seeks in the file descriptors of files and
+     * uncompressed assets. Requests for several ranges are answered with the whole content.
+     *
+     * @param response The response to the request, as returned by a
+     *                 {@link androidx.webkit.WebViewAssetLoader.PathHandler}.
+     * @param requestHeaders The headers of the request.
+     * @return A partial response if the request is for a range of the content, a
+     *         {@code 416 Range Not Satisfiable} response if the range is outside of the content,
+     *         or the given response otherwise.
+     */
+    @RequiresApi(21)
+    @NonNull
+    public static WebResourceResponse handleRangeRequest(@NonNull WebResourceResponse response,
+            @Nullable Map<String, String> requestHeaders) {
+        String range = getHeader(requestHeaders, HEADER_RANGE);
+        InputStream data = response.getData();
+        if (range == null || data == null || response.getStatusCode() != STATUS_OK) {
+            return response;
+        }
+        String contentLength = getHeader(response.getResponseHeaders(), HEADER_CONTENT_LENGTH);
+        if (contentLength == null) {
+            return response;
+        }
+        long length;
+        try {
+            length = Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return response;
+        }
+        long[] bounds = parseRange(range, length);
+        if (bounds == null) {
+            return response;
+        }
+
+        Map<String, String> headers = new HashMap<>(response.getResponseHeaders());
+        if (bounds == UNSATISFIABLE_RANGE) {
+            closeQuietly(data);
+            headers.put(HEADER_CONTENT_RANGE, BYTES_UNIT + " */" + length);
+            headers.put(HEADER_CONTENT_LENGTH, "0");
+            return new WebResourceResponse(response.getMimeType(), response.getEncoding(),
+                    STATUS_RANGE_NOT_SATISFIABLE, "Range Not Satisfiable", headers,
+                    new ByteArrayInputStream(new byte[0]));
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+        try {
+            skipFully(data, start);
+        } catch (IOException e) {
+            Log.e(TAG, "Error skipping to the requested range: " + range, e);
+            closeQuietly(data);
+            return new WebResourceResponse(null, null, null);
+        }
+        headers.put(HEADER_CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + end + "/" + length);
+        headers.put(HEADER_CONTENT_LENGTH, Long.toString(end - start + 1));
+        return new WebResourceResponse(response.getMimeType(), response.getEncoding(),
+                STATUS_PARTIAL_CONTENT, "Partial Content", headers,
+                new BoundedInputStream(data, end - start + 1));
+    }
+
+    /**
+     * Parses the value of a {@code Range} header for a single range of bytes.
+     *
+     * @return The first and last byte of the range, {@link #UNSATISFIABLE_RANGE} if it's
+     *         outside of the content, or {@code null} if the header should be ignored.
+     */
+    @Nullable
+    static long[] parseRange(@NonNull String range, long length) {
+        range = range.trim();
+        if (!range.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        range = range.substring(BYTES_UNIT.length()).trim();
+        if (!range.startsWith("=") || range.indexOf(',') != -1) {
+            return null;
+        }
+        range = range.substring(1);
+        int dash = range.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+        String first = range.substring(0, dash).trim();
+        String last = range.substring(dash + 1).trim();
+        long start;
+        long end;
+        try {
+            if (first.isEmpty()) {
+                // A suffix range of the last bytes.
+                long suffixLength = parseBytePosition(last);
+                if (suffixLength == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                start = Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else {
+                start = parseBytePosition(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : parseBytePosition(last);
+                if (end < start) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (start >= length) {
+            return UNSATISFIABLE_RANGE;
+        }
+        return new long[] {start, end};
+    }
+
+    private static long parseBytePosition(@NonNull String position) {
+        for (int i = 0; i < position.length(); i++) {
+            char c = position.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid byte position: " + position);
+            }
+        }
+        return Long.parseLong(position);
+    }
+
+    // Header names are case-insensitive.
+    @Nullable
+    private static String getHeader(@Nullable Map<String, String> headers, @NonNull String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void skipFully(@NonNull InputStream stream, long count) throws IOException {
+        while (count > 0) {
+            long skipped = stream.skip(count);
+            if (skipped <= 0) {
+                // Some streams only skip what's buffered, read to make progress or find the end.
+                if (stream.read() == -1) {
+                    throw new IOException("The stream ended before the requested range");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static void closeQuietly(@NonNull InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // Ignored, the stream isn't read anymore.
+        }
+    }
+
+    /**
+     * A stream of the first bytes of another stream.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long mRemaining;
+
+        BoundedInputStream(@NonNull InputStream in, long count) {
+            super(in);
+            mRemaining = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (mRemaining <= 0) {
+                return -1;
+            }
+            int result = super.read();
+            if (result != -1) {
+                mRemaining--;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int count) throws IOException {
+            if (mRemaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(count, mRemaining));
+            if (read > 0) {
+                mRemaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(Math.min(count, mRemaining));
+            if (skipped > 0) {
+                mRemaining -= skipped;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), mRemaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}